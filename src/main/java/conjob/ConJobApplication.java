@@ -1,32 +1,53 @@
 package conjob;
 
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.spotify.docker.client.DefaultDockerClient;
 import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.exceptions.DockerCertificateException;
 import com.spotify.docker.client.exceptions.DockerException;
 import com.spotify.docker.client.messages.RegistryAuth;
+import conjob.config.DockerConfig;
 import conjob.config.JobConfig;
+import conjob.core.host.HostCapacity;
+import conjob.core.host.HostCapacityReader;
 import conjob.core.job.*;
 import conjob.core.job.config.ConfigUtil;
+import conjob.core.job.input.JobInputSpool;
+import conjob.core.job.model.WarmPoolSize;
+import conjob.core.job.output.JobOutputStoreCreator;
+import conjob.core.job.output.OutputBufferPool;
+import conjob.core.job.output.OutputMemoryBudget;
 import conjob.core.secrets.SecretsContainerCreator;
 import conjob.core.secrets.SecretsDockerAdapter;
 import conjob.core.secrets.SecretsStore;
+import conjob.core.secrets.SecretsVolumeIndex;
 import conjob.core.secrets.TempSecretsFileUtil;
 import conjob.healthcheck.VersionCheck;
 import conjob.init.*;
 import conjob.resource.GlobalErrorHandler;
 import conjob.resource.GlobalExceptionMapper;
 import conjob.resource.JobResource;
+import conjob.resource.PriorityClassForbiddenExceptionMapper;
 import conjob.resource.SecretsResource;
 import conjob.resource.admin.task.ConfigMapper;
 import conjob.resource.admin.task.ConfigTask;
+import conjob.resource.admin.task.ImageFreshnessTask;
 import conjob.resource.convert.JobResponseConverter;
 import conjob.resource.convert.ResponseCreator;
 import conjob.resource.filter.EveryRequestFilter;
 import conjob.resource.filter.EveryResponseFilter;
 import conjob.resource.filter.MDCAdapter;
+import conjob.service.job.AdaptiveConcurrencyLimit;
 import conjob.service.job.ConcurrentJobCountLimiter;
+import conjob.service.job.HostCapacityLimit;
+import conjob.service.job.JobResultCache;
+import conjob.service.job.JobRunSubmissionStore;
 import conjob.service.job.JobService;
+import conjob.service.job.KeyedRunJobLimit;
+import conjob.service.job.PriorityClassAccess;
+import conjob.service.job.RunJobLimitMeter;
 import conjob.service.job.RunJobLimiter;
 import conjob.service.job.RunJobRateLimit;
 import conjob.service.secrets.SecretsService;
@@ -34,12 +55,30 @@ import conjob.service.secrets.UniqueContainerNameGenerator;
 import io.dropwizard.Application;
 import io.dropwizard.configuration.EnvironmentVariableSubstitutor;
 import io.dropwizard.configuration.SubstitutingSourceProvider;
+import io.dropwizard.jetty.GzipHandlerFactory;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.server.AbstractServerFactory;
+import io.dropwizard.server.ServerFactory;
 import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
 import lombok.Getter;
 import org.glassfish.jersey.server.ServerProperties;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 public class ConJobApplication extends Application<ConJobConfiguration> {
+    private static final String DEFAULT_DAEMON_NAME = "default";
+
     @Getter
     private Environment environment;
 
@@ -69,19 +108,23 @@ public class ConJobApplication extends Application<ConJobConfiguration> {
         environment.jersey().register(new EveryResponseFilter(mdcAdapter));
         environment.jersey().register(new EveryRequestFilter(mdcAdapter));
 
-        DockerClient docker = createDockerClient(configuration);
+        DockerClient docker = createDockerClient(DefaultDockerClient.fromEnv(), configuration.getConjob().getDocker());
+        SecretsVolumeIndex secretsVolumeIndex = createSecretsVolumeIndex(docker);
 
         environment.jersey().register(
                 createJobResource(
                         docker,
-                        configuration.getConjob().getDocker().getContainerRuntime(),
-                        configuration.getConjob().getJob().getLimit()));
-        environment.jersey().register(createSecretsResource(docker));
+                        configuration.getConjob().getDocker(),
+                        configuration.getConjob().getJob(),
+                        secretsVolumeIndex,
+                        minimumFlushBytes(configuration.getServerFactory())));
+        environment.jersey().register(createSecretsResource(docker, secretsVolumeIndex));
 
         environment.admin().addTask(
                 new ConfigTask(new ConfigStore(configuration.getConjob()), new ConfigMapper()));
 
         environment.jersey().register(new GlobalExceptionMapper());
+        environment.jersey().register(new PriorityClassForbiddenExceptionMapper());
         environment.getApplicationContext().setErrorHandler(new GlobalErrorHandler());
 
         environment.healthChecks().register("version", new VersionCheck());
@@ -93,42 +136,400 @@ public class ConJobApplication extends Application<ConJobConfiguration> {
                 .configureBasicAuth(configuration.getConjob().getAuth(), environment.jersey());
     }
 
-    private DockerClient createDockerClient(ConJobConfiguration configuration) throws DockerCertificateException, DockerException, InterruptedException {
-        DefaultDockerClient.Builder dockerBuilder = DefaultDockerClient.fromEnv();
+    private DockerClient createDockerClient(DefaultDockerClient.Builder dockerBuilder, DockerConfig dockerConfig)
+            throws DockerException, InterruptedException {
         RegistryAuth.Builder authBuilder = RegistryAuth.builder();
         return new DockerClientCreator(
                 dockerBuilder,
                 new AuthedDockerClientCreator(dockerBuilder, authBuilder))
-                .createDockerClient(
-                        configuration.getConjob().getDocker().getUsername(),
-                        configuration.getConjob().getDocker().getPassword());
+                .createDockerClient(dockerConfig.getUsername(), dockerConfig.getPassword());
     }
 
     private JobResource createJobResource(DockerClient docker,
-                                          DockerAdapter.Runtime containerRuntime,
-                                          JobConfig.LimitConfig limitConfig) {
-        DockerAdapter dockerAdapter = new DockerAdapter(docker, containerRuntime);
+                                          DockerConfig dockerConfig,
+                                          JobConfig jobConfig,
+                                          SecretsVolumeIndex secretsVolumeIndex,
+                                          long minimumFlushBytes)
+            throws DockerException, InterruptedException {
+        JobConfig.LimitConfig limitConfig = jobConfig.getLimit();
+        DockerAdapter dockerAdapter = new DockerAdapter(docker, dockerConfig.getContainerRuntime());
+        DockerDaemonPool dockerDaemonPool = createDockerDaemonPool(dockerAdapter, dockerConfig, jobConfig);
+        environment.admin().addTask(new ImageFreshnessTask(dockerDaemonPool.getDaemons().stream()
+                .map(DockerDaemon::getImagePuller)
+                .toArray(ImagePuller[]::new)));
         return new JobResource(
                 new JobService(
-                        createRunJobLimiter(limitConfig),
+                        createRunJobLimiter(
+                                limitConfig,
+                                jobConfig.getAdaptiveLimit(),
+                                jobConfig.getKeyedLimit(),
+                                jobConfig.getHostLimit(),
+                                jobConfig.getQueue(),
+                                jobConfig.getPriority()),
                         limitConfig,
-                        new SecretsStore(dockerAdapter),
-                        new JobRunCreationStrategyDeterminer(dockerAdapter),
-                        new JobRunner(dockerAdapter),
+                        new SecretsStore(dockerAdapter, secretsVolumeIndex),
+                        dockerDaemonPool,
                         new JobRunConfigCreator(),
                         new OutcomeDeterminer(),
-                        new ConfigUtil()),
-                new ResponseCreator(),
-                new JobResponseConverter());
+                        new ConfigUtil(),
+                        createJobRunSubmissionStore(jobConfig.getSubmission()),
+                        createJobRunExecutor(),
+                        createJobResultCache(jobConfig.getResultCache()),
+                        new ImageIdResolver(),
+                        createJobInputSpool(jobConfig.getInput())),
+                new ResponseCreator(minimumFlushBytes),
+                new JobResponseConverter(),
+                new PriorityClassAccess(jobConfig.getPriority()));
+    }
+
+    // Streamed responses are held back until they're past the gzip minimum, otherwise they'd be gzipped however small.
+    private long minimumFlushBytes(ServerFactory serverFactory) {
+        if (serverFactory instanceof AbstractServerFactory) {
+            GzipHandlerFactory gzip = ((AbstractServerFactory) serverFactory).getGzipFilterFactory();
+            if (gzip.isEnabled()) {
+                return gzip.getMinimumEntitySize().toBytes();
+            }
+        }
+        return 0;
+    }
+
+    // The daemon from the environment comes first since that's where secrets are kept.
+    private DockerDaemonPool createDockerDaemonPool(
+            DockerAdapter dockerAdapter, DockerConfig dockerConfig, JobConfig jobConfig)
+            throws DockerException, InterruptedException {
+        JobOutputStoreCreator jobOutputStoreCreator = createJobOutputStoreCreator(jobConfig.getOutput());
+        List<DockerDaemon> daemons = new ArrayList<>();
+        daemons.add(createDockerDaemon(
+                DEFAULT_DAEMON_NAME, dockerAdapter, dockerConfig.getMaxRuns(), jobConfig, jobOutputStoreCreator));
+        for (DockerConfig.DaemonConfig daemonConfig : dockerConfig.getDaemons()) {
+            DockerClient daemonClient = createDockerClient(
+                    DefaultDockerClient.builder().uri(daemonConfig.getUri()), dockerConfig);
+            daemons.add(createDockerDaemon(
+                    daemonConfig.getName(),
+                    new DockerAdapter(daemonClient, dockerConfig.getContainerRuntime()),
+                    daemonConfig.getMaxRuns(),
+                    jobConfig,
+                    jobOutputStoreCreator));
+        }
+
+        DockerDaemonPool dockerDaemonPool = new DockerDaemonPool(daemons, dockerConfig.getEjectAfterFailures());
+        ScheduledExecutorService healthCheckExecutor = environment.lifecycle()
+                .scheduledExecutorService("docker-daemon-health-check-%d")
+                .build();
+        healthCheckExecutor.scheduleWithFixedDelay(
+                dockerDaemonPool::checkHealth,
+                dockerConfig.getHealthCheckSeconds(),
+                dockerConfig.getHealthCheckSeconds(),
+                TimeUnit.SECONDS);
+        daemons.forEach(daemon -> {
+            environment.metrics().register(
+                    MetricRegistry.name(DockerDaemonPool.class, "running", daemon.getName()),
+                    (Gauge<Integer>) daemon::getRunning);
+            environment.metrics().register(
+                    MetricRegistry.name(DockerDaemonPool.class, "healthy", daemon.getName()),
+                    (Gauge<Boolean>) daemon::isHealthy);
+        });
+        return dockerDaemonPool;
+    }
+
+    private DockerDaemon createDockerDaemon(String name,
+                                            DockerAdapter dockerAdapter,
+                                            long maxRuns,
+                                            JobConfig jobConfig,
+                                            JobOutputStoreCreator jobOutputStoreCreator) {
+        LocalImageIndex localImageIndex = createLocalImageIndex(name, dockerAdapter);
+        WarmJobRunPool warmJobRunPool = createWarmJobRunPool(name, dockerAdapter, jobConfig.getWarmPool());
+        ImagePuller imagePuller = new ImagePuller(
+                dockerAdapter,
+                localImageIndex,
+                Duration.ofSeconds(jobConfig.getPull().getFreshnessSeconds()),
+                warmJobRunPool::imagePulled);
+        return new DockerDaemon(
+                name,
+                dockerAdapter,
+                localImageIndex,
+                imagePuller,
+                new JobRunCreationStrategyDeterminer(dockerAdapter, localImageIndex, imagePuller, warmJobRunPool),
+                new JobRunner(
+                        dockerAdapter,
+                        createJobSupervisor(name, dockerAdapter, jobConfig.getSupervision()),
+                        jobOutputStoreCreator),
+                maxRuns);
+    }
+
+    private WarmJobRunPool createWarmJobRunPool(
+            String daemonName, DockerAdapter dockerAdapter, JobConfig.WarmPoolConfig warmPoolConfig) {
+        Map<String, WarmPoolSize> poolSizes = warmPoolConfig.getImages().stream()
+                .collect(Collectors.toMap(
+                        JobConfig.WarmPoolImageConfig::getImage,
+                        imageConfig -> new WarmPoolSize(
+                                Math.toIntExact(imageConfig.getMinSize()),
+                                Math.toIntExact(imageConfig.getMaxSize()))));
+        ExecutorService fillExecutor = environment.lifecycle()
+                .executorService("warm-pool-fill-" + daemonName + "-%d")
+                .minThreads(2)
+                .maxThreads(2)
+                .build();
+        WarmJobRunPool warmJobRunPool = new WarmJobRunPool(
+                dockerAdapter, poolSizes, Duration.ofSeconds(warmPoolConfig.getIdleSeconds()), fillExecutor);
+
+        ScheduledExecutorService evictionExecutor = environment.lifecycle()
+                .scheduledExecutorService("warm-pool-eviction-" + daemonName + "-%d")
+                .build();
+        evictionExecutor.scheduleWithFixedDelay(warmJobRunPool::evictIdle, 30, 30, TimeUnit.SECONDS);
+        environment.lifecycle().manage(new Managed() {
+            @Override
+            public void start() {
+            }
+
+            @Override
+            public void stop() {
+                warmJobRunPool.drain();
+            }
+        });
+        return warmJobRunPool;
+    }
+
+    private JobSupervisor createJobSupervisor(
+            String daemonName, DockerAdapter dockerAdapter, JobConfig.SupervisionConfig supervisionConfig) {
+        int workerThreads = Math.toIntExact(supervisionConfig.getWorkerThreads());
+        ExecutorService workers = environment.lifecycle()
+                .executorService("job-supervisor-" + daemonName + "-%d")
+                .minThreads(workerThreads)
+                .maxThreads(workerThreads)
+                .allowCoreThreadTimeOut(true)
+                .build();
+        ScheduledExecutorService timer = environment.lifecycle()
+                .scheduledExecutorService("job-supervisor-timer-" + daemonName + "-%d")
+                .removeOnCancelPolicy(true)
+                .build();
+        return new JobSupervisor(dockerAdapter, createDockerEventMonitor(daemonName, dockerAdapter), workers, timer);
+    }
+
+    private DockerEventMonitor createDockerEventMonitor(String daemonName, DockerAdapter dockerAdapter) {
+        DockerEventMonitor dockerEventMonitor = new DockerEventMonitor(dockerAdapter);
+        ExecutorService monitorExecutor = environment.lifecycle()
+                .executorService("docker-event-monitor-" + daemonName + "-%d")
+                .minThreads(1)
+                .maxThreads(1)
+                .build();
+        environment.lifecycle().manage(new Managed() {
+            @Override
+            public void start() {
+                monitorExecutor.execute(dockerEventMonitor);
+            }
+
+            @Override
+            public void stop() {
+                dockerEventMonitor.stop();
+            }
+        });
+        return dockerEventMonitor;
+    }
+
+    private LocalImageIndex createLocalImageIndex(String daemonName, DockerAdapter dockerAdapter) {
+        LocalImageIndex localImageIndex = new LocalImageIndex(dockerAdapter);
+        ExecutorService indexExecutor = environment.lifecycle()
+                .executorService("local-image-index-" + daemonName + "-%d")
+                .minThreads(1)
+                .maxThreads(1)
+                .build();
+        environment.lifecycle().manage(new Managed() {
+            @Override
+            public void start() {
+                indexExecutor.execute(localImageIndex);
+            }
+
+            @Override
+            public void stop() {
+                localImageIndex.stop();
+            }
+        });
+        return localImageIndex;
+    }
+
+    private JobOutputStoreCreator createJobOutputStoreCreator(JobConfig.OutputConfig outputConfig) {
+        int bufferSize = Math.toIntExact(outputConfig.getBufferBytes());
+        int maxPooledBuffers = Math.toIntExact(outputConfig.getPooledBytes() / bufferSize);
+        String spillDirectory = outputConfig.getSpillDirectory();
+        OutputMemoryBudget memoryBudget = new OutputMemoryBudget(outputConfig.getMaxInFlightBytes());
+        environment.metrics().register(
+                MetricRegistry.name(OutputMemoryBudget.class, "used-bytes"),
+                (Gauge<Long>) memoryBudget::getUsedBytes);
+        environment.metrics().register(
+                MetricRegistry.name(OutputMemoryBudget.class, "max-bytes"),
+                (Gauge<Long>) memoryBudget::getMaxBytes);
+        return new JobOutputStoreCreator(
+                new OutputBufferPool(bufferSize, maxPooledBuffers, memoryBudget),
+                memoryBudget,
+                outputConfig.getSpillThresholdBytes(),
+                outputConfig.getMaxTailBytes(),
+                Path.of(spillDirectory == null || spillDirectory.isBlank()
+                        ? System.getProperty("java.io.tmpdir")
+                        : spillDirectory));
+    }
+
+    private JobRunSubmissionStore createJobRunSubmissionStore(JobConfig.SubmissionConfig submissionConfig) {
+        JobRunSubmissionStore submissionStore = new JobRunSubmissionStore();
+        Duration retention = Duration.ofSeconds(submissionConfig.getResultRetentionSeconds());
+        ScheduledExecutorService evictionExecutor = environment.lifecycle()
+                .scheduledExecutorService("job-run-submission-eviction-%d")
+                .build();
+        evictionExecutor.scheduleWithFixedDelay(
+                () -> submissionStore.evictFinishedOlderThan(retention), 1, 1, TimeUnit.MINUTES);
+        return submissionStore;
+    }
+
+    private JobResultCache createJobResultCache(JobConfig.ResultCacheConfig resultCacheConfig) {
+        JobResultCache jobResultCache = new JobResultCache(
+                resultCacheConfig.getMaxBytes(), Duration.ofSeconds(resultCacheConfig.getTtlSeconds()));
+        ScheduledExecutorService evictionExecutor = environment.lifecycle()
+                .scheduledExecutorService("job-result-cache-eviction-%d")
+                .build();
+        evictionExecutor.scheduleWithFixedDelay(jobResultCache::evictExpired, 1, 1, TimeUnit.MINUTES);
+        return jobResultCache;
+    }
+
+    private JobInputSpool createJobInputSpool(JobConfig.InputConfig inputConfig) {
+        String spoolDirectory = inputConfig.getSpoolDirectory();
+        return new JobInputSpool(
+                Path.of(spoolDirectory == null || spoolDirectory.isBlank()
+                        ? System.getProperty("java.io.tmpdir")
+                        : spoolDirectory),
+                inputConfig.getMaxFileBytes());
+    }
+
+    private ExecutorService createJobRunExecutor() {
+        // Submitted, batch and pipeline runs are only handed over once the run job limiter has admitted them so this pool
+        //   only grows as far as it allows.
+        return environment.lifecycle()
+                .executorService("job-run-%d")
+                .minThreads(0)
+                .maxThreads(Integer.MAX_VALUE)
+                .workQueue(new SynchronousQueue<>())
+                .build();
     }
 
-    private RunJobLimiter createRunJobLimiter(JobConfig.LimitConfig limitConfig) {
-        return new RunJobLimiter(
-                new ConcurrentJobCountLimiter(limitConfig),
+    private RunJobLimiter createRunJobLimiter(JobConfig.LimitConfig limitConfig,
+                                              JobConfig.AdaptiveLimitConfig adaptiveLimitConfig,
+                                              JobConfig.KeyedLimitConfig keyedLimitConfig,
+                                              JobConfig.HostLimitConfig hostLimitConfig,
+                                              JobConfig.QueueConfig queueConfig,
+                                              JobConfig.PriorityConfig priorityConfig) {
+        Map<String, Long> weights = priorityConfig.getClasses().stream()
+                .collect(Collectors.toMap(
+                        JobConfig.PriorityClassConfig::getName, JobConfig.PriorityClassConfig::getWeight));
+        Map<String, Long> reservedRuns = priorityConfig.getClasses().stream()
+                .collect(Collectors.toMap(
+                        JobConfig.PriorityClassConfig::getName, JobConfig.PriorityClassConfig::getReservedRuns));
+        RunJobLimiter runJobLimiter = new RunJobLimiter(
+                queueConfig.getMaxQueuedRuns(),
+                Duration.ofSeconds(queueConfig.getMaxWaitSeconds()),
+                weights,
+                createConcurrentRunLimit(limitConfig, adaptiveLimitConfig, reservedRuns),
+                createHostCapacityLimit(hostLimitConfig),
+                createKeyedRunJobLimit("image", KeyedRunJobLimit.perImage(keyedLimitConfig, Clock.defaultClock()),
+                        keyedLimitConfig),
+                createKeyedRunJobLimit("user", KeyedRunJobLimit.perUser(keyedLimitConfig, Clock.defaultClock()),
+                        keyedLimitConfig),
                 new RunJobRateLimit(limitConfig));
+        environment.metrics().register(
+                MetricRegistry.name(RunJobLimiter.class, "queue-depth"),
+                (Gauge<Integer>) runJobLimiter::getQueueDepth);
+        environment.metrics().register(
+                MetricRegistry.name(RunJobLimiter.class, "queue-wait"),
+                runJobLimiter.getQueueWait());
+        Stream.concat(Stream.of(RunJobLimiter.DEFAULT_PRIORITY_CLASS), weights.keySet().stream())
+                .distinct()
+                .forEach(priorityClass -> environment.metrics().register(
+                        MetricRegistry.name(RunJobLimiter.class, "queue-depth", priorityClass),
+                        (Gauge<Integer>) () -> runJobLimiter.getQueueDepth(priorityClass)));
+        return runJobLimiter;
+    }
+
+    private RunJobLimitMeter createConcurrentRunLimit(JobConfig.LimitConfig limitConfig,
+                                                      JobConfig.AdaptiveLimitConfig adaptiveLimitConfig,
+                                                      Map<String, Long> reservedRuns) {
+        if (!adaptiveLimitConfig.getEnabled()) {
+            return new ConcurrentJobCountLimiter(limitConfig, reservedRuns);
+        }
+        AdaptiveConcurrencyLimit adaptiveConcurrencyLimit =
+                new AdaptiveConcurrencyLimit(limitConfig, adaptiveLimitConfig, reservedRuns);
+        environment.metrics().register(
+                MetricRegistry.name(AdaptiveConcurrencyLimit.class, "limit"),
+                (Gauge<Long>) adaptiveConcurrencyLimit::getLimit);
+        return adaptiveConcurrencyLimit;
+    }
+
+    private HostCapacityLimit createHostCapacityLimit(JobConfig.HostLimitConfig hostLimitConfig) {
+        String dataRoot = hostLimitConfig.getDataRoot();
+        HostCapacityLimit hostCapacityLimit = new HostCapacityLimit(
+                hostLimitConfig,
+                new HostCapacityReader(
+                        Path.of("/proc"),
+                        dataRoot == null || dataRoot.isBlank() ? null : Path.of(dataRoot),
+                        Runtime.getRuntime().availableProcessors()));
+        ScheduledExecutorService sampleExecutor = environment.lifecycle()
+                .scheduledExecutorService("host-capacity-sample-%d")
+                .build();
+        sampleExecutor.scheduleWithFixedDelay(
+                hostCapacityLimit::sample, 0, hostLimitConfig.getSampleMillis(), TimeUnit.MILLISECONDS);
+        environment.metrics().register(
+                MetricRegistry.name(HostCapacityLimit.class, "load-per-cpu"),
+                (Gauge<Double>) () -> hostCapacityLimit.getLastSample()
+                        .map(HostCapacity::getLoadPerCpu)
+                        .orElse(Double.NaN));
+        environment.metrics().register(
+                MetricRegistry.name(HostCapacityLimit.class, "free-memory"),
+                (Gauge<Double>) () -> hostCapacityLimit.getLastSample()
+                        .map(HostCapacity::getFreeMemoryFraction)
+                        .orElse(Double.NaN));
+        environment.metrics().register(
+                MetricRegistry.name(HostCapacityLimit.class, "free-disk"),
+                (Gauge<Double>) () -> hostCapacityLimit.getLastSample()
+                        .map(HostCapacity::getFreeDiskFraction)
+                        .orElse(Double.NaN));
+        return hostCapacityLimit;
+    }
+
+    private KeyedRunJobLimit createKeyedRunJobLimit(String key,
+                                                    KeyedRunJobLimit keyedRunJobLimit,
+                                                    JobConfig.KeyedLimitConfig keyedLimitConfig) {
+        ScheduledExecutorService evictionExecutor = environment.lifecycle()
+                .scheduledExecutorService("keyed-run-job-limit-" + key + "-eviction-%d")
+                .build();
+        evictionExecutor.scheduleWithFixedDelay(
+                () -> keyedRunJobLimit.evictIdleLongerThan(Duration.ofSeconds(keyedLimitConfig.getIdleSeconds())),
+                1, 1, TimeUnit.MINUTES);
+        environment.metrics().register(
+                MetricRegistry.name(KeyedRunJobLimit.class, "keys", key),
+                (Gauge<Integer>) keyedRunJobLimit::getKeyCount);
+        return keyedRunJobLimit;
+    }
+
+    private SecretsVolumeIndex createSecretsVolumeIndex(DockerClient docker) {
+        SecretsVolumeIndex secretsVolumeIndex = new SecretsVolumeIndex(new DockerAdapter(docker));
+        ExecutorService indexExecutor = environment.lifecycle()
+                .executorService("secrets-volume-index-%d")
+                .minThreads(1)
+                .maxThreads(1)
+                .build();
+        environment.lifecycle().manage(new Managed() {
+            @Override
+            public void start() {
+                indexExecutor.execute(secretsVolumeIndex);
+            }
+
+            @Override
+            public void stop() {
+                secretsVolumeIndex.stop();
+            }
+        });
+        return secretsVolumeIndex;
     }
 
-    private SecretsResource createSecretsResource(DockerClient docker) throws DockerException, InterruptedException {
+    private SecretsResource createSecretsResource(DockerClient docker, SecretsVolumeIndex secretsVolumeIndex)
+            throws DockerException, InterruptedException {
         SecretsDockerAdapter secretsAdapter = new SecretsDockerAdapter(docker);
         return new SecretsResource(
                 new SecretsService(
@@ -136,6 +537,7 @@ public class ConJobApplication extends Application<ConJobConfiguration> {
                         new SecretsContainerCreator(secretsAdapter),
                         new TempSecretsFileUtil(),
                         new UniqueContainerNameGenerator(),
-                        new ConfigUtil()));
+                        new ConfigUtil(),
+                        secretsVolumeIndex));
     }
 }
@@ -0,0 +1,20 @@
+package conjob.api;
+
+import conjob.resource.JobResource;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Pattern;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobBatchJobRequest {
+    @NotEmpty
+    @Pattern(regexp = JobResource.DOCKER_IMAGE_NAME_FORMAT)
+    private String image;
+    private String input = "";
+    private String pull = "always";
+}
@@ -0,0 +1,11 @@
+package conjob.api;
+
+import lombok.Value;
+
+@Value
+public class JobBatchRunResponse {
+    // Where the job was in the batch.
+    int index;
+    String image;
+    JobRunResponse result;
+}
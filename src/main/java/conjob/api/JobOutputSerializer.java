@@ -0,0 +1,25 @@
+package conjob.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import conjob.core.job.output.JobOutput;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+// Writes job output straight from where it's stored into the JSON string instead of reading it all into memory first.
+public class JobOutputSerializer extends StdSerializer<JobOutput> {
+    public JobOutputSerializer() {
+        super(JobOutput.class);
+    }
+
+    @Override
+    public void serialize(JobOutput value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        try (Reader output = new InputStreamReader(value.open(), StandardCharsets.UTF_8)) {
+            gen.writeString(output, -1);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package conjob.api;
+
+public enum JobOutputSourceResponse {
+    STDOUT, STDERR
+}
@@ -0,0 +1,49 @@
+package conjob.api;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import conjob.resource.JobResource;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobPipelineRequest {
+    private String input = "";
+    @NotEmpty
+    @Size(max = JobResource.MAX_PIPELINE_STAGES)
+    @Valid
+    private List<@NotNull JobPipelineStageRequest> stages;
+
+    // Only letting stages come after ones before them also keeps them from forming a cycle.
+    @JsonIgnore
+    @AssertTrue(message = "stage names must be unique and stages can only come after stages before them")
+    public boolean isOrdered() {
+        if (stages == null) {
+            return true;
+        }
+        Set<String> names = new HashSet<>();
+        for (JobPipelineStageRequest stage : stages) {
+            if (stage == null) {
+                continue;
+            }
+            if (stage.getAfter() != null && !names.containsAll(stage.getAfter())) {
+                return false;
+            }
+            if (!names.add(stage.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,26 @@
+package conjob.api;
+
+import conjob.resource.JobResource;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Pattern;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobPipelineStageRequest {
+    @NotEmpty
+    private String name;
+    @NotEmpty
+    @Pattern(regexp = JobResource.DOCKER_IMAGE_NAME_FORMAT)
+    private String image;
+    private String pull = "always";
+    // The stages whose output is this stage's input, which it reads from the file /run/conjob/input. When it's left
+    //   out the stage comes after the one before it and when it's empty the stage takes the pipeline's input as its
+    //   argument.
+    private List<String> after;
+}
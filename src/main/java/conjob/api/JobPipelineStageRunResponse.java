@@ -0,0 +1,10 @@
+package conjob.api;
+
+import lombok.Value;
+
+@Value
+public class JobPipelineStageRunResponse {
+    String name;
+    String image;
+    JobRunResponse result;
+}
@@ -1,5 +1,5 @@
 package conjob.api;
 
 public enum JobRunConclusionResponse {
-    SUCCESS, FAILURE, NOT_FOUND, TIMED_OUT, REJECTED, UNKNOWN
+    SUCCESS, FAILURE, NOT_FOUND, TIMED_OUT, REJECTED, SKIPPED, UNKNOWN
 }
@@ -0,0 +1,9 @@
+package conjob.api;
+
+import lombok.Value;
+
+@Value
+public class JobRunOutputFrame {
+    JobOutputSourceResponse source;
+    String output;
+}
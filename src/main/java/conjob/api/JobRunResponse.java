@@ -1,11 +1,25 @@
 package conjob.api;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import conjob.core.job.output.JobOutput;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
 import lombok.Value;
 
 @Value
+@AllArgsConstructor
 public class JobRunResponse {
     JobRunConclusionResponse conclusion;
-    String output;
+    @ToString.Exclude
+    @JsonSerialize(using = JobOutputSerializer.class)
+    JobOutput output;
     long exitCode;
     String message;
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    boolean cached;
+
+    public JobRunResponse(JobRunConclusionResponse conclusion, JobOutput output, long exitCode, String message) {
+        this(conclusion, output, exitCode, message, false);
+    }
 }
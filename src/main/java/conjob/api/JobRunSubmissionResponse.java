@@ -0,0 +1,10 @@
+package conjob.api;
+
+import lombok.Value;
+
+@Value
+public class JobRunSubmissionResponse {
+    String id;
+    JobRunSubmissionStatusResponse status;
+    JobRunResponse result;
+}
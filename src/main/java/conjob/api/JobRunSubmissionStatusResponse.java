@@ -0,0 +1,5 @@
+package conjob.api;
+
+public enum JobRunSubmissionStatusResponse {
+    RUNNING, FINISHED, UNKNOWN
+}
@@ -5,6 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -12,4 +15,23 @@ public class DockerConfig {
     private String username;
     private String password;
     private DockerAdapter.Runtime containerRuntime;
+    // How many jobs the daemon from the environment (DOCKER_HOST) runs at once. Zero means no limit.
+    private Long maxRuns = 0L;
+    // More daemons to run jobs on besides the one from the environment. Secrets are only kept on that one, so jobs
+    //   with secrets always run there.
+    private List<DaemonConfig> daemons = new ArrayList<>();
+    private Long healthCheckSeconds = 10L;
+    // Daemons that fail this many health checks or job creations in a row stop getting jobs until a health check
+    //   passes again.
+    private Long ejectAfterFailures = 3L;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DaemonConfig {
+        private String name;
+        // e.g. unix:///var/run/docker-2.sock or https://docker-2:2376
+        private String uri;
+        private Long maxRuns = 0L;
+    }
 }
@@ -4,11 +4,30 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class JobConfig {
     private LimitConfig limit;
+    private AdaptiveLimitConfig adaptiveLimit = new AdaptiveLimitConfig();
+    private KeyedLimitConfig keyedLimit = new KeyedLimitConfig();
+    private HostLimitConfig hostLimit = new HostLimitConfig();
+    private QueueConfig queue = new QueueConfig();
+    private PriorityConfig priority = new PriorityConfig();
+    private SubmissionConfig submission = new SubmissionConfig();
+    private SupervisionConfig supervision = new SupervisionConfig();
+    private WarmPoolConfig warmPool = new WarmPoolConfig();
+    private PullConfig pull = new PullConfig();
+    private OutputConfig output = new OutputConfig();
+    private ResultCacheConfig resultCache = new ResultCacheConfig();
+    private InputConfig input = new InputConfig();
+
+    public JobConfig(LimitConfig limit) {
+        this.limit = limit;
+    }
 
     @Data
     @AllArgsConstructor
@@ -20,5 +39,182 @@ public class JobConfig {
         // TODO: This field should be an integer but complications with ConfigTask and it's tests
         // TODO:   are preventing this right now.
         private Long maxKillTimeoutSeconds = (long) Integer.MAX_VALUE;
+        // How many runs can start back to back before maxGlobalRequestsPerSecond paces them. Zero allows a second's
+        //   worth.
+        private Long maxGlobalRequestBurst = 0L;
+
+        public LimitConfig(
+                Long maxGlobalRequestsPerSecond,
+                Long maxConcurrentRuns,
+                Long maxTimeoutSeconds,
+                Long maxKillTimeoutSeconds) {
+            this(maxGlobalRequestsPerSecond, maxConcurrentRuns, maxTimeoutSeconds, maxKillTimeoutSeconds, 0L);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class AdaptiveLimitConfig {
+        // Lets the limit on concurrent runs find its own level, between the min and maxConcurrentRuns, from how long
+        //   docker takes to create containers and how many runs time out.
+        private Boolean enabled = false;
+        private Long minConcurrentRuns = 1L;
+        private Long initialConcurrentRuns = 10L;
+        // Creations slower than this cut the limit.
+        private Long targetCreationMillis = 1000L;
+        // What's left of the limit after a cut.
+        private Long backoffPercent = 90L;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class KeyedLimitConfig {
+        // Limits each image on its own. Images that start with one of the prefixes share the limit of the longest one
+        //   they match, and other images are limited by their name without its tag or digest.
+        private KeyLimitConfig image = new KeyLimitConfig();
+        private List<String> imagePrefixes = new ArrayList<>();
+        // Limits each authenticated user on their own. Runs without a user aren't limited by it.
+        private KeyLimitConfig user = new KeyLimitConfig();
+        // How long a key's counts are kept once it has nothing running and its rate limit has recovered.
+        private Long idleSeconds = 300L;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class KeyLimitConfig {
+        // Zero means no limit.
+        private Long maxRequestsPerSecond = 0L;
+        private Long maxConcurrentRuns = 0L;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class HostLimitConfig {
+        // Runs are limited while the host is past any of these. Zero turns a watermark off. Load is the one minute
+        //   load average per cpu, so 100 is every cpu busy.
+        private Long maxLoadPercent = 0L;
+        private Long minFreeMemoryPercent = 0L;
+        // Of the disk holding the docker data root. A blank data root leaves the disk out.
+        private Long minFreeDiskPercent = 0L;
+        private String dataRoot = "/var/lib/docker";
+        private Long sampleMillis = 1000L;
+        // How many runs may start on one sample before the next one shows what they did to the host. Zero means no
+        //   limit.
+        private Long maxRunsPerSample = 0L;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class QueueConfig {
+        // How many runs may wait for the limits to allow them at once. Zero turns runs away as soon as they're
+        //   limited.
+        private Long maxQueuedRuns = 0L;
+        private Long maxWaitSeconds = 0L;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PriorityConfig {
+        // Runs are put in the class named by their priority parameter, or else by their user's name. Runs that
+        //   don't name a class listed here are in the "default" one, which can be listed to change its weight or
+        //   reservation. A listed class can only be named with the priority parameter by the user it's named after
+        //   or one of its users.
+        private List<PriorityClassConfig> classes = new ArrayList<>();
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PriorityClassConfig {
+        private String name;
+        // A class' share of turns when runs from several classes are waiting, relative to the others' weights.
+        private Long weight = 1L;
+        // Concurrent runs no other class can use. They count toward maxConcurrentRuns.
+        private Long reservedRuns = 0L;
+        // Users who may put their runs in this class with the priority parameter.
+        private List<String> users = new ArrayList<>();
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class SubmissionConfig {
+        private Long resultRetentionSeconds = 3600L;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class SupervisionConfig {
+        // Jobs only borrow a worker to start or stop their container, even when streaming their output.
+        private Long workerThreads = 64L;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class WarmPoolConfig {
+        private Long idleSeconds = 300L;
+        private List<WarmPoolImageConfig> images = new ArrayList<>();
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class WarmPoolImageConfig {
+        private String image;
+        private Long minSize = 1L;
+        private Long maxSize = 4L;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PullConfig {
+        // How long an image pulled by an "always" pull is trusted before the next run pulls it again. Zero means
+        //   every run pulls.
+        private Long freshnessSeconds = 0L;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class OutputConfig {
+        private Long bufferBytes = 65536L;
+        // Total size of the idle buffers kept around for reuse between runs.
+        private Long pooledBytes = 67108864L;
+        // How much of a job's output is kept in memory before the rest of it is written to a temp file.
+        private Long spillThresholdBytes = 1048576L;
+        // How much output all running jobs together may keep in memory. Jobs that don't fit write to a temp file.
+        private Long maxInFlightBytes = 268435456L;
+        // The most a run asking for only the tail of its output may keep of it.
+        private Long maxTailBytes = 1048576L;
+        // Blank means the system temp directory.
+        private String spillDirectory = "";
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ResultCacheConfig {
+        // Total size of the output of all cached results.
+        private Long maxBytes = 67108864L;
+        private Long ttlSeconds = 3600L;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class InputConfig {
+        // The most input a run can stream into a file in its container. Zero means no limit.
+        private Long maxFileBytes = 1073741824L;
+        // Where that input is kept until it's copied in. Blank means the system temp directory.
+        private String spoolDirectory = "";
     }
 }
@@ -0,0 +1,46 @@
+package conjob.core.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Coalesces concurrent calls for the same key so only the first one does the work. Everyone else that arrives
+//   while it's in flight waits for it and shares its outcome, including the exception it failed with.
+public class SingleFlight<K> {
+    private final ConcurrentMap<K, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public void execute(K key, Runnable action) {
+        CompletableFuture<Void> flight = new CompletableFuture<>();
+        CompletableFuture<Void> existingFlight = inFlight.putIfAbsent(key, flight);
+        if (existingFlight != null) {
+            awaitFlight(existingFlight);
+            return;
+        }
+
+        // Errors complete the flight too, otherwise whoever is waiting on it would wait forever
+        try {
+            action.run();
+            flight.complete(null);
+        } catch (Throwable ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private void awaitFlight(CompletableFuture<Void> flight) {
+        try {
+            flight.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+}
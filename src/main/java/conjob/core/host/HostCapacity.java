@@ -0,0 +1,11 @@
+package conjob.core.host;
+
+import lombok.Value;
+
+@Value
+public class HostCapacity {
+    // The one minute load average over the number of cpus, so 1.0 is every cpu busy.
+    double loadPerCpu;
+    double freeMemoryFraction;
+    double freeDiskFraction;
+}
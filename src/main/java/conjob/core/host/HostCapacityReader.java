@@ -0,0 +1,73 @@
+package conjob.core.host;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads how loaded the host is from /proc, and how full the disk holding the docker data root is from statfs.
+//   Every read opens a couple of files so it's meant to be done on a schedule rather than for every run.
+public class HostCapacityReader {
+    private final Path procDirectory;
+    private final Path dataRoot;
+    private final int cpus;
+
+    // A null data root leaves the disk out and reads it as entirely free.
+    public HostCapacityReader(Path procDirectory, Path dataRoot, int cpus) {
+        this.procDirectory = procDirectory;
+        this.dataRoot = dataRoot;
+        this.cpus = cpus;
+    }
+
+    public HostCapacity read() throws IOException {
+        return new HostCapacity(readLoadPerCpu(), readFreeMemoryFraction(), readFreeDiskFraction());
+    }
+
+    private double readLoadPerCpu() throws IOException {
+        String loadAverages = Files.readString(procDirectory.resolve("loadavg")).trim();
+        return Double.parseDouble(loadAverages.split("\\s+")[0]) / Math.max(1, cpus);
+    }
+
+    private double readFreeMemoryFraction() throws IOException {
+        Map<String, Long> kilobytes = readMemInfo(Files.readAllLines(procDirectory.resolve("meminfo")));
+        long total = kilobytes.getOrDefault("MemTotal", 0L);
+        if (total <= 0) {
+            throw new IOException("meminfo has no MemTotal");
+        }
+        // Kernels older than 3.14 don't estimate what's available so make do with what's free or only cached.
+        long available = kilobytes.containsKey("MemAvailable")
+                ? kilobytes.get("MemAvailable")
+                : kilobytes.getOrDefault("MemFree", 0L)
+                + kilobytes.getOrDefault("Buffers", 0L)
+                + kilobytes.getOrDefault("Cached", 0L);
+        return Math.min(1.0, (double) available / total);
+    }
+
+    private double readFreeDiskFraction() throws IOException {
+        if (dataRoot == null) {
+            return 1.0;
+        }
+        FileStore fileStore = Files.getFileStore(dataRoot);
+        long total = fileStore.getTotalSpace();
+        return total <= 0 ? 1.0 : (double) fileStore.getUsableSpace() / total;
+    }
+
+    // Lines look like "MemTotal:       16314172 kB".
+    private static Map<String, Long> readMemInfo(List<String> lines) {
+        Map<String, Long> kilobytes = new HashMap<>();
+        for (String line : lines) {
+            String[] fields = line.split("[:\\s]+");
+            if (fields.length >= 2) {
+                try {
+                    kilobytes.put(fields[0], Long.parseLong(fields[1]));
+                } catch (NumberFormatException ignored) {
+                    // Not a field that's counted in kilobytes
+                }
+            }
+        }
+        return kilobytes;
+    }
+}
@@ -2,22 +2,35 @@ package conjob.core.job;
 
 import conjob.core.job.exception.CreateJobRunException;
 import conjob.core.job.exception.JobUpdateException;
+import conjob.core.job.model.CreatedJobRun;
 import conjob.core.job.model.JobRunConfig;
 import lombok.Value;
 
 @Value
 public class AbsentPullStrategy implements JobRunCreationStrategy {
     DockerAdapter dockerAdapter;
+    LocalImageIndex localImageIndex;
+    ImagePuller imagePuller;
 
     @Override
-    public String createJobRun(JobRunConfig jobRunConfig) throws CreateJobRunException, JobUpdateException {
-        String jobId;
+    public CreatedJobRun createJobRun(JobRunConfig jobRunConfig) throws CreateJobRunException, JobUpdateException {
+        if (localImageIndex.isMissing(jobRunConfig.getJobName())) {
+            return pullThenCreateJobRun(jobRunConfig);
+        }
+
+        CreatedJobRun createdJobRun;
         try {
-            jobId = dockerAdapter.createJobRun(jobRunConfig);
+            createdJobRun = dockerAdapter.createJobRun(jobRunConfig);
         } catch (CreateJobRunException e) {
-            dockerAdapter.pullImage(jobRunConfig.getJobName());
-            jobId = dockerAdapter.createJobRun(jobRunConfig);
+            // The image could have been removed since the index last heard about it
+            createdJobRun = pullThenCreateJobRun(jobRunConfig);
         }
-        return jobId;
+        return createdJobRun;
+    }
+
+    private CreatedJobRun pullThenCreateJobRun(JobRunConfig jobRunConfig)
+            throws CreateJobRunException, JobUpdateException {
+        imagePuller.pull(jobRunConfig.getJobName(), true);
+        return dockerAdapter.createJobRun(jobRunConfig);
     }
 }
@@ -2,16 +2,19 @@ package conjob.core.job;
 
 import conjob.core.job.exception.CreateJobRunException;
 import conjob.core.job.exception.JobUpdateException;
+import conjob.core.job.model.CreatedJobRun;
 import conjob.core.job.model.JobRunConfig;
 import lombok.Value;
 
 @Value
 public class AlwaysPullStrategy implements JobRunCreationStrategy {
     DockerAdapter dockerAdapter;
+    ImagePuller imagePuller;
+    boolean forceRefresh;
 
     @Override
-    public String createJobRun(JobRunConfig jobRunConfig) throws CreateJobRunException, JobUpdateException {
-        dockerAdapter.pullImage(jobRunConfig.getJobName());
+    public CreatedJobRun createJobRun(JobRunConfig jobRunConfig) throws CreateJobRunException, JobUpdateException {
+        imagePuller.pull(jobRunConfig.getJobName(), forceRefresh);
         return dockerAdapter.createJobRun(jobRunConfig);
     }
 }
@@ -1,26 +1,61 @@
 package conjob.core.job;
 
 import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.EventStream;
+import com.spotify.docker.client.LogMessage;
 import com.spotify.docker.client.LogStream;
 import com.spotify.docker.client.exceptions.DockerException;
 import com.spotify.docker.client.messages.ContainerConfig;
+import com.spotify.docker.client.messages.ContainerState;
+import com.spotify.docker.client.messages.Event;
 import com.spotify.docker.client.messages.HostConfig;
+import com.spotify.docker.client.messages.Image;
 import com.spotify.docker.client.messages.Volume;
+import conjob.core.concurrent.SingleFlight;
 import conjob.core.job.exception.*;
+import conjob.core.job.model.ContainerEvent;
+import conjob.core.job.model.CreatedJobRun;
+import conjob.core.job.model.ImageEvent;
 import conjob.core.job.model.JobRunConfig;
+import conjob.core.job.model.VolumeEvent;
+import conjob.core.job.output.JobOutputSink;
+import conjob.core.job.output.JobOutputSource;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 // TODO: Create more specific exceptions for when ImageNotFoundException is thrown
 public class DockerAdapter {
+    public static final String DIE_EVENT = "die";
+    public static final String OOM_EVENT = "oom";
+    public static final String KILL_EVENT = "kill";
+    public static final String PULL_EVENT = "pull";
+    public static final String TAG_EVENT = "tag";
+    public static final String UNTAG_EVENT = "untag";
+    public static final String DELETE_EVENT = "delete";
+    public static final String LOAD_EVENT = "load";
+    public static final String IMPORT_EVENT = "import";
+    public static final String CREATE_EVENT = "create";
+    public static final String DESTROY_EVENT = "destroy";
+    private static final Set<String> FINISHED_STATUSES = Set.of("exited", "dead");
     private static final String RUNTIME = "sysbox-runc";
     private static final String SECRETS_VOLUME_MOUNT_PATH = "/run/build/secrets";
     private static final String SECRETS_VOLUME_MOUNT_OPTIONS = "ro";
+    private static final String EXIT_CODE_ATTRIBUTE = "exitCode";
+    private static final String UNTAGGED_REFERENCE = "<none>";
 
     private final DockerClient dockerClient;
     private final Runtime containerRuntime;
+    private final SingleFlight<String> imagePulls = new SingleFlight<>();
 
     public DockerAdapter(DockerClient dockerClient) {
         this(dockerClient, Runtime.SYSBOX_RUNC);
@@ -36,7 +71,7 @@ public class DockerAdapter {
                 .map(Volume::name).collect(Collectors.toList());
     }
 
-    public String createJobRun(JobRunConfig jobRunConfig) throws CreateJobRunException {
+    public CreatedJobRun createJobRun(JobRunConfig jobRunConfig) throws CreateJobRunException {
         HostConfig hostConfig = getHostConfig(jobRunConfig.getSecretsVolumeName());
 
         ContainerConfig containerConfig = getContainerConfig(
@@ -45,55 +80,190 @@ public class DockerAdapter {
                 hostConfig);
 
         try {
-            return dockerClient.createContainer(containerConfig).id();
+            long creationStart = System.nanoTime();
+            String containerId = dockerClient.createContainer(containerConfig).id();
+            return new CreatedJobRun(containerId, Optional.of(Duration.ofNanos(System.nanoTime() - creationStart)));
         } catch (DockerException | InterruptedException e) {
             throw new CreateJobRunException(e);
         }
     }
 
+    // Copies everything in the directory into the container relative to its root. The container mustn't have been
+    //   started yet for the job to be sure to see it.
+    public void copyInputToJobRun(String containerId, Path inputDirectory) throws CopyJobInputException {
+        try {
+            dockerClient.copyToContainer(inputDirectory, containerId, "/");
+        } catch (DockerException | InterruptedException | IOException e) {
+            throw new CopyJobInputException(e);
+        }
+    }
+
     public void pullImage(String imageName) throws JobUpdateException {
+        imagePulls.execute(imageName, () -> {
+            try {
+                dockerClient.pull(imageName);
+            } catch (DockerException | InterruptedException e) {
+                throw new JobUpdateException(e);
+            }
+        });
+    }
+
+    public void ping() throws PingDaemonException {
+        try {
+            dockerClient.ping();
+        } catch (DockerException | InterruptedException e) {
+            throw new PingDaemonException(e);
+        }
+    }
+
+    public String findImageId(String imageName) throws InspectImageException {
+        try {
+            return dockerClient.inspectImage(imageName).id();
+        } catch (DockerException | InterruptedException e) {
+            throw new InspectImageException(e);
+        }
+    }
+
+    // Every reference the local images can be run by. That's their ids along with any tags or digests they have.
+    public Set<String> listImageReferences() throws ListImagesException {
+        try {
+            return dockerClient.listImages().stream()
+                    .flatMap(this::referencesOf)
+                    .filter(reference -> !reference.contains(UNTAGGED_REFERENCE))
+                    .collect(Collectors.toSet());
+        } catch (DockerException | InterruptedException e) {
+            throw new ListImagesException(e);
+        }
+    }
+
+    public void removeJobRun(String containerId) throws RemoveJobRunException {
         try {
-            dockerClient.pull(imageName);
+            dockerClient.removeContainer(containerId);
         } catch (DockerException | InterruptedException e) {
-            throw new JobUpdateException(e);
+            throw new RemoveJobRunException(e);
         }
     }
 
-    public Long startContainerThenWaitForExit(String containerId) throws RunJobException {
+    public void startContainer(String containerId) throws RunJobException {
         try {
             dockerClient.startContainer(containerId);
-            return dockerClient.waitContainer(containerId).statusCode();
         } catch (DockerException | InterruptedException e) {
             throw new RunJobException(e);
         }
     }
 
+    // Stopping only returns once the container has exited so its exit code can be read straight away rather
+    //   than waiting on it.
     public Long stopContainer(String containerId, int killTimeoutSeconds) throws StopJobRunException {
         try {
             dockerClient.stopContainer(containerId, killTimeoutSeconds);
-            return dockerClient.waitContainer(containerId).statusCode();
+            return dockerClient.inspectContainer(containerId).state().exitCode();
         } catch (DockerException | InterruptedException e) {
             throw new StopJobRunException(e);
         }
     }
 
-    // TODO: There seems to be an issue with reading logs where if you read them too quickly,
-    // TODO:   before any output has been produced, then the read will finish and return an empty
-    // TODO:   string when really it should have waited for the job to finish. Not sure why this is.
-    public String readAllLogsUntilExit(String containerId) throws ReadLogsException {
-        LogStream logs;
+    // Only a container that's exited or dead has finished. One that's been created but not started yet isn't running
+    //   either, but its exit code of 0 doesn't mean anything.
+    public Optional<Long> findExitCode(String containerId) throws InspectContainerException {
         try {
-            logs = dockerClient.logs(
-                    containerId,
-                    DockerClient.LogsParam.stdout(),
-                    DockerClient.LogsParam.stderr(),
-                    DockerClient.LogsParam.follow());
-            return logs.readFully();
+            ContainerState state = dockerClient.inspectContainer(containerId).state();
+            return state.status() != null && FINISHED_STATUSES.contains(state.status())
+                    ? Optional.of(state.exitCode())
+                    : Optional.empty();
         } catch (DockerException | InterruptedException e) {
+            throw new InspectContainerException(e);
+        }
+    }
+
+    public void followContainerEvents(
+            Consumer<Closeable> onSubscribed, Consumer<ContainerEvent> eventConsumer) throws ReadEventsException {
+        try (EventStream events = dockerClient.events(
+                DockerClient.EventsParam.type(Event.Type.CONTAINER),
+                DockerClient.EventsParam.event(DIE_EVENT),
+                DockerClient.EventsParam.event(OOM_EVENT),
+                DockerClient.EventsParam.event(KILL_EVENT))) {
+            onSubscribed.accept(events);
+            while (events.hasNext()) {
+                eventConsumer.accept(toContainerEvent(events.next()));
+            }
+        } catch (DockerException | InterruptedException e) {
+            throw new ReadEventsException(e);
+        }
+    }
+
+    public void followImageEvents(
+            Consumer<Closeable> onSubscribed, Consumer<ImageEvent> eventConsumer) throws ReadEventsException {
+        try (EventStream events = dockerClient.events(
+                DockerClient.EventsParam.type(Event.Type.IMAGE),
+                DockerClient.EventsParam.event(PULL_EVENT),
+                DockerClient.EventsParam.event(TAG_EVENT),
+                DockerClient.EventsParam.event(UNTAG_EVENT),
+                DockerClient.EventsParam.event(DELETE_EVENT),
+                DockerClient.EventsParam.event(LOAD_EVENT),
+                DockerClient.EventsParam.event(IMPORT_EVENT))) {
+            onSubscribed.accept(events);
+            while (events.hasNext()) {
+                Event event = events.next();
+                eventConsumer.accept(new ImageEvent(event.actor().id(), event.action()));
+            }
+        } catch (DockerException | InterruptedException e) {
+            throw new ReadEventsException(e);
+        }
+    }
+
+    public void followVolumeEvents(
+            Consumer<Closeable> onSubscribed, Consumer<VolumeEvent> eventConsumer) throws ReadEventsException {
+        try (EventStream events = dockerClient.events(
+                DockerClient.EventsParam.type(Event.Type.VOLUME),
+                DockerClient.EventsParam.event(CREATE_EVENT),
+                DockerClient.EventsParam.event(DESTROY_EVENT))) {
+            onSubscribed.accept(events);
+            while (events.hasNext()) {
+                Event event = events.next();
+                eventConsumer.accept(new VolumeEvent(event.actor().id(), event.action()));
+            }
+        } catch (DockerException | InterruptedException e) {
+            throw new ReadEventsException(e);
+        }
+    }
+
+    public void streamLogsUntilExit(String containerId, JobOutputSink outputSink) throws ReadLogsException {
+        try (LogStream logs = dockerClient.logs(
+                containerId,
+                DockerClient.LogsParam.stdout(),
+                DockerClient.LogsParam.stderr(),
+                DockerClient.LogsParam.follow())) {
+            while (logs.hasNext()) {
+                LogMessage message = logs.next();
+                outputSink.write(sourceOf(message.stream()), message.content());
+            }
+        } catch (DockerException | InterruptedException | IOException e) {
             throw new ReadLogsException(e);
         }
     }
 
+    private ContainerEvent toContainerEvent(Event event) {
+        Map<String, String> attributes = event.actor().attributes();
+        String exitCode = attributes == null ? null : attributes.get(EXIT_CODE_ATTRIBUTE);
+        return new ContainerEvent(
+                event.actor().id(),
+                event.action(),
+                exitCode == null ? null : Long.valueOf(exitCode));
+    }
+
+    private Stream<String> referencesOf(Image image) {
+        return Stream.of(
+                Stream.of(image.id()),
+                Optional.ofNullable(image.repoTags()).stream().flatMap(List::stream),
+                Optional.ofNullable(image.repoDigests()).stream().flatMap(List::stream))
+                .flatMap(references -> references);
+    }
+
+    private JobOutputSource sourceOf(LogMessage.Stream stream) {
+        return stream == LogMessage.Stream.STDERR ? JobOutputSource.STDERR : JobOutputSource.STDOUT;
+    }
+
     private ContainerConfig getContainerConfig(String jobName, String input, HostConfig hostConfig) {
         ContainerConfig.Builder containerConfigBuilder = ContainerConfig.builder()
                 .image(jobName)
@@ -0,0 +1,125 @@
+package conjob.core.job;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One docker daemon jobs can run on, with everything that runs jobs on it and what the pool keeps track of to decide
+//   which daemon gets the next job.
+public class DockerDaemon {
+    // How much a new creation latency counts towards the recent one, the rest being what it was before.
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    @Getter
+    private final String name;
+    @Getter
+    private final DockerAdapter dockerAdapter;
+    private final LocalImageIndex localImageIndex;
+    @Getter
+    private final ImagePuller imagePuller;
+    @Getter
+    private final JobRunCreationStrategyDeterminer jobRunCreationStrategyDeterminer;
+    @Getter
+    private final JobRunner jobRunner;
+    // Zero means no limit.
+    @Getter
+    private final long maxRuns;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger consecutivePingFailures = new AtomicInteger();
+    private final AtomicInteger consecutiveCreationFailures = new AtomicInteger();
+    @Getter
+    private volatile boolean healthy = true;
+    @Getter
+    private volatile double creationLatencyMillis;
+
+    public DockerDaemon(
+            String name,
+            DockerAdapter dockerAdapter,
+            LocalImageIndex localImageIndex,
+            ImagePuller imagePuller,
+            JobRunCreationStrategyDeterminer jobRunCreationStrategyDeterminer,
+            JobRunner jobRunner,
+            long maxRuns) {
+        this.name = name;
+        this.dockerAdapter = dockerAdapter;
+        this.localImageIndex = localImageIndex;
+        this.imagePuller = imagePuller;
+        this.jobRunCreationStrategyDeterminer = jobRunCreationStrategyDeterminer;
+        this.jobRunner = jobRunner;
+        this.maxRuns = maxRuns;
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public boolean hasImage(String imageName) {
+        return !localImageIndex.isMissing(imageName);
+    }
+
+    boolean hasFreeSlot() {
+        return maxRuns <= 0 || running.get() < maxRuns;
+    }
+
+    boolean tryTakeSlot() {
+        while (true) {
+            int current = running.get();
+            if (maxRuns > 0 && current >= maxRuns) {
+                return false;
+            }
+            if (running.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void releaseSlot() {
+        running.decrementAndGet();
+    }
+
+    synchronized void recordCreationLatency(Duration latency) {
+        double latencyMillis = latency.toNanos() / 1_000_000.0;
+        creationLatencyMillis = creationLatencyMillis == 0
+                ? latencyMillis
+                : LATENCY_WEIGHT * latencyMillis + (1 - LATENCY_WEIGHT) * creationLatencyMillis;
+    }
+
+    // Returns how many health checks in a row it's failed now.
+    int recordPingFailure() {
+        return consecutivePingFailures.incrementAndGet();
+    }
+
+    // Returns how many container creations in a row it's failed now.
+    int recordCreationFailure() {
+        return consecutiveCreationFailures.incrementAndGet();
+    }
+
+    // Returns whether it was healthy until now.
+    synchronized boolean eject() {
+        boolean wasHealthy = healthy;
+        healthy = false;
+        return wasHealthy;
+    }
+
+    // Returns whether this was what got it admitted again. Creation failures are left as they were, so a daemon that
+    //   answers pings but still can't create containers is ejected again by its next failed creation.
+    synchronized boolean recordPingSuccess() {
+        consecutivePingFailures.set(0);
+        return admit();
+    }
+
+    // Returns whether this was what got it admitted again.
+    synchronized boolean recordCreationSuccess() {
+        consecutiveCreationFailures.set(0);
+        return admit();
+    }
+
+    private boolean admit() {
+        if (!healthy) {
+            healthy = true;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,117 @@
+package conjob.core.job;
+
+import com.spotify.docker.client.exceptions.DockerRequestException;
+import com.spotify.docker.client.exceptions.NotFoundException;
+import conjob.core.job.exception.PingDaemonException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+// Places each job on one of several docker daemons. Out of the healthy daemons with a free slot it picks the best
+//   scoring one: free slots count the most, already having the image is worth a quarter of a daemon's slots, and
+//   having been slow to create containers lately costs up to a quarter.
+// Daemons that fail enough health checks or container creations in a row are ejected and get no jobs until a health
+//   check passes again. The two are counted apart so passing health checks don't hide failing creations.
+// The first daemon is the one secrets are kept on.
+@Slf4j
+public class DockerDaemonPool {
+    private static final double LOCALITY_BONUS = 0.25;
+    private static final double MAX_LATENCY_PENALTY = 0.25;
+    // Creations this slow or slower get the whole latency penalty.
+    private static final double SLOW_CREATION_MILLIS = 1000;
+
+    @Getter
+    private final List<DockerDaemon> daemons;
+    private final long ejectAfterFailures;
+
+    public DockerDaemonPool(List<DockerDaemon> daemons, long ejectAfterFailures) {
+        this.daemons = List.copyOf(daemons);
+        this.ejectAfterFailures = ejectAfterFailures;
+    }
+
+    // Takes a slot on the daemon it returns, which has to be given back with finished.
+    public Optional<DockerDaemon> place(String imageName, boolean needsSecrets) {
+        List<DockerDaemon> candidates = needsSecrets ? daemons.subList(0, 1) : daemons;
+        while (true) {
+            Optional<DockerDaemon> best = candidates.stream()
+                    .filter(DockerDaemon::isHealthy)
+                    .filter(DockerDaemon::hasFreeSlot)
+                    .max(Comparator.comparingDouble(daemon -> scoreOf(daemon, imageName)));
+            if (best.isEmpty() || best.get().tryTakeSlot()) {
+                return best;
+            }
+        }
+    }
+
+    public void finished(DockerDaemon daemon) {
+        daemon.releaseSlot();
+    }
+
+    public void creationSucceeded(DockerDaemon daemon, Duration latency) {
+        daemon.recordCreationLatency(latency);
+        creationSucceeded(daemon);
+    }
+
+    // For when no container had to be created, so there's no latency to go by.
+    public void creationSucceeded(DockerDaemon daemon) {
+        if (daemon.recordCreationSuccess()) {
+            log.info("Docker daemon {} is healthy again", daemon.getName());
+        }
+    }
+
+    // Only failures that look like the daemon's fault count towards ejecting it, not ones like an image that
+    //   doesn't exist. Returns whether it was the daemon's fault.
+    public boolean creationFailed(DockerDaemon daemon, Exception ex) {
+        if (!isDaemonFault(ex)) {
+            return false;
+        }
+        ejectIfFailing(daemon, daemon.recordCreationFailure(), ex);
+        return true;
+    }
+
+    public void checkHealth() {
+        daemons.forEach(daemon -> {
+            try {
+                daemon.getDockerAdapter().ping();
+                if (daemon.recordPingSuccess()) {
+                    log.info("Docker daemon {} is healthy again", daemon.getName());
+                }
+            } catch (PingDaemonException ex) {
+                ejectIfFailing(daemon, daemon.recordPingFailure(), ex);
+            }
+        });
+    }
+
+    // The last healthy daemon is never ejected since that would only turn away runs it might still manage.
+    private synchronized void ejectIfFailing(DockerDaemon daemon, int consecutiveFailures, Exception ex) {
+        if (consecutiveFailures >= ejectAfterFailures
+                && daemons.stream().filter(DockerDaemon::isHealthy).count() > 1
+                && daemon.eject()) {
+            log.warn("Ejecting docker daemon {}: {}", daemon.getName(), ex.getMessage(), ex);
+        }
+    }
+
+    private double scoreOf(DockerDaemon daemon, String imageName) {
+        long maxRuns = daemon.getMaxRuns();
+        int running = daemon.getRunning();
+        double free = maxRuns > 0 ? (double) (maxRuns - running) / maxRuns : 1.0 / (1 + running);
+        double locality = daemon.hasImage(imageName) ? LOCALITY_BONUS : 0;
+        double latencyPenalty = MAX_LATENCY_PENALTY
+                * Math.min(1, daemon.getCreationLatencyMillis() / SLOW_CREATION_MILLIS);
+        return free + locality - latencyPenalty;
+    }
+
+    private static boolean isDaemonFault(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NotFoundException
+                    || (cause instanceof DockerRequestException && ((DockerRequestException) cause).status() < 500)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
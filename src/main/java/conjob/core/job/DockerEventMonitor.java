@@ -0,0 +1,107 @@
+package conjob.core.job;
+
+import conjob.core.job.exception.InspectContainerException;
+import conjob.core.job.model.ContainerEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Follows a single subscription to Docker's event stream and completes the exit of every container being waited
+//   on from it. Whenever the subscription is (re)established the waiting containers are inspected directly in case
+//   they exited while it was down.
+@Slf4j
+public class DockerEventMonitor implements Runnable {
+    private static final long RESUBSCRIBE_DELAY_MILLIS = 1000;
+
+    private final DockerAdapter dockerAdapter;
+    private final Map<String, CompletableFuture<Long>> exits = new ConcurrentHashMap<>();
+    private volatile Closeable subscription;
+    private volatile boolean stopped;
+
+    public DockerEventMonitor(DockerAdapter dockerAdapter) {
+        this.dockerAdapter = dockerAdapter;
+    }
+
+    public CompletableFuture<Long> awaitExit(String containerId) {
+        CompletableFuture<Long> exit = exits.computeIfAbsent(containerId, id -> new CompletableFuture<>());
+        exit.whenComplete((exitStatusCode, ex) -> exits.remove(containerId, exit));
+        return exit;
+    }
+
+    public void forget(String containerId) {
+        Optional.ofNullable(exits.remove(containerId)).ifPresent(exit -> exit.cancel(false));
+    }
+
+    @Override
+    public void run() {
+        while (!stopped) {
+            try {
+                followEvents();
+            } catch (RuntimeException ex) {
+                if (!stopped) {
+                    log.warn("Lost subscription to docker events: {}", ex.getMessage(), ex);
+                }
+            }
+            if (!stopped) {
+                pauseBeforeResubscribing();
+            }
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+        Optional.ofNullable(subscription).ifPresent(this::closeQuietly);
+    }
+
+    void followEvents() {
+        dockerAdapter.followContainerEvents(this::onSubscribed, this::onEvent);
+    }
+
+    private void onSubscribed(Closeable subscription) {
+        this.subscription = subscription;
+        exits.forEach(this::reconcile);
+    }
+
+    private void onEvent(ContainerEvent event) {
+        CompletableFuture<Long> exit = exits.get(event.getContainerId());
+        if (exit == null) {
+            return;
+        }
+
+        if (DockerAdapter.DIE_EVENT.equals(event.getAction()) && event.getExitCode() != null) {
+            exit.complete(event.getExitCode());
+        } else {
+            reconcile(event.getContainerId(), exit);
+        }
+    }
+
+    private void reconcile(String containerId, CompletableFuture<Long> exit) {
+        try {
+            dockerAdapter.findExitCode(containerId).ifPresent(exit::complete);
+        } catch (InspectContainerException ex) {
+            exit.completeExceptionally(ex);
+        }
+    }
+
+    private void pauseBeforeResubscribing() {
+        try {
+            Thread.sleep(RESUBSCRIBE_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            stopped = true;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeQuietly(Closeable subscription) {
+        try {
+            subscription.close();
+        } catch (IOException e) {
+            log.debug("Problem closing docker event subscription: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package conjob.core.job;
+
+import conjob.core.job.exception.InspectImageException;
+
+import java.util.Optional;
+
+// Finds the id of the image a run on a daemon would use without pulling it. That's only known up front when the pull
+//   strategy would run what's already local, so for strategies that would pull first it's only known while the
+//   daemon's last pull is still fresh. Each daemon pulls on its own so the same name can be a different image on each.
+public class ImageIdResolver {
+    public Optional<String> findImageId(DockerDaemon daemon, String imageName, PullStrategy pullStrategy) {
+        if (pullStrategy == PullStrategy.REFRESH
+                || (pullStrategy == PullStrategy.ALWAYS && !daemon.getImagePuller().isFresh(imageName))) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(daemon.getDockerAdapter().findImageId(imageName));
+        } catch (InspectImageException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package conjob.core.job;
+
+import conjob.core.job.exception.JobUpdateException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Remembers when each image reference (tag or digest) was last pulled so runs that ask for the latest image don't
+//   all have to go to the registry. A reference pulled within the freshness window is assumed to still be current.
+// Every pull on the daemon should go through here so whatever was made from the image before, like the warm pool's
+//   containers, is told about it.
+public class ImagePuller {
+    private final DockerAdapter dockerAdapter;
+    private final LocalImageIndex localImageIndex;
+    private final Duration freshness;
+    private final Clock clock;
+    private final Consumer<String> onPulled;
+    private final Map<String, Instant> lastPulled = new ConcurrentHashMap<>();
+
+    public ImagePuller(DockerAdapter dockerAdapter, LocalImageIndex localImageIndex, Duration freshness) {
+        this(dockerAdapter, localImageIndex, freshness, imageName -> {});
+    }
+
+    public ImagePuller(
+            DockerAdapter dockerAdapter,
+            LocalImageIndex localImageIndex,
+            Duration freshness,
+            Consumer<String> onPulled) {
+        this(dockerAdapter, localImageIndex, freshness, Clock.systemUTC(), onPulled);
+    }
+
+    public ImagePuller(
+            DockerAdapter dockerAdapter,
+            LocalImageIndex localImageIndex,
+            Duration freshness,
+            Clock clock,
+            Consumer<String> onPulled) {
+        this.dockerAdapter = dockerAdapter;
+        this.localImageIndex = localImageIndex;
+        this.freshness = freshness;
+        this.clock = clock;
+        this.onPulled = onPulled;
+    }
+
+    // Returns whether the image was actually pulled.
+    public boolean pull(String imageName, boolean forceRefresh) throws JobUpdateException {
+        Instant now = clock.instant();
+        if (!forceRefresh && isFresh(imageName, now)) {
+            return false;
+        }
+
+        dockerAdapter.pullImage(imageName);
+        localImageIndex.imagePulled(imageName);
+        // The pull started at now so whatever it got is at least as current as that.
+        lastPulled.merge(imageName, now, (previous, pulled) -> pulled.isAfter(previous) ? pulled : previous);
+        onPulled.accept(imageName);
+        return true;
+    }
+
+    public boolean isFresh(String imageName) {
+        return isFresh(imageName, clock.instant());
+    }
+
+    public void invalidate(String imageName) {
+        lastPulled.remove(imageName);
+    }
+
+    public void invalidateAll() {
+        lastPulled.clear();
+    }
+
+    private boolean isFresh(String imageName, Instant now) {
+        Instant pulledAt = lastPulled.get(imageName);
+        return pulledAt != null && now.isBefore(pulledAt.plus(freshness));
+    }
+}
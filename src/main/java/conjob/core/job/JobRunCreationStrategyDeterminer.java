@@ -5,11 +5,35 @@ import java.util.Map;
 public class JobRunCreationStrategyDeterminer {
     private final Map<PullStrategy, JobRunCreationStrategy> pullStrategyJobCreationStrategy;
 
-    public JobRunCreationStrategyDeterminer(DockerAdapter dockerAdapter) {
+    public JobRunCreationStrategyDeterminer(
+            DockerAdapter dockerAdapter, LocalImageIndex localImageIndex, ImagePuller imagePuller) {
         pullStrategyJobCreationStrategy =
-                Map.of(PullStrategy.ALWAYS, new AlwaysPullStrategy(dockerAdapter),
-                        PullStrategy.NEVER, new NeverPullStrategy(dockerAdapter),
-                        PullStrategy.ABSENT, new AbsentPullStrategy(dockerAdapter));
+                Map.of(PullStrategy.ALWAYS, new AlwaysPullStrategy(dockerAdapter, imagePuller, false),
+                        PullStrategy.REFRESH, new AlwaysPullStrategy(dockerAdapter, imagePuller, true),
+                        PullStrategy.NEVER, new NeverPullStrategy(dockerAdapter, localImageIndex),
+                        PullStrategy.ABSENT, new AbsentPullStrategy(dockerAdapter, localImageIndex, imagePuller));
+    }
+
+    public JobRunCreationStrategyDeterminer(
+            DockerAdapter dockerAdapter,
+            LocalImageIndex localImageIndex,
+            ImagePuller imagePuller,
+            WarmJobRunPool warmJobRunPool) {
+        NeverPullStrategy neverPullStrategy = new NeverPullStrategy(dockerAdapter, localImageIndex);
+        pullStrategyJobCreationStrategy =
+                Map.of(PullStrategy.ALWAYS,
+                        new WarmPoolStrategy(imagePuller, warmJobRunPool, true, false, neverPullStrategy),
+                        PullStrategy.REFRESH,
+                        new WarmPoolStrategy(imagePuller, warmJobRunPool, true, true, neverPullStrategy),
+                        PullStrategy.NEVER,
+                        new WarmPoolStrategy(imagePuller, warmJobRunPool, false, false, neverPullStrategy),
+                        PullStrategy.ABSENT,
+                        new WarmPoolStrategy(
+                                imagePuller,
+                                warmJobRunPool,
+                                false,
+                                false,
+                                new AbsentPullStrategy(dockerAdapter, localImageIndex, imagePuller)));
     }
 
     public JobRunCreationStrategy determineStrategy(PullStrategy pullStrategy) {
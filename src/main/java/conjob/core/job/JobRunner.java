@@ -1,68 +1,136 @@
 package conjob.core.job;
 
+import conjob.core.job.exception.CopyJobInputException;
 import conjob.core.job.exception.ReadLogsException;
+import conjob.core.job.exception.RemoveJobRunException;
 import conjob.core.job.exception.RunJobException;
-import conjob.core.job.exception.StopJobRunException;
 import conjob.core.job.model.JobRunOutcome;
+import conjob.core.job.output.JobOutput;
+import conjob.core.job.output.JobOutputSink;
+import conjob.core.job.output.JobOutputCapture;
+import conjob.core.job.output.JobOutputStoreCreator;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.concurrent.*;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 public class JobRunner {
     private final DockerAdapter dockerAdapter;
+    private final JobSupervisor jobSupervisor;
+    private final JobOutputStoreCreator jobOutputStoreCreator;
 
-    public JobRunner(DockerAdapter dockerAdapter) {
+    public JobRunner(
+            DockerAdapter dockerAdapter,
+            JobSupervisor jobSupervisor,
+            JobOutputStoreCreator jobOutputStoreCreator) {
         this.dockerAdapter = dockerAdapter;
+        this.jobSupervisor = jobSupervisor;
+        this.jobOutputStoreCreator = jobOutputStoreCreator;
     }
 
     public JobRunOutcome runContainer(String containerId, long timeoutSeconds, int killTimeoutSeconds) {
+        return runContainer(
+                containerId, timeoutSeconds, killTimeoutSeconds, jobOutputStoreCreator.create());
+    }
+
+    public JobRunOutcome runContainer(
+            String containerId, long timeoutSeconds, int killTimeoutSeconds, long tailBytes) {
+        return runContainer(
+                containerId, timeoutSeconds, killTimeoutSeconds, jobOutputStoreCreator.createTail(tailBytes));
+    }
+
+    // The input is copied in before the container is started. If that fails the container is removed rather than
+    //   left created but never started.
+    public JobRunOutcome runContainer(
+            String containerId, long timeoutSeconds, int killTimeoutSeconds, Path inputDirectory) {
+        try {
+            dockerAdapter.copyInputToJobRun(containerId, inputDirectory);
+        } catch (CopyJobInputException e) {
+            removeJobRun(containerId);
+            throw e;
+        }
+        return runContainer(containerId, timeoutSeconds, killTimeoutSeconds);
+    }
+
+    private void removeJobRun(String containerId) {
+        try {
+            dockerAdapter.removeJobRun(containerId);
+        } catch (RemoveJobRunException e) {
+            log.warn("Problem removing job run whose input couldn't be copied in: {}", e.getMessage(), e);
+        }
+    }
+
+    private JobRunOutcome runContainer(
+            String containerId, long timeoutSeconds, int killTimeoutSeconds, JobOutputCapture output) {
         Long exitStatusCode;
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        Future<Long> future = executor.submit(new WaitForContainer(dockerAdapter, containerId));
         try {
-            exitStatusCode = future.get(timeoutSeconds, TimeUnit.SECONDS);
-        } catch (ExecutionException | TimeoutException | InterruptedException ex) {
-            log.warn("Problem finishing job: {}", ex.getMessage(), ex);
-            try {
-                exitStatusCode = dockerAdapter.stopContainer(containerId, killTimeoutSeconds);
-                // The container could finish naturally before the job timeout but before the stop-to-kill timeout.
-                exitStatusCode = wasStoppedOrKilled(exitStatusCode) ? -1 : exitStatusCode;
-            } catch (StopJobRunException e) {
-                exitStatusCode = -1L;
-            }
-        } finally {
-            // TODO: Does this need to be in a finally block?
-            executor.shutdownNow();
+            exitStatusCode = jobSupervisor.supervise(
+                    containerId,
+                    new StartContainer(dockerAdapter, containerId),
+                    timeoutSeconds,
+                    killTimeoutSeconds).join();
+        } catch (RuntimeException e) {
+            output.close();
+            throw e;
         }
 
-        String output;
         try {
-            output = dockerAdapter.readAllLogsUntilExit(containerId);
+            dockerAdapter.streamLogsUntilExit(containerId, output);
         } catch (ReadLogsException e) {
-            output = "";
+            output.close();
+            return new JobRunOutcome(exitStatusCode, JobOutput.empty());
         }
         return new JobRunOutcome(exitStatusCode, output);
     }
 
-    private boolean wasStoppedOrKilled(Long exitCode) {
-        final int SIGKILL = 137;
-        final int SIGTERM = 143;
-        return exitCode == SIGKILL || exitCode == SIGTERM;
+    // The output is streamed on this thread, which waits out the run anyway, rather than on a supervisor worker so a
+    //   long run doesn't hold one up for as long as it runs.
+    public JobRunOutcome runContainer(
+            String containerId, long timeoutSeconds, int killTimeoutSeconds, JobOutputSink outputSink) {
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        CompletableFuture<Long> exit = jobSupervisor.supervise(
+                containerId,
+                new StartContainer(dockerAdapter, containerId, started),
+                timeoutSeconds,
+                killTimeoutSeconds);
+        try {
+            CompletableFuture.anyOf(started, exit).join();
+        } catch (CompletionException e) {
+            // The supervisor's outcome is what's returned
+        }
+        if (started.isDone()) {
+            try {
+                dockerAdapter.streamLogsUntilExit(containerId, outputSink);
+            } catch (ReadLogsException e) {
+                log.warn("Problem streaming job output: {}", e.getMessage(), e);
+            }
+        }
+        return new JobRunOutcome(exit.join(), JobOutput.empty());
     }
 
-    static class WaitForContainer implements Callable<Long> {
+    static class StartContainer implements Callable<Void> {
         private final DockerAdapter dockerAdapter;
         private final String containerId;
+        private final CompletableFuture<Void> started;
+
+        public StartContainer(DockerAdapter dockerAdapter, String containerId) {
+            this(dockerAdapter, containerId, new CompletableFuture<>());
+        }
 
-        public WaitForContainer(DockerAdapter dockerClient, String containerId) {
-            this.dockerAdapter = dockerClient;
+        public StartContainer(DockerAdapter dockerAdapter, String containerId, CompletableFuture<Void> started) {
+            this.dockerAdapter = dockerAdapter;
             this.containerId = containerId;
+            this.started = started;
         }
 
         @Override
-        public Long call() throws RunJobException {
-            return dockerAdapter.startContainerThenWaitForExit(containerId);
+        public Void call() throws RunJobException {
+            dockerAdapter.startContainer(containerId);
+            started.complete(null);
+            return null;
         }
     }
 }
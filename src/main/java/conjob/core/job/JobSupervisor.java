@@ -0,0 +1,110 @@
+package conjob.core.job;
+
+import conjob.core.job.exception.StopJobRunException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Owns waiting on, timing out and stopping every running job. Containers are started from a shared worker pool,
+//   their exits come from the shared docker event monitor and their deadlines from a shared timer so the number
+//   of threads doesn't grow with the number of runs. Workers are only borrowed to start or stop a container.
+// A run's timeout starts once a worker has picked it up, so time spent waiting for one doesn't count against it.
+@Slf4j
+public class JobSupervisor {
+    private final DockerAdapter dockerAdapter;
+    private final DockerEventMonitor dockerEventMonitor;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timer;
+
+    public JobSupervisor(
+            DockerAdapter dockerAdapter,
+            DockerEventMonitor dockerEventMonitor,
+            ExecutorService workers,
+            ScheduledExecutorService timer) {
+        this.dockerAdapter = dockerAdapter;
+        this.dockerEventMonitor = dockerEventMonitor;
+        this.workers = workers;
+        this.timer = timer;
+    }
+
+    public CompletableFuture<Long> supervise(
+            String containerId,
+            Callable<?> containerRun,
+            long timeoutSeconds,
+            int killTimeoutSeconds) {
+        CompletableFuture<Long> exit = new CompletableFuture<>();
+        dockerEventMonitor.awaitExit(containerId).whenComplete((exitStatusCode, ex) -> {
+            if (ex == null) {
+                exit.complete(exitStatusCode);
+            } else {
+                exit.completeExceptionally(ex);
+            }
+        });
+        AtomicReference<ScheduledFuture<?>> deadline = new AtomicReference<>();
+        Future<?> run = workers.submit(() -> {
+            if (exit.isDone()) {
+                return;
+            }
+            deadline.set(timer.schedule(
+                    () -> exit.completeExceptionally(
+                            new TimeoutException("Job exceeded timeout of " + timeoutSeconds + " seconds")),
+                    timeoutSeconds,
+                    TimeUnit.SECONDS));
+            try {
+                containerRun.call();
+            } catch (Exception ex) {
+                exit.completeExceptionally(ex);
+            }
+        });
+
+        CompletableFuture<Long> outcome = new CompletableFuture<>();
+        exit.whenComplete((exitStatusCode, ex) -> {
+            ScheduledFuture<?> scheduledDeadline = deadline.get();
+            if (scheduledDeadline != null) {
+                scheduledDeadline.cancel(false);
+            }
+            workers.execute(() -> conclude(containerId, exitStatusCode, ex, killTimeoutSeconds, run, outcome));
+        });
+        return outcome;
+    }
+
+    // Whatever is still starting the container is given up on once it's concluded, freeing up its worker.
+    private void conclude(
+            String containerId,
+            Long exitStatusCode,
+            Throwable problem,
+            int killTimeoutSeconds,
+            Future<?> run,
+            CompletableFuture<Long> outcome) {
+        dockerEventMonitor.forget(containerId);
+        try {
+            Long concludedExitStatusCode = problem == null
+                    ? exitStatusCode
+                    : stop(containerId, killTimeoutSeconds, problem);
+            run.cancel(true);
+            outcome.complete(concludedExitStatusCode);
+        } catch (RuntimeException ex) {
+            outcome.completeExceptionally(ex);
+        }
+    }
+
+    private Long stop(String containerId, int killTimeoutSeconds, Throwable problem) {
+        log.warn("Problem finishing job: {}", problem.getMessage(), problem);
+        Long exitStatusCode;
+        try {
+            exitStatusCode = dockerAdapter.stopContainer(containerId, killTimeoutSeconds);
+            // The container could finish naturally before the job timeout but before the stop-to-kill timeout.
+            exitStatusCode = wasStoppedOrKilled(exitStatusCode) ? -1 : exitStatusCode;
+        } catch (StopJobRunException e) {
+            exitStatusCode = -1L;
+        }
+        return exitStatusCode;
+    }
+
+    private boolean wasStoppedOrKilled(Long exitCode) {
+        final int SIGKILL = 137;
+        final int SIGTERM = 143;
+        return exitCode == SIGKILL || exitCode == SIGTERM;
+    }
+}
@@ -0,0 +1,130 @@
+package conjob.core.job;
+
+import conjob.core.job.exception.ListImagesException;
+import conjob.core.job.model.ImageEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Knows which images are available locally so pull strategies can decide whether to pull without first trying,
+//   and failing, to create a container. It's loaded from the local images whenever its subscription to image
+//   events is (re)established and kept current from those events after that. Until it's first loaded it doesn't
+//   know of any image being missing.
+@Slf4j
+public class LocalImageIndex implements Runnable {
+    private static final long RESUBSCRIBE_DELAY_MILLIS = 1000;
+    private static final String DEFAULT_REGISTRY = "docker.io/";
+    private static final String OFFICIAL_REPOSITORY = "library/";
+    private static final String DEFAULT_TAG = ":latest";
+    private static final Pattern SHORT_IMAGE_ID = Pattern.compile("[0-9a-f]{1,64}");
+
+    private final DockerAdapter dockerAdapter;
+    private volatile Set<String> references = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+    private volatile Closeable subscription;
+    private volatile boolean stopped;
+
+    public LocalImageIndex(DockerAdapter dockerAdapter) {
+        this.dockerAdapter = dockerAdapter;
+    }
+
+    // Images can also be run by a prefix of their id, which there's no listing of, so those are never missing.
+    public boolean isMissing(String imageName) {
+        return loaded
+                && !SHORT_IMAGE_ID.matcher(imageName).matches()
+                && !references.contains(normalize(imageName));
+    }
+
+    public void imagePulled(String imageName) {
+        references.add(normalize(imageName));
+    }
+
+    @Override
+    public void run() {
+        while (!stopped) {
+            try {
+                followEvents();
+            } catch (RuntimeException ex) {
+                if (!stopped) {
+                    log.warn("Lost subscription to docker image events: {}", ex.getMessage(), ex);
+                }
+            }
+            if (!stopped) {
+                pauseBeforeResubscribing();
+            }
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+        Optional.ofNullable(subscription).ifPresent(this::closeQuietly);
+    }
+
+    void followEvents() {
+        dockerAdapter.followImageEvents(this::onSubscribed, this::onEvent);
+    }
+
+    void load() {
+        try {
+            Set<String> loadedReferences = ConcurrentHashMap.newKeySet();
+            dockerAdapter.listImageReferences().stream()
+                    .map(LocalImageIndex::normalize)
+                    .forEach(loadedReferences::add);
+            references = loadedReferences;
+            loaded = true;
+        } catch (ListImagesException ex) {
+            log.warn("Problem loading local images: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private void onSubscribed(Closeable subscription) {
+        this.subscription = subscription;
+        load();
+    }
+
+    // A pull names the reference it made available, but the others only name the image's id so there's no telling
+    //   which references they added or removed without looking again.
+    private void onEvent(ImageEvent event) {
+        if (DockerAdapter.PULL_EVENT.equals(event.getAction())) {
+            imagePulled(event.getImageReference());
+        } else {
+            load();
+        }
+    }
+
+    // Docker accepts the same image by a few different names (e.g. "hello-world", "library/hello-world:latest" and
+    //   "docker.io/library/hello-world:latest") but only lists one of them.
+    static String normalize(String imageName) {
+        String reference = imageName.startsWith(DEFAULT_REGISTRY)
+                ? imageName.substring(DEFAULT_REGISTRY.length())
+                : imageName;
+        reference = reference.startsWith(OFFICIAL_REPOSITORY)
+                ? reference.substring(OFFICIAL_REPOSITORY.length())
+                : reference;
+        String lastPathComponent = reference.substring(reference.lastIndexOf('/') + 1);
+        boolean hasTagOrDigest = lastPathComponent.contains(":") || lastPathComponent.contains("@");
+        return hasTagOrDigest ? reference : reference + DEFAULT_TAG;
+    }
+
+    private void pauseBeforeResubscribing() {
+        try {
+            Thread.sleep(RESUBSCRIBE_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            stopped = true;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeQuietly(Closeable subscription) {
+        try {
+            subscription.close();
+        } catch (IOException e) {
+            log.debug("Problem closing docker image event subscription: {}", e.getMessage(), e);
+        }
+    }
+}
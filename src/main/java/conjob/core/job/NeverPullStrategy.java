@@ -1,15 +1,21 @@
 package conjob.core.job;
 
+import com.spotify.docker.client.exceptions.ImageNotFoundException;
 import conjob.core.job.exception.CreateJobRunException;
+import conjob.core.job.model.CreatedJobRun;
 import conjob.core.job.model.JobRunConfig;
 import lombok.Value;
 
 @Value
 public class NeverPullStrategy implements JobRunCreationStrategy {
     DockerAdapter dockerAdapter;
+    LocalImageIndex localImageIndex;
 
     @Override
-    public String createJobRun(JobRunConfig jobRunConfig) throws CreateJobRunException {
+    public CreatedJobRun createJobRun(JobRunConfig jobRunConfig) throws CreateJobRunException {
+        if (localImageIndex.isMissing(jobRunConfig.getJobName())) {
+            throw new CreateJobRunException(new ImageNotFoundException(jobRunConfig.getJobName()));
+        }
         return dockerAdapter.createJobRun(jobRunConfig);
     }
 }
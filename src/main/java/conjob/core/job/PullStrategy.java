@@ -1,5 +1,5 @@
 package conjob.core.job;
 
 public enum PullStrategy {
-    ALWAYS, NEVER, ABSENT
+    ALWAYS, NEVER, ABSENT, REFRESH
 }
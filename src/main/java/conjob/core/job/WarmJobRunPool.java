@@ -0,0 +1,219 @@
+package conjob.core.job;
+
+import conjob.core.job.exception.JobRunException;
+import conjob.core.job.model.JobRunConfig;
+import conjob.core.job.model.WarmPoolSize;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+// Keeps already created containers ready for frequently run images so a run only has to start one. A container's
+//   input is part of how it's created so only runs without input can be served from the pool. Each pool grows
+//   towards its max size when runs find it empty and shrinks back towards its min size as containers sit idle.
+@Slf4j
+public class WarmJobRunPool {
+    private final DockerAdapter dockerAdapter;
+    private final Map<String, WarmPoolSize> poolSizes;
+    private final Duration idleTimeout;
+    private final Executor fillExecutor;
+    private final Clock clock;
+    private final Map<JobRunConfig, WarmContainers> pools = new ConcurrentHashMap<>();
+
+    public WarmJobRunPool(
+            DockerAdapter dockerAdapter,
+            Map<String, WarmPoolSize> poolSizes,
+            Duration idleTimeout,
+            Executor fillExecutor) {
+        this(dockerAdapter, poolSizes, idleTimeout, fillExecutor, Clock.systemUTC());
+    }
+
+    public WarmJobRunPool(
+            DockerAdapter dockerAdapter,
+            Map<String, WarmPoolSize> poolSizes,
+            Duration idleTimeout,
+            Executor fillExecutor,
+            Clock clock) {
+        this.dockerAdapter = dockerAdapter;
+        this.poolSizes = poolSizes;
+        this.idleTimeout = idleTimeout;
+        this.fillExecutor = fillExecutor;
+        this.clock = clock;
+    }
+
+    public boolean isPooled(String imageName) {
+        return poolSizes.containsKey(imageName);
+    }
+
+    public Optional<String> take(JobRunConfig jobRunConfig) {
+        if (jobRunConfig.getInput() != null || !isPooled(jobRunConfig.getJobName())) {
+            return Optional.empty();
+        }
+
+        WarmContainers warmContainers = pools.computeIfAbsent(
+                jobRunConfig, config -> new WarmContainers(poolSizes.get(config.getJobName())));
+        Optional<String> containerId;
+        synchronized (warmContainers) {
+            containerId = Optional.ofNullable(warmContainers.ready.pollFirst()).map(WarmContainer::getContainerId);
+            if (containerId.isEmpty()) {
+                warmContainers.target = Math.min(warmContainers.size.getMax(), warmContainers.target + 1);
+            }
+        }
+        fillExecutor.execute(() -> fill(jobRunConfig, warmContainers));
+        return containerId;
+    }
+
+    // Pooled containers are tied to the image they were created from so any that were created from an image that
+    //   a pull has since replaced are thrown away.
+    public void imagePulled(String imageName) {
+        if (!isPooled(imageName)) {
+            return;
+        }
+
+        String imageId;
+        try {
+            imageId = dockerAdapter.findImageId(imageName);
+        } catch (JobRunException ex) {
+            log.warn("Problem checking image of warm containers: {}", ex.getMessage(), ex);
+            return;
+        }
+
+        pools.forEach((jobRunConfig, warmContainers) -> {
+            if (!jobRunConfig.getJobName().equals(imageName)) {
+                return;
+            }
+            List<WarmContainer> stale = new ArrayList<>();
+            synchronized (warmContainers) {
+                if (!imageId.equals(warmContainers.imageId)) {
+                    stale.addAll(warmContainers.ready);
+                    warmContainers.ready.clear();
+                    warmContainers.imageId = imageId;
+                    warmContainers.generation++;
+                }
+            }
+            stale.forEach(this::remove);
+            if (!stale.isEmpty()) {
+                fillExecutor.execute(() -> fill(jobRunConfig, warmContainers));
+            }
+        });
+    }
+
+    public void evictIdle() {
+        Instant idleSince = clock.instant().minus(idleTimeout);
+        pools.forEach((jobRunConfig, warmContainers) -> {
+            List<WarmContainer> idle = new ArrayList<>();
+            synchronized (warmContainers) {
+                Iterator<WarmContainer> oldestFirst = warmContainers.ready.iterator();
+                while (oldestFirst.hasNext() && warmContainers.target > warmContainers.size.getMin()) {
+                    WarmContainer warmContainer = oldestFirst.next();
+                    if (!warmContainer.getReadyAt().isBefore(idleSince)) {
+                        break;
+                    }
+                    oldestFirst.remove();
+                    idle.add(warmContainer);
+                    warmContainers.target--;
+                }
+            }
+            idle.forEach(this::remove);
+        });
+    }
+
+    public void drain() {
+        pools.values().forEach(warmContainers -> {
+            List<WarmContainer> ready;
+            synchronized (warmContainers) {
+                ready = new ArrayList<>(warmContainers.ready);
+                warmContainers.ready.clear();
+                warmContainers.target = 0;
+                warmContainers.generation++;
+            }
+            ready.forEach(this::remove);
+        });
+    }
+
+    private void fill(JobRunConfig jobRunConfig, WarmContainers warmContainers) {
+        while (true) {
+            long generation;
+            synchronized (warmContainers) {
+                if (warmContainers.ready.size() + warmContainers.filling >= warmContainers.target) {
+                    return;
+                }
+                warmContainers.filling++;
+                generation = warmContainers.generation;
+            }
+
+            String containerId;
+            try {
+                recordImageIfUnknown(jobRunConfig, warmContainers);
+                containerId = dockerAdapter.createJobRun(jobRunConfig).getJobId();
+            } catch (RuntimeException ex) {
+                log.warn("Problem filling warm container pool: {}", ex.getMessage(), ex);
+                synchronized (warmContainers) {
+                    warmContainers.filling--;
+                }
+                return;
+            }
+
+            WarmContainer warmContainer = new WarmContainer(containerId, clock.instant());
+            boolean stale;
+            synchronized (warmContainers) {
+                warmContainers.filling--;
+                stale = generation != warmContainers.generation;
+                if (!stale) {
+                    warmContainers.ready.addLast(warmContainer);
+                }
+            }
+            if (stale) {
+                remove(warmContainer);
+            }
+        }
+    }
+
+    private void recordImageIfUnknown(JobRunConfig jobRunConfig, WarmContainers warmContainers) {
+        boolean unknown;
+        synchronized (warmContainers) {
+            unknown = warmContainers.imageId == null;
+        }
+        if (unknown) {
+            String imageId = dockerAdapter.findImageId(jobRunConfig.getJobName());
+            synchronized (warmContainers) {
+                if (warmContainers.imageId == null) {
+                    warmContainers.imageId = imageId;
+                }
+            }
+        }
+    }
+
+    private void remove(WarmContainer warmContainer) {
+        try {
+            dockerAdapter.removeJobRun(warmContainer.getContainerId());
+        } catch (JobRunException ex) {
+            log.warn("Problem removing warm container: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private static class WarmContainers {
+        private final WarmPoolSize size;
+        private final Deque<WarmContainer> ready = new ArrayDeque<>();
+        private int target;
+        private int filling;
+        private long generation;
+        private String imageId;
+
+        WarmContainers(WarmPoolSize size) {
+            this.size = size;
+            this.target = size.getMin();
+        }
+    }
+
+    @Value
+    private static class WarmContainer {
+        String containerId;
+        Instant readyAt;
+    }
+}
@@ -0,0 +1,32 @@
+package conjob.core.job;
+
+import conjob.core.job.exception.CreateJobRunException;
+import conjob.core.job.exception.JobUpdateException;
+import conjob.core.job.model.CreatedJobRun;
+import conjob.core.job.model.JobRunConfig;
+import lombok.Value;
+
+import java.util.Optional;
+
+@Value
+public class WarmPoolStrategy implements JobRunCreationStrategy {
+    ImagePuller imagePuller;
+    WarmJobRunPool warmJobRunPool;
+    boolean pullFirst;
+    boolean forceRefresh;
+    JobRunCreationStrategy fallbackStrategy;
+
+    @Override
+    public CreatedJobRun createJobRun(JobRunConfig jobRunConfig) throws CreateJobRunException, JobUpdateException {
+        // The puller tells the pool about the pull itself
+        if (pullFirst) {
+            imagePuller.pull(jobRunConfig.getJobName(), forceRefresh);
+        }
+
+        Optional<String> warmJobId = warmJobRunPool.take(jobRunConfig);
+        if (warmJobId.isPresent()) {
+            return new CreatedJobRun(warmJobId.get(), Optional.empty());
+        }
+        return fallbackStrategy.createJobRun(jobRunConfig);
+    }
+}
@@ -0,0 +1,7 @@
+package conjob.core.job.exception;
+
+public class CopyJobInputException extends JobRunException {
+    public CopyJobInputException(Exception e) {
+        super(e);
+    }
+}
@@ -0,0 +1,7 @@
+package conjob.core.job.exception;
+
+public class InputTooLargeException extends RuntimeException {
+    public InputTooLargeException(long maxBytes) {
+        super("Job input is larger than the most allowed, " + maxBytes + " bytes");
+    }
+}
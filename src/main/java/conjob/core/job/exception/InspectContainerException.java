@@ -0,0 +1,7 @@
+package conjob.core.job.exception;
+
+public class InspectContainerException extends JobRunException {
+    public InspectContainerException(Exception e) {
+        super(e);
+    }
+}
@@ -0,0 +1,7 @@
+package conjob.core.job.exception;
+
+public class InspectImageException extends JobRunException {
+    public InspectImageException(Exception e) {
+        super(e);
+    }
+}
@@ -0,0 +1,7 @@
+package conjob.core.job.exception;
+
+public class ListImagesException extends JobRunException {
+    public ListImagesException(Exception e) {
+        super(e);
+    }
+}
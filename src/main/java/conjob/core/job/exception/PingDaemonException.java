@@ -0,0 +1,7 @@
+package conjob.core.job.exception;
+
+public class PingDaemonException extends JobRunException {
+    public PingDaemonException(Exception e) {
+        super(e);
+    }
+}
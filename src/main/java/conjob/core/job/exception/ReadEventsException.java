@@ -0,0 +1,7 @@
+package conjob.core.job.exception;
+
+public class ReadEventsException extends JobRunException {
+    public ReadEventsException(Exception e) {
+        super(e);
+    }
+}
@@ -0,0 +1,7 @@
+package conjob.core.job.exception;
+
+public class RemoveJobRunException extends JobRunException {
+    public RemoveJobRunException(Exception e) {
+        super(e);
+    }
+}
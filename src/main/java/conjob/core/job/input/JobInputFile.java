@@ -0,0 +1,36 @@
+package conjob.core.job.input;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// A spooled job input. Closing it deletes it, which can be done as soon as it's been copied into the container.
+@Slf4j
+public class JobInputFile implements Closeable {
+    @Getter
+    private final Path directory;
+
+    JobInputFile(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public void close() {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            List<Path> deepestFirst = paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path path : deepestFirst) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.warn("Problem deleting job input {}: {}", directory, e.getMessage(), e);
+        }
+    }
+}
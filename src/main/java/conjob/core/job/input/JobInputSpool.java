@@ -0,0 +1,51 @@
+package conjob.core.job.input;
+
+import conjob.core.job.exception.InputTooLargeException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Writes a job's input to a temp file as it's read, rather than keeping it in memory, so it can be copied into the
+//   job's container before it starts. The file is laid out under its own directory the same way it's to end up in
+//   the container.
+public class JobInputSpool {
+    // Relative to the container's root.
+    public static final String CONTAINER_INPUT_PATH = "run/conjob/input";
+    private static final int BUFFER_SIZE = 65536;
+
+    private final Path spoolDirectory;
+    // Zero means no limit.
+    private final long maxBytes;
+
+    public JobInputSpool(Path spoolDirectory, long maxBytes) {
+        this.spoolDirectory = spoolDirectory;
+        this.maxBytes = maxBytes;
+    }
+
+    public JobInputFile spool(InputStream input) throws IOException {
+        JobInputFile inputFile = new JobInputFile(Files.createTempDirectory(spoolDirectory, "job-input-"));
+        try {
+            Path file = inputFile.getDirectory().resolve(CONTAINER_INPUT_PATH);
+            Files.createDirectories(file.getParent());
+            try (OutputStream output = Files.newOutputStream(file)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long written = 0;
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    written += read;
+                    if (maxBytes > 0 && written > maxBytes) {
+                        throw new InputTooLargeException(maxBytes);
+                    }
+                    output.write(buffer, 0, read);
+                }
+            }
+            return inputFile;
+        } catch (IOException | RuntimeException e) {
+            inputFile.close();
+            throw e;
+        }
+    }
+}
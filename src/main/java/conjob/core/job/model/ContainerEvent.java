@@ -0,0 +1,11 @@
+package conjob.core.job.model;
+
+import lombok.Value;
+
+@Value
+public class ContainerEvent {
+    String containerId;
+    String action;
+    // Only present for events from a container exiting
+    Long exitCode;
+}
@@ -0,0 +1,14 @@
+package conjob.core.job.model;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Value
+public class CreatedJobRun {
+    String jobId;
+    // How long docker took to create the container, apart from any pull before it. There's none for a job run taken
+    //   from the warm pool since nothing was created for it.
+    Optional<Duration> creationLatency;
+}
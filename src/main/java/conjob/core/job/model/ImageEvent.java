@@ -0,0 +1,10 @@
+package conjob.core.job.model;
+
+import lombok.Value;
+
+@Value
+public class ImageEvent {
+    // The reference the image was pulled by for pull events, otherwise usually the image's id
+    String imageReference;
+    String action;
+}
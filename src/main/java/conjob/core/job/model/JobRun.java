@@ -1,12 +1,20 @@
 package conjob.core.job.model;
 
+import conjob.core.job.output.JobOutput;
+import lombok.AllArgsConstructor;
 import lombok.ToString;
 import lombok.Value;
 
 @Value
+@AllArgsConstructor
 public class JobRun {
     JobRunConclusion conclusion;
     @ToString.Exclude
-    String output;
+    JobOutput output;
     long exitCode;
+    boolean cached;
+
+    public JobRun(JobRunConclusion conclusion, JobOutput output, long exitCode) {
+        this(conclusion, output, exitCode, false);
+    }
 }
@@ -1,5 +1,5 @@
 package conjob.core.job.model;
 
 public enum JobRunConclusion {
-    SUCCESS, FAILURE, NOT_FOUND, TIMED_OUT, REJECTED
+    SUCCESS, FAILURE, NOT_FOUND, TIMED_OUT, REJECTED, SKIPPED
 }
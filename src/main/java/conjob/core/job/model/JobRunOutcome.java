@@ -1,9 +1,10 @@
 package conjob.core.job.model;
 
+import conjob.core.job.output.JobOutput;
 import lombok.Value;
 
 @Value
 public class JobRunOutcome {
     Long exitStatusCode;
-    String output;
+    JobOutput output;
 }
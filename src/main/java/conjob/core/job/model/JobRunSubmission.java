@@ -0,0 +1,10 @@
+package conjob.core.job.model;
+
+import lombok.Value;
+
+@Value
+public class JobRunSubmission {
+    String id;
+    JobRunSubmissionStatus status;
+    JobRun jobRun;
+}
@@ -0,0 +1,5 @@
+package conjob.core.job.model;
+
+public enum JobRunSubmissionStatus {
+    RUNNING, FINISHED
+}
@@ -0,0 +1,9 @@
+package conjob.core.job.model;
+
+import lombok.Value;
+
+@Value
+public class VolumeEvent {
+    String volumeName;
+    String action;
+}
@@ -0,0 +1,9 @@
+package conjob.core.job.model;
+
+import lombok.Value;
+
+@Value
+public class WarmPoolSize {
+    int min;
+    int max;
+}
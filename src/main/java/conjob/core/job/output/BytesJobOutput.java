@@ -0,0 +1,26 @@
+package conjob.core.job.output;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+class BytesJobOutput implements JobOutput {
+    private final byte[] output;
+
+    BytesJobOutput(byte[] output) {
+        this.output = output;
+    }
+
+    @Override
+    public InputStream open() {
+        return new ByteArrayInputStream(output);
+    }
+
+    @Override
+    public long size() {
+        return output.length;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,29 @@
+package conjob.core.job.output;
+
+import java.io.InputStream;
+
+class EmptyJobOutput implements JobOutput {
+    static final EmptyJobOutput INSTANCE = new EmptyJobOutput();
+
+    private EmptyJobOutput() {
+    }
+
+    @Override
+    public InputStream open() {
+        return InputStream.nullInputStream();
+    }
+
+    @Override
+    public long size() {
+        return 0;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        return "EmptyJobOutput";
+    }
+}
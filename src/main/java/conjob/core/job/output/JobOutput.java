@@ -0,0 +1,30 @@
+package conjob.core.job.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Everything a job run wrote to stdout and stderr, in the order it was written. It isn't necessarily held in memory
+//   so it's read back as a stream, as many times as needed, until it's closed.
+public interface JobOutput extends Closeable {
+    static JobOutput empty() {
+        return EmptyJobOutput.INSTANCE;
+    }
+
+    // The given bytes aren't copied so they mustn't be changed afterwards.
+    static JobOutput of(byte[] output) {
+        return new BytesJobOutput(output);
+    }
+
+    InputStream open() throws IOException;
+
+    long size();
+
+    // For output that's kept after its run is over. Whatever it holds in the memory budget running jobs capture their
+    //   output into is moved out of it, so keeping it doesn't leave them less room. It can still be read afterwards.
+    default void retain() throws IOException {
+    }
+
+    @Override
+    void close();
+}
@@ -0,0 +1,5 @@
+package conjob.core.job.output;
+
+// Somewhere a job run's output is written to as it runs then read back from once it's done.
+public interface JobOutputCapture extends JobOutput, JobOutputSink {
+}
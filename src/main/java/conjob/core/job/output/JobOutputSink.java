@@ -0,0 +1,8 @@
+package conjob.core.job.output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public interface JobOutputSink {
+    void write(JobOutputSource source, ByteBuffer content) throws IOException;
+}
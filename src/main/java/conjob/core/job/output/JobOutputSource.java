@@ -0,0 +1,5 @@
+package conjob.core.job.output;
+
+public enum JobOutputSource {
+    STDOUT, STDERR
+}
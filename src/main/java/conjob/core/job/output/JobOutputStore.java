@@ -0,0 +1,205 @@
+package conjob.core.job.output;
+
+import java.io.*;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+// Captures job output into pooled buffers until it grows past the spill threshold, or no more buffers fit in the
+//   memory budget, then moves it to a temp file and keeps writing there. That way a job's output only ever takes up
+//   to the spill threshold (rounded up to a whole buffer) of heap no matter how much it writes. The buffers and the
+//   file are given back once the store is closed and nothing is still reading it, or once it's no longer reachable
+//   if it's never closed.
+public class JobOutputStore implements JobOutputCapture {
+    static final Cleaner CLEANER = Cleaner.create();
+
+    private final OutputBufferPool bufferPool;
+    private final long spillThresholdBytes;
+    private final Path spillDirectory;
+    private final Contents contents;
+    private final Cleaner.Cleanable cleanable;
+    private long size;
+    private int openReaders;
+    private boolean closed;
+
+    public JobOutputStore(OutputBufferPool bufferPool, long spillThresholdBytes, Path spillDirectory) {
+        this.bufferPool = bufferPool;
+        this.spillThresholdBytes = spillThresholdBytes;
+        this.spillDirectory = spillDirectory;
+        this.contents = new Contents(bufferPool);
+        this.cleanable = CLEANER.register(this, contents);
+    }
+
+    @Override
+    public synchronized void write(JobOutputSource source, ByteBuffer content) throws IOException {
+        if (closed) {
+            throw new IOException("Job output has been closed");
+        }
+        if (contents.spillFile == null && size + content.remaining() > spillThresholdBytes) {
+            spill();
+        }
+
+        long end = size + content.remaining();
+        if (contents.spillFile == null && !writeToBuffers(content)) {
+            spill();
+        }
+        if (contents.spillFile != null) {
+            writeToSpillFile(content);
+        }
+        size = end;
+    }
+
+    @Override
+    public synchronized InputStream open() throws IOException {
+        if (closed) {
+            throw new IOException("Job output has been closed");
+        }
+        InputStream stored = contents.spillFile == null
+                ? readBuffers()
+                : Files.newInputStream(contents.spillFile);
+        openReaders++;
+        return new StoreInputStream(stored);
+    }
+
+    @Override
+    public synchronized long size() {
+        return size;
+    }
+
+    // Spills output that's still in buffers to a file so the buffers go back to the budget. Buffers that are being
+    //   read can't be given back yet, so output that's open is left where it is.
+    @Override
+    public synchronized void retain() throws IOException {
+        if (closed || contents.spillFile != null || contents.buffers.isEmpty() || openReaders > 0) {
+            return;
+        }
+        spill();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (openReaders == 0) {
+            cleanable.clean();
+        }
+    }
+
+    private synchronized void readerClosed() {
+        openReaders--;
+        if (closed && openReaders == 0) {
+            cleanable.clean();
+        }
+    }
+
+    // Writes as much of the content as the budget has room for, leaving the size at however much made it in if that
+    //   wasn't all of it.
+    private boolean writeToBuffers(ByteBuffer content) {
+        int bufferSize = bufferPool.getBufferSize();
+        long position = size;
+        while (content.hasRemaining()) {
+            int offset = (int) (position % bufferSize);
+            if (position == (long) contents.buffers.size() * bufferSize) {
+                Optional<byte[]> buffer = bufferPool.tryAcquire();
+                if (buffer.isEmpty()) {
+                    size = position;
+                    return false;
+                }
+                contents.buffers.add(buffer.get());
+            }
+            byte[] buffer = contents.buffers.get(contents.buffers.size() - 1);
+            int length = Math.min(bufferSize - offset, content.remaining());
+            content.get(buffer, offset, length);
+            position += length;
+        }
+        return true;
+    }
+
+    private void writeToSpillFile(ByteBuffer content) throws IOException {
+        while (content.hasRemaining()) {
+            contents.spillChannel.write(content);
+        }
+    }
+
+    private void spill() throws IOException {
+        Path spillFile = Files.createTempFile(spillDirectory, "job-output-", ".log");
+        contents.spillFile = spillFile;
+        contents.spillChannel = FileChannel.open(spillFile, StandardOpenOption.WRITE);
+        long remaining = size;
+        for (byte[] buffer : contents.buffers) {
+            int length = (int) Math.min(buffer.length, remaining);
+            writeToSpillFile(ByteBuffer.wrap(buffer, 0, length));
+            remaining -= length;
+        }
+        contents.releaseBuffers();
+    }
+
+    private InputStream readBuffers() {
+        List<InputStream> buffers = new ArrayList<>();
+        long remaining = size;
+        for (byte[] buffer : contents.buffers) {
+            int length = (int) Math.min(buffer.length, remaining);
+            buffers.add(new ByteArrayInputStream(buffer, 0, length));
+            remaining -= length;
+        }
+        return new SequenceInputStream(Collections.enumeration(buffers));
+    }
+
+    // Keeps the store reachable while it's being read so its buffers can't be given back from under it.
+    private class StoreInputStream extends FilterInputStream {
+        private boolean streamClosed;
+
+        StoreInputStream(InputStream stored) {
+            super(stored);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (streamClosed) {
+                return;
+            }
+            streamClosed = true;
+            try {
+                super.close();
+            } finally {
+                readerClosed();
+            }
+        }
+    }
+
+    // Kept apart from the store itself so it can still be cleaned up once the store is no longer reachable.
+    private static class Contents implements Runnable {
+        private final OutputBufferPool bufferPool;
+        private final List<byte[]> buffers = new ArrayList<>();
+        private Path spillFile;
+        private FileChannel spillChannel;
+
+        Contents(OutputBufferPool bufferPool) {
+            this.bufferPool = bufferPool;
+        }
+
+        @Override
+        public void run() {
+            releaseBuffers();
+            if (spillFile != null) {
+                try {
+                    spillChannel.close();
+                    Files.deleteIfExists(spillFile);
+                } catch (IOException e) {
+                    // Nothing more can be done about it
+                }
+            }
+        }
+
+        void releaseBuffers() {
+            buffers.forEach(bufferPool::release);
+            buffers.clear();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package conjob.core.job.output;
+
+import java.nio.file.Path;
+
+public class JobOutputStoreCreator {
+    private final OutputBufferPool bufferPool;
+    private final OutputMemoryBudget memoryBudget;
+    private final long spillThresholdBytes;
+    private final long maxTailBytes;
+    private final Path spillDirectory;
+
+    public JobOutputStoreCreator(
+            OutputBufferPool bufferPool,
+            OutputMemoryBudget memoryBudget,
+            long spillThresholdBytes,
+            long maxTailBytes,
+            Path spillDirectory) {
+        this.bufferPool = bufferPool;
+        this.memoryBudget = memoryBudget;
+        this.spillThresholdBytes = spillThresholdBytes;
+        this.maxTailBytes = maxTailBytes;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public JobOutputStore create() {
+        return new JobOutputStore(bufferPool, spillThresholdBytes, spillDirectory);
+    }
+
+    // Captures only up to the last tailBytes of output, or the max tail size if that's smaller.
+    public JobOutputCapture createTail(long tailBytes) {
+        int capacity = Math.toIntExact(Math.max(1, Math.min(tailBytes, maxTailBytes)));
+        if (memoryBudget.tryReserve(capacity)) {
+            return new TailJobOutput(capacity, memoryBudget);
+        }
+        return new StoreTail(create(), capacity);
+    }
+}
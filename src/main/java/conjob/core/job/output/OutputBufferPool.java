@@ -0,0 +1,55 @@
+package conjob.core.job.output;
+
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hands out the fixed size buffers job output is captured into and keeps returned ones for reuse, up to a limit, so
+//   capturing output doesn't keep allocating large arrays. Every buffer handed out is reserved from the memory budget
+//   until it's released.
+public class OutputBufferPool {
+    private final int bufferSize;
+    private final int maxPooledBuffers;
+    private final OutputMemoryBudget memoryBudget;
+    private final Queue<byte[]> pooled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledCount = new AtomicInteger();
+
+    public OutputBufferPool(int bufferSize, int maxPooledBuffers) {
+        this(bufferSize, maxPooledBuffers, new OutputMemoryBudget(Long.MAX_VALUE));
+    }
+
+    public OutputBufferPool(int bufferSize, int maxPooledBuffers, OutputMemoryBudget memoryBudget) {
+        this.bufferSize = bufferSize;
+        this.maxPooledBuffers = maxPooledBuffers;
+        this.memoryBudget = memoryBudget;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public Optional<byte[]> tryAcquire() {
+        if (!memoryBudget.tryReserve(bufferSize)) {
+            return Optional.empty();
+        }
+        byte[] buffer = pooled.poll();
+        if (buffer == null) {
+            return Optional.of(new byte[bufferSize]);
+        }
+        pooledCount.decrementAndGet();
+        return Optional.of(buffer);
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer.length != bufferSize) {
+            return;
+        }
+        memoryBudget.release(bufferSize);
+        if (pooledCount.incrementAndGet() > maxPooledBuffers) {
+            pooledCount.decrementAndGet();
+            return;
+        }
+        pooled.offer(buffer);
+    }
+}
@@ -0,0 +1,37 @@
+package conjob.core.job.output;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// The memory all running jobs together may hold their output in. Buffers are reserved from it before they're handed
+//   out and given back to it when they're released, so whatever doesn't fit goes to disk instead of the heap.
+public class OutputMemoryBudget {
+    private final long maxBytes;
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    public OutputMemoryBudget(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean tryReserve(long bytes) {
+        long used;
+        do {
+            used = usedBytes.get();
+            if (used + bytes > maxBytes) {
+                return false;
+            }
+        } while (!usedBytes.compareAndSet(used, used + bytes));
+        return true;
+    }
+
+    public void release(long bytes) {
+        usedBytes.addAndGet(-bytes);
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
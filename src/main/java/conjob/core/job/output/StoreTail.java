@@ -0,0 +1,75 @@
+package conjob.core.job.output;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+// Keeps all of a job's output in a store but only reads back its tail. Used when there's no room in the budget for a
+//   ring buffer, since the store can spill to disk instead.
+class StoreTail implements JobOutputCapture {
+    private final JobOutputStore store;
+    private final long tailBytes;
+
+    StoreTail(JobOutputStore store, long tailBytes) {
+        this.store = store;
+        this.tailBytes = tailBytes;
+    }
+
+    @Override
+    public void write(JobOutputSource source, ByteBuffer content) throws IOException {
+        store.write(source, content);
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        long skipped = store.size() - size();
+        InputStream tail = new BufferedInputStream(store.open());
+        try {
+            skipFully(tail, skipped);
+            if (skipped > 0) {
+                // Don't start part way through a UTF-8 encoded character
+                tail.mark(1);
+                int next;
+                while ((next = tail.read()) != -1 && (next & 0xC0) == 0x80) {
+                    tail.mark(1);
+                }
+                tail.reset();
+            }
+        } catch (IOException e) {
+            tail.close();
+            throw e;
+        }
+        return tail;
+    }
+
+    @Override
+    public long size() {
+        return Math.min(store.size(), tailBytes);
+    }
+
+    @Override
+    public void retain() throws IOException {
+        store.retain();
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+
+    private static void skipFully(InputStream stream, long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = stream.skip(remaining);
+            if (skipped <= 0) {
+                if (stream.read() == -1) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package conjob.core.job.output;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+
+// Keeps only the last bytes of a job's output in a fixed size ring buffer, overwriting the oldest as more is written.
+//   Its memory is reserved from the budget up front and given back once it's closed, or once it's no longer reachable
+//   if it's never closed.
+public class TailJobOutput implements JobOutputCapture {
+    private final byte[] ring;
+    private final Cleaner.Cleanable cleanable;
+    private long written;
+    private boolean closed;
+
+    // The ring's capacity must already be reserved from the budget.
+    TailJobOutput(int capacity, OutputMemoryBudget memoryBudget) {
+        this.ring = new byte[capacity];
+        this.cleanable = JobOutputStore.CLEANER.register(this, () -> memoryBudget.release(capacity));
+    }
+
+    @Override
+    public synchronized void write(JobOutputSource source, ByteBuffer content) throws IOException {
+        if (closed) {
+            throw new IOException("Job output has been closed");
+        }
+        if (content.remaining() > ring.length) {
+            written += content.remaining() - ring.length;
+            content.position(content.limit() - ring.length);
+        }
+        while (content.hasRemaining()) {
+            int offset = (int) (written % ring.length);
+            int length = Math.min(ring.length - offset, content.remaining());
+            content.get(ring, offset, length);
+            written += length;
+        }
+    }
+
+    // Copies the tail out so a read isn't affected by the ring being given back while it's still going.
+    @Override
+    public synchronized InputStream open() throws IOException {
+        if (closed) {
+            throw new IOException("Job output has been closed");
+        }
+        int length = (int) size();
+        int start = (int) ((written - length) % ring.length);
+        byte[] tail = new byte[length];
+        int firstLength = Math.min(length, ring.length - start);
+        System.arraycopy(ring, start, tail, 0, firstLength);
+        System.arraycopy(ring, 0, tail, firstLength, length - firstLength);
+
+        int firstCharacter = 0;
+        if (written > length) {
+            // Don't start part way through a UTF-8 encoded character
+            while (firstCharacter < length && (tail[firstCharacter] & 0xC0) == 0x80) {
+                firstCharacter++;
+            }
+        }
+        return new ByteArrayInputStream(tail, firstCharacter, length - firstCharacter);
+    }
+
+    @Override
+    public synchronized long size() {
+        return Math.min(written, ring.length);
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        cleanable.clean();
+    }
+}
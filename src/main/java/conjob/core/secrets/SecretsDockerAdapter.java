@@ -4,6 +4,7 @@ import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.exceptions.DockerException;
 import com.spotify.docker.client.messages.ContainerConfig;
 import com.spotify.docker.client.messages.HostConfig;
+import conjob.core.concurrent.SingleFlight;
 import conjob.core.secrets.exception.CopySecretsToContainerException;
 import conjob.core.secrets.exception.CreateSecretsContainerException;
 import conjob.core.secrets.exception.RemoveSecretsContainerException;
@@ -15,6 +16,7 @@ import java.nio.file.Path;
 
 public class SecretsDockerAdapter {
     private final DockerClient dockerClient;
+    private final SingleFlight<String> imagePulls = new SingleFlight<>();
 
     public SecretsDockerAdapter(DockerClient dockerClient) {
         this.dockerClient = dockerClient;
@@ -40,11 +42,13 @@ public class SecretsDockerAdapter {
     }
 
     public void pullImage(String imageName) {
-        try {
-            dockerClient.pull(imageName);
-        } catch (DockerException | InterruptedException e) {
-            throw new UpdateSecretsImageException(e);
-        }
+        imagePulls.execute(imageName, () -> {
+            try {
+                dockerClient.pull(imageName);
+            } catch (DockerException | InterruptedException e) {
+                throw new UpdateSecretsImageException(e);
+            }
+        });
     }
 
     public void copySecretsToVolume(Path sourceSecretsFile, String containerId, String destinationPath) {
@@ -7,12 +7,22 @@ import java.util.Optional;
 
 public class SecretsStore {
     private final DockerAdapter dockerAdapter;
+    private final SecretsVolumeIndex secretsVolumeIndex;
 
     public SecretsStore(DockerAdapter dockerAdapter) {
+        this(dockerAdapter, new SecretsVolumeIndex(dockerAdapter));
+    }
+
+    public SecretsStore(DockerAdapter dockerAdapter, SecretsVolumeIndex secretsVolumeIndex) {
         this.dockerAdapter = dockerAdapter;
+        this.secretsVolumeIndex = secretsVolumeIndex;
     }
 
     public Optional<String> findSecrets(String secretsVolumeName) throws SecretsStoreException {
+        if (secretsVolumeIndex.isLoaded()) {
+            return Optional.of(secretsVolumeName).filter(secretsVolumeIndex::contains);
+        }
+
         try {
             return dockerAdapter.listAllVolumeNames().stream()
                     .filter(volName -> volName.equals(secretsVolumeName))
@@ -21,4 +31,9 @@ public class SecretsStore {
             throw new SecretsStoreException(e);
         }
     }
+
+    // Changes whenever the volume's secrets are written or it's removed.
+    public long findSecretsVersion(String secretsVolumeName) {
+        return secretsVolumeIndex.version(secretsVolumeName);
+    }
 }
@@ -0,0 +1,122 @@
+package conjob.core.secrets;
+
+import com.spotify.docker.client.exceptions.DockerException;
+import conjob.core.job.DockerAdapter;
+import conjob.core.job.model.VolumeEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Knows the name of every volume so finding a job's secrets doesn't have to list them all from docker. It's loaded
+//   whenever its subscription to volume events is (re)established and kept current from those events and from
+//   secrets being written after that. Once loaded it's complete, so a name it doesn't have is known not to exist.
+//   It also counts how many times each volume's secrets have changed, as far as this server has seen, so anything
+//   derived from a volume's secrets can tell when they're no longer current.
+@Slf4j
+public class SecretsVolumeIndex implements Runnable {
+    private static final long RESUBSCRIBE_DELAY_MILLIS = 1000;
+
+    private final DockerAdapter dockerAdapter;
+    private volatile Set<String> volumeNames = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile Closeable subscription;
+    private volatile boolean stopped;
+
+    public SecretsVolumeIndex(DockerAdapter dockerAdapter) {
+        this.dockerAdapter = dockerAdapter;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean contains(String volumeName) {
+        return volumeNames.contains(volumeName);
+    }
+
+    public long version(String volumeName) {
+        return versions.getOrDefault(volumeName, 0L);
+    }
+
+    public void secretsWritten(String volumeName) {
+        volumeNames.add(volumeName);
+        versions.merge(volumeName, 1L, Long::sum);
+    }
+
+    @Override
+    public void run() {
+        while (!stopped) {
+            try {
+                followEvents();
+            } catch (RuntimeException ex) {
+                if (!stopped) {
+                    log.warn("Lost subscription to docker volume events: {}", ex.getMessage(), ex);
+                }
+            }
+            // Changes made while there's no subscription would be missed
+            loaded = false;
+            if (!stopped) {
+                pauseBeforeResubscribing();
+            }
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+        Optional.ofNullable(subscription).ifPresent(this::closeQuietly);
+    }
+
+    void followEvents() {
+        dockerAdapter.followVolumeEvents(this::onSubscribed, this::onEvent);
+    }
+
+    private void onSubscribed(Closeable subscription) {
+        this.subscription = subscription;
+        load();
+    }
+
+    private void load() {
+        try {
+            Set<String> loadedVolumeNames = ConcurrentHashMap.newKeySet();
+            loadedVolumeNames.addAll(dockerAdapter.listAllVolumeNames());
+            volumeNames = loadedVolumeNames;
+            loaded = true;
+        } catch (DockerException | InterruptedException e) {
+            // Keep answering from docker directly until the next subscription manages to load
+            loaded = false;
+            log.warn("Problem loading volumes: {}", e.getMessage(), e);
+        }
+    }
+
+    private void onEvent(VolumeEvent event) {
+        if (DockerAdapter.CREATE_EVENT.equals(event.getAction())) {
+            volumeNames.add(event.getVolumeName());
+        } else if (DockerAdapter.DESTROY_EVENT.equals(event.getAction())) {
+            volumeNames.remove(event.getVolumeName());
+            versions.merge(event.getVolumeName(), 1L, Long::sum);
+        }
+    }
+
+    private void pauseBeforeResubscribing() {
+        try {
+            Thread.sleep(RESUBSCRIBE_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            stopped = true;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeQuietly(Closeable subscription) {
+        try {
+            subscription.close();
+        } catch (IOException e) {
+            log.debug("Problem closing docker volume event subscription: {}", e.getMessage(), e);
+        }
+    }
+}
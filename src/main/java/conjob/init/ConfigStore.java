@@ -47,7 +47,72 @@ public class ConfigStore {
                         "conjob.job.limit.maxKillTimeoutSeconds",
                         new ConjobConfigAccessor(
                                 () -> config.getJob().getLimit().getMaxKillTimeoutSeconds(),
-                                value -> config.getJob().getLimit().setMaxKillTimeoutSeconds(value)))
+                                value -> config.getJob().getLimit().setMaxKillTimeoutSeconds(value))),
+                Map.entry(
+                        "conjob.job.limit.maxGlobalRequestBurst",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getLimit().getMaxGlobalRequestBurst(),
+                                value -> config.getJob().getLimit().setMaxGlobalRequestBurst(value))),
+                Map.entry(
+                        "conjob.job.adaptiveLimit.minConcurrentRuns",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getAdaptiveLimit().getMinConcurrentRuns(),
+                                value -> config.getJob().getAdaptiveLimit().setMinConcurrentRuns(value))),
+                Map.entry(
+                        "conjob.job.adaptiveLimit.targetCreationMillis",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getAdaptiveLimit().getTargetCreationMillis(),
+                                value -> config.getJob().getAdaptiveLimit().setTargetCreationMillis(value))),
+                Map.entry(
+                        "conjob.job.adaptiveLimit.backoffPercent",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getAdaptiveLimit().getBackoffPercent(),
+                                value -> config.getJob().getAdaptiveLimit().setBackoffPercent(value))),
+                Map.entry(
+                        "conjob.job.keyedLimit.image.maxRequestsPerSecond",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getKeyedLimit().getImage().getMaxRequestsPerSecond(),
+                                value -> config.getJob().getKeyedLimit().getImage().setMaxRequestsPerSecond(value))),
+                Map.entry(
+                        "conjob.job.keyedLimit.image.maxConcurrentRuns",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getKeyedLimit().getImage().getMaxConcurrentRuns(),
+                                value -> config.getJob().getKeyedLimit().getImage().setMaxConcurrentRuns(value))),
+                Map.entry(
+                        "conjob.job.keyedLimit.user.maxRequestsPerSecond",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getKeyedLimit().getUser().getMaxRequestsPerSecond(),
+                                value -> config.getJob().getKeyedLimit().getUser().setMaxRequestsPerSecond(value))),
+                Map.entry(
+                        "conjob.job.keyedLimit.user.maxConcurrentRuns",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getKeyedLimit().getUser().getMaxConcurrentRuns(),
+                                value -> config.getJob().getKeyedLimit().getUser().setMaxConcurrentRuns(value))),
+                Map.entry(
+                        "conjob.job.keyedLimit.idleSeconds",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getKeyedLimit().getIdleSeconds(),
+                                value -> config.getJob().getKeyedLimit().setIdleSeconds(value))),
+                Map.entry(
+                        "conjob.job.hostLimit.maxLoadPercent",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getHostLimit().getMaxLoadPercent(),
+                                value -> config.getJob().getHostLimit().setMaxLoadPercent(value))),
+                Map.entry(
+                        "conjob.job.hostLimit.minFreeMemoryPercent",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getHostLimit().getMinFreeMemoryPercent(),
+                                value -> config.getJob().getHostLimit().setMinFreeMemoryPercent(value))),
+                Map.entry(
+                        "conjob.job.hostLimit.minFreeDiskPercent",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getHostLimit().getMinFreeDiskPercent(),
+                                value -> config.getJob().getHostLimit().setMinFreeDiskPercent(value))),
+                Map.entry(
+                        "conjob.job.hostLimit.maxRunsPerSample",
+                        new ConjobConfigAccessor(
+                                () -> config.getJob().getHostLimit().getMaxRunsPerSample(),
+                                value -> config.getJob().getHostLimit().setMaxRunsPerSample(value)))
         );
     }
 }
\ No newline at end of file
@@ -1,37 +1,74 @@
 package conjob.resource;
 
+import conjob.api.JobBatchJobRequest;
+import conjob.api.JobBatchRunResponse;
+import conjob.api.JobPipelineRequest;
+import conjob.api.JobPipelineStageRequest;
+import conjob.api.JobPipelineStageRunResponse;
+import conjob.core.job.exception.InputTooLargeException;
 import conjob.core.job.model.JobRun;
+import conjob.core.job.model.JobRunSubmission;
+import conjob.core.job.output.JobOutput;
 import conjob.core.secrets.SecretsStoreException;
+import conjob.resource.convert.JobBatchWriter;
 import conjob.resource.convert.JobResponseConverter;
+import conjob.resource.convert.JobRunStreamWriter;
 import conjob.resource.convert.ResponseCreator;
+import conjob.service.job.BatchJob;
 import conjob.service.job.JobService;
+import conjob.service.job.PipelineStage;
+import conjob.service.job.PriorityClassAccess;
+import conjob.service.job.RunJobRequester;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.security.PermitAll;
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
 
 @Path("/job/run")
 @PermitAll
 @Slf4j
 public class JobResource {
+    public static final String JOB_RUN_STREAM_TYPE = "application/x-ndjson";
+    public static final int MAX_BATCH_JOBS = 100;
+    public static final int MAX_PIPELINE_STAGES = 20;
     // Taken from here: https://stackoverflow.com/a/39672069/14146969   Second to last char (?) removed to require
     //   user to specify tag. See here for why: https://github.com/ScottG489/conjob/issues/18
-    private static final String DOCKER_IMAGE_NAME_FORMAT = "^(?:(?=[^:\\/]{1,253})(?!-)[a-zA-Z0-9-]{1,63}(?<!-)(?:\\.(?!-)[a-zA-Z0-9-]{1,63}(?<!-))*(?::[0-9]{1,5})?/)?((?![._-])(?:[a-z0-9._-]*)(?<![._-])(?:/(?![._-])[a-z0-9._-]*(?<![._-]))*)(?::(?![.-])[a-zA-Z0-9_.-]{1,128})$";
+    public static final String DOCKER_IMAGE_NAME_FORMAT = "^(?:(?=[^:\\/]{1,253})(?!-)[a-zA-Z0-9-]{1,63}(?<!-)(?:\\.(?!-)[a-zA-Z0-9-]{1,63}(?<!-))*(?::[0-9]{1,5})?/)?((?![._-])(?:[a-z0-9._-]*)(?<![._-])(?:/(?![._-])[a-z0-9._-]*(?<![._-]))*)(?::(?![.-])[a-zA-Z0-9_.-]{1,128})$";
     private final JobService jobService;
     private final ResponseCreator responseCreator;
     private final JobResponseConverter jobResponseConverter;
+    private final PriorityClassAccess priorityClassAccess;
 
     public JobResource(
             JobService jobService,
             ResponseCreator responseCreator,
-            JobResponseConverter jobResponseConverter) {
+            JobResponseConverter jobResponseConverter,
+            PriorityClassAccess priorityClassAccess) {
         this.jobService = jobService;
         this.responseCreator = responseCreator;
         this.jobResponseConverter = jobResponseConverter;
+        this.priorityClassAccess = priorityClassAccess;
     }
 
     @POST
@@ -39,9 +76,14 @@ public class JobResource {
     public Response handleTextPost(
             @NotEmpty @Pattern(regexp = DOCKER_IMAGE_NAME_FORMAT) @QueryParam("image") String imageName,
             String input,
-            @QueryParam("pull") @DefaultValue("always") String pullStrategy)
+            @QueryParam("pull") @DefaultValue("always") String pullStrategy,
+            @QueryParam("tail") @Min(1) Long tailBytes,
+            @QueryParam("cache") @DefaultValue("false") boolean useCache,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext)
             throws SecretsStoreException {
-        return createResponse(imageName, input, pullStrategy);
+        return createResponse(
+                imageName, input, pullStrategy, tailBytes, useCache, requesterOf(priority, securityContext));
     }
 
     @POST
@@ -49,41 +91,310 @@ public class JobResource {
     public Response handleJsonPost(
             @NotEmpty @Pattern(regexp = DOCKER_IMAGE_NAME_FORMAT) @QueryParam("image") String imageName,
             String input,
-            @QueryParam("pull") @DefaultValue("always") String pullStrategy)
+            @QueryParam("pull") @DefaultValue("always") String pullStrategy,
+            @QueryParam("tail") @Min(1) Long tailBytes,
+            @QueryParam("cache") @DefaultValue("false") boolean useCache,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext)
             throws SecretsStoreException {
-        return createJsonResponse(imageName, input, pullStrategy);
+        return createJsonResponse(
+                imageName, input, pullStrategy, tailBytes, useCache, requesterOf(priority, securityContext));
     }
 
     @GET
     @Produces(MediaType.TEXT_PLAIN)
     public Response handleTextGet(
             @NotEmpty @Pattern(regexp = DOCKER_IMAGE_NAME_FORMAT) @QueryParam("image") String imageName,
-            @QueryParam("pull") @DefaultValue("always") String pullStrategy)
+            @QueryParam("pull") @DefaultValue("always") String pullStrategy,
+            @QueryParam("tail") @Min(1) Long tailBytes,
+            @QueryParam("cache") @DefaultValue("false") boolean useCache,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext)
             throws SecretsStoreException {
-        return createResponse(imageName, "", pullStrategy);
+        return createResponse(
+                imageName, "", pullStrategy, tailBytes, useCache, requesterOf(priority, securityContext));
     }
 
     @GET
     @Produces({MediaType.APPLICATION_JSON, MediaType.WILDCARD + ";q=0"})
     public Response handleJsonGet(
             @NotEmpty @Pattern(regexp = DOCKER_IMAGE_NAME_FORMAT) @QueryParam("image") String imageName,
-            @QueryParam("pull") @DefaultValue("always") String pullStrategy)
+            @QueryParam("pull") @DefaultValue("always") String pullStrategy,
+            @QueryParam("tail") @Min(1) Long tailBytes,
+            @QueryParam("cache") @DefaultValue("false") boolean useCache,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext)
             throws SecretsStoreException {
-        return createJsonResponse(imageName, "", pullStrategy);
+        return createJsonResponse(
+                imageName, "", pullStrategy, tailBytes, useCache, requesterOf(priority, securityContext));
     }
 
-    private Response createResponse(String imageName, String input, String pullStrategy)
-            throws SecretsStoreException {
+    @POST
+    @Produces({JOB_RUN_STREAM_TYPE, MediaType.WILDCARD + ";q=0"})
+    public Response handleStreamPost(
+            @NotEmpty @Pattern(regexp = DOCKER_IMAGE_NAME_FORMAT) @QueryParam("image") String imageName,
+            String input,
+            @QueryParam("pull") @DefaultValue("always") String pullStrategy,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext) {
+        return createStreamingResponse(imageName, input, pullStrategy, requesterOf(priority, securityContext));
+    }
+
+    @GET
+    @Produces({JOB_RUN_STREAM_TYPE, MediaType.WILDCARD + ";q=0"})
+    public Response handleStreamGet(
+            @NotEmpty @Pattern(regexp = DOCKER_IMAGE_NAME_FORMAT) @QueryParam("image") String imageName,
+            @QueryParam("pull") @DefaultValue("always") String pullStrategy,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext) {
+        return createStreamingResponse(imageName, "", pullStrategy, requesterOf(priority, securityContext));
+    }
+
+    // Streams the request body into a file in the container rather than passing it as the job's argument, so it can be
+    //   as large as the configured limit allows whatever its content type.
+    @POST
+    @Path("/file")
+    @Consumes(MediaType.WILDCARD)
+    @Produces(MediaType.TEXT_PLAIN)
+    public Response handleTextFilePost(
+            @NotEmpty @Pattern(regexp = DOCKER_IMAGE_NAME_FORMAT) @QueryParam("image") String imageName,
+            InputStream input,
+            @QueryParam("pull") @DefaultValue("always") String pullStrategy,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext)
+            throws SecretsStoreException, IOException {
+        log.info("Running image with file input: '{}'", imageName);
+        try {
+            JobRun jobRun = jobService.runFileInputJob(
+                    imageName, input, pullStrategy, requesterOf(priority, securityContext));
+            log.info("Job run finished: '{}'", jobRun);
+            return responseCreator.createResponseFrom(jobResponseConverter.from(jobRun));
+        } catch (InputTooLargeException e) {
+            return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE).build();
+        }
+    }
+
+    @POST
+    @Path("/file")
+    @Consumes(MediaType.WILDCARD)
+    @Produces({MediaType.APPLICATION_JSON, MediaType.WILDCARD + ";q=0"})
+    public Response handleJsonFilePost(
+            @NotEmpty @Pattern(regexp = DOCKER_IMAGE_NAME_FORMAT) @QueryParam("image") String imageName,
+            InputStream input,
+            @QueryParam("pull") @DefaultValue("always") String pullStrategy,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext)
+            throws SecretsStoreException, IOException {
+        log.info("Running image with file input: '{}'", imageName);
+        try {
+            JobRun jobRun = jobService.runFileInputJob(
+                    imageName, input, pullStrategy, requesterOf(priority, securityContext));
+            return responseCreator.createJsonResponseFrom(jobResponseConverter.from(jobRun));
+        } catch (InputTooLargeException e) {
+            return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE).build();
+        }
+    }
+
+    @POST
+    @Path("/submit")
+    @Produces({MediaType.APPLICATION_JSON, MediaType.WILDCARD + ";q=0"})
+    public Response handleSubmitPost(
+            @NotEmpty @Pattern(regexp = DOCKER_IMAGE_NAME_FORMAT) @QueryParam("image") String imageName,
+            String input,
+            @QueryParam("pull") @DefaultValue("always") String pullStrategy,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext) {
+        log.info("Submitting image: '{}'", imageName);
+        JobRunSubmission submission =
+                jobService.submitJob(imageName, input, pullStrategy, requesterOf(priority, securityContext));
+        log.info("Job run submitted: '{}'", submission);
+        return responseCreator.createSubmittedResponseFrom(jobResponseConverter.from(submission));
+    }
+
+    @POST
+    @Path("/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaType.WILDCARD + ";q=0"})
+    public Response handleBatchPost(
+            @NotEmpty @Size(max = MAX_BATCH_JOBS) @Valid List<JobBatchJobRequest> jobs,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext) {
+        return createBatchResponse(jobs, false, requesterOf(priority, securityContext));
+    }
+
+    @POST
+    @Path("/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({JOB_RUN_STREAM_TYPE, MediaType.WILDCARD + ";q=0"})
+    public Response handleBatchStreamPost(
+            @NotEmpty @Size(max = MAX_BATCH_JOBS) @Valid List<JobBatchJobRequest> jobs,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext) {
+        return createBatchResponse(jobs, true, requesterOf(priority, securityContext));
+    }
+
+    @POST
+    @Path("/pipeline")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaType.WILDCARD + ";q=0"})
+    public Response handlePipelinePost(
+            @NotNull @Valid JobPipelineRequest pipeline,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext) {
+        return createPipelineResponse(pipeline, false, requesterOf(priority, securityContext));
+    }
+
+    @POST
+    @Path("/pipeline")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({JOB_RUN_STREAM_TYPE, MediaType.WILDCARD + ";q=0"})
+    public Response handlePipelineStreamPost(
+            @NotNull @Valid JobPipelineRequest pipeline,
+            @QueryParam("priority") String priority,
+            @Context SecurityContext securityContext) {
+        return createPipelineResponse(pipeline, true, requesterOf(priority, securityContext));
+    }
+
+    @GET
+    @Path("/{id}")
+    @Produces({MediaType.APPLICATION_JSON, MediaType.WILDCARD + ";q=0"})
+    public Response handleSubmissionGet(@PathParam("id") String id) {
+        return jobService.findSubmission(id)
+                .map(jobResponseConverter::from)
+                .map(responseCreator::createSubmissionStatusResponseFrom)
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND).build());
+    }
+
+    private Response createResponse(
+            String imageName,
+            String input,
+            String pullStrategy,
+            Long tailBytes,
+            boolean useCache,
+            RunJobRequester requester) throws SecretsStoreException {
         log.info("Running image: '{}'", imageName);
-        JobRun jobRun = jobService.runJob(imageName, input, pullStrategy);
+        JobRun jobRun = runJob(imageName, input, pullStrategy, tailBytes, useCache, requester);
         log.info("Job run finished: '{}'", jobRun);
         return responseCreator.createResponseFrom(jobResponseConverter.from(jobRun));
     }
 
-    private Response createJsonResponse(String imageName, String input, String pullStrategy)
-            throws SecretsStoreException {
+    private Response createJsonResponse(
+            String imageName,
+            String input,
+            String pullStrategy,
+            Long tailBytes,
+            boolean useCache,
+            RunJobRequester requester) throws SecretsStoreException {
         log.info("Running image: '{}'", imageName);
-        JobRun jobRun = jobService.runJob(imageName, input, pullStrategy);
+        JobRun jobRun = runJob(imageName, input, pullStrategy, tailBytes, useCache, requester);
         return responseCreator.createJsonResponseFrom(jobResponseConverter.from(jobRun));
     }
-}
\ No newline at end of file
+
+    private JobRun runJob(
+            String imageName,
+            String input,
+            String pullStrategy,
+            Long tailBytes,
+            boolean useCache,
+            RunJobRequester requester) throws SecretsStoreException {
+        if (useCache) {
+            return jobService.runCachedJob(imageName, input, pullStrategy, tailBytes, requester);
+        }
+        return tailBytes == null
+                ? jobService.runJob(imageName, input, pullStrategy, requester)
+                : jobService.runJob(imageName, input, pullStrategy, tailBytes, requester);
+    }
+
+    private Response createStreamingResponse(
+            String imageName, String input, String pullStrategy, RunJobRequester requester) {
+        log.info("Streaming image: '{}'", imageName);
+        return responseCreator.createStreamingResponseFrom(outputStream -> {
+            JobRunStreamWriter streamWriter = new JobRunStreamWriter(outputStream, jobResponseConverter);
+            JobRun jobRun;
+            try {
+                jobRun = jobService.runJob(imageName, input, pullStrategy, streamWriter, requester);
+            } catch (SecretsStoreException e) {
+                log.error("Problem finding secrets for streamed job: {}", e.getMessage(), e);
+                jobRun = new JobRun(null, JobOutput.empty(), -1);
+            }
+            log.info("Job run finished: '{}'", jobRun);
+            streamWriter.writeConclusion(jobResponseConverter.from(jobRun));
+        });
+    }
+
+    // The response is always OK since each job's own conclusion is in its result.
+    private Response createBatchResponse(
+            List<JobBatchJobRequest> jobs, boolean streamed, RunJobRequester requester) {
+        log.info("Running batch of {} jobs", jobs.size());
+        List<CompletableFuture<JobRun>> runs = jobService.runBatch(
+                jobs.stream()
+                        .map(job -> new BatchJob(job.getImage(), job.getInput(), job.getPull()))
+                        .collect(Collectors.toList()),
+                requester);
+        return responseCreator.createStreamingResponseFrom(writeRuns(runs, streamed, (batchWriter, index, jobRun) -> {
+            log.info("Batched job run finished: '{}'", jobRun);
+            batchWriter.write(new JobBatchRunResponse(
+                    index, jobs.get(index).getImage(), jobResponseConverter.from(jobRun)));
+        }));
+    }
+
+    // Like a batch, every stage's result is in the response, including the ones that were skipped.
+    private Response createPipelineResponse(
+            JobPipelineRequest pipeline, boolean streamed, RunJobRequester requester) {
+        List<JobPipelineStageRequest> stageRequests = pipeline.getStages();
+        log.info("Running pipeline of {} stages", stageRequests.size());
+        List<PipelineStage> stages = new ArrayList<>();
+        for (int i = 0; i < stageRequests.size(); i++) {
+            JobPipelineStageRequest stage = stageRequests.get(i);
+            List<String> after = stage.getAfter() != null
+                    ? stage.getAfter()
+                    : i == 0 ? List.of() : List.of(stageRequests.get(i - 1).getName());
+            stages.add(new PipelineStage(stage.getName(), stage.getImage(), stage.getPull(), after));
+        }
+        List<CompletableFuture<JobRun>> runs = jobService.runPipeline(pipeline.getInput(), stages, requester);
+        return responseCreator.createStreamingResponseFrom(writeRuns(runs, streamed, (batchWriter, index, jobRun) -> {
+            log.info("Pipeline stage '{}' finished: '{}'", stages.get(index).getName(), jobRun);
+            batchWriter.write(new JobPipelineStageRunResponse(
+                    stages.get(index).getName(), stages.get(index).getImageName(), jobResponseConverter.from(jobRun)));
+        }));
+    }
+
+    // Streamed runs are written as they finish, otherwise in the same order as they were given.
+    private StreamingOutput writeRuns(
+            List<CompletableFuture<JobRun>> runs, boolean streamed, RunWriter runWriter) {
+        return outputStream -> {
+            JobBatchWriter batchWriter = new JobBatchWriter(outputStream, streamed);
+            BlockingQueue<Integer> finished = new LinkedBlockingQueue<>();
+            for (int i = 0; i < runs.size(); i++) {
+                int index = i;
+                runs.get(i).whenComplete((jobRun, ex) -> finished.add(index));
+            }
+            for (int i = 0; i < runs.size(); i++) {
+                int index;
+                try {
+                    index = streamed ? finished.take() : i;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for job runs");
+                }
+                runWriter.write(batchWriter, index, runs.get(index).join());
+            }
+            batchWriter.finish();
+        };
+    }
+
+    // The priority parameter names the run's priority class, otherwise it's the authenticated user's name. Naming a
+    //   class the user isn't allowed in is refused rather than quietly ignored.
+    private RunJobRequester requesterOf(String priority, SecurityContext securityContext) {
+        Principal principal = securityContext == null ? null : securityContext.getUserPrincipal();
+        String user = principal == null ? null : principal.getName();
+        if (priority != null && !priorityClassAccess.allows(user, priority)) {
+            throw new PriorityClassForbiddenException(priority);
+        }
+        return new RunJobRequester(priority != null ? priority : user, null, user);
+    }
+
+    private interface RunWriter {
+        void write(JobBatchWriter batchWriter, int index, JobRun jobRun) throws IOException;
+    }
+}
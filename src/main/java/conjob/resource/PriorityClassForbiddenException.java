@@ -0,0 +1,7 @@
+package conjob.resource;
+
+public class PriorityClassForbiddenException extends RuntimeException {
+    public PriorityClassForbiddenException(String priorityClass) {
+        super("Not allowed to run in priority class '" + priorityClass + "'");
+    }
+}
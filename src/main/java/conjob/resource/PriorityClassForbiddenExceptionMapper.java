@@ -0,0 +1,15 @@
+package conjob.resource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+
+@Slf4j
+public class PriorityClassForbiddenExceptionMapper implements ExceptionMapper<PriorityClassForbiddenException> {
+    @Override
+    public Response toResponse(PriorityClassForbiddenException exception) {
+        log.info(exception.getMessage());
+        return Response.status(Response.Status.FORBIDDEN).build();
+    }
+}
@@ -0,0 +1,33 @@
+package conjob.resource.admin.task;
+
+import conjob.core.job.ImagePuller;
+import io.dropwizard.servlets.tasks.Task;
+
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+
+// Forgets when images were last pulled so the next run of them pulls again. Only the images given as "image"
+//   parameters are forgotten, or every image if none are given.
+public class ImageFreshnessTask extends Task {
+    private static final String IMAGE_PARAMETER = "image";
+    private final List<ImagePuller> imagePullers;
+
+    // One puller for each docker daemon.
+    public ImageFreshnessTask(ImagePuller... imagePullers) {
+        super("image-freshness");
+        this.imagePullers = List.of(imagePullers);
+    }
+
+    @Override
+    public void execute(Map<String, List<String>> parameters, PrintWriter output) {
+        List<String> imageNames = parameters.getOrDefault(IMAGE_PARAMETER, List.of());
+        imagePullers.forEach(imagePuller -> {
+            if (imageNames.isEmpty()) {
+                imagePuller.invalidateAll();
+            } else {
+                imageNames.forEach(imagePuller::invalidate);
+            }
+        });
+    }
+}
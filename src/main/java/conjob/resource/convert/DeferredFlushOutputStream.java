@@ -0,0 +1,37 @@
+package conjob.resource.convert;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Holds back flushes until at least the minimum has been written. A response with no Content-Length that's flushed
+//   is gzipped however small it turns out to be, whereas one that's only written out when it's closed is measured
+//   against the gzip minimum first. Past the minimum every flush goes straight through.
+public class DeferredFlushOutputStream extends FilterOutputStream {
+    private final long minimumBytes;
+    private long written;
+
+    public DeferredFlushOutputStream(OutputStream outputStream, long minimumBytes) {
+        super(outputStream);
+        this.minimumBytes = minimumBytes;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        written++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        written += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (written >= minimumBytes) {
+            out.flush();
+        }
+    }
+}
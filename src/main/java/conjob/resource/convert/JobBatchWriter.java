@@ -0,0 +1,59 @@
+package conjob.resource.convert;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import conjob.api.JobBatchRunResponse;
+import conjob.api.JobPipelineStageRunResponse;
+import conjob.api.JobRunResponse;
+import io.dropwizard.jackson.Jackson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Writes a batch's, or a pipeline's, runs either as newline delimited JSON frames or as the elements of one JSON
+//   array. Each run's output is closed once it's been written since nothing reads it after that.
+public class JobBatchWriter {
+    private static final ObjectWriter RUN_WRITER = Jackson.newObjectMapper().writer();
+
+    private final OutputStream outputStream;
+    private final boolean streamed;
+    private boolean anyWritten;
+
+    public JobBatchWriter(OutputStream outputStream, boolean streamed) {
+        this.outputStream = outputStream;
+        this.streamed = streamed;
+    }
+
+    public void write(JobBatchRunResponse run) throws IOException {
+        write(run, run.getResult());
+    }
+
+    public void write(JobPipelineStageRunResponse stageRun) throws IOException {
+        write(stageRun, stageRun.getResult());
+    }
+
+    public void finish() throws IOException {
+        if (!streamed) {
+            if (!anyWritten) {
+                outputStream.write('[');
+            }
+            outputStream.write(']');
+        }
+        outputStream.flush();
+    }
+
+    private void write(Object run, JobRunResponse result) throws IOException {
+        if (!streamed) {
+            outputStream.write(anyWritten ? ',' : '[');
+        }
+        try {
+            outputStream.write(RUN_WRITER.writeValueAsBytes(run));
+        } finally {
+            result.getOutput().close();
+        }
+        if (streamed) {
+            outputStream.write('\n');
+            outputStream.flush();
+        }
+        anyWritten = true;
+    }
+}
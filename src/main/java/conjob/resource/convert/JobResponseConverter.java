@@ -1,9 +1,16 @@
 package conjob.resource.convert;
 
+import conjob.api.JobOutputSourceResponse;
 import conjob.api.JobRunConclusionResponse;
+import conjob.api.JobRunOutputFrame;
 import conjob.api.JobRunResponse;
+import conjob.api.JobRunSubmissionResponse;
+import conjob.api.JobRunSubmissionStatusResponse;
 import conjob.core.job.model.JobRun;
 import conjob.core.job.model.JobRunConclusion;
+import conjob.core.job.model.JobRunSubmission;
+import conjob.core.job.model.JobRunSubmissionStatus;
+import conjob.core.job.output.JobOutputSource;
 
 import java.util.Map;
 
@@ -13,7 +20,8 @@ public class JobResponseConverter {
             JobRunConclusion.FAILURE, JobRunConclusionResponse.FAILURE,
             JobRunConclusion.NOT_FOUND, JobRunConclusionResponse.NOT_FOUND,
             JobRunConclusion.TIMED_OUT, JobRunConclusionResponse.TIMED_OUT,
-            JobRunConclusion.REJECTED, JobRunConclusionResponse.REJECTED
+            JobRunConclusion.REJECTED, JobRunConclusionResponse.REJECTED,
+            JobRunConclusion.SKIPPED, JobRunConclusionResponse.SKIPPED
     );
 
     private static final Map<JobRunConclusion, String> jobRunConclusionResponseMessage = Map.of(
@@ -21,7 +29,18 @@ public class JobResponseConverter {
             JobRunConclusion.FAILURE, "Job run failed.",
             JobRunConclusion.NOT_FOUND, "Job not found.",
             JobRunConclusion.TIMED_OUT, "Job exceeded maximum allowed duration.",
-            JobRunConclusion.REJECTED, "Concurrent job limit exceeded. Please wait then try again."
+            JobRunConclusion.REJECTED, "Concurrent job limit exceeded. Please wait then try again.",
+            JobRunConclusion.SKIPPED, "Job not run since a job it comes after didn't succeed."
+    );
+
+    private static final Map<JobRunSubmissionStatus, JobRunSubmissionStatusResponse> submissionStatusToResponse = Map.of(
+            JobRunSubmissionStatus.RUNNING, JobRunSubmissionStatusResponse.RUNNING,
+            JobRunSubmissionStatus.FINISHED, JobRunSubmissionStatusResponse.FINISHED
+    );
+
+    private static final Map<JobOutputSource, JobOutputSourceResponse> outputSourceToResponse = Map.of(
+            JobOutputSource.STDOUT, JobOutputSourceResponse.STDOUT,
+            JobOutputSource.STDERR, JobOutputSourceResponse.STDERR
     );
 
     public JobRunResponse from(JobRun jobRun) {
@@ -29,10 +48,23 @@ public class JobResponseConverter {
                 from(jobRun.getConclusion()),
                 jobRun.getOutput(),
                 jobRun.getExitCode(),
-                responseMessageFrom(jobRun.getConclusion())
+                responseMessageFrom(jobRun.getConclusion()),
+                jobRun.isCached()
         );
     }
 
+    public JobRunSubmissionResponse from(JobRunSubmission submission) {
+        return new JobRunSubmissionResponse(
+                submission.getId(),
+                from(submission.getStatus()),
+                submission.getJobRun() == null ? null : from(submission.getJobRun())
+        );
+    }
+
+    public JobRunOutputFrame from(JobOutputSource source, String output) {
+        return new JobRunOutputFrame(outputSourceToResponse.get(source), output);
+    }
+
     private String responseMessageFrom(JobRunConclusion conclusion) {
         return conclusion == null
                 ? "Unknown outcome."
@@ -44,4 +76,10 @@ public class JobResponseConverter {
                 ? JobRunConclusionResponse.UNKNOWN
                 : jobResultToJobResultResponse.getOrDefault(conclusion, JobRunConclusionResponse.UNKNOWN);
     }
+
+    private JobRunSubmissionStatusResponse from(JobRunSubmissionStatus status) {
+        return status == null
+                ? JobRunSubmissionStatusResponse.UNKNOWN
+                : submissionStatusToResponse.getOrDefault(status, JobRunSubmissionStatusResponse.UNKNOWN);
+    }
 }
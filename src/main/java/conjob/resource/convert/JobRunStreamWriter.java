@@ -0,0 +1,70 @@
+package conjob.resource.convert;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import conjob.api.JobRunResponse;
+import conjob.core.job.output.JobOutputSink;
+import conjob.core.job.output.JobOutputSource;
+import io.dropwizard.jackson.Jackson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Writes each chunk of job output as its own newline delimited JSON frame as soon as it arrives. The job run's
+//   conclusion is written as the last frame since the response status has already been sent by then.
+public class JobRunStreamWriter implements JobOutputSink {
+    private static final ObjectWriter FRAME_WRITER = Jackson.newObjectMapper().writer();
+    private static final int FRAME_DELIMITER = '\n';
+
+    private final OutputStream outputStream;
+    private final JobResponseConverter jobResponseConverter;
+    private final Map<JobOutputSource, OutputDecoder> outputDecoders = new EnumMap<>(JobOutputSource.class);
+
+    public JobRunStreamWriter(OutputStream outputStream, JobResponseConverter jobResponseConverter) {
+        this.outputStream = outputStream;
+        this.jobResponseConverter = jobResponseConverter;
+    }
+
+    @Override
+    public void write(JobOutputSource source, ByteBuffer content) throws IOException {
+        String output = outputDecoders.computeIfAbsent(source, s -> new OutputDecoder()).decode(content);
+        if (!output.isEmpty()) {
+            writeFrame(jobResponseConverter.from(source, output));
+        }
+    }
+
+    public void writeConclusion(JobRunResponse jobRunResponse) throws IOException {
+        writeFrame(jobRunResponse);
+    }
+
+    private synchronized void writeFrame(Object frame) throws IOException {
+        outputStream.write(FRAME_WRITER.writeValueAsBytes(frame));
+        outputStream.write(FRAME_DELIMITER);
+        outputStream.flush();
+    }
+
+    // Multi-byte characters can be split across log frames so any incomplete trailing bytes are held back
+    //   until the next chunk from the same source arrives.
+    private static class OutputDecoder {
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ByteBuffer pending = ByteBuffer.allocate(0);
+
+        String decode(ByteBuffer content) {
+            ByteBuffer input = ByteBuffer.allocate(pending.remaining() + content.remaining());
+            input.put(pending).put(content).flip();
+            CharBuffer chars = CharBuffer.allocate(
+                    (int) Math.ceil(input.remaining() * (double) decoder.maxCharsPerByte()));
+            decoder.decode(input, chars, false);
+            pending = input.slice();
+            return chars.flip().toString();
+        }
+    }
+}
@@ -1,38 +1,103 @@
 package conjob.resource.convert;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import conjob.api.JobRunConclusionResponse;
 import conjob.api.JobRunResponse;
+import conjob.api.JobRunSubmissionResponse;
+import conjob.core.job.output.JobOutput;
+import conjob.resource.JobResource;
+import io.dropwizard.jackson.Jackson;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriBuilder;
+import java.io.InputStream;
 import java.util.Map;
 
 public class ResponseCreator {
-    private final Map<JobRunConclusionResponse, Response.ResponseBuilder> jobRunConclusionResponseStatus;
+    public static final String CACHE_HEADER = "X-Job-Cache";
+    private static final ObjectWriter RUN_WRITER =
+            Jackson.newObjectMapper().writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private final Map<JobRunConclusionResponse, Response.Status> jobRunConclusionResponseStatus;
+    private final long minimumFlushBytes;
 
     public ResponseCreator() {
+        this(0);
+    }
+
+    // Streamed responses aren't flushed until they're past the minimum so the gzip minimum still applies to them.
+    public ResponseCreator(long minimumFlushBytes) {
+        this.minimumFlushBytes = minimumFlushBytes;
         jobRunConclusionResponseStatus =
-                Map.of(JobRunConclusionResponse.SUCCESS, Response.ok(),
-                        JobRunConclusionResponse.FAILURE, Response.status(Response.Status.BAD_REQUEST),
-                        JobRunConclusionResponse.NOT_FOUND, Response.status(Response.Status.NOT_FOUND),
-                        JobRunConclusionResponse.REJECTED, Response.status(Response.Status.SERVICE_UNAVAILABLE),
-                        JobRunConclusionResponse.TIMED_OUT, Response.status(Response.Status.REQUEST_TIMEOUT));
+                Map.of(JobRunConclusionResponse.SUCCESS, Response.Status.OK,
+                        JobRunConclusionResponse.FAILURE, Response.Status.BAD_REQUEST,
+                        JobRunConclusionResponse.NOT_FOUND, Response.Status.NOT_FOUND,
+                        JobRunConclusionResponse.REJECTED, Response.Status.SERVICE_UNAVAILABLE,
+                        JobRunConclusionResponse.TIMED_OUT, Response.Status.REQUEST_TIMEOUT);
     }
 
     public Response createResponseFrom(JobRunResponse jobRunResponse) {
+        JobOutput output = jobRunResponse.getOutput();
+        StreamingOutput entity = outputStream -> {
+            try (InputStream storedOutput = output.open()) {
+                storedOutput.transferTo(outputStream);
+            } finally {
+                output.close();
+            }
+        };
         return create(jobRunResponse.getConclusion())
-                .entity(jobRunResponse.getOutput())
+                .entity(entity)
+                .header(CACHE_HEADER, cacheHeaderFrom(jobRunResponse))
                 .build();
     }
 
+    // Written here rather than left to the JSON provider so the output can be closed, giving back its buffers and
+    //   their share of the memory budget, as soon as it's been written.
     public Response createJsonResponseFrom(JobRunResponse runResponse) {
+        StreamingOutput entity = outputStream -> {
+            try {
+                RUN_WRITER.writeValue(outputStream, runResponse);
+            } finally {
+                runResponse.getOutput().close();
+            }
+        };
         return create(runResponse.getConclusion())
-                .entity(runResponse)
+                .entity(entity)
+                .header(CACHE_HEADER, cacheHeaderFrom(runResponse))
                 .build();
     }
 
+    public Response createStreamingResponseFrom(StreamingOutput streamingOutput) {
+        StreamingOutput entity = outputStream ->
+                streamingOutput.write(new DeferredFlushOutputStream(outputStream, minimumFlushBytes));
+        return Response.ok(entity).build();
+    }
+
+    public Response createSubmittedResponseFrom(JobRunSubmissionResponse submissionResponse) {
+        if (submissionResponse.getResult() != null) {
+            return create(submissionResponse.getResult().getConclusion())
+                    .entity(submissionResponse)
+                    .build();
+        }
+        return Response.accepted(submissionResponse)
+                .location(UriBuilder.fromResource(JobResource.class)
+                        .path("{id}")
+                        .build(submissionResponse.getId()))
+                .build();
+    }
+
+    public Response createSubmissionStatusResponseFrom(JobRunSubmissionResponse submissionResponse) {
+        return Response.ok(submissionResponse).build();
+    }
+
+    private String cacheHeaderFrom(JobRunResponse jobRunResponse) {
+        return jobRunResponse.isCached() ? "HIT" : null;
+    }
+
     private Response.ResponseBuilder create(JobRunConclusionResponse conclusionResponse) {
-        return jobRunConclusionResponseStatus.getOrDefault(
+        return Response.status(jobRunConclusionResponseStatus.getOrDefault(
                 conclusionResponse,
-                Response.status(Response.Status.INTERNAL_SERVER_ERROR));
+                Response.Status.INTERNAL_SERVER_ERROR));
     }
 }
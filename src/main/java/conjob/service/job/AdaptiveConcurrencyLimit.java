@@ -0,0 +1,91 @@
+package conjob.service.job;
+
+import conjob.config.JobConfig;
+
+import java.time.Duration;
+import java.util.Map;
+
+// Finds how many runs docker can take at once instead of having it set by hand, by additive increase and
+//   multiplicative decrease (AIMD). Every container created within the target latency while the limit is at least
+//   half in use grows the limit by 1 / limit, so by about one for each limit's worth of runs. A slow creation, or a
+//   run that docker couldn't create or that timed out, cuts it to the backoff percent of what it was.
+// The runs admitted before a cut were let in under the old limit and are likely to be slow too, so there's at most
+//   one cut for each limit's worth of containers created since the last one.
+// The limit stays between the min concurrent runs and maxConcurrentRuns. Runs are counted against it the same way
+//   as against a fixed limit, so the priority classes' reservations still hold.
+public class AdaptiveConcurrencyLimit implements RunJobLimitMeter {
+    private final JobConfig.LimitConfig limitConfig;
+    private final JobConfig.AdaptiveLimitConfig adaptiveLimitConfig;
+    private final ConcurrentJobCountLimiter concurrentJobCountLimiter;
+    // Only changed while holding this' lock but read without it when counting runs.
+    private volatile double limit;
+    private long createdSinceCut;
+    private boolean everCut;
+
+    public AdaptiveConcurrencyLimit(
+            JobConfig.LimitConfig limitConfig,
+            JobConfig.AdaptiveLimitConfig adaptiveLimitConfig,
+            Map<String, Long> reservedRuns) {
+        this.limitConfig = limitConfig;
+        this.adaptiveLimitConfig = adaptiveLimitConfig;
+        this.limit = adaptiveLimitConfig.getInitialConcurrentRuns();
+        this.concurrentJobCountLimiter = new ConcurrentJobCountLimiter(limitConfig, reservedRuns, this::getLimit);
+    }
+
+    public long getLimit() {
+        return (long) bounded(limit);
+    }
+
+    public int getCurrentlyRunningJobsCount() {
+        return concurrentJobCountLimiter.getCurrentlyRunningJobsCount();
+    }
+
+    @Override
+    public boolean tryAcquire(RunJobRequester requester) {
+        return concurrentJobCountLimiter.tryAcquire(requester);
+    }
+
+    @Override
+    public void release(RunJobRequester requester) {
+        concurrentJobCountLimiter.release(requester);
+    }
+
+    @Override
+    public void onJobComplete(RunJobRequester requester) {
+        concurrentJobCountLimiter.onJobComplete(requester);
+    }
+
+    @Override
+    public synchronized void onJobCreated(RunJobRequester requester, Duration creationLatency) {
+        createdSinceCut++;
+        double current = bounded(limit);
+        if (creationLatency.toMillis() > adaptiveLimitConfig.getTargetCreationMillis()) {
+            cut(current);
+        } else if (getCurrentlyRunningJobsCount() * 2 >= current) {
+            limit = bounded(current + 1 / current);
+        } else {
+            limit = current;
+        }
+    }
+
+    @Override
+    public synchronized void onJobOverloaded(RunJobRequester requester) {
+        cut(bounded(limit));
+    }
+
+    private void cut(double current) {
+        if (everCut && createdSinceCut < current) {
+            limit = current;
+            return;
+        }
+        limit = bounded(current * adaptiveLimitConfig.getBackoffPercent() / 100);
+        createdSinceCut = 0;
+        everCut = true;
+    }
+
+    // maxConcurrentRuns wins over the min if they cross.
+    private double bounded(double value) {
+        double min = Math.max(1, adaptiveLimitConfig.getMinConcurrentRuns());
+        return Math.min(limitConfig.getMaxConcurrentRuns(), Math.max(min, value));
+    }
+}
@@ -0,0 +1,10 @@
+package conjob.service.job;
+
+import lombok.Value;
+
+@Value
+public class BatchJob {
+    String imageName;
+    String input;
+    String pullStrategyName;
+}
@@ -3,28 +3,116 @@ package conjob.service.job;
 import conjob.config.JobConfig;
 import lombok.Getter;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+// Each priority class can have some of the concurrent runs reserved for it. A class can always use its own
+//   reservation, but past that it has to share the runs nobody reserved with every other class that's past theirs,
+//   so a busy class can't take the runs another one is guaranteed.
+// Runs are counted with compare-and-set rather than a lock. A run takes a permit from the total, then one from the
+//   shared runs if its class is past its reservation, then counts itself in its class. If another run of its class
+//   got counted in between it gives both back and tries again.
 public class ConcurrentJobCountLimiter implements RunJobLimitMeter {
-    @Getter
-    private int currentlyRunningJobsCount = 0;
     @Getter
     private final JobConfig.LimitConfig limitConfig;
+    private final LongSupplier maxConcurrentRuns;
+    private final Map<String, Long> reservedRuns;
+    private final long totalReservedRuns;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger sharedRunning = new AtomicInteger();
+    private final ConcurrentMap<String, AtomicInteger> runningByClass = new ConcurrentHashMap<>();
 
     public ConcurrentJobCountLimiter(JobConfig.LimitConfig limitConfig) {
+        this(limitConfig, Map.of());
+    }
+
+    public ConcurrentJobCountLimiter(JobConfig.LimitConfig limitConfig, Map<String, Long> reservedRuns) {
+        this(limitConfig, reservedRuns, limitConfig::getMaxConcurrentRuns);
+    }
+
+    // For a limit on concurrent runs that changes on its own instead of only being set in the config.
+    public ConcurrentJobCountLimiter(
+            JobConfig.LimitConfig limitConfig, Map<String, Long> reservedRuns, LongSupplier maxConcurrentRuns) {
         this.limitConfig = limitConfig;
+        this.maxConcurrentRuns = maxConcurrentRuns;
+        this.reservedRuns = new HashMap<>(reservedRuns);
+        this.totalReservedRuns = reservedRuns.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public int getCurrentlyRunningJobsCount() {
+        return running.get();
     }
 
     @Override
-    public synchronized boolean isAtLimit() {
-        return currentlyRunningJobsCount >= limitConfig.getMaxConcurrentRuns();
+    public boolean tryAcquire(RunJobRequester requester) {
+        long maxConcurrentRuns = this.maxConcurrentRuns.getAsLong();
+        long reserved = reservedRunsOf(requester.getPriorityClass());
+        AtomicInteger classRunning = runningByClass.computeIfAbsent(
+                requester.getPriorityClass(), priorityClass -> new AtomicInteger());
+        while (true) {
+            int classCount = classRunning.get();
+            boolean shared = classCount >= reserved;
+            if (!tryIncrementBelow(running, maxConcurrentRuns)) {
+                return false;
+            }
+            if (shared && !tryIncrementBelow(sharedRunning, maxConcurrentRuns - totalReservedRuns)) {
+                running.decrementAndGet();
+                return false;
+            }
+            if (classRunning.compareAndSet(classCount, classCount + 1)) {
+                return true;
+            }
+            running.decrementAndGet();
+            if (shared) {
+                sharedRunning.decrementAndGet();
+            }
+        }
     }
 
     @Override
-    public synchronized void countRun() {
-        currentlyRunningJobsCount++;
+    public void release(RunJobRequester requester) {
+        onJobComplete(requester);
     }
 
     @Override
-    public synchronized void onJobComplete() {
-        if (currentlyRunningJobsCount > 0) currentlyRunningJobsCount--;
+    public void onJobComplete(RunJobRequester requester) {
+        AtomicInteger classRunning = runningByClass.get(requester.getPriorityClass());
+        if (classRunning == null) {
+            return;
+        }
+        long reserved = reservedRunsOf(requester.getPriorityClass());
+        while (true) {
+            int classCount = classRunning.get();
+            if (classCount == 0) {
+                return;
+            }
+            if (classRunning.compareAndSet(classCount, classCount - 1)) {
+                running.decrementAndGet();
+                if (classCount > reserved) {
+                    sharedRunning.decrementAndGet();
+                }
+                return;
+            }
+        }
+    }
+
+    private long reservedRunsOf(String priorityClass) {
+        return reservedRuns.getOrDefault(priorityClass, 0L);
+    }
+
+    private static boolean tryIncrementBelow(AtomicInteger count, long limit) {
+        while (true) {
+            int current = count.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (count.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
     }
 }
@@ -0,0 +1,103 @@
+package conjob.service.job;
+
+import conjob.config.JobConfig;
+import conjob.core.host.HostCapacity;
+import conjob.core.host.HostCapacityReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Limits runs while the host is too loaded, or short on memory or disk, for more of them. The host is sampled on a
+//   schedule and runs are only checked against the last sample so they never wait on reading it.
+// A sample can't show runs that started after it, so a burst could all go on a sample taken before any of them did
+//   anything. Capping the runs per sample keeps them from piling on until the next one shows their effect.
+// Runs aren't limited while the host can't be read, since that's more likely where conjob runs than the host itself.
+@Slf4j
+public class HostCapacityLimit implements RunJobLimitMeter {
+    private final JobConfig.HostLimitConfig hostLimitConfig;
+    private final HostCapacityReader hostCapacityReader;
+    private final AtomicLong runsSinceSample = new AtomicLong();
+    private volatile HostCapacity lastSample;
+    private boolean readFailing;
+
+    public HostCapacityLimit(JobConfig.HostLimitConfig hostLimitConfig, HostCapacityReader hostCapacityReader) {
+        this.hostLimitConfig = hostLimitConfig;
+        this.hostCapacityReader = hostCapacityReader;
+    }
+
+    public Optional<HostCapacity> getLastSample() {
+        return Optional.ofNullable(lastSample);
+    }
+
+    public synchronized void sample() {
+        if (!isEnabled()) {
+            lastSample = null;
+            return;
+        }
+        try {
+            lastSample = hostCapacityReader.read();
+            if (readFailing) {
+                log.info("Reading host capacity again");
+                readFailing = false;
+            }
+        } catch (IOException | RuntimeException e) {
+            lastSample = null;
+            if (!readFailing) {
+                log.warn("Couldn't read host capacity, runs won't be limited by it until it can be read", e);
+                readFailing = true;
+            }
+        }
+        runsSinceSample.set(0);
+    }
+
+    @Override
+    public boolean tryAcquire(RunJobRequester requester) {
+        HostCapacity sample = lastSample;
+        if (sample == null) {
+            return true;
+        }
+        if (isPastWatermark(sample)) {
+            return false;
+        }
+        long maxRunsPerSample = hostLimitConfig.getMaxRunsPerSample();
+        if (maxRunsPerSample <= 0) {
+            return true;
+        }
+        while (true) {
+            long current = runsSinceSample.get();
+            if (current >= maxRunsPerSample) {
+                return false;
+            }
+            if (runsSinceSample.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release(RunJobRequester requester) {
+        runsSinceSample.updateAndGet(current -> Math.max(0, current - 1));
+    }
+
+    // Finished runs show up in the next sample.
+    @Override
+    public void onJobComplete(RunJobRequester requester) {
+    }
+
+    private boolean isEnabled() {
+        return hostLimitConfig.getMaxLoadPercent() > 0
+                || hostLimitConfig.getMinFreeMemoryPercent() > 0
+                || hostLimitConfig.getMinFreeDiskPercent() > 0;
+    }
+
+    private boolean isPastWatermark(HostCapacity sample) {
+        long maxLoadPercent = hostLimitConfig.getMaxLoadPercent();
+        long minFreeMemoryPercent = hostLimitConfig.getMinFreeMemoryPercent();
+        long minFreeDiskPercent = hostLimitConfig.getMinFreeDiskPercent();
+        return (maxLoadPercent > 0 && sample.getLoadPerCpu() >= maxLoadPercent / 100.0)
+                || (minFreeMemoryPercent > 0 && sample.getFreeMemoryFraction() < minFreeMemoryPercent / 100.0)
+                || (minFreeDiskPercent > 0 && sample.getFreeDiskFraction() < minFreeDiskPercent / 100.0);
+    }
+}
@@ -0,0 +1,108 @@
+package conjob.service.job;
+
+import conjob.core.job.model.JobRun;
+import conjob.core.job.model.JobRunConclusion;
+import conjob.core.job.output.JobOutput;
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Keeps the results of job runs so identical runs of deterministic jobs can be answered without running them again.
+//   Only runs that concluded on their own are kept, since timeouts and rejections say nothing about the job itself.
+//   Results are held in memory up to a total size, evicting the least recently used first, and expire after the TTL.
+public class JobResultCache {
+    private static final Set<JobRunConclusion> CACHEABLE_CONCLUSIONS =
+            Set.of(JobRunConclusion.SUCCESS, JobRunConclusion.FAILURE);
+
+    private final long maxBytes;
+    private final Duration ttl;
+    private final Clock clock;
+    private final LinkedHashMap<JobResultKey, CachedResult> results = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public JobResultCache(long maxBytes, Duration ttl) {
+        this(maxBytes, ttl, Clock.systemUTC());
+    }
+
+    public JobResultCache(long maxBytes, Duration ttl, Clock clock) {
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public synchronized Optional<JobRun> find(JobResultKey key) {
+        CachedResult result = results.get(key);
+        if (result == null) {
+            return Optional.empty();
+        }
+        if (!clock.instant().isBefore(result.getStoredAt().plus(ttl))) {
+            remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(new JobRun(
+                result.getConclusion(), JobOutput.of(result.getOutput()), result.getExitCode(), true));
+    }
+
+    // Reads the run's output to keep a copy of it, so the run's own output is still there to be read afterwards.
+    public void put(JobResultKey key, JobRun jobRun) throws IOException {
+        if (!CACHEABLE_CONCLUSIONS.contains(jobRun.getConclusion()) || jobRun.getOutput().size() > maxBytes) {
+            return;
+        }
+        byte[] output;
+        try (InputStream stored = jobRun.getOutput().open()) {
+            output = stored.readAllBytes();
+        }
+        put(key, new CachedResult(jobRun.getConclusion(), output, jobRun.getExitCode(), clock.instant()));
+    }
+
+    public synchronized void evictExpired() {
+        Instant oldestRetained = clock.instant().minus(ttl);
+        Iterator<Map.Entry<JobResultKey, CachedResult>> entries = results.entrySet().iterator();
+        while (entries.hasNext()) {
+            CachedResult result = entries.next().getValue();
+            if (!result.getStoredAt().isAfter(oldestRetained)) {
+                totalBytes -= result.getOutput().length;
+                entries.remove();
+            }
+        }
+    }
+
+    private synchronized void put(JobResultKey key, CachedResult result) {
+        if (result.getOutput().length > maxBytes) {
+            return;
+        }
+        remove(key);
+        results.put(key, result);
+        totalBytes += result.getOutput().length;
+
+        Iterator<CachedResult> leastRecentlyUsed = results.values().iterator();
+        while (totalBytes > maxBytes) {
+            totalBytes -= leastRecentlyUsed.next().getOutput().length;
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    private void remove(JobResultKey key) {
+        CachedResult removed = results.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.getOutput().length;
+        }
+    }
+
+    @Value
+    private static class CachedResult {
+        JobRunConclusion conclusion;
+        byte[] output;
+        long exitCode;
+        Instant storedAt;
+    }
+}
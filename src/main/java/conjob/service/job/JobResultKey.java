@@ -0,0 +1,13 @@
+package conjob.service.job;
+
+import lombok.Value;
+
+// Everything a deterministic job's result depends on.
+@Value
+public class JobResultKey {
+    String imageId;
+    String inputHash;
+    String secretsVolumeName;
+    long secretsVersion;
+    Long tailBytes;
+}
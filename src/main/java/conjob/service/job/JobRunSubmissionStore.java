@@ -0,0 +1,70 @@
+package conjob.service.job;
+
+import conjob.core.job.model.JobRun;
+import conjob.core.job.model.JobRunSubmission;
+import conjob.core.job.model.JobRunSubmissionStatus;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+public class JobRunSubmissionStore {
+    private final Map<String, StoredSubmission> submissions = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public JobRunSubmissionStore() {
+        this(Clock.systemUTC());
+    }
+
+    public JobRunSubmissionStore(Clock clock) {
+        this.clock = clock;
+    }
+
+    public JobRunSubmission create() {
+        String id = UUID.randomUUID().toString();
+        JobRunSubmission submission = new JobRunSubmission(id, JobRunSubmissionStatus.RUNNING, null);
+        submissions.put(id, new StoredSubmission(submission, null));
+        return submission;
+    }
+
+    // The run's output is kept until the submission is evicted, so it's moved out of the output memory budget first.
+    public void finish(String id, JobRun jobRun) {
+        try {
+            jobRun.getOutput().retain();
+        } catch (IOException e) {
+            log.warn("Problem moving output of submission {} out of memory: {}", id, e.getMessage(), e);
+        }
+        submissions.put(id, new StoredSubmission(
+                new JobRunSubmission(id, JobRunSubmissionStatus.FINISHED, jobRun),
+                clock.instant()));
+    }
+
+    public Optional<JobRunSubmission> find(String id) {
+        return Optional.ofNullable(submissions.get(id)).map(StoredSubmission::getSubmission);
+    }
+
+    public void evictFinishedOlderThan(Duration retention) {
+        Instant oldestRetained = clock.instant().minus(retention);
+        submissions.forEach((id, stored) -> {
+            if (stored.getFinishedAt() != null
+                    && stored.getFinishedAt().isBefore(oldestRetained)
+                    && submissions.remove(id, stored)) {
+                stored.getSubmission().getJobRun().getOutput().close();
+            }
+        });
+    }
+
+    @Value
+    private static class StoredSubmission {
+        JobRunSubmission submission;
+        Instant finishedAt;
+    }
+}
@@ -3,82 +3,580 @@ package conjob.service.job;
 import conjob.config.JobConfig;
 import conjob.core.job.*;
 import conjob.core.job.config.ConfigUtil;
+import conjob.core.job.exception.CopyJobInputException;
 import conjob.core.job.exception.CreateJobRunException;
 import conjob.core.job.exception.JobUpdateException;
+import conjob.core.job.model.CreatedJobRun;
 import conjob.core.job.model.JobRun;
 import conjob.core.job.model.JobRunConclusion;
 import conjob.core.job.model.JobRunConfig;
 import conjob.core.job.model.JobRunOutcome;
+import conjob.core.job.model.JobRunSubmission;
+import conjob.core.job.model.JobRunSubmissionStatus;
+import conjob.core.job.input.JobInputFile;
+import conjob.core.job.input.JobInputSpool;
+import conjob.core.job.output.JobOutput;
+import conjob.core.job.output.JobOutputSink;
 import conjob.core.secrets.SecretsStore;
 import conjob.core.secrets.SecretsStoreException;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 @Slf4j
 public class JobService {
+    private static final JobRun REJECTED_JOB_RUN = new JobRun(JobRunConclusion.REJECTED, JobOutput.empty(), -1);
+    private static final JobRun SKIPPED_JOB_RUN = new JobRun(JobRunConclusion.SKIPPED, JobOutput.empty(), -1);
 
     private final RunJobLimiter runJobLimiter;
     private final JobConfig.LimitConfig limitConfig;
-    private final JobRunCreationStrategyDeterminer jobRunCreationStrategyDeterminer;
-    private final JobRunner jobRunner;
+    private final DockerDaemonPool dockerDaemonPool;
     private final JobRunConfigCreator jobRunConfigCreator;
     private final ConfigUtil configUtil;
     private final SecretsStore secretsStore;
     private final OutcomeDeterminer outcomeDeterminer;
+    private final JobRunSubmissionStore jobRunSubmissionStore;
+    private final Executor jobRunExecutor;
+    private final JobResultCache jobResultCache;
+    private final ImageIdResolver imageIdResolver;
+    private final JobInputSpool jobInputSpool;
 
     public JobService(
             RunJobLimiter runJobLimiter,
             JobConfig.LimitConfig limitConfig,
             SecretsStore secretsStore,
-            JobRunCreationStrategyDeterminer jobRunCreationStrategyDeterminer,
-            JobRunner jobRunner,
+            DockerDaemonPool dockerDaemonPool,
             JobRunConfigCreator jobRunConfigCreator,
             OutcomeDeterminer outcomeDeterminer,
-            ConfigUtil configUtil) {
+            ConfigUtil configUtil,
+            JobRunSubmissionStore jobRunSubmissionStore,
+            Executor jobRunExecutor,
+            JobResultCache jobResultCache,
+            ImageIdResolver imageIdResolver,
+            JobInputSpool jobInputSpool) {
         this.runJobLimiter = runJobLimiter;
         this.limitConfig = limitConfig;
         this.secretsStore = secretsStore;
-        this.jobRunCreationStrategyDeterminer = jobRunCreationStrategyDeterminer;
-        this.jobRunner = jobRunner;
+        this.dockerDaemonPool = dockerDaemonPool;
         this.jobRunConfigCreator = jobRunConfigCreator;
         this.outcomeDeterminer = outcomeDeterminer;
         this.configUtil = configUtil;
+        this.jobRunSubmissionStore = jobRunSubmissionStore;
+        this.jobRunExecutor = jobRunExecutor;
+        this.jobResultCache = jobResultCache;
+        this.imageIdResolver = imageIdResolver;
+        this.jobInputSpool = jobInputSpool;
+    }
+
+    public JobRun runJob(String imageName, String input, String pullStrategyName, RunJobRequester requester)
+            throws SecretsStoreException {
+        PullStrategy pullStrategy = PullStrategy.valueOf(pullStrategyName.toUpperCase());
+        return runJob(imageName, input, pullStrategy, requester, this::runContainer);
+    }
+
+    public JobRun runJob(
+            String imageName, String input, String pullStrategyName, long tailBytes, RunJobRequester requester)
+            throws SecretsStoreException {
+        PullStrategy pullStrategy = PullStrategy.valueOf(pullStrategyName.toUpperCase());
+        return runJob(imageName, input, pullStrategy, requester,
+                (jobRunner, jobId) -> runContainer(jobRunner, jobId, tailBytes));
+    }
+
+    public JobRun runJob(
+            String imageName,
+            String input,
+            String pullStrategyName,
+            JobOutputSink outputSink,
+            RunJobRequester requester) throws SecretsStoreException {
+        PullStrategy pullStrategy = PullStrategy.valueOf(pullStrategyName.toUpperCase());
+        return runJob(imageName, input, pullStrategy, requester,
+                (jobRunner, jobId) -> runContainer(jobRunner, jobId, outputSink));
     }
 
-    public JobRun runJob(String imageName, String input, String pullStrategyName) throws SecretsStoreException {
+    // Runs the job with its input in a file in its container, at JobInputSpool.CONTAINER_INPUT_PATH, rather than as
+    //   its argument. The input is spooled to disk as it's read, before the run counts towards any limit, so it's
+    //   never held in memory and a slow upload doesn't take up a run.
+    public JobRun runFileInputJob(
+            String imageName, InputStream input, String pullStrategyName, RunJobRequester requester)
+            throws SecretsStoreException, IOException {
         PullStrategy pullStrategy = PullStrategy.valueOf(pullStrategyName.toUpperCase());
-        return runJob(imageName, input, pullStrategy);
+        try (JobInputFile inputFile = jobInputSpool.spool(input)) {
+            return runJob(imageName, null, pullStrategy, requester,
+                    (jobRunner, jobId) -> runContainer(jobRunner, jobId, inputFile.getDirectory()));
+        } catch (CopyJobInputException ex) {
+            log.error("Problem copying input into job: {}", ex.getMessage(), ex);
+            return new JobRun(null, JobOutput.empty(), -1);
+        }
     }
 
-    private JobRun runJob(String imageName, String input, PullStrategy pullStrategy)
+    // Answers from the result cache if the same image has already been run with the same input and secrets, otherwise
+    //   runs the job and caches its result. Only meant for jobs whose output depends on nothing else.
+    // Each daemon pulls on its own so a cached result is looked for under the image id on every healthy daemon, and a
+    //   new one is cached under the id of the image on the daemon it ran on.
+    public JobRun runCachedJob(
+            String imageName, String input, String pullStrategyName, Long tailBytes, RunJobRequester requester)
             throws SecretsStoreException {
-        if (runJobLimiter.isLimitingOrIncrement()) {
-            return new JobRun(JobRunConclusion.REJECTED, "", -1);
+        PullStrategy pullStrategy = PullStrategy.valueOf(pullStrategyName.toUpperCase());
+        String secretsVolumeName = secretsStore
+                .findSecrets(configUtil.translateToVolumeName(imageName))
+                .orElse(null);
+        long secretsVersion = secretsVolumeName == null ? 0 : secretsStore.findSecretsVersion(secretsVolumeName);
+        String inputHash = hashOf(input);
+        Function<String, JobResultKey> resultKeyOf =
+                imageId -> new JobResultKey(imageId, inputHash, secretsVolumeName, secretsVersion, tailBytes);
+        for (DockerDaemon daemon : dockerDaemonPool.getDaemons()) {
+            if (daemon.isHealthy()) {
+                Optional<JobRun> cachedJobRun = imageIdResolver.findImageId(daemon, imageName, pullStrategy)
+                        .map(resultKeyOf)
+                        .flatMap(jobResultCache::find);
+                if (cachedJobRun.isPresent()) {
+                    return cachedJobRun.get();
+                }
+            }
+        }
+
+        // The run may have pulled the image, in which case its id is only known once it's finished
+        BiConsumer<DockerDaemon, JobRun> cacheResult = (daemon, jobRun) -> imageIdResolver
+                .findImageId(daemon, imageName, pullStrategy)
+                .map(resultKeyOf)
+                .ifPresent(resultKey -> cacheResult(resultKey, jobRun));
+        return tailBytes == null
+                ? runJob(imageName, input, pullStrategy, requester, this::runContainer, cacheResult)
+                : runJob(imageName, input, pullStrategy, requester,
+                        (jobRunner, jobId) -> runContainer(jobRunner, jobId, tailBytes), cacheResult);
+    }
+
+    // Answers straight away, so a submission the limiter can't admit right now is rejected rather than waiting in its
+    //   queue. Every run handed to the executor has been admitted, here and by batches and pipelines, so the executor
+    //   never has more of them than the limiter allows.
+    public JobRunSubmission submitJob(
+            String imageName, String input, String pullStrategyName, RunJobRequester requester) {
+        PullStrategy pullStrategy = PullStrategy.valueOf(pullStrategyName.toUpperCase());
+        RunJobRequester imageRequester = requester.withImage(imageName);
+        if (runJobLimiter.isLimitingOrIncrementNow(imageRequester)) {
+            return new JobRunSubmission(null, JobRunSubmissionStatus.FINISHED, REJECTED_JOB_RUN);
+        }
+
+        JobRunSubmission submission = jobRunSubmissionStore.create();
+        jobRunExecutor.execute(() -> jobRunSubmissionStore.finish(
+                submission.getId(),
+                runSubmittedJob(imageName, input, pullStrategy, imageRequester)));
+        return submission;
+    }
+
+    // Runs every job at once, each limited the same as if it had been run on its own, and completes each one's future
+    //   as it finishes. Images that more than one of the jobs would pull are pulled once up front, on every healthy
+    //   daemon since the jobs could go on any of them, and then those jobs only pull them if they're missing.
+    public List<CompletableFuture<JobRun>> runBatch(List<BatchJob> jobs, RunJobRequester requester) {
+        List<PullStrategy> pullStrategies = jobs.stream()
+                .map(job -> PullStrategy.valueOf(job.getPullStrategyName().toUpperCase()))
+                .collect(Collectors.toList());
+        Set<String> prePulled = prePull(jobs, pullStrategies);
+        return IntStream.range(0, jobs.size())
+                .mapToObj(i -> {
+                    BatchJob job = jobs.get(i);
+                    PullStrategy pullStrategy = isPulling(pullStrategies.get(i))
+                            && prePulled.contains(job.getImageName())
+                            ? PullStrategy.ABSENT
+                            : pullStrategies.get(i);
+                    return runConcurrentJob(
+                            job.getImageName(),
+                            job.getInput(),
+                            pullStrategy,
+                            requester,
+                            this::runContainer,
+                            () -> false);
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Runs each stage once every stage it comes after has succeeded, with their output joined in the order they're
+    //   named as its input. Stages that don't come after any other get the pipeline's input as their argument and run
+    //   at once. The rest get their input in a file, the same as a file input job, so it isn't held in memory or
+    //   limited by how long an argument can be. After the first stage that doesn't succeed no more are started and
+    //   the rest are SKIPPED, though ones already running are left to finish. The futures are in the same order as
+    //   the stages.
+    public List<CompletableFuture<JobRun>> runPipeline(
+            String input, List<PipelineStage> stages, RunJobRequester requester) {
+        Map<String, PullStrategy> pullStrategies = stages.stream()
+                .collect(Collectors.toMap(
+                        PipelineStage::getName,
+                        stage -> PullStrategy.valueOf(stage.getPullStrategyName().toUpperCase())));
+        Set<String> feedingStages = stages.stream()
+                .flatMap(stage -> stage.getAfter().stream())
+                .collect(Collectors.toSet());
+        AtomicBoolean stopped = new AtomicBoolean();
+        Map<String, CompletableFuture<PipelineStageRun>> stageRuns = new HashMap<>();
+        for (PipelineStage stage : stages) {
+            List<CompletableFuture<PipelineStageRun>> before = stage.getAfter().stream()
+                    .map(name -> {
+                        CompletableFuture<PipelineStageRun> stageRun = stageRuns.get(name);
+                        if (stageRun == null) {
+                            throw new IllegalArgumentException(
+                                    "Stage '" + stage.getName() + "' comes after unknown stage '" + name + "'");
+                        }
+                        return stageRun;
+                    })
+                    .collect(Collectors.toList());
+            stageRuns.put(stage.getName(), CompletableFuture.allOf(before.toArray(CompletableFuture<?>[]::new))
+                    .thenCompose(ignored -> runPipelineStage(
+                            stage,
+                            pullStrategies.get(stage.getName()),
+                            input,
+                            before,
+                            feedingStages.contains(stage.getName()),
+                            stopped,
+                            requester)));
+        }
+        // Every stage's output is kept for the stages after it until they've all finished
+        CompletableFuture.allOf(stageRuns.values().toArray(CompletableFuture<?>[]::new))
+                .whenComplete((ignored, ex) -> stageRuns.values()
+                        .forEach(stageRun -> stageRun.thenAccept(PipelineStageRun::closeOutput)));
+        return stages.stream()
+                .map(stage -> stageRuns.get(stage.getName()).thenApply(PipelineStageRun::getJobRun))
+                .collect(Collectors.toList());
+    }
+
+    public Optional<JobRunSubmission> findSubmission(String id) {
+        return jobRunSubmissionStore.find(id);
+    }
+
+    private JobRun runJob(
+            String imageName,
+            String input,
+            PullStrategy pullStrategy,
+            RunJobRequester requester,
+            BiFunction<JobRunner, String, JobRunOutcome> containerRunner) throws SecretsStoreException {
+        return runJob(imageName, input, pullStrategy, requester, containerRunner, (daemon, jobRun) -> {});
+    }
+
+    private JobRun runJob(
+            String imageName,
+            String input,
+            PullStrategy pullStrategy,
+            RunJobRequester requester,
+            BiFunction<JobRunner, String, JobRunOutcome> containerRunner,
+            BiConsumer<DockerDaemon, JobRun> onRan) throws SecretsStoreException {
+        RunJobRequester imageRequester = requester.withImage(imageName);
+        if (runJobLimiter.isLimitingOrIncrement(imageRequester)) {
+            return REJECTED_JOB_RUN;
+        }
+        return runAdmittedJob(imageName, input, pullStrategy, imageRequester, containerRunner, onRan);
+    }
+
+    private JobRun runSubmittedJob(
+            String imageName, String input, PullStrategy pullStrategy, RunJobRequester requester) {
+        try {
+            return runAdmittedJob(
+                    imageName, input, pullStrategy, requester, this::runContainer, (daemon, jobRun) -> {});
+        } catch (SecretsStoreException | RuntimeException ex) {
+            log.error("Problem running submitted job: {}", ex.getMessage(), ex);
+            return new JobRun(null, JobOutput.empty(), -1);
+        }
+    }
+
+    // The run is only handed to the executor once the limiter has admitted it, so it doesn't take up a thread while it
+    //   waits in the limiter's queue. A run that's admitted once it's no longer wanted is SKIPPED and given back.
+    private CompletableFuture<JobRun> runConcurrentJob(
+            String imageName,
+            String input,
+            PullStrategy pullStrategy,
+            RunJobRequester requester,
+            BiFunction<JobRunner, String, JobRunOutcome> containerRunner,
+            BooleanSupplier isSkipped) {
+        RunJobRequester imageRequester = requester.withImage(imageName);
+        return runJobLimiter.isLimitingOrIncrementAsync(imageRequester)
+                .thenCompose(isLimiting -> {
+                    if (isLimiting) {
+                        return CompletableFuture.completedFuture(REJECTED_JOB_RUN);
+                    }
+                    if (isSkipped.getAsBoolean()) {
+                        runJobLimiter.markJobRunComplete(imageRequester);
+                        return CompletableFuture.completedFuture(SKIPPED_JOB_RUN);
+                    }
+                    return CompletableFuture.supplyAsync(
+                            () -> runAdmittedConcurrentJob(
+                                    imageName, input, pullStrategy, imageRequester, containerRunner),
+                            jobRunExecutor);
+                });
+    }
+
+    private JobRun runAdmittedConcurrentJob(
+            String imageName,
+            String input,
+            PullStrategy pullStrategy,
+            RunJobRequester requester,
+            BiFunction<JobRunner, String, JobRunOutcome> containerRunner) {
+        try {
+            return runAdmittedJob(
+                    imageName, input, pullStrategy, requester, containerRunner, (daemon, jobRun) -> {});
+        } catch (SecretsStoreException | RuntimeException ex) {
+            log.error("Problem running concurrent job: {}", ex.getMessage(), ex);
+            return new JobRun(null, JobOutput.empty(), -1);
+        }
+    }
+
+    // A stage that comes after one that didn't succeed, or whose output couldn't be kept, is skipped. The output is
+    //   only kept if another stage needs it.
+    private CompletableFuture<PipelineStageRun> runPipelineStage(
+            PipelineStage stage,
+            PullStrategy pullStrategy,
+            String pipelineInput,
+            List<CompletableFuture<PipelineStageRun>> before,
+            boolean feedsOthers,
+            AtomicBoolean stopped,
+            RunJobRequester requester) {
+        if (stopped.get() || before.stream().anyMatch(stageRun -> !stageRun.join().isSucceeded())) {
+            return CompletableFuture.completedFuture(new PipelineStageRun(SKIPPED_JOB_RUN, false, null));
         }
+        if (before.isEmpty()) {
+            return runConcurrentJob(
+                    stage.getImageName(), pipelineInput, pullStrategy, requester, this::runContainer, stopped::get)
+                    .thenApply(jobRun -> finishPipelineStage(stage, jobRun, feedsOthers, stopped));
+        }
+
+        JobInputFile inputFile;
+        try {
+            inputFile = joinOutputs(before);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Problem joining input of pipeline stage '{}': {}", stage.getName(), e.getMessage(), e);
+            stopped.set(true);
+            return CompletableFuture.completedFuture(
+                    new PipelineStageRun(new JobRun(null, JobOutput.empty(), -1), false, null));
+        }
+        return runConcurrentJob(
+                stage.getImageName(),
+                null,
+                pullStrategy,
+                requester,
+                (jobRunner, jobId) -> runContainer(jobRunner, jobId, inputFile.getDirectory()),
+                stopped::get)
+                .whenComplete((jobRun, ex) -> inputFile.close())
+                .thenApply(jobRun -> finishPipelineStage(stage, jobRun, feedsOthers, stopped));
+    }
+
+    // The output is spooled to a file rather than read into memory. It's subject to the same max as any other input
+    //   in a file, and a stage whose output is over it stops the pipeline the same as one that fails.
+    private PipelineStageRun finishPipelineStage(
+            PipelineStage stage, JobRun jobRun, boolean feedsOthers, AtomicBoolean stopped) {
+        if (jobRun.getConclusion() != JobRunConclusion.SUCCESS) {
+            stopped.set(true);
+            return new PipelineStageRun(jobRun, false, null);
+        }
+        if (!feedsOthers) {
+            return new PipelineStageRun(jobRun, true, null);
+        }
+        try (InputStream output = jobRun.getOutput().open()) {
+            return new PipelineStageRun(jobRun, true, jobInputSpool.spool(output));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Problem keeping output of pipeline stage '{}': {}", stage.getName(), e.getMessage(), e);
+            stopped.set(true);
+            return new PipelineStageRun(jobRun, false, null);
+        }
+    }
+
+    private JobInputFile joinOutputs(List<CompletableFuture<PipelineStageRun>> stageRuns) throws IOException {
+        List<InputStream> outputs = new ArrayList<>();
+        try {
+            for (CompletableFuture<PipelineStageRun> stageRun : stageRuns) {
+                outputs.add(Files.newInputStream(
+                        stageRun.join().getOutput().getDirectory().resolve(JobInputSpool.CONTAINER_INPUT_PATH)));
+            }
+            try (InputStream joined = new SequenceInputStream(Collections.enumeration(outputs))) {
+                return jobInputSpool.spool(joined);
+            }
+        } finally {
+            for (InputStream output : outputs) {
+                output.close();
+            }
+        }
+    }
+
+    // Returns the images that were pulled. Ones that couldn't be are left for their jobs to pull, and fail, on their
+    //   own. They're pulled on the caller's thread rather than the job run executor, which only ever has admitted
+    //   runs.
+    private Set<String> prePull(List<BatchJob> jobs, List<PullStrategy> pullStrategies) {
+        Map<String, List<PullStrategy>> pullsByImage = IntStream.range(0, jobs.size())
+                .filter(i -> isPulling(pullStrategies.get(i)))
+                .boxed()
+                .collect(Collectors.groupingBy(
+                        i -> jobs.get(i).getImageName(),
+                        Collectors.mapping(pullStrategies::get, Collectors.toList())));
+        return pullsByImage.entrySet().stream()
+                .filter(entry -> entry.getValue().size() > 1)
+                .filter(entry -> prePull(entry.getKey(), entry.getValue().contains(PullStrategy.REFRESH)))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    // The image is only pre-pulled if it was pulled on every healthy daemon, since its jobs won't pull it again on
+    //   one that already has an older copy. It's still pulled on the rest when one fails so they're fresh for the
+    //   jobs that do pull it.
+    private boolean prePull(String imageName, boolean forceRefresh) {
+        boolean pulledEverywhere = true;
+        for (DockerDaemon daemon : dockerDaemonPool.getDaemons()) {
+            if (daemon.isHealthy()) {
+                try {
+                    daemon.getImagePuller().pull(imageName, forceRefresh);
+                } catch (RuntimeException ex) {
+                    log.warn("Problem pulling {} on docker daemon {} for a batch: {}",
+                            imageName, daemon.getName(), ex.getMessage(), ex);
+                    pulledEverywhere = false;
+                }
+            }
+        }
+        return pulledEverywhere;
+    }
+
+    private static boolean isPulling(PullStrategy pullStrategy) {
+        return pullStrategy == PullStrategy.ALWAYS || pullStrategy == PullStrategy.REFRESH;
+    }
 
-        long maxTimeoutSeconds = limitConfig.getMaxTimeoutSeconds();
-        int maxKillTimeoutSeconds = Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds());
+    private JobRun runAdmittedJob(
+            String imageName,
+            String input,
+            PullStrategy pullStrategy,
+            RunJobRequester requester,
+            BiFunction<JobRunner, String, JobRunOutcome> containerRunner,
+            BiConsumer<DockerDaemon, JobRun> onRan) throws SecretsStoreException {
+        try {
+            JobRunConfig jobRunConfig = getJobRunConfig(imageName, input);
+            Optional<DockerDaemon> daemon = dockerDaemonPool.place(
+                    imageName, jobRunConfig.getSecretsVolumeName() != null);
+            if (daemon.isEmpty()) {
+                log.warn("No docker daemon available to run {}", imageName);
+                return REJECTED_JOB_RUN;
+            }
+            try {
+                JobRun jobRun = runOnDaemon(daemon.get(), jobRunConfig, pullStrategy, requester, containerRunner);
+                onRan.accept(daemon.get(), jobRun);
+                return jobRun;
+            } finally {
+                dockerDaemonPool.finished(daemon.get());
+            }
+        } finally {
+            runJobLimiter.markJobRunComplete(requester);
+        }
+    }
 
-        JobRunConfig jobRunConfig = getJobRunConfig(imageName, input);
+    private JobRun runOnDaemon(
+            DockerDaemon daemon,
+            JobRunConfig jobRunConfig,
+            PullStrategy pullStrategy,
+            RunJobRequester requester,
+            BiFunction<JobRunner, String, JobRunOutcome> containerRunner) {
         JobRunCreationStrategy jobRunCreationStrategy =
-                jobRunCreationStrategyDeterminer.determineStrategy(pullStrategy);
+                daemon.getJobRunCreationStrategyDeterminer().determineStrategy(pullStrategy);
 
-        String jobId;
+        CreatedJobRun createdJobRun;
         try {
-            jobId = jobRunCreationStrategy.createJobRun(jobRunConfig);
+            createdJobRun = jobRunCreationStrategy.createJobRun(jobRunConfig);
         } catch (CreateJobRunException | JobUpdateException ex) {
             log.warn("Problem creating job: {}", ex.getMessage(), ex);
-            runJobLimiter.markJobRunComplete();
-            return new JobRun(JobRunConclusion.NOT_FOUND, "", -1);
+            if (dockerDaemonPool.creationFailed(daemon, ex)) {
+                runJobLimiter.markJobRunOverloaded(requester);
+            }
+            return new JobRun(JobRunConclusion.NOT_FOUND, JobOutput.empty(), -1);
+        }
+        // Only the creation itself is timed, since a slow pull says nothing about how loaded the daemon is
+        Optional<Duration> creationLatency = createdJobRun.getCreationLatency();
+        if (creationLatency.isPresent()) {
+            dockerDaemonPool.creationSucceeded(daemon, creationLatency.get());
+            runJobLimiter.markJobRunCreated(requester, creationLatency.get());
+        } else {
+            dockerDaemonPool.creationSucceeded(daemon);
         }
 
-        JobRunOutcome outcome = jobRunner
-                .runContainer(jobId, maxTimeoutSeconds, maxKillTimeoutSeconds);
+        JobRunOutcome outcome = containerRunner.apply(daemon.getJobRunner(), createdJobRun.getJobId());
         JobRunConclusion jobRunConclusion = outcomeDeterminer.determineOutcome(outcome);
+        if (jobRunConclusion == JobRunConclusion.TIMED_OUT) {
+            runJobLimiter.markJobRunOverloaded(requester);
+        }
 
-        runJobLimiter.markJobRunComplete();
         return new JobRun(jobRunConclusion, outcome.getOutput(), outcome.getExitStatusCode());
     }
 
+    private JobRunOutcome runContainer(JobRunner jobRunner, String jobId) {
+        return jobRunner.runContainer(
+                jobId,
+                limitConfig.getMaxTimeoutSeconds(),
+                Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds()));
+    }
+
+    private JobRunOutcome runContainer(JobRunner jobRunner, String jobId, long tailBytes) {
+        return jobRunner.runContainer(
+                jobId,
+                limitConfig.getMaxTimeoutSeconds(),
+                Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds()),
+                tailBytes);
+    }
+
+    private JobRunOutcome runContainer(JobRunner jobRunner, String jobId, Path inputDirectory) {
+        return jobRunner.runContainer(
+                jobId,
+                limitConfig.getMaxTimeoutSeconds(),
+                Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds()),
+                inputDirectory);
+    }
+
+    private JobRunOutcome runContainer(JobRunner jobRunner, String jobId, JobOutputSink outputSink) {
+        return jobRunner.runContainer(
+                jobId,
+                limitConfig.getMaxTimeoutSeconds(),
+                Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds()),
+                outputSink);
+    }
+
+    private void cacheResult(JobResultKey resultKey, JobRun jobRun) {
+        try {
+            jobResultCache.put(resultKey, jobRun);
+        } catch (IOException e) {
+            log.warn("Problem caching job result: {}", e.getMessage(), e);
+        }
+    }
+
+    private String hashOf(String input) {
+        if (input == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hash = new StringBuilder();
+            for (byte b : digest) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
     private JobRunConfig getJobRunConfig(String imageName, String input) throws SecretsStoreException {
         String correspondingSecretsVolumeName = configUtil.translateToVolumeName(imageName);
         String secretsVolumeName = secretsStore
@@ -87,4 +585,21 @@ public class JobService {
 
         return jobRunConfigCreator.getContainerConfig(imageName, input, secretsVolumeName);
     }
+
+    // The stage's output is kept separately from its run so that whoever's waiting on the run can close it as soon as
+    //   it's finished while later stages are still to read it.
+    @Value
+    private static class PipelineStageRun {
+        JobRun jobRun;
+        // Whether the stages after this one can run.
+        boolean succeeded;
+        // Only kept when another stage comes after this one.
+        JobInputFile output;
+
+        void closeOutput() {
+            if (output != null) {
+                output.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,153 @@
+package conjob.service.job;
+
+import com.codahale.metrics.Clock;
+import conjob.config.JobConfig;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+// Gives every key (an image, a user) its own rate and concurrency limit so one of them can't use up the global ones.
+//   Each key's counts are only locked by runs with that key.
+// A key's counts are dropped once it's been idle for a while so the keys that ever ran don't pile up. Runs that find
+//   their key's counts being dropped start over with new ones, which is no different since idle counts are empty.
+public class KeyedRunJobLimit implements RunJobLimitMeter {
+    private final JobConfig.KeyLimitConfig keyLimitConfig;
+    private final Function<RunJobRequester, String> keyOf;
+    private final Clock clock;
+    private final ConcurrentMap<String, KeyCounts> countsByKey = new ConcurrentHashMap<>();
+
+    // Runs without a key aren't limited, and neither is anyone while both limits are zero.
+    public KeyedRunJobLimit(
+            JobConfig.KeyLimitConfig keyLimitConfig, Function<RunJobRequester, String> keyOf, Clock clock) {
+        this.keyLimitConfig = keyLimitConfig;
+        this.keyOf = keyOf;
+        this.clock = clock;
+    }
+
+    public static KeyedRunJobLimit perImage(JobConfig.KeyedLimitConfig keyedLimitConfig, Clock clock) {
+        List<String> prefixes = keyedLimitConfig.getImagePrefixes();
+        return new KeyedRunJobLimit(
+                keyedLimitConfig.getImage(), requester -> imageKeyOf(requester.getImage(), prefixes), clock);
+    }
+
+    public static KeyedRunJobLimit perUser(JobConfig.KeyedLimitConfig keyedLimitConfig, Clock clock) {
+        return new KeyedRunJobLimit(keyedLimitConfig.getUser(), RunJobRequester::getUser, clock);
+    }
+
+    static String imageKeyOf(String image, List<String> prefixes) {
+        if (image == null) {
+            return null;
+        }
+        return prefixes.stream()
+                .filter(image::startsWith)
+                .max(Comparator.comparingInt(String::length))
+                .orElseGet(() -> withoutTagOrDigest(image));
+    }
+
+    public int getKeyCount() {
+        return countsByKey.size();
+    }
+
+    @Override
+    public boolean tryAcquire(RunJobRequester requester) {
+        String key = keyOf.apply(requester);
+        if (key == null || isUnlimited()) {
+            return true;
+        }
+        long now = clock.getTick();
+        while (true) {
+            KeyCounts counts = countsByKey.computeIfAbsent(key, k -> new KeyCounts(now));
+            synchronized (counts) {
+                if (counts.evicted) {
+                    continue;
+                }
+                counts.lastUsed = now;
+                if (isAtConcurrencyLimit(counts.running)) {
+                    return false;
+                }
+                long maxRequestsPerSecond = keyLimitConfig.getMaxRequestsPerSecond();
+                if (maxRequestsPerSecond > 0
+                        && !counts.tokenBucket.tryTake(now, maxRequestsPerSecond, maxRequestsPerSecond)) {
+                    return false;
+                }
+                counts.running++;
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release(RunJobRequester requester) {
+        KeyCounts counts = countsOf(requester);
+        if (counts == null) {
+            return;
+        }
+        synchronized (counts) {
+            counts.running = Math.max(0, counts.running - 1);
+            counts.tokenBucket.giveBack(keyLimitConfig.getMaxRequestsPerSecond());
+        }
+    }
+
+    @Override
+    public void onJobComplete(RunJobRequester requester) {
+        KeyCounts counts = countsOf(requester);
+        if (counts == null) {
+            return;
+        }
+        synchronized (counts) {
+            counts.running = Math.max(0, counts.running - 1);
+            counts.lastUsed = clock.getTick();
+        }
+    }
+
+    public void evictIdleLongerThan(Duration idle) {
+        long now = clock.getTick();
+        countsByKey.forEach((key, counts) -> {
+            synchronized (counts) {
+                if (counts.running == 0
+                        && counts.tokenBucket.isFull(now)
+                        && now - counts.lastUsed >= idle.toNanos()) {
+                    counts.evicted = true;
+                    countsByKey.remove(key, counts);
+                }
+            }
+        });
+    }
+
+    private KeyCounts countsOf(RunJobRequester requester) {
+        String key = keyOf.apply(requester);
+        return key == null ? null : countsByKey.get(key);
+    }
+
+    private boolean isUnlimited() {
+        return keyLimitConfig.getMaxRequestsPerSecond() <= 0 && keyLimitConfig.getMaxConcurrentRuns() <= 0;
+    }
+
+    private boolean isAtConcurrencyLimit(long running) {
+        long maxConcurrentRuns = keyLimitConfig.getMaxConcurrentRuns();
+        return maxConcurrentRuns > 0 && running >= maxConcurrentRuns;
+    }
+
+    private static String withoutTagOrDigest(String image) {
+        int digestStart = image.indexOf('@');
+        String name = digestStart < 0 ? image : image.substring(0, digestStart);
+        int tagStart = name.lastIndexOf(':');
+        return tagStart > name.lastIndexOf('/') ? name.substring(0, tagStart) : name;
+    }
+
+    private static class KeyCounts {
+        private final TokenBucket tokenBucket;
+        private long running;
+        private long lastUsed;
+        private boolean evicted;
+
+        private KeyCounts(long now) {
+            this.tokenBucket = new TokenBucket(now);
+            this.lastUsed = now;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package conjob.service.job;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class PipelineStage {
+    String name;
+    String imageName;
+    String pullStrategyName;
+    // The names of the stages whose output this stage takes as its input, in a file at
+    //   JobInputSpool.CONTAINER_INPUT_PATH. They must come before it in the pipeline.
+    List<String> after;
+}
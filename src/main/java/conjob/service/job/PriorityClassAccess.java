@@ -0,0 +1,30 @@
+package conjob.service.job;
+
+import conjob.config.JobConfig;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Which priority classes a user may put their runs in by naming them. Anyone can name the default class, or one that
+//   isn't configured since it's treated as the default one anyway. A configured class can only be named by the user
+//   it's named after or one of the users it lists, so nobody can take another class' reservation or weight.
+public class PriorityClassAccess {
+    private final Map<String, Set<String>> usersByClass;
+
+    public PriorityClassAccess(JobConfig.PriorityConfig priorityConfig) {
+        this.usersByClass = priorityConfig.getClasses().stream()
+                .collect(Collectors.toMap(
+                        JobConfig.PriorityClassConfig::getName,
+                        priorityClass -> Set.copyOf(priorityClass.getUsers())));
+    }
+
+    // The user is null when nobody logged in.
+    public boolean allows(String user, String priorityClass) {
+        Set<String> users = usersByClass.get(priorityClass);
+        return users == null
+                || RunJobLimiter.DEFAULT_PRIORITY_CLASS.equals(priorityClass)
+                || priorityClass.equals(user)
+                || (user != null && users.contains(user));
+    }
+}
@@ -1,9 +1,23 @@
 package conjob.service.job;
 
+import java.time.Duration;
+
+// Meters check and count a run in one atomic step so the limiter doesn't have to lock around all of them to keep
+//   another run from slipping in between the two.
 public interface RunJobLimitMeter {
-    boolean isAtLimit();
+    // Counts the run and returns true if it's within the limit, otherwise changes nothing.
+    boolean tryAcquire(RunJobRequester requester);
+
+    // Gives back a run this meter let through that never started because another meter refused it.
+    void release(RunJobRequester requester);
+
+    void onJobComplete(RunJobRequester requester);
 
-    void countRun();
+    // Only meters that adapt to how docker is coping need to know how long creating the run's container took.
+    default void onJobCreated(RunJobRequester requester, Duration creationLatency) {
+    }
 
-    void onJobComplete();
+    // The run's container couldn't be created because of docker, or it timed out.
+    default void onJobOverloaded(RunJobRequester requester) {
+    }
 }
@@ -1,25 +1,281 @@
 package conjob.service.job;
 
+import com.codahale.metrics.Timer;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+// Runs that find a meter at its limit wait in a bounded queue for up to the max wait instead of being turned away at
+//   once. They're only limited when their queue is full or their wait runs out.
+// Every priority class has its own first come, first served queue, and the classes take turns in proportion to
+//   their weight (weighted fair queueing). Each waiting run is tagged with the virtual time it would finish if its
+//   class got its share, and the run with the earliest tag that its limits allow goes next. A class that's been
+//   idle starts again from the current virtual time, so it can't save up turns to starve the others later.
+// While nobody is waiting, runs and completions only touch the meters, which count atomically on their own, so they
+//   never take the queue's lock. It's only taken once runs are being limited.
 public class RunJobLimiter {
-    private List<RunJobLimitMeter> runJobLimiters;
+    public static final String DEFAULT_PRIORITY_CLASS = "default";
+    // Finished runs wake waiters right away, but nothing announces a rate limit's tokens refilling so waiters also
+    //   look again after this long.
+    private static final long RECHECK_MILLIS = 50;
 
+    private List<RunJobLimitMeter> runJobLimiters;
+    private final long maxQueued;
+    private final long maxWaitNanos;
+    private final Map<String, Long> weights;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<String, Deque<Waiter>> waiting = new HashMap<>();
+    private final Map<String, Double> lastFinishTags = new HashMap<>();
+    private double virtualTime;
+    @Getter
+    private final Timer queueWait = new Timer();
 
     public RunJobLimiter(RunJobLimitMeter... runJobLimitMeters) {
+        this(0, Duration.ZERO, runJobLimitMeters);
+    }
+
+    public RunJobLimiter(long maxQueued, Duration maxWait, RunJobLimitMeter... runJobLimitMeters) {
+        this(maxQueued, maxWait, Map.of(), runJobLimitMeters);
+    }
+
+    public RunJobLimiter(
+            long maxQueued, Duration maxWait, Map<String, Long> weights, RunJobLimitMeter... runJobLimitMeters) {
         this.runJobLimiters = Arrays.asList(runJobLimitMeters);
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.weights = new HashMap<>(weights);
+        this.weights.putIfAbsent(DEFAULT_PRIORITY_CLASS, 1L);
+    }
+
+    public boolean isLimitingOrIncrement(RunJobRequester requester) {
+        RunJobRequester classified = classify(requester);
+        // Runs that are already waiting go first
+        if (queued.get() == 0 && tryAcquire(classified)) {
+            return false;
+        }
+        return enqueue(classified);
+    }
+
+    // For callers that can't wait for a turn. A run that would have to wait in the queue is limited, the same as if
+    //   the queue were full.
+    public boolean isLimitingOrIncrementNow(RunJobRequester requester) {
+        RunJobRequester classified = classify(requester);
+        return !(queued.get() == 0 && tryAcquire(classified));
+    }
+
+    // For callers that mustn't hold a thread while they wait for a turn. The future completes with what
+    //   isLimitingOrIncrement would have returned, once the run is admitted or its wait runs out. It may be completed
+    //   while the limiter's lock is held, so whatever depends on it should only hand the run over to be done elsewhere.
+    public CompletableFuture<Boolean> isLimitingOrIncrementAsync(RunJobRequester requester) {
+        RunJobRequester classified = classify(requester);
+        if (queued.get() == 0 && tryAcquire(classified)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return enqueueAsync(classified);
+    }
+
+    public void markJobRunComplete(RunJobRequester requester) {
+        RunJobRequester classified = classify(requester);
+        runJobLimiters.forEach(meter -> meter.onJobComplete(classified));
+        // A run that starts waiting after this sees what was just given back when it first tries to go
+        if (queued.get() > 0) {
+            synchronized (this) {
+                dispatch();
+            }
+        }
+    }
+
+    public void markJobRunCreated(RunJobRequester requester, Duration creationLatency) {
+        RunJobRequester classified = classify(requester);
+        runJobLimiters.forEach(meter -> meter.onJobCreated(classified, creationLatency));
+    }
+
+    public void markJobRunOverloaded(RunJobRequester requester) {
+        RunJobRequester classified = classify(requester);
+        runJobLimiters.forEach(meter -> meter.onJobOverloaded(classified));
+    }
+
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public synchronized int getQueueDepth(String priorityClass) {
+        Deque<Waiter> queue = waiting.get(priorityClass);
+        return queue == null ? 0 : queue.size();
+    }
+
+    private synchronized boolean enqueue(RunJobRequester requester) {
+        if (isQueueFull(requester)) {
+            // Room may have opened up since the first try, but the runs already waiting have a claim on it
+            return !(queued.get() == 0 && tryAcquire(requester));
+        }
+        Waiter waiter = addWaiter(requester, null);
+        if (waiter.admitted) {
+            return false;
+        }
+        return waitForTurn(waiter);
+    }
+
+    private synchronized CompletableFuture<Boolean> enqueueAsync(RunJobRequester requester) {
+        if (isQueueFull(requester)) {
+            return CompletableFuture.completedFuture(!(queued.get() == 0 && tryAcquire(requester)));
+        }
+        Waiter waiter = addWaiter(requester, new CompletableFuture<>());
+        if (!waiter.admitted) {
+            scheduleRecheck(waiter);
+        }
+        return waiter.admission;
+    }
+
+    private boolean isQueueFull(RunJobRequester requester) {
+        Deque<Waiter> queue = waiting.get(requester.getPriorityClass());
+        return (queue == null ? 0 : queue.size()) >= maxQueued || maxWaitNanos <= 0;
+    }
+
+    private Waiter addWaiter(RunJobRequester requester, CompletableFuture<Boolean> admission) {
+        String priorityClass = requester.getPriorityClass();
+        double finishTag = Math.max(virtualTime, lastFinishTags.getOrDefault(priorityClass, 0.0))
+                + 1.0 / Math.max(1, weights.get(priorityClass));
+        lastFinishTags.put(priorityClass, finishTag);
+        Waiter waiter = new Waiter(requester, finishTag, admission);
+        waiting.computeIfAbsent(priorityClass, key -> new ArrayDeque<>()).addLast(waiter);
+        queued.incrementAndGet();
+        dispatch();
+        return waiter;
+    }
+
+    // There's no thread waiting on an async waiter, so its rechecks and the end of its wait are scheduled instead.
+    private void scheduleRecheck(Waiter waiter) {
+        long remainingNanos = maxWaitNanos - (System.nanoTime() - waiter.enqueuedAt);
+        CompletableFuture.delayedExecutor(
+                Math.max(1, Math.min(TimeUnit.NANOSECONDS.toMillis(remainingNanos), RECHECK_MILLIS)),
+                TimeUnit.MILLISECONDS)
+                .execute(() -> recheck(waiter));
+    }
+
+    private synchronized void recheck(Waiter waiter) {
+        dispatch();
+        if (waiter.admitted) {
+            return;
+        }
+        if (System.nanoTime() - waiter.enqueuedAt < maxWaitNanos) {
+            scheduleRecheck(waiter);
+            return;
+        }
+        if (waiting.get(waiter.requester.getPriorityClass()).remove(waiter)) {
+            queued.decrementAndGet();
+        }
+        queueWait.update(System.nanoTime() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+        waiter.admission.complete(true);
     }
 
-    public synchronized boolean isLimitingOrIncrement() {
-        if (runJobLimiters.stream().anyMatch(RunJobLimitMeter::isAtLimit)) {
+    private boolean waitForTurn(Waiter waiter) {
+        long start = System.nanoTime();
+        try {
+            while (!waiter.admitted) {
+                long remainingNanos = maxWaitNanos - (System.nanoTime() - start);
+                if (remainingNanos <= 0) {
+                    return true;
+                }
+                wait(Math.max(1, Math.min(TimeUnit.NANOSECONDS.toMillis(remainingNanos), RECHECK_MILLIS)));
+                dispatch();
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return true;
+        } finally {
+            if (!waiter.admitted && waiting.get(waiter.requester.getPriorityClass()).remove(waiter)) {
+                queued.decrementAndGet();
+            }
+            queueWait.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            // Whoever is next in line may be able to run now.
+            dispatch();
         }
-        runJobLimiters.forEach(RunJobLimitMeter::countRun);
-        return false;
     }
 
-    public synchronized void markJobRunComplete() {
-        runJobLimiters.forEach(RunJobLimitMeter::onJobComplete);
+    // Lets waiting runs go for as long as their limits allow, each time taking the one with the earliest finish tag
+    //   out of the ones at the front of their class' queue that can run.
+    private void dispatch() {
+        boolean admittedAny = false;
+        Optional<Waiter> next;
+        while ((next = findNextAllowed()).isPresent()) {
+            admit(next.get());
+            admittedAny = true;
+        }
+        if (admittedAny) {
+            notifyAll();
+        }
+    }
+
+    // Whichever waiter this finds has already been let through by the meters.
+    private Optional<Waiter> findNextAllowed() {
+        List<Waiter> heads = waiting.values().stream()
+                .map(Deque::peekFirst)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingDouble(waiter -> waiter.finishTag))
+                .collect(Collectors.toList());
+        for (Waiter head : heads) {
+            if (tryAcquire(head.requester)) {
+                return Optional.of(head);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void admit(Waiter waiter) {
+        waiting.get(waiter.requester.getPriorityClass()).remove(waiter);
+        queued.decrementAndGet();
+        virtualTime = Math.max(virtualTime, waiter.finishTag);
+        waiter.admitted = true;
+        if (waiter.admission != null) {
+            queueWait.update(System.nanoTime() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+            waiter.admission.complete(false);
+        }
+    }
+
+    // Takes the run from every meter, or from none of them if any refuses it.
+    private boolean tryAcquire(RunJobRequester requester) {
+        for (int i = 0; i < runJobLimiters.size(); i++) {
+            if (!runJobLimiters.get(i).tryAcquire(requester)) {
+                runJobLimiters.subList(0, i).forEach(meter -> meter.release(requester));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RunJobRequester classify(RunJobRequester requester) {
+        return weights.containsKey(requester.getPriorityClass())
+                ? requester
+                : requester.withPriorityClass(DEFAULT_PRIORITY_CLASS);
+    }
+
+    private static class Waiter {
+        private final RunJobRequester requester;
+        private final double finishTag;
+        private final long enqueuedAt = System.nanoTime();
+        // Only set for a waiter that has no thread waiting on it.
+        private final CompletableFuture<Boolean> admission;
+        private boolean admitted;
+
+        private Waiter(RunJobRequester requester, double finishTag, CompletableFuture<Boolean> admission) {
+            this.requester = requester;
+            this.finishTag = finishTag;
+            this.admission = admission;
+        }
     }
 }
@@ -1,38 +1,41 @@
 package conjob.service.job;
 
 import com.codahale.metrics.Clock;
-import com.codahale.metrics.SlidingTimeWindowReservoir;
 import conjob.config.JobConfig;
 import lombok.Getter;
 
-import java.util.concurrent.TimeUnit;
-
 public class RunJobRateLimit implements RunJobLimitMeter {
-    private final SlidingTimeWindowReservoir requestTimeWindow;
     @Getter
     private final JobConfig.LimitConfig limitConfig;
+    private final Clock clock;
+    private final TokenBucket tokenBucket;
 
     public RunJobRateLimit(JobConfig.LimitConfig limitConfig) {
-        this.limitConfig = limitConfig;
-        requestTimeWindow = new SlidingTimeWindowReservoir(1, TimeUnit.SECONDS);
+        this(limitConfig, Clock.defaultClock());
     }
 
     public RunJobRateLimit(JobConfig.LimitConfig limitConfig, Clock metricsClock) {
         this.limitConfig = limitConfig;
-        requestTimeWindow = new SlidingTimeWindowReservoir(1, TimeUnit.SECONDS, metricsClock);
+        this.clock = metricsClock;
+        this.tokenBucket = new TokenBucket(metricsClock.getTick());
     }
 
     @Override
-    public synchronized boolean isAtLimit() {
-        return requestTimeWindow.getSnapshot().getValues().length >= limitConfig.getMaxGlobalRequestsPerSecond();
+    public boolean tryAcquire(RunJobRequester requester) {
+        long maxRequestsPerSecond = limitConfig.getMaxGlobalRequestsPerSecond();
+        long burst = limitConfig.getMaxGlobalRequestBurst() > 0
+                ? limitConfig.getMaxGlobalRequestBurst()
+                : maxRequestsPerSecond;
+        return tokenBucket.tryTake(clock.getTick(), maxRequestsPerSecond, burst);
     }
 
+    // Puts the run's token back.
     @Override
-    public synchronized void countRun() {
-        requestTimeWindow.update(1);
+    public void release(RunJobRequester requester) {
+        tokenBucket.giveBack(limitConfig.getMaxGlobalRequestsPerSecond());
     }
 
     @Override
-    public synchronized void onJobComplete() {
+    public void onJobComplete(RunJobRequester requester) {
     }
 }
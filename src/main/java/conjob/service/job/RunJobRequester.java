@@ -0,0 +1,22 @@
+package conjob.service.job;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.With;
+
+// Who a run is for, which decides how it's queued and limited. A priority class that isn't configured is treated as
+//   the default one.
+@Value
+@With
+@AllArgsConstructor
+public class RunJobRequester {
+    String priorityClass;
+    // The image being run, filled in by the job service.
+    String image;
+    // The authenticated user's name, or null when nobody logged in.
+    String user;
+
+    public RunJobRequester(String priorityClass) {
+        this(priorityClass, null, null);
+    }
+}
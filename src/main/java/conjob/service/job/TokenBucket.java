@@ -0,0 +1,47 @@
+package conjob.service.job;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A token bucket kept as the one time it will next be full (the generic cell rate algorithm). Every run pushes that
+//   time back by one run's interval, and a run is refused if that would put it more than a burst's worth of
+//   intervals past now. Taking a token is a compare-and-set on a single long, so it doesn't allocate or slow down as
+//   the rate goes up.
+// The rate and burst are passed in on every call since the limits can be changed while running.
+class TokenBucket {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(long nowNanos) {
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    boolean tryTake(long nowNanos, long perSecond, long burst) {
+        if (perSecond <= 0) {
+            return false;
+        }
+        long interval = NANOS_PER_SECOND / perSecond;
+        long maxAhead = interval > 0 && burst > Long.MAX_VALUE / interval ? Long.MAX_VALUE : burst * interval;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + interval;
+            if (next - nowNanos > maxAhead) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    void giveBack(long perSecond) {
+        if (perSecond > 0) {
+            fullAt.addAndGet(-NANOS_PER_SECOND / perSecond);
+        }
+    }
+
+    boolean isFull(long nowNanos) {
+        return fullAt.get() <= nowNanos;
+    }
+}
@@ -3,6 +3,7 @@ package conjob.service.secrets;
 import conjob.core.job.config.ConfigUtil;
 import conjob.core.secrets.SecretsContainerCreator;
 import conjob.core.secrets.SecretsDockerAdapter;
+import conjob.core.secrets.SecretsVolumeIndex;
 import conjob.core.secrets.TempSecretsFileUtil;
 import conjob.core.secrets.model.SecretsConfig;
 
@@ -20,14 +21,17 @@ public class SecretsService {
     private final ConfigUtil configUtil;
     private final SecretsContainerCreator secretsContainerCreator;
     private final TempSecretsFileUtil tempSecretsFileUtil;
+    private final SecretsVolumeIndex secretsVolumeIndex;
 
     public SecretsService(
             SecretsDockerAdapter secretsDockerAdapter,
             SecretsContainerCreator secretsContainerCreator,
             TempSecretsFileUtil tempSecretsFileUtil,
             UniqueContainerNameGenerator uniqueContainerNameGenerator,
-            ConfigUtil configUtil) {
+            ConfigUtil configUtil,
+            SecretsVolumeIndex secretsVolumeIndex) {
         this.secretsAdapter = secretsDockerAdapter;
+        this.secretsVolumeIndex = secretsVolumeIndex;
         this.secretsContainerCreator = secretsContainerCreator;
         this.tempSecretsFileUtil = tempSecretsFileUtil;
         this.uniqueContainerNameGenerator = uniqueContainerNameGenerator;
@@ -56,6 +60,8 @@ public class SecretsService {
         // TODO:   use the overloaded copyToContainer() which takes a tar stream instead.
         secretsAdapter.copySecretsToVolume(tempSecretsDir, containerId, CONTAINER_DESTINATION_PATH);
 
+        secretsVolumeIndex.secretsWritten(secretsVolumeName);
+
         tempSecretsFileUtil.delete(tempSecretsDir);
 
         secretsAdapter.removeContainer(containerId);
@@ -141,4 +141,67 @@ public class JobRunTest {
             .body("conclusion", is("SUCCESS"))
             .body("message", is("Job run successful."));
     }
+
+    @Test
+    public void postStreamedResponse() {
+        given()
+            .accept("application/x-ndjson")
+            .body("foobar")
+            .post(JOB_RUN_PATH + "?image=scottg489/echo-job:latest")
+        .then()
+            .statusCode(HttpStatus.SC_OK)
+            .contentType("application/x-ndjson")
+            .body(containsString("{\"source\":\"STDOUT\",\"output\":\"foobar"))
+            .body(endsWith("{\"conclusion\":\"SUCCESS\",\"output\":\"\",\"exitCode\":0,\"message\":\"Job run successful.\"}\n"));
+    }
+
+    @Test
+    public void submitThenPollResponses() throws InterruptedException {
+        String echoImage = "scottg489/echo-job:latest";
+
+        String id = given()
+            .accept(ContentType.JSON)
+            .body("foobar")
+            .post(JOB_RUN_PATH + "/submit?image=" + echoImage)
+        .then()
+            .statusCode(HttpStatus.SC_ACCEPTED)
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("Location", containsString(JOB_RUN_PATH + "/"))
+            .body("status", is("RUNNING"))
+        .extract()
+            .path("id");
+
+        String status = "RUNNING";
+        for (int i = 0; i < 60 && status.equals("RUNNING"); i++) {
+            Thread.sleep(1000);
+            status = given()
+                .accept(ContentType.JSON)
+                .get(JOB_RUN_PATH + "/" + id)
+            .then()
+                .statusCode(HttpStatus.SC_OK)
+            .extract()
+                .path("status");
+        }
+
+        given()
+            .accept(ContentType.JSON)
+            .get(JOB_RUN_PATH + "/" + id)
+        .then()
+            .statusCode(HttpStatus.SC_OK)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body("id", is(id))
+            .body("status", is("FINISHED"))
+            .body("result.output", is("foobar"))
+            .body("result.exitCode", is(0))
+            .body("result.conclusion", is("SUCCESS"));
+    }
+
+    @Test
+    public void getUnknownSubmission() {
+        given()
+            .accept(ContentType.JSON)
+            .get(JOB_RUN_PATH + "/does-not-exist")
+        .then()
+            .statusCode(HttpStatus.SC_NOT_FOUND);
+    }
 }
@@ -21,6 +21,7 @@ import static org.hamcrest.Matchers.*;
 public class ConJobApplicationConfigTest {
     private static final String JOB_RUN_PATH = "/job/run";
     private static final String TRACE_ID_HEADER_NAME = "X-B3-TraceId";
+    private static final String ECHO_IMAGE = "scottg489/echo-job:latest";
 
     private ConJobApplication app;
 
@@ -57,6 +58,58 @@ public class ConJobApplicationConfigTest {
         assertThat(hasTraceId(logEvents), is(true));
     }
 
+    @Test
+    @DisplayName("Given the default config, " +
+            "when running the application, " +
+            "and a client accepts gzip, " +
+            "then a job's output bigger than the minimum size should be gzipped, " +
+            "and a response smaller than it should not be, " +
+            "whether it's written all at once or streamed without a Content-Length.")
+    public void defaultConfigGzip() throws Exception {
+        String bigInput = "0123456789abcdef\n".repeat(256);
+        String smallInput = "foobar";
+
+        app.run("server", "src/test/integration/resources/default_config.yml");
+
+        given()
+                .header("Accept-Encoding", "gzip")
+                .body(bigInput)
+                .post(JOB_RUN_PATH + "?image=" + ECHO_IMAGE)
+        .then()
+                .statusCode(HttpStatus.SC_OK)
+                .header("Content-Encoding", "gzip")
+                .body(is(bigInput));
+
+        given()
+                .header("Accept-Encoding", "gzip")
+                .body(smallInput)
+                .post(JOB_RUN_PATH + "?image=" + ECHO_IMAGE)
+        .then()
+                .statusCode(HttpStatus.SC_OK)
+                .header("Content-Encoding", is(nullValue()))
+                .body(is(smallInput));
+
+        given()
+                .header("Accept-Encoding", "gzip")
+                .accept(JobResource.JOB_RUN_STREAM_TYPE)
+                .body(bigInput)
+                .post(JOB_RUN_PATH + "?image=" + ECHO_IMAGE)
+        .then()
+                .statusCode(HttpStatus.SC_OK)
+                .header("Content-Length", is(nullValue()))
+                .header("Content-Encoding", "gzip");
+
+        given()
+                .header("Accept-Encoding", "gzip")
+                .accept(JobResource.JOB_RUN_STREAM_TYPE)
+                .body(smallInput)
+                .post(JOB_RUN_PATH + "?image=" + ECHO_IMAGE)
+        .then()
+                .statusCode(HttpStatus.SC_OK)
+                .header("Content-Encoding", is(nullValue()))
+                .body(containsString(smallInput));
+    }
+
     @Test
     @DisplayName("Given a config with basic auth, " +
             "when running the application, " +
@@ -57,7 +57,7 @@ public class DockerAdapterCreateContainerTest {
     ) throws CreateJobRunException {
         this.secretsVolumeName = secretsVolumeName;
         JobRunConfig jobRunConfig = new JobRunConfig(jobName, input, secretsVolumeName);
-        jobRunId = dockerAdapter.createJobRun(jobRunConfig);
+        jobRunId = dockerAdapter.createJobRun(jobRunConfig).getJobId();
 
         assertThat(jobRunId, matchesPattern("[a-f0-9]{64}"));
     }
@@ -48,15 +48,15 @@ public class DockerAdapterStartContainerTest {
     @Label("Given a created container, " +
             "when starting that container, " +
             "and it exits, " +
-            "should return the code it exited with.")
-    void startContainerThenWaitForExit(@ForAll @LongRange(max = 255) long givenExitCode)
+            "should have run it to the code it exited with.")
+    void startContainer(@ForAll @LongRange(max = 255) long givenExitCode)
             throws RunJobException, DockerException, InterruptedException {
         containerId = dockerClient.createContainer(ContainerConfig.builder()
                 .image(TEST_SUPPORT_CONTAINER).cmd("0|||" + givenExitCode).build())
                 .id();
-        Long exitStatusCode = dockerAdapter.startContainerThenWaitForExit(containerId);
+        dockerAdapter.startContainer(containerId);
 
-        assertThat(exitStatusCode, is(givenExitCode));
+        assertThat(dockerClient.waitContainer(containerId).statusCode(), is(givenExitCode));
     }
 
     @Property(tries = 100)
@@ -64,7 +64,7 @@ public class DockerAdapterStartContainerTest {
             "when starting that container, " +
             "should throw a RunJobException.")
     void startContainerDockerException(@ForAll("wellFormedContainerId") String givenContainerId) {
-        assertThrows(RunJobException.class, () -> dockerAdapter.startContainerThenWaitForExit(givenContainerId));
+        assertThrows(RunJobException.class, () -> dockerAdapter.startContainer(givenContainerId));
     }
 
     @Provide
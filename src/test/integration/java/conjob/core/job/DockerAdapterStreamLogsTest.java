@@ -12,11 +12,14 @@ import net.jqwik.api.lifecycle.AfterTry;
 import net.jqwik.api.lifecycle.BeforeContainer;
 import net.jqwik.api.lifecycle.BeforeTry;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
-public class DockerAdapterReadAllLogsTest {
+public class DockerAdapterStreamLogsTest {
     private static final String IMAGE_WITH_LOG_OUTPUT = "scottg489/echo-job";
     private DockerAdapter dockerAdapter;
     private static DefaultDockerClient dockerClient;
@@ -44,30 +47,35 @@ public class DockerAdapterReadAllLogsTest {
         if (containerId != null && !containerId.isBlank()) dockerClient.removeContainer(containerId);
     }
 
-    // TODO: See TODO in DockerAdapter.readAllLogsUntilExit for why this is ignored
-//    @Property(tries = 10)
+    @Property(tries = 10)
     @Label("Given a container that outputs logs, " +
             "and that container is run, " +
-            "when reading that containers logs, " +
-            "should return all of the log contents.")
-    void readLogsSuccessfully(@ForAll("validInputToEchoJob") String givenLogs)
+            "when streaming that containers logs, " +
+            "should write all of the log contents.")
+    void streamLogsSuccessfully(@ForAll("validInputToEchoJob") String givenLogs)
             throws ReadLogsException, DockerException, InterruptedException {
         containerId = dockerClient.createContainer(ContainerConfig.builder()
                 .image(IMAGE_WITH_LOG_OUTPUT)
                 .cmd(givenLogs).build()).id();
         dockerClient.startContainer(containerId);
+        ByteArrayOutputStream logs = new ByteArrayOutputStream();
 
-        String actualLogs = dockerAdapter.readAllLogsUntilExit(containerId);
+        dockerAdapter.streamLogsUntilExit(containerId, (source, content) -> {
+            byte[] bytes = new byte[content.remaining()];
+            content.get(bytes);
+            logs.write(bytes);
+        });
 
-        assertThat(actualLogs, is(givenLogs));
+        assertThat(logs.toString(StandardCharsets.UTF_8), is(givenLogs));
     }
 
     @Property(tries = 100)
     @Label("Given a container ID that doesn't exist, " +
-            "when reading that container's logs, " +
+            "when streaming that container's logs, " +
             "should throw a ReadLogsException.")
-    void readLogsDockerException(@ForAll("validContainerId") String givenContainerId) {
-        assertThrows(ReadLogsException.class, () -> dockerAdapter.readAllLogsUntilExit(givenContainerId));
+    void streamLogsDockerException(@ForAll("validContainerId") String givenContainerId) {
+        assertThrows(ReadLogsException.class,
+                () -> dockerAdapter.streamLogsUntilExit(givenContainerId, (source, content) -> {}));
     }
 
     @Provide
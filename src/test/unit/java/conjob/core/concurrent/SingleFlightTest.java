@@ -0,0 +1,168 @@
+package conjob.core.concurrent;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+    @Property(tries = 10)
+    @Label("Given many concurrent callers, " +
+            "when executing for the same key, " +
+            "should run the action once.")
+    void executeConcurrently(@ForAll String givenKey, @ForAll @IntRange(min = 2, max = 8) int givenCallers)
+            throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        List<Thread> callerThreads = new CopyOnWriteArrayList<>();
+        ExecutorService callers = Executors.newFixedThreadPool(givenCallers, runnable -> {
+            Thread thread = new Thread(runnable);
+            callerThreads.add(thread);
+            return thread;
+        });
+
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < givenCallers; i++) {
+            calls.add(callers.submit(() -> singleFlight.execute(givenKey, () -> {
+                runs.incrementAndGet();
+                // Stay in flight until every other caller is waiting on it
+                awaitOthersWaiting(callerThreads, givenCallers);
+            })));
+        }
+        for (Future<?> call : calls) {
+            call.get(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(runs.get(), is(1));
+        callers.shutdownNow();
+    }
+
+    @Property(tries = 10)
+    @Label("Given a caller waiting on an in flight action, " +
+            "when the action fails, " +
+            "should throw the same exception to the waiting caller.")
+    void executeConcurrentlyException(@ForAll String givenKey) throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException();
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        Future<?> first = callers.submit(() -> singleFlight.execute(givenKey, () -> {
+            started.countDown();
+            awaitQuietly(release);
+            throw failure;
+        }));
+        started.await();
+        Future<?> second = callers.submit(() -> singleFlight.execute(givenKey, () -> {
+            throw new AssertionError("Should have waited on the in flight action");
+        }));
+        Thread.sleep(50);
+        release.countDown();
+
+        ExecutionException firstException = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        ExecutionException secondException =
+                assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertThat(firstException.getCause() == failure, is(true));
+        assertThat(secondException.getCause(), is(instanceOf(IllegalStateException.class)));
+        callers.shutdownNow();
+    }
+
+    @Property(tries = 10)
+    @Label("Given a caller waiting on an in flight action, " +
+            "when the action fails with an error, " +
+            "should throw the same error to the waiting caller, " +
+            "and run the action again the next time.")
+    void executeConcurrentlyError(@ForAll String givenKey) throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StackOverflowError failure = new StackOverflowError();
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        Future<?> first = callers.submit(() -> singleFlight.execute(givenKey, () -> {
+            started.countDown();
+            awaitQuietly(release);
+            throw failure;
+        }));
+        started.await();
+        Future<?> second = callers.submit(() -> singleFlight.execute(givenKey, () -> {
+            throw new AssertionError("Should have waited on the in flight action");
+        }));
+        Thread.sleep(50);
+        release.countDown();
+
+        ExecutionException firstException = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        ExecutionException secondException =
+                assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        singleFlight.execute(givenKey, runs::incrementAndGet);
+        assertThat(firstException.getCause() == failure, is(true));
+        assertThat(secondException.getCause() == failure, is(true));
+        assertThat(runs.get(), is(1));
+        callers.shutdownNow();
+    }
+
+    @Property
+    @Label("Given a key, " +
+            "when executing for it one after another, " +
+            "should run the action every time.")
+    void executeSequentially(@ForAll String givenKey, @ForAll @IntRange(max = 5) int givenCalls) {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+
+        for (int i = 0; i < givenCalls; i++) {
+            singleFlight.execute(givenKey, runs::incrementAndGet);
+        }
+
+        assertThat(runs.get(), is(givenCalls));
+    }
+
+    @Property
+    @Label("Given a key, " +
+            "when executing for it, " +
+            "and the action fails, " +
+            "should run the action again the next time.")
+    void executeAfterException(@ForAll String givenKey) {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute(givenKey, () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+        singleFlight.execute(givenKey, runs::incrementAndGet);
+
+        assertThat(runs.get(), is(2));
+    }
+
+    private static void awaitOthersWaiting(List<Thread> callerThreads, int callers) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline && (callerThreads.size() < callers || callerThreads.stream()
+                .filter(thread -> thread != Thread.currentThread())
+                .anyMatch(thread -> thread.getState() != Thread.State.WAITING))) {
+            Thread.onSpinWait();
+        }
+        if (System.nanoTime() >= deadline) {
+            throw new AssertionError("Other callers weren't all waiting on the in flight action in time");
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
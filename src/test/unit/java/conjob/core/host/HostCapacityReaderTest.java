@@ -0,0 +1,124 @@
+package conjob.core.host;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.lifecycle.AfterTry;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HostCapacityReaderTest {
+    private Path procDirectory;
+
+    // Properties are run by jqwik and examples by jupiter, each with its own setup annotations.
+    @BeforeTry
+    @BeforeEach
+    void setUp() throws IOException {
+        procDirectory = Files.createTempDirectory("host-capacity-reader-test");
+    }
+
+    @AfterTry
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(procDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(procDirectory);
+    }
+
+    @Property
+    @Label("Given a load average, " +
+            "and 1 - 64 cpus, " +
+            "when reading the host capacity, " +
+            "then the load should be the one minute average over the cpus.")
+    void loadPerCpu(
+            @ForAll @IntRange(max = 10000) int givenLoadHundredths,
+            @ForAll @IntRange(min = 1, max = 64) int givenCpus) throws IOException {
+        double load = givenLoadHundredths / 100.0;
+        Files.writeString(procDirectory.resolve("loadavg"), load + " 0.50 0.25 1/123 4567\n");
+        writeMemInfo("MemTotal: 1000 kB\nMemAvailable: 1000 kB\n");
+
+        HostCapacity capacity = new HostCapacityReader(procDirectory, null, givenCpus).read();
+
+        assertThat(capacity.getLoadPerCpu(), is(closeTo(load / givenCpus, 1e-9)));
+    }
+
+    @Test
+    @DisplayName("Given a meminfo with the memory available, " +
+            "when reading the host capacity, " +
+            "then the free memory should be what's available out of the total.")
+    void freeMemory() throws IOException {
+        writeLoadAverage();
+        writeMemInfo("MemTotal:       16000000 kB\n" +
+                "MemFree:         1000000 kB\n" +
+                "MemAvailable:    4000000 kB\n" +
+                "Buffers:          200000 kB\n" +
+                "Cached:          2000000 kB\n" +
+                "HugePages_Total:       0\n");
+
+        HostCapacity capacity = new HostCapacityReader(procDirectory, null, 1).read();
+
+        assertThat(capacity.getFreeMemoryFraction(), is(closeTo(0.25, 1e-9)));
+    }
+
+    @Test
+    @DisplayName("Given a meminfo from a kernel that doesn't estimate the memory available, " +
+            "when reading the host capacity, " +
+            "then the free memory should count what's free, buffered and cached.")
+    void freeMemoryWithoutAvailable() throws IOException {
+        writeLoadAverage();
+        writeMemInfo("MemTotal: 1000 kB\nMemFree: 100 kB\nBuffers: 50 kB\nCached: 350 kB\n");
+
+        HostCapacity capacity = new HostCapacityReader(procDirectory, null, 1).read();
+
+        assertThat(capacity.getFreeMemoryFraction(), is(closeTo(0.5, 1e-9)));
+    }
+
+    @Test
+    @DisplayName("Given a data root, " +
+            "when reading the host capacity, " +
+            "then the free disk should be a fraction of its disk, " +
+            "and without one it should be entirely free.")
+    void freeDisk() throws IOException {
+        writeLoadAverage();
+        writeMemInfo("MemTotal: 1000 kB\nMemAvailable: 1000 kB\n");
+
+        double withDataRoot = new HostCapacityReader(procDirectory, procDirectory, 1).read().getFreeDiskFraction();
+        double withoutDataRoot = new HostCapacityReader(procDirectory, null, 1).read().getFreeDiskFraction();
+
+        assertThat(withDataRoot >= 0 && withDataRoot <= 1, is(true));
+        assertThat(withoutDataRoot, is(1.0));
+    }
+
+    @Test
+    @DisplayName("Given a proc directory without the files it reads, " +
+            "when reading the host capacity, " +
+            "then it should fail.")
+    void missingProc() {
+        assertThrows(IOException.class, () -> new HostCapacityReader(procDirectory, null, 1).read());
+    }
+
+    private void writeLoadAverage() throws IOException {
+        Files.writeString(procDirectory.resolve("loadavg"), "0.00 0.00 0.00 1/1 1\n");
+    }
+
+    private void writeMemInfo(String memInfo) throws IOException {
+        Files.writeString(procDirectory.resolve("meminfo"), memInfo);
+    }
+}
@@ -0,0 +1,73 @@
+package conjob.core.job;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.exceptions.DockerException;
+import conjob.core.job.exception.CopyJobInputException;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.AlphaChars;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class DockerAdapterCopyInputTest {
+    private DockerAdapter dockerAdapter;
+    private DockerClient mockClient;
+
+    @BeforeEach
+    @BeforeTry
+    void setUp() {
+        mockClient = mock(DockerClient.class);
+        dockerAdapter = new DockerAdapter(mockClient);
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "and an input directory, " +
+            "when copying the input into the container, " +
+            "should copy the directory's contents to the container's root.")
+    void copyInputSuccessfully(@ForAll String givenContainerId, @ForAll @AlphaChars String givenDirectoryName)
+            throws DockerException, InterruptedException, IOException {
+        Path givenInputDirectory = Path.of("/tmp", givenDirectoryName);
+
+        dockerAdapter.copyInputToJobRun(givenContainerId, givenInputDirectory);
+
+        verify(mockClient).copyToContainer(givenInputDirectory, givenContainerId, "/");
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "when copying input into the container, " +
+            "and a DockerException is thrown, " +
+            "should throw a CopyJobInputException.")
+    void copyInputDockerException(@ForAll String givenContainerId)
+            throws DockerException, InterruptedException, IOException {
+        Path givenInputDirectory = Path.of("/tmp/input");
+        doThrow(new DockerException(""))
+                .when(mockClient).copyToContainer(givenInputDirectory, givenContainerId, "/");
+
+        assertThrows(CopyJobInputException.class,
+                () -> dockerAdapter.copyInputToJobRun(givenContainerId, givenInputDirectory));
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "when copying input into the container, " +
+            "and an IOException is thrown, " +
+            "should throw a CopyJobInputException.")
+    void copyInputIOException(@ForAll String givenContainerId)
+            throws DockerException, InterruptedException, IOException {
+        Path givenInputDirectory = Path.of("/tmp/input");
+        doThrow(new IOException())
+                .when(mockClient).copyToContainer(givenInputDirectory, givenContainerId, "/");
+
+        assertThrows(CopyJobInputException.class,
+                () -> dockerAdapter.copyInputToJobRun(givenContainerId, givenInputDirectory));
+    }
+}
@@ -4,6 +4,7 @@ import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.exceptions.DockerException;
 import com.spotify.docker.client.messages.ContainerCreation;
 import conjob.core.job.exception.CreateJobRunException;
+import conjob.core.job.model.CreatedJobRun;
 import conjob.core.job.model.JobRunConfig;
 import net.jqwik.api.ForAll;
 import net.jqwik.api.Label;
@@ -44,9 +45,10 @@ public class DockerAdapterCreateContainerTest {
         when(mockContainerCreation.id()).thenReturn(givenJobRunId);
 
         JobRunConfig jobRunConfig = new JobRunConfig(jobName, input, secretsVolumeName);
-        String jobRunId = dockerAdapter.createJobRun(jobRunConfig);
+        CreatedJobRun createdJobRun = dockerAdapter.createJobRun(jobRunConfig);
 
-        assertThat(jobRunId, is(givenJobRunId));
+        assertThat(createdJobRun.getJobId(), is(givenJobRunId));
+        assertThat(createdJobRun.getCreationLatency().isPresent(), is(true));
     }
 
     @Property
@@ -0,0 +1,112 @@
+package conjob.core.job;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.exceptions.DockerException;
+import com.spotify.docker.client.messages.ContainerInfo;
+import com.spotify.docker.client.messages.ContainerState;
+import conjob.core.job.exception.InspectContainerException;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class DockerAdapterFindExitCodeTest {
+    private DockerAdapter dockerAdapter;
+    private DockerClient mockClient;
+
+    @BeforeEach
+    @BeforeTry
+    void setUp() {
+        mockClient = mock(DockerClient.class);
+        dockerAdapter = new DockerAdapter(mockClient);
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "and that container has exited or is dead, " +
+            "when finding its exit code, " +
+            "should return the exit code.")
+    void findExitCodeExited(
+            @ForAll String givenContainerId,
+            @ForAll("finishedStatuses") String givenStatus,
+            @ForAll long givenExitCode
+    ) throws DockerException, InterruptedException {
+        mockContainerState(givenContainerId, givenStatus, givenExitCode);
+
+        Optional<Long> exitCode = dockerAdapter.findExitCode(givenContainerId);
+
+        assertThat(exitCode, is(Optional.of(givenExitCode)));
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "and that container hasn't been started yet, or hasn't finished, " +
+            "when finding its exit code, " +
+            "should return nothing.")
+    void findExitCodeNotFinished(
+            @ForAll String givenContainerId,
+            @ForAll("unfinishedStatuses") String givenStatus,
+            @ForAll long givenExitCode
+    ) throws DockerException, InterruptedException {
+        mockContainerState(givenContainerId, givenStatus, givenExitCode);
+
+        Optional<Long> exitCode = dockerAdapter.findExitCode(givenContainerId);
+
+        assertThat(exitCode, is(Optional.empty()));
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "when finding its exit code, " +
+            "and a DockerException is thrown, " +
+            "should throw an InspectContainerException.")
+    void findExitCodeDockerException(@ForAll String givenContainerId) throws DockerException, InterruptedException {
+        doThrow(new DockerException("")).when(mockClient).inspectContainer(givenContainerId);
+
+        assertThrows(InspectContainerException.class, () -> dockerAdapter.findExitCode(givenContainerId));
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "when finding its exit code, " +
+            "and a InterruptedException is thrown, " +
+            "should throw an InspectContainerException.")
+    void findExitCodeInterruptedException(@ForAll String givenContainerId)
+            throws DockerException, InterruptedException {
+        doThrow(new InterruptedException()).when(mockClient).inspectContainer(givenContainerId);
+
+        assertThrows(InspectContainerException.class, () -> dockerAdapter.findExitCode(givenContainerId));
+    }
+
+    @Provide
+    Arbitrary<String> finishedStatuses() {
+        return Arbitraries.of("exited", "dead");
+    }
+
+    @Provide
+    Arbitrary<String> unfinishedStatuses() {
+        return Arbitraries.of("created", "running", "restarting", "paused", "removing");
+    }
+
+    private void mockContainerState(String containerId, String status, long exitCode)
+            throws DockerException, InterruptedException {
+        ContainerInfo mockContainerInfo = mock(ContainerInfo.class);
+        ContainerState mockContainerState = mock(ContainerState.class);
+        when(mockClient.inspectContainer(containerId)).thenReturn(mockContainerInfo);
+        when(mockContainerInfo.state()).thenReturn(mockContainerState);
+        when(mockContainerState.status()).thenReturn(status);
+        when(mockContainerState.running()).thenReturn("running".equals(status));
+        when(mockContainerState.exitCode()).thenReturn(exitCode);
+    }
+}
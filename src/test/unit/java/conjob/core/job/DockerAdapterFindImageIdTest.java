@@ -0,0 +1,56 @@
+package conjob.core.job;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.exceptions.DockerException;
+import com.spotify.docker.client.messages.ImageInfo;
+import conjob.core.job.exception.InspectImageException;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.junit.jupiter.api.BeforeEach;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class DockerAdapterFindImageIdTest {
+    private DockerAdapter dockerAdapter;
+    private DockerClient mockClient;
+
+    @BeforeEach
+    @BeforeTry
+    void setUp() {
+        mockClient = mock(DockerClient.class);
+        dockerAdapter = new DockerAdapter(mockClient);
+    }
+
+    @Property
+    @Label("Given an image name, " +
+            "when finding its image ID, " +
+            "should return the ID of the local image.")
+    void findImageIdSuccessfully(
+            @ForAll String givenImageName,
+            @ForAll String givenImageId
+    ) throws DockerException, InterruptedException {
+        ImageInfo mockImageInfo = mock(ImageInfo.class);
+        when(mockClient.inspectImage(givenImageName)).thenReturn(mockImageInfo);
+        when(mockImageInfo.id()).thenReturn(givenImageId);
+
+        String imageId = dockerAdapter.findImageId(givenImageName);
+
+        assertThat(imageId, is(givenImageId));
+    }
+
+    @Property
+    @Label("Given an image name, " +
+            "when finding its image ID, " +
+            "and a DockerException is thrown, " +
+            "should throw an InspectImageException.")
+    void findImageIdDockerException(@ForAll String givenImageName) throws DockerException, InterruptedException {
+        doThrow(new DockerException("")).when(mockClient).inspectImage(givenImageName);
+
+        assertThrows(InspectImageException.class, () -> dockerAdapter.findImageId(givenImageName));
+    }
+}
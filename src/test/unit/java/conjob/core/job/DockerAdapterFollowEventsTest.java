@@ -0,0 +1,185 @@
+package conjob.core.job;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.EventStream;
+import com.spotify.docker.client.exceptions.DockerException;
+import com.spotify.docker.client.messages.Event;
+import com.spotify.docker.client.shaded.com.google.common.collect.ImmutableMap;
+import conjob.core.job.exception.ReadEventsException;
+import conjob.core.job.model.ContainerEvent;
+import conjob.core.job.model.ImageEvent;
+import conjob.core.job.model.VolumeEvent;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.junit.jupiter.api.BeforeEach;
+import org.mockito.InOrder;
+
+import java.io.Closeable;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class DockerAdapterFollowEventsTest {
+    private DockerAdapter dockerAdapter;
+    private DockerClient mockClient;
+    private Consumer<Closeable> mockOnSubscribed;
+    private Consumer<ContainerEvent> mockEventConsumer;
+    private Consumer<ImageEvent> mockImageEventConsumer;
+    private Consumer<VolumeEvent> mockVolumeEventConsumer;
+
+    @BeforeEach
+    @BeforeTry
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mockClient = mock(DockerClient.class);
+        mockOnSubscribed = mock(Consumer.class);
+        mockEventConsumer = mock(Consumer.class);
+        mockImageEventConsumer = mock(Consumer.class);
+        mockVolumeEventConsumer = mock(Consumer.class);
+        dockerAdapter = new DockerAdapter(mockClient);
+    }
+
+    @Property
+    @Label("Given a stream of container events, " +
+            "when following them, " +
+            "should notify once subscribed, " +
+            "and pass on each event in order with its exit code if it has one, " +
+            "and close the stream once it ends.")
+    void followEventsSuccessfully(
+            @ForAll String givenContainerId,
+            @ForAll @LongRange(max = 255) long givenExitCode
+    ) throws DockerException, InterruptedException {
+        EventStream mockEventStream = mock(EventStream.class);
+        when(mockClient.events(any(DockerClient.EventsParam.class))).thenReturn(mockEventStream);
+        when(mockEventStream.hasNext()).thenReturn(true, true, false);
+        Event killEvent = mockEvent(givenContainerId, DockerAdapter.KILL_EVENT, ImmutableMap.of("signal", "15"));
+        Event dieEvent = mockEvent(
+                givenContainerId, DockerAdapter.DIE_EVENT, ImmutableMap.of("exitCode", String.valueOf(givenExitCode)));
+        when(mockEventStream.next()).thenReturn(killEvent, dieEvent);
+
+        dockerAdapter.followContainerEvents(mockOnSubscribed, mockEventConsumer);
+
+        InOrder inOrder = inOrder(mockOnSubscribed, mockEventConsumer, mockEventStream);
+        inOrder.verify(mockOnSubscribed).accept(mockEventStream);
+        inOrder.verify(mockEventConsumer)
+                .accept(new ContainerEvent(givenContainerId, DockerAdapter.KILL_EVENT, null));
+        inOrder.verify(mockEventConsumer)
+                .accept(new ContainerEvent(givenContainerId, DockerAdapter.DIE_EVENT, givenExitCode));
+        inOrder.verify(mockEventStream).close();
+    }
+
+    @Property
+    @Label("Given a docker client, " +
+            "when following container events, " +
+            "and a DockerException is thrown, " +
+            "should throw a ReadEventsException.")
+    void followEventsDockerException() throws DockerException, InterruptedException {
+        doThrow(new DockerException("")).when(mockClient).events(any(DockerClient.EventsParam.class));
+
+        assertThrows(ReadEventsException.class,
+                () -> dockerAdapter.followContainerEvents(mockOnSubscribed, mockEventConsumer));
+        verify(mockOnSubscribed, never()).accept(any());
+    }
+
+    @Property
+    @Label("Given a docker client, " +
+            "when following container events, " +
+            "and a InterruptedException is thrown, " +
+            "should throw a ReadEventsException.")
+    void followEventsInterruptedException() throws DockerException, InterruptedException {
+        doThrow(new InterruptedException()).when(mockClient).events(any(DockerClient.EventsParam.class));
+
+        assertThrows(ReadEventsException.class,
+                () -> dockerAdapter.followContainerEvents(mockOnSubscribed, mockEventConsumer));
+    }
+
+    @Property
+    @Label("Given a stream of image events, " +
+            "when following them, " +
+            "should notify once subscribed, " +
+            "and pass on each event in order, " +
+            "and close the stream once it ends.")
+    void followImageEventsSuccessfully(
+            @ForAll String givenImageReference,
+            @ForAll String givenImageId) throws DockerException, InterruptedException {
+        EventStream mockEventStream = mock(EventStream.class);
+        when(mockClient.events(any(DockerClient.EventsParam.class))).thenReturn(mockEventStream);
+        when(mockEventStream.hasNext()).thenReturn(true, true, false);
+        Event pullEvent = mockEvent(givenImageReference, DockerAdapter.PULL_EVENT, ImmutableMap.of());
+        Event untagEvent = mockEvent(givenImageId, DockerAdapter.UNTAG_EVENT, ImmutableMap.of());
+        when(mockEventStream.next()).thenReturn(pullEvent, untagEvent);
+
+        dockerAdapter.followImageEvents(mockOnSubscribed, mockImageEventConsumer);
+
+        InOrder inOrder = inOrder(mockOnSubscribed, mockImageEventConsumer, mockEventStream);
+        inOrder.verify(mockOnSubscribed).accept(mockEventStream);
+        inOrder.verify(mockImageEventConsumer)
+                .accept(new ImageEvent(givenImageReference, DockerAdapter.PULL_EVENT));
+        inOrder.verify(mockImageEventConsumer)
+                .accept(new ImageEvent(givenImageId, DockerAdapter.UNTAG_EVENT));
+        inOrder.verify(mockEventStream).close();
+    }
+
+    @Property
+    @Label("Given a docker client, " +
+            "when following image events, " +
+            "and a DockerException is thrown, " +
+            "should throw a ReadEventsException.")
+    void followImageEventsDockerException() throws DockerException, InterruptedException {
+        doThrow(new DockerException("")).when(mockClient).events(any(DockerClient.EventsParam.class));
+
+        assertThrows(ReadEventsException.class,
+                () -> dockerAdapter.followImageEvents(mockOnSubscribed, mockImageEventConsumer));
+        verify(mockOnSubscribed, never()).accept(any());
+    }
+
+    @Property
+    @Label("Given a stream of volume events, " +
+            "when following them, " +
+            "should notify once subscribed, " +
+            "and pass on each event in order, " +
+            "and close the stream once it ends.")
+    void followVolumeEventsSuccessfully(@ForAll String givenVolumeName) throws DockerException, InterruptedException {
+        EventStream mockEventStream = mock(EventStream.class);
+        when(mockClient.events(any(DockerClient.EventsParam.class))).thenReturn(mockEventStream);
+        when(mockEventStream.hasNext()).thenReturn(true, true, false);
+        Event createEvent = mockEvent(givenVolumeName, DockerAdapter.CREATE_EVENT, ImmutableMap.of());
+        Event destroyEvent = mockEvent(givenVolumeName, DockerAdapter.DESTROY_EVENT, ImmutableMap.of());
+        when(mockEventStream.next()).thenReturn(createEvent, destroyEvent);
+
+        dockerAdapter.followVolumeEvents(mockOnSubscribed, mockVolumeEventConsumer);
+
+        InOrder inOrder = inOrder(mockOnSubscribed, mockVolumeEventConsumer, mockEventStream);
+        inOrder.verify(mockOnSubscribed).accept(mockEventStream);
+        inOrder.verify(mockVolumeEventConsumer).accept(new VolumeEvent(givenVolumeName, DockerAdapter.CREATE_EVENT));
+        inOrder.verify(mockVolumeEventConsumer).accept(new VolumeEvent(givenVolumeName, DockerAdapter.DESTROY_EVENT));
+        inOrder.verify(mockEventStream).close();
+    }
+
+    @Property
+    @Label("Given a docker client, " +
+            "when following volume events, " +
+            "and a DockerException is thrown, " +
+            "should throw a ReadEventsException.")
+    void followVolumeEventsDockerException() throws DockerException, InterruptedException {
+        doThrow(new DockerException("")).when(mockClient).events(any(DockerClient.EventsParam.class));
+
+        assertThrows(ReadEventsException.class,
+                () -> dockerAdapter.followVolumeEvents(mockOnSubscribed, mockVolumeEventConsumer));
+        verify(mockOnSubscribed, never()).accept(any());
+    }
+
+    private Event mockEvent(String containerId, String action, ImmutableMap<String, String> attributes) {
+        Event mockEvent = mock(Event.class);
+        Event.Actor mockActor = mock(Event.Actor.class);
+        when(mockEvent.action()).thenReturn(action);
+        when(mockEvent.actor()).thenReturn(mockActor);
+        when(mockActor.id()).thenReturn(containerId);
+        when(mockActor.attributes()).thenReturn(attributes);
+        return mockEvent;
+    }
+}
@@ -0,0 +1,92 @@
+package conjob.core.job;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.exceptions.DockerException;
+import com.spotify.docker.client.messages.Image;
+import com.spotify.docker.client.shaded.com.google.common.collect.ImmutableList;
+import conjob.core.job.exception.ListImagesException;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.AlphaChars;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class DockerAdapterListImageReferencesTest {
+    private DockerAdapter dockerAdapter;
+    private DockerClient mockClient;
+
+    @BeforeEach
+    @BeforeTry
+    void setUp() {
+        mockClient = mock(DockerClient.class);
+        dockerAdapter = new DockerAdapter(mockClient);
+    }
+
+    @Property
+    @Label("Given local images, " +
+            "when listing their references, " +
+            "should list their ids, tags and digests, " +
+            "and leave out untagged references.")
+    void listImageReferencesSuccessfully(
+            @ForAll @AlphaChars String givenImageId,
+            @ForAll @AlphaChars String givenTag,
+            @ForAll @AlphaChars String givenDigest,
+            @ForAll @AlphaChars String givenUntaggedImageId) throws DockerException, InterruptedException {
+        Image taggedImage = mockImage(
+                "sha256:" + givenImageId,
+                ImmutableList.of("image:" + givenTag),
+                ImmutableList.of("image@sha256:" + givenDigest));
+        Image untaggedImage = mockImage(
+                "sha256:untagged" + givenUntaggedImageId,
+                ImmutableList.of("<none>:<none>"),
+                null);
+        when(mockClient.listImages()).thenReturn(List.of(taggedImage, untaggedImage));
+
+        Set<String> references = dockerAdapter.listImageReferences();
+
+        assertThat(references, containsInAnyOrder(
+                "sha256:" + givenImageId,
+                "image:" + givenTag,
+                "image@sha256:" + givenDigest,
+                "sha256:untagged" + givenUntaggedImageId));
+    }
+
+    @Property
+    @Label("Given a docker client, " +
+            "when listing image references, " +
+            "and a DockerException is thrown, " +
+            "should throw a ListImagesException.")
+    void listImageReferencesDockerException() throws DockerException, InterruptedException {
+        doThrow(new DockerException("")).when(mockClient).listImages();
+
+        assertThrows(ListImagesException.class, () -> dockerAdapter.listImageReferences());
+    }
+
+    @Property
+    @Label("Given a docker client, " +
+            "when listing image references, " +
+            "and an InterruptedException is thrown, " +
+            "should throw a ListImagesException.")
+    void listImageReferencesInterruptedException() throws DockerException, InterruptedException {
+        doThrow(new InterruptedException()).when(mockClient).listImages();
+
+        assertThrows(ListImagesException.class, () -> dockerAdapter.listImageReferences());
+    }
+
+    private Image mockImage(String id, ImmutableList<String> repoTags, ImmutableList<String> repoDigests) {
+        Image image = mock(Image.class);
+        when(image.id()).thenReturn(id);
+        when(image.repoTags()).thenReturn(repoTags);
+        when(image.repoDigests()).thenReturn(repoDigests);
+        return image;
+    }
+}
@@ -0,0 +1,43 @@
+package conjob.core.job;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.exceptions.DockerException;
+import conjob.core.job.exception.PingDaemonException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class DockerAdapterPingTest {
+    private DockerAdapter dockerAdapter;
+    private DockerClient mockClient;
+
+    @BeforeEach
+    void setUp() {
+        mockClient = mock(DockerClient.class);
+        dockerAdapter = new DockerAdapter(mockClient);
+    }
+
+    @Test
+    @DisplayName("Given a daemon that's up, " +
+            "when pinging it, " +
+            "should ping the daemon.")
+    void pingSuccessfully() throws DockerException, InterruptedException, PingDaemonException {
+        dockerAdapter.ping();
+
+        verify(mockClient).ping();
+    }
+
+    @Test
+    @DisplayName("Given a daemon that's down, " +
+            "when pinging it, " +
+            "and a DockerException is thrown, " +
+            "should throw a PingDaemonException.")
+    void pingDockerException() throws DockerException, InterruptedException {
+        doThrow(new DockerException("")).when(mockClient).ping();
+
+        assertThrows(PingDaemonException.class, () -> dockerAdapter.ping());
+    }
+}
@@ -0,0 +1,46 @@
+package conjob.core.job;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.exceptions.DockerException;
+import conjob.core.job.exception.RemoveJobRunException;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.junit.jupiter.api.BeforeEach;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class DockerAdapterRemoveJobRunTest {
+    private DockerAdapter dockerAdapter;
+    private DockerClient mockClient;
+
+    @BeforeEach
+    @BeforeTry
+    void setUp() {
+        mockClient = mock(DockerClient.class);
+        dockerAdapter = new DockerAdapter(mockClient);
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "when removing that container, " +
+            "should remove it.")
+    void removeJobRunSuccessfully(@ForAll String givenContainerId) throws DockerException, InterruptedException {
+        dockerAdapter.removeJobRun(givenContainerId);
+
+        verify(mockClient).removeContainer(givenContainerId);
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "when removing that container, " +
+            "and a DockerException is thrown, " +
+            "should throw a RemoveJobRunException.")
+    void removeJobRunDockerException(@ForAll String givenContainerId) throws DockerException, InterruptedException {
+        doThrow(new DockerException("")).when(mockClient).removeContainer(givenContainerId);
+
+        assertThrows(RemoveJobRunException.class, () -> dockerAdapter.removeJobRun(givenContainerId));
+    }
+}
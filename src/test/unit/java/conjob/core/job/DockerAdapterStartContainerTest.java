@@ -2,7 +2,6 @@ package conjob.core.job;
 
 import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.exceptions.DockerException;
-import com.spotify.docker.client.messages.ContainerExit;
 import conjob.core.job.exception.RunJobException;
 import net.jqwik.api.ForAll;
 import net.jqwik.api.Label;
@@ -10,8 +9,6 @@ import net.jqwik.api.Property;
 import net.jqwik.api.lifecycle.BeforeTry;
 import org.junit.jupiter.api.BeforeEach;
 
-import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -29,20 +26,13 @@ public class DockerAdapterStartContainerTest {
     @Property
     @Label("Given a container ID, " +
             "when starting that container, " +
-            "should return an exit status code.")
-    void startContainerSuccessfully(
-            @ForAll String givenContainerId,
-            @ForAll long expectedCode
-    ) throws DockerException, InterruptedException, RunJobException {
-        ContainerExit mockContainerExit = mock(ContainerExit.class);
-        when(mockClient.waitContainer(givenContainerId)).thenReturn(mockContainerExit);
-        when(mockContainerExit.statusCode()).thenReturn(expectedCode);
+            "should start it without waiting for it to exit.")
+    void startContainerSuccessfully(@ForAll String givenContainerId)
+            throws DockerException, InterruptedException, RunJobException {
+        dockerAdapter.startContainer(givenContainerId);
 
-        Long exitStatusCode = dockerAdapter.startContainerThenWaitForExit(givenContainerId);
-
-        assertThat(exitStatusCode, is(expectedCode));
         verify(mockClient).startContainer(givenContainerId);
-        verify(mockClient).waitContainer(givenContainerId);
+        verify(mockClient, never()).waitContainer(givenContainerId);
     }
 
     @Property
@@ -51,9 +41,9 @@ public class DockerAdapterStartContainerTest {
             "and a DockerException is thrown, " +
             "should throw a RunJobException.")
     void startContainerDockerException(@ForAll String givenContainerId) throws DockerException, InterruptedException {
-        doThrow(new DockerException("")).when(mockClient).waitContainer(givenContainerId);
+        doThrow(new DockerException("")).when(mockClient).startContainer(givenContainerId);
 
-        assertThrows(RunJobException.class, () -> dockerAdapter.startContainerThenWaitForExit(givenContainerId));
+        assertThrows(RunJobException.class, () -> dockerAdapter.startContainer(givenContainerId));
     }
 
     @Property
@@ -62,9 +52,9 @@ public class DockerAdapterStartContainerTest {
             "and a InterruptedException is thrown, " +
             "should throw a RunJobException.")
     void startContainerInterruptedExceptionException(@ForAll String givenContainerId) throws DockerException, InterruptedException {
-        doThrow(new InterruptedException()).when(mockClient).waitContainer(givenContainerId);
+        doThrow(new InterruptedException()).when(mockClient).startContainer(givenContainerId);
 
-        assertThrows(RunJobException.class, () -> dockerAdapter.startContainerThenWaitForExit(givenContainerId));
+        assertThrows(RunJobException.class, () -> dockerAdapter.startContainer(givenContainerId));
     }
 
     @Property
@@ -73,8 +63,8 @@ public class DockerAdapterStartContainerTest {
             "and a unexpected Exception is thrown, " +
             "should throw that exception.")
     void startContainerUnexpectedExceptionException(@ForAll String givenContainerId) throws DockerException, InterruptedException {
-        doThrow(new RuntimeException()).when(mockClient).waitContainer(givenContainerId);
+        doThrow(new RuntimeException()).when(mockClient).startContainer(givenContainerId);
 
-        assertThrows(RuntimeException.class, () -> dockerAdapter.startContainerThenWaitForExit(givenContainerId));
+        assertThrows(RuntimeException.class, () -> dockerAdapter.startContainer(givenContainerId));
     }
-}
\ No newline at end of file
+}
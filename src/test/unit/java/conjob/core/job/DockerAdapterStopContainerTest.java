@@ -2,7 +2,8 @@ package conjob.core.job;
 
 import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.exceptions.DockerException;
-import com.spotify.docker.client.messages.ContainerExit;
+import com.spotify.docker.client.messages.ContainerInfo;
+import com.spotify.docker.client.messages.ContainerState;
 import conjob.core.job.exception.StopJobRunException;
 import net.jqwik.api.ForAll;
 import net.jqwik.api.Label;
@@ -30,21 +31,23 @@ public class DockerAdapterStopContainerTest {
     @Label("Given a container ID, " +
             "and a timeout until kill, " +
             "when stopping that container, " +
-            "should return an exit status code.")
+            "should return the exit status code it stopped with.")
     void stopContainerSuccessfully(
             @ForAll String givenContainerId,
             @ForAll int givenKillTimeoutSeconds,
             @ForAll long expectedCode
     ) throws DockerException, InterruptedException, StopJobRunException {
-        ContainerExit mockContainerExit = mock(ContainerExit.class);
-        when(mockClient.waitContainer(givenContainerId)).thenReturn(mockContainerExit);
-        when(mockContainerExit.statusCode()).thenReturn(expectedCode);
+        ContainerInfo mockContainerInfo = mock(ContainerInfo.class);
+        ContainerState mockContainerState = mock(ContainerState.class);
+        when(mockClient.inspectContainer(givenContainerId)).thenReturn(mockContainerInfo);
+        when(mockContainerInfo.state()).thenReturn(mockContainerState);
+        when(mockContainerState.exitCode()).thenReturn(expectedCode);
 
         Long exitStatusCode = dockerAdapter.stopContainer(givenContainerId, givenKillTimeoutSeconds);
 
         assertThat(exitStatusCode, is(expectedCode));
         verify(mockClient).stopContainer(givenContainerId, givenKillTimeoutSeconds);
-        verify(mockClient).waitContainer(givenContainerId);
+        verify(mockClient, never()).waitContainer(givenContainerId);
     }
 
     @Property
@@ -56,7 +59,7 @@ public class DockerAdapterStopContainerTest {
             @ForAll String givenContainerId,
             @ForAll int givenKillTimeoutSeconds
     ) throws DockerException, InterruptedException {
-        doThrow(new DockerException("")).when(mockClient).waitContainer(givenContainerId);
+        doThrow(new DockerException("")).when(mockClient).inspectContainer(givenContainerId);
 
         assertThrows(StopJobRunException.class, () -> dockerAdapter.stopContainer(givenContainerId, givenKillTimeoutSeconds));
     }
@@ -70,7 +73,7 @@ public class DockerAdapterStopContainerTest {
             @ForAll String givenContainerId,
             @ForAll int givenKillTimeoutSeconds
     ) throws DockerException, InterruptedException {
-        doThrow(new DockerException("")).when(mockClient).waitContainer(givenContainerId);
+        doThrow(new DockerException("")).when(mockClient).inspectContainer(givenContainerId);
 
         assertThrows(StopJobRunException.class, () -> dockerAdapter.stopContainer(givenContainerId, givenKillTimeoutSeconds));
     }
@@ -84,7 +87,7 @@ public class DockerAdapterStopContainerTest {
             @ForAll String givenContainerId,
             @ForAll int givenKillTimeoutSeconds
     ) throws DockerException, InterruptedException {
-        doThrow(new RuntimeException("")).when(mockClient).waitContainer(givenContainerId);
+        doThrow(new RuntimeException("")).when(mockClient).inspectContainer(givenContainerId);
 
         assertThrows(RuntimeException.class, () -> dockerAdapter.stopContainer(givenContainerId, givenKillTimeoutSeconds));
     }
@@ -0,0 +1,110 @@
+package conjob.core.job;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.LogMessage;
+import com.spotify.docker.client.LogStream;
+import com.spotify.docker.client.exceptions.DockerException;
+import conjob.core.job.exception.ReadLogsException;
+import conjob.core.job.output.JobOutputSink;
+import conjob.core.job.output.JobOutputSource;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.junit.jupiter.api.BeforeEach;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class DockerAdapterStreamLogsTest {
+    private DockerAdapter dockerAdapter;
+    private DockerClient mockClient;
+    private JobOutputSink mockSink;
+
+    @BeforeEach
+    @BeforeTry
+    void setUp() {
+        mockClient = mock(DockerClient.class);
+        mockSink = mock(JobOutputSink.class);
+        dockerAdapter = new DockerAdapter(mockClient);
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "when streaming that container's logs, " +
+            "should write each log message to the sink in order, " +
+            "and with its source.")
+    void streamLogsSuccessfully(
+            @ForAll String givenContainerId,
+            @ForAll String givenStdout,
+            @ForAll String givenStderr
+    ) throws ReadLogsException, DockerException, InterruptedException, IOException {
+        ByteBuffer stdoutContent = ByteBuffer.wrap(givenStdout.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer stderrContent = ByteBuffer.wrap(givenStderr.getBytes(StandardCharsets.UTF_8));
+        LogStream mockLogStream = mock(LogStream.class);
+        when(mockClient.logs(eq(givenContainerId), any(DockerClient.LogsParam.class)))
+                .thenReturn(mockLogStream);
+        when(mockLogStream.hasNext()).thenReturn(true, true, false);
+        when(mockLogStream.next()).thenReturn(
+                new LogMessage(LogMessage.Stream.STDOUT, stdoutContent),
+                new LogMessage(LogMessage.Stream.STDERR, stderrContent));
+
+        dockerAdapter.streamLogsUntilExit(givenContainerId, mockSink);
+
+        InOrder inOrder = inOrder(mockSink, mockLogStream);
+        inOrder.verify(mockSink).write(JobOutputSource.STDOUT, stdoutContent);
+        inOrder.verify(mockSink).write(JobOutputSource.STDERR, stderrContent);
+        inOrder.verify(mockLogStream).close();
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "when streaming that container's logs, " +
+            "and the sink can't be written to, " +
+            "should throw a ReadLogsException, " +
+            "and close the log stream.")
+    void streamLogsSinkException(@ForAll String givenContainerId)
+            throws DockerException, InterruptedException, IOException {
+        LogStream mockLogStream = mock(LogStream.class);
+        when(mockClient.logs(eq(givenContainerId), any(DockerClient.LogsParam.class)))
+                .thenReturn(mockLogStream);
+        when(mockLogStream.hasNext()).thenReturn(true);
+        when(mockLogStream.next()).thenReturn(new LogMessage(LogMessage.Stream.STDOUT, ByteBuffer.allocate(0)));
+        doThrow(new IOException()).when(mockSink).write(any(), any());
+
+        assertThrows(ReadLogsException.class,
+                () -> dockerAdapter.streamLogsUntilExit(givenContainerId, mockSink));
+        verify(mockLogStream).close();
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "when streaming that container's logs, " +
+            "and a DockerException is thrown, " +
+            "should throw a ReadLogsException.")
+    void streamLogsDockerException(@ForAll String givenContainerId) throws DockerException, InterruptedException {
+        doThrow(new DockerException("")).when(mockClient)
+                .logs(eq(givenContainerId), any(DockerClient.LogsParam.class));
+
+        assertThrows(ReadLogsException.class,
+                () -> dockerAdapter.streamLogsUntilExit(givenContainerId, mockSink));
+    }
+
+    @Property
+    @Label("Given a container ID, " +
+            "when streaming that container's logs, " +
+            "and a InterruptedException is thrown, " +
+            "should throw a ReadLogsException.")
+    void streamLogsInterruptedException(@ForAll String givenContainerId) throws DockerException, InterruptedException {
+        doThrow(new InterruptedException("")).when(mockClient)
+                .logs(eq(givenContainerId), any(DockerClient.LogsParam.class));
+
+        assertThrows(ReadLogsException.class,
+                () -> dockerAdapter.streamLogsUntilExit(givenContainerId, mockSink));
+    }
+}
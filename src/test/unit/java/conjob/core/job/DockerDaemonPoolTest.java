@@ -0,0 +1,208 @@
+package conjob.core.job;
+
+import com.spotify.docker.client.exceptions.DockerException;
+import com.spotify.docker.client.exceptions.ImageNotFoundException;
+import conjob.core.job.exception.CreateJobRunException;
+import conjob.core.job.exception.PingDaemonException;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+class DockerDaemonPoolTest {
+    private static final String IMAGE = "image";
+
+    @Property
+    @Label("Given two daemons with the same number of slots, " +
+            "and one running more jobs than the other, " +
+            "when placing a job, " +
+            "then it should go on the one with more free slots.")
+    void placeOnFreest(
+            @ForAll @IntRange(min = 2, max = 20) int givenMaxRuns,
+            @ForAll @IntRange(min = 1, max = 19) int givenBusierBy) {
+        DockerDaemon first = daemon("first", givenMaxRuns, false);
+        DockerDaemon second = daemon("second", givenMaxRuns, false);
+        DockerDaemonPool pool = new DockerDaemonPool(List.of(first, second), 3);
+        for (int i = 0; i < Math.min(givenBusierBy, givenMaxRuns - 1); i++) {
+            first.tryTakeSlot();
+        }
+
+        Optional<DockerDaemon> placed = pool.place(IMAGE, false);
+
+        assertThat(placed, is(Optional.of(second)));
+        assertThat(second.getRunning(), is(1));
+    }
+
+    @Test
+    @DisplayName("Given two daemons running the same number of jobs, " +
+            "and only one of them has the image, " +
+            "when placing a job, " +
+            "then it should go on the one with the image.")
+    void placeOnDaemonWithImage() {
+        DockerDaemon first = daemon("first", 4, false);
+        DockerDaemon second = daemon("second", 4, true);
+        DockerDaemonPool pool = new DockerDaemonPool(List.of(first, second), 3);
+
+        assertThat(pool.place(IMAGE, false), is(Optional.of(second)));
+    }
+
+    @Test
+    @DisplayName("Given two daemons running the same number of jobs, " +
+            "and one of them has been slow to create containers, " +
+            "when placing a job, " +
+            "then it should go on the faster one.")
+    void placeOnFasterDaemon() {
+        DockerDaemon first = daemon("first", 4, false);
+        DockerDaemon second = daemon("second", 4, false);
+        DockerDaemonPool pool = new DockerDaemonPool(List.of(first, second), 3);
+        pool.creationSucceeded(first, Duration.ofSeconds(2));
+        pool.creationSucceeded(second, Duration.ofMillis(20));
+
+        assertThat(pool.place(IMAGE, false), is(Optional.of(second)));
+    }
+
+    @Test
+    @DisplayName("Given a job with secrets, " +
+            "and the first daemon is busier than the others, " +
+            "when placing the job, " +
+            "then it should still go on the first daemon.")
+    void placeSecretsOnFirstDaemon() {
+        DockerDaemon first = daemon("first", 4, false);
+        DockerDaemon second = daemon("second", 4, true);
+        DockerDaemonPool pool = new DockerDaemonPool(List.of(first, second), 3);
+        first.tryTakeSlot();
+
+        assertThat(pool.place(IMAGE, true), is(Optional.of(first)));
+    }
+
+    @Property
+    @Label("Given daemons with 1 - 10 slots each, " +
+            "when placing more jobs than there are slots, " +
+            "then the jobs over should not be placed, " +
+            "and a finished job should free its slot.")
+    void placeUntilFull(@ForAll @IntRange(min = 1, max = 10) int givenMaxRuns) {
+        DockerDaemon first = daemon("first", givenMaxRuns, false);
+        DockerDaemon second = daemon("second", givenMaxRuns, false);
+        DockerDaemonPool pool = new DockerDaemonPool(List.of(first, second), 3);
+        for (int i = 0; i < givenMaxRuns * 2; i++) {
+            assertThat(pool.place(IMAGE, false).isPresent(), is(true));
+        }
+
+        Optional<DockerDaemon> overFull = pool.place(IMAGE, false);
+        pool.finished(second);
+        Optional<DockerDaemon> afterFinished = pool.place(IMAGE, false);
+
+        assertThat(overFull, is(Optional.empty()));
+        assertThat(afterFinished, is(Optional.of(second)));
+    }
+
+    @Property
+    @Label("Given a daemon that fails to create containers 1 - 5 times in a row, " +
+            "when it reaches the failures to eject after, " +
+            "then it should get no more jobs, " +
+            "until a health check passes.")
+    void ejectAfterFailures(@ForAll @IntRange(min = 1, max = 5) int givenEjectAfterFailures) {
+        DockerDaemon first = daemon("first", 0, false);
+        DockerDaemon second = daemon("second", 0, true);
+        DockerDaemonPool pool = new DockerDaemonPool(List.of(first, second), givenEjectAfterFailures);
+        CreateJobRunException daemonFault = new CreateJobRunException(new DockerException("connection refused"));
+
+        for (int i = 0; i < givenEjectAfterFailures - 1; i++) {
+            pool.creationFailed(second, daemonFault);
+        }
+        boolean healthyBeforeLast = second.isHealthy();
+        pool.creationFailed(second, daemonFault);
+        Optional<DockerDaemon> whileEjected = pool.place(IMAGE, false);
+        pool.checkHealth();
+        Optional<DockerDaemon> afterHealthCheck = pool.place(IMAGE, false);
+
+        assertThat(healthyBeforeLast, is(true));
+        assertThat(whileEjected, is(Optional.of(first)));
+        assertThat(afterHealthCheck, is(Optional.of(second)));
+    }
+
+    @Property
+    @Label("Given a daemon that fails to create containers 2 - 5 times in a row, " +
+            "and health checks pass in between, " +
+            "when it reaches the failures to eject after, " +
+            "then it should be ejected, " +
+            "and after a health check admits it again, its next failed creation should eject it again.")
+    void healthChecksDontResetCreationFailures(@ForAll @IntRange(min = 2, max = 5) int givenEjectAfterFailures) {
+        DockerDaemon first = daemon("first", 0, false);
+        DockerDaemon second = daemon("second", 0, false);
+        DockerDaemonPool pool = new DockerDaemonPool(List.of(first, second), givenEjectAfterFailures);
+        CreateJobRunException daemonFault = new CreateJobRunException(new DockerException("connection refused"));
+
+        for (int i = 0; i < givenEjectAfterFailures; i++) {
+            pool.creationFailed(second, daemonFault);
+            if (i < givenEjectAfterFailures - 1) {
+                pool.checkHealth();
+            }
+        }
+        boolean healthyAfterFailures = second.isHealthy();
+        pool.checkHealth();
+        boolean healthyAfterHealthCheck = second.isHealthy();
+        pool.creationFailed(second, daemonFault);
+
+        assertThat(healthyAfterFailures, is(false));
+        assertThat(healthyAfterHealthCheck, is(true));
+        assertThat(second.isHealthy(), is(false));
+    }
+
+    @Test
+    @DisplayName("Given a daemon that fails to create containers for images that don't exist, " +
+            "when that happens more times than the failures to eject after, " +
+            "then it should stay healthy.")
+    void imageNotFoundDoesntEject() {
+        DockerDaemon first = daemon("first", 0, false);
+        DockerDaemon second = daemon("second", 0, false);
+        DockerDaemonPool pool = new DockerDaemonPool(List.of(first, second), 1);
+
+        pool.creationFailed(second, new CreateJobRunException(new ImageNotFoundException(IMAGE)));
+
+        assertThat(second.isHealthy(), is(true));
+    }
+
+    @Test
+    @DisplayName("Given a daemon that stops answering pings, " +
+            "when health checks fail enough times, " +
+            "then it should be ejected, " +
+            "unless it's the last healthy daemon.")
+    void ejectOnFailedHealthChecks() {
+        DockerDaemon first = daemon("first", 0, false);
+        DockerDaemon second = daemon("second", 0, false);
+        DockerDaemonPool pool = new DockerDaemonPool(List.of(first, second), 2);
+        doThrow(new PingDaemonException(new DockerException("down"))).when(first.getDockerAdapter()).ping();
+        doThrow(new PingDaemonException(new DockerException("down"))).when(second.getDockerAdapter()).ping();
+
+        pool.checkHealth();
+        pool.checkHealth();
+
+        assertThat(first.isHealthy(), is(false));
+        assertThat(second.isHealthy(), is(true));
+        assertThat(pool.place(IMAGE, false), is(Optional.of(second)));
+    }
+
+    private static DockerDaemon daemon(String name, int maxRuns, boolean hasImage) {
+        LocalImageIndex localImageIndex = mock(LocalImageIndex.class);
+        when(localImageIndex.isMissing(IMAGE)).thenReturn(!hasImage);
+        return new DockerDaemon(
+                name,
+                mock(DockerAdapter.class),
+                localImageIndex,
+                mock(ImagePuller.class),
+                mock(JobRunCreationStrategyDeterminer.class),
+                mock(JobRunner.class),
+                maxRuns);
+    }
+}
@@ -0,0 +1,199 @@
+package conjob.core.job;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.EventStream;
+import com.spotify.docker.client.exceptions.DockerException;
+import com.spotify.docker.client.messages.ContainerInfo;
+import com.spotify.docker.client.messages.ContainerState;
+import com.spotify.docker.client.messages.Event;
+import conjob.core.job.exception.InspectContainerException;
+import conjob.core.job.exception.ReadEventsException;
+import conjob.core.job.model.ContainerEvent;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.lifecycle.BeforeTry;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DockerEventMonitorTest {
+    private DockerAdapter adapterMock;
+    private DockerEventMonitor dockerEventMonitor;
+
+    @BeforeTry
+    void setUp() {
+        adapterMock = mock(DockerAdapter.class);
+        dockerEventMonitor = new DockerEventMonitor(adapterMock);
+    }
+
+    @Property
+    @Label("Given a container being waited on, " +
+            "when it dies, " +
+            "should complete its exit with the exit code from the event.")
+    void dieEvent(
+            @ForAll String givenContainerId,
+            @ForAll @LongRange(max = 255) long givenExitCode) {
+        when(adapterMock.findExitCode(givenContainerId)).thenReturn(Optional.empty());
+        CompletableFuture<Long> exit = dockerEventMonitor.awaitExit(givenContainerId);
+        givenEvents(new ContainerEvent(givenContainerId, DockerAdapter.DIE_EVENT, givenExitCode));
+
+        dockerEventMonitor.followEvents();
+
+        assertThat(exit.join(), is(givenExitCode));
+    }
+
+    @Property
+    @Label("Given a container being waited on, " +
+            "when another container dies, " +
+            "should not complete its exit.")
+    void otherContainerDieEvent(
+            @ForAll String givenContainerId,
+            @ForAll @LongRange(max = 255) long givenExitCode) {
+        when(adapterMock.findExitCode(givenContainerId)).thenReturn(Optional.empty());
+        CompletableFuture<Long> exit = dockerEventMonitor.awaitExit(givenContainerId);
+        givenEvents(new ContainerEvent(givenContainerId + "other", DockerAdapter.DIE_EVENT, givenExitCode));
+
+        dockerEventMonitor.followEvents();
+
+        assertThat(exit.isDone(), is(false));
+        verify(adapterMock, never()).findExitCode(givenContainerId + "other");
+    }
+
+    @Property
+    @Label("Given a container being waited on, " +
+            "and it has already exited, " +
+            "when subscribing to events, " +
+            "should complete its exit with the exit code found by inspecting it.")
+    void reconcileOnSubscribe(
+            @ForAll String givenContainerId,
+            @ForAll @LongRange(max = 255) long givenExitCode) {
+        when(adapterMock.findExitCode(givenContainerId)).thenReturn(Optional.of(givenExitCode));
+        CompletableFuture<Long> exit = dockerEventMonitor.awaitExit(givenContainerId);
+        givenEvents();
+
+        dockerEventMonitor.followEvents();
+
+        assertThat(exit.join(), is(givenExitCode));
+    }
+
+    @Property
+    @Label("Given a container being waited on, " +
+            "when it's killed, " +
+            "and it's still running, " +
+            "should inspect it, " +
+            "and not complete its exit.")
+    void killEventStillRunning(@ForAll String givenContainerId) {
+        when(adapterMock.findExitCode(givenContainerId)).thenReturn(Optional.empty());
+        CompletableFuture<Long> exit = dockerEventMonitor.awaitExit(givenContainerId);
+        givenEvents(new ContainerEvent(givenContainerId, DockerAdapter.KILL_EVENT, null));
+
+        dockerEventMonitor.followEvents();
+
+        assertThat(exit.isDone(), is(false));
+        verify(adapterMock, times(2)).findExitCode(givenContainerId);
+    }
+
+    @Property
+    @Label("Given a container being waited on, " +
+            "and it's been created but not started yet, " +
+            "when subscribing to events again, " +
+            "and then it's killed, " +
+            "should not complete its exit.")
+    void reconcileNotStarted(@ForAll String givenContainerId) throws DockerException, InterruptedException {
+        DockerClient mockClient = mock(DockerClient.class);
+        ContainerInfo mockContainerInfo = mock(ContainerInfo.class);
+        ContainerState mockContainerState = mock(ContainerState.class);
+        when(mockClient.inspectContainer(givenContainerId)).thenReturn(mockContainerInfo);
+        when(mockContainerInfo.state()).thenReturn(mockContainerState);
+        when(mockContainerState.status()).thenReturn("created");
+        when(mockContainerState.running()).thenReturn(false);
+        when(mockContainerState.exitCode()).thenReturn(0L);
+        EventStream mockEventStream = mock(EventStream.class);
+        Event killEvent = mock(Event.class);
+        Event.Actor killActor = mock(Event.Actor.class);
+        when(killEvent.action()).thenReturn(DockerAdapter.KILL_EVENT);
+        when(killEvent.actor()).thenReturn(killActor);
+        when(killActor.id()).thenReturn(givenContainerId);
+        when(mockEventStream.hasNext()).thenReturn(true, false);
+        when(mockEventStream.next()).thenReturn(killEvent);
+        when(mockClient.events(any(DockerClient.EventsParam.class))).thenReturn(mockEventStream);
+        DockerEventMonitor monitor = new DockerEventMonitor(new DockerAdapter(mockClient));
+        CompletableFuture<Long> exit = monitor.awaitExit(givenContainerId);
+
+        monitor.followEvents();
+
+        assertThat(exit.isDone(), is(false));
+        verify(mockClient, times(2)).inspectContainer(givenContainerId);
+    }
+
+    @Property
+    @Label("Given a container being waited on, " +
+            "when subscribing to events, " +
+            "and there is a problem inspecting it, " +
+            "should complete its exit exceptionally.")
+    void reconcileInspectException(@ForAll String givenContainerId) {
+        when(adapterMock.findExitCode(givenContainerId))
+                .thenThrow(new InspectContainerException(new Exception()));
+        CompletableFuture<Long> exit = dockerEventMonitor.awaitExit(givenContainerId);
+        givenEvents();
+
+        dockerEventMonitor.followEvents();
+
+        assertThat(exit.isCompletedExceptionally(), is(true));
+    }
+
+    @Property
+    @Label("Given a container being waited on, " +
+            "and it's been forgotten, " +
+            "when it dies, " +
+            "should have cancelled its exit, " +
+            "and ignore the event.")
+    void forget(
+            @ForAll String givenContainerId,
+            @ForAll @LongRange(max = 255) long givenExitCode) {
+        CompletableFuture<Long> exit = dockerEventMonitor.awaitExit(givenContainerId);
+        dockerEventMonitor.forget(givenContainerId);
+        givenEvents(new ContainerEvent(givenContainerId, DockerAdapter.DIE_EVENT, givenExitCode));
+
+        dockerEventMonitor.followEvents();
+
+        assertThat(exit.isCancelled(), is(true));
+        verify(adapterMock, never()).findExitCode(givenContainerId);
+    }
+
+    @Property(tries = 3)
+    @Label("Given a running monitor, " +
+            "when its subscription to events drops, " +
+            "should subscribe again until it's stopped.")
+    void resubscribe() {
+        doThrow(new ReadEventsException(new Exception()))
+                .doAnswer(invocation -> {
+                    dockerEventMonitor.stop();
+                    return null;
+                })
+                .when(adapterMock).followContainerEvents(any(), any());
+
+        dockerEventMonitor.run();
+
+        verify(adapterMock, times(2)).followContainerEvents(any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenEvents(ContainerEvent... events) {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(mock(Closeable.class));
+            List.of(events).forEach(invocation.getArgument(1, Consumer.class));
+            return null;
+        }).when(adapterMock).followContainerEvents(any(), any());
+    }
+}
@@ -0,0 +1,91 @@
+package conjob.core.job;
+
+import conjob.core.job.exception.InspectImageException;
+import net.jqwik.api.*;
+import net.jqwik.api.lifecycle.BeforeTry;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ImageIdResolverTest {
+    private DockerAdapter adapterMock;
+    private ImagePuller pullerMock;
+    private DockerDaemon daemon;
+    private ImageIdResolver imageIdResolver;
+
+    @BeforeTry
+    void setUp() {
+        adapterMock = mock(DockerAdapter.class);
+        pullerMock = mock(ImagePuller.class);
+        daemon = new DockerDaemon(
+                "default",
+                adapterMock,
+                mock(LocalImageIndex.class),
+                pullerMock,
+                mock(JobRunCreationStrategyDeterminer.class),
+                mock(JobRunner.class),
+                1);
+        imageIdResolver = new ImageIdResolver();
+    }
+
+    @Property
+    @Label("Given a local image on a daemon, " +
+            "and a pull strategy that runs what's local, " +
+            "when finding its id, " +
+            "should return the local image's id.")
+    void findImageIdLocal(
+            @ForAll String givenImageName,
+            @ForAll String givenImageId,
+            @ForAll("localStrategies") PullStrategy givenPullStrategy) throws InspectImageException {
+        when(adapterMock.findImageId(givenImageName)).thenReturn(givenImageId);
+
+        assertThat(imageIdResolver.findImageId(daemon, givenImageName, givenPullStrategy), is(Optional.of(givenImageId)));
+    }
+
+    @Property
+    @Label("Given a local image, " +
+            "and an always pull strategy, " +
+            "when finding its id, " +
+            "should return the local image's id only if the daemon's last pull is still fresh.")
+    void findImageIdAlways(
+            @ForAll String givenImageName,
+            @ForAll String givenImageId,
+            @ForAll boolean givenFresh) throws InspectImageException {
+        when(adapterMock.findImageId(givenImageName)).thenReturn(givenImageId);
+        when(pullerMock.isFresh(givenImageName)).thenReturn(givenFresh);
+
+        Optional<String> imageId = imageIdResolver.findImageId(daemon, givenImageName, PullStrategy.ALWAYS);
+
+        assertThat(imageId, is(givenFresh ? Optional.of(givenImageId) : Optional.empty()));
+    }
+
+    @Property
+    @Label("Given a refresh pull strategy, " +
+            "when finding an image's id, " +
+            "should not know it.")
+    void findImageIdRefresh(@ForAll String givenImageName) throws InspectImageException {
+        assertThat(imageIdResolver.findImageId(daemon, givenImageName, PullStrategy.REFRESH), is(Optional.empty()));
+        verify(adapterMock, never()).findImageId(any());
+    }
+
+    @Property
+    @Label("Given an image that isn't local, " +
+            "when finding its id, " +
+            "should not know it.")
+    void findImageIdMissing(
+            @ForAll String givenImageName,
+            @ForAll("localStrategies") PullStrategy givenPullStrategy) throws InspectImageException {
+        when(adapterMock.findImageId(givenImageName)).thenThrow(new InspectImageException(new Exception()));
+
+        assertThat(imageIdResolver.findImageId(daemon, givenImageName, givenPullStrategy), is(Optional.empty()));
+    }
+
+    @Provide
+    Arbitrary<PullStrategy> localStrategies() {
+        return Arbitraries.of(PullStrategy.NEVER, PullStrategy.ABSENT);
+    }
+}
@@ -0,0 +1,151 @@
+package conjob.core.job;
+
+import conjob.core.job.exception.JobUpdateException;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.lifecycle.BeforeTry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class ImagePullerTest {
+    private static final Duration FRESHNESS = Duration.ofSeconds(60);
+
+    private DockerAdapter adapterMock;
+    private LocalImageIndex indexMock;
+    private Clock clockMock;
+    private List<String> pulledImages;
+    private ImagePuller imagePuller;
+
+    @BeforeTry
+    void setUp() {
+        adapterMock = mock(DockerAdapter.class);
+        indexMock = mock(LocalImageIndex.class);
+        clockMock = mock(Clock.class);
+        when(clockMock.instant()).thenReturn(Instant.EPOCH);
+        pulledImages = new ArrayList<>();
+        imagePuller = new ImagePuller(adapterMock, indexMock, FRESHNESS, clockMock, pulledImages::add);
+    }
+
+    @Property
+    @Label("Given an image that was never pulled, " +
+            "when pulling it, " +
+            "should pull it, " +
+            "and record it as available locally, " +
+            "and say that it was pulled.")
+    void pullNeverPulled(@ForAll String givenImageName) throws JobUpdateException {
+        boolean pulled = imagePuller.pull(givenImageName, false);
+
+        assertThat(pulled, is(true));
+        verify(adapterMock, times(1)).pullImage(givenImageName);
+        verify(indexMock).imagePulled(givenImageName);
+        assertThat(pulledImages, is(List.of(givenImageName)));
+    }
+
+    @Property
+    @Label("Given an image that was pulled, " +
+            "when pulling it again within the freshness window, " +
+            "should not pull it again, " +
+            "and only say that it was pulled the first time.")
+    void pullFresh(
+            @ForAll String givenImageName,
+            @ForAll @LongRange(max = 59) long givenSecondsLater) throws JobUpdateException {
+        imagePuller.pull(givenImageName, false);
+        when(clockMock.instant()).thenReturn(Instant.EPOCH.plusSeconds(givenSecondsLater));
+
+        boolean pulled = imagePuller.pull(givenImageName, false);
+
+        assertThat(pulled, is(false));
+        verify(adapterMock, times(1)).pullImage(givenImageName);
+        assertThat(pulledImages, is(List.of(givenImageName)));
+    }
+
+    @Property
+    @Label("Given an image that was pulled, " +
+            "when pulling it again after the freshness window, " +
+            "should pull it again.")
+    void pullStale(
+            @ForAll String givenImageName,
+            @ForAll @LongRange(min = 60, max = 100_000) long givenSecondsLater) throws JobUpdateException {
+        imagePuller.pull(givenImageName, false);
+        when(clockMock.instant()).thenReturn(Instant.EPOCH.plusSeconds(givenSecondsLater));
+
+        boolean pulled = imagePuller.pull(givenImageName, false);
+
+        assertThat(pulled, is(true));
+        verify(adapterMock, times(2)).pullImage(givenImageName);
+    }
+
+    @Property
+    @Label("Given an image that was pulled, " +
+            "when forcing a refresh of it within the freshness window, " +
+            "should pull it again.")
+    void pullForceRefresh(@ForAll String givenImageName) throws JobUpdateException {
+        imagePuller.pull(givenImageName, false);
+
+        boolean pulled = imagePuller.pull(givenImageName, true);
+
+        assertThat(pulled, is(true));
+        verify(adapterMock, times(2)).pullImage(givenImageName);
+    }
+
+    @Property
+    @Label("Given an image that was pulled, " +
+            "and it's been invalidated, " +
+            "when pulling it again within the freshness window, " +
+            "should pull it again.")
+    void pullInvalidated(@ForAll String givenImageName) throws JobUpdateException {
+        imagePuller.pull(givenImageName, false);
+        imagePuller.invalidate(givenImageName);
+
+        imagePuller.pull(givenImageName, false);
+
+        verify(adapterMock, times(2)).pullImage(givenImageName);
+    }
+
+    @Property
+    @Label("Given images that were pulled, " +
+            "and they've all been invalidated, " +
+            "when pulling them again within the freshness window, " +
+            "should pull them again.")
+    void pullAllInvalidated(@ForAll String givenImageName) throws JobUpdateException {
+        String otherImageName = givenImageName + "other";
+        imagePuller.pull(givenImageName, false);
+        imagePuller.pull(otherImageName, false);
+        imagePuller.invalidateAll();
+
+        imagePuller.pull(givenImageName, false);
+        imagePuller.pull(otherImageName, false);
+
+        verify(adapterMock, times(2)).pullImage(givenImageName);
+        verify(adapterMock, times(2)).pullImage(otherImageName);
+    }
+
+    @Property
+    @Label("Given an image, " +
+            "when pulling it, " +
+            "and there is a problem pulling it, " +
+            "should throw that exception, " +
+            "and not say that it was pulled, " +
+            "and pull it again the next time.")
+    void pullException(@ForAll String givenImageName) throws JobUpdateException {
+        doThrow(new JobUpdateException(new Exception())).doNothing().when(adapterMock).pullImage(givenImageName);
+
+        assertThrows(JobUpdateException.class, () -> imagePuller.pull(givenImageName, false));
+        assertThat(pulledImages.isEmpty(), is(true));
+        boolean pulled = imagePuller.pull(givenImageName, false);
+
+        assertThat(pulled, is(true));
+        verify(adapterMock, times(2)).pullImage(givenImageName);
+    }
+}
@@ -6,10 +6,14 @@ import conjob.core.job.JobRunCreationStrategyDeterminer;
 import conjob.core.job.PullStrategy;
 import conjob.core.job.exception.CreateJobRunException;
 import conjob.core.job.exception.JobUpdateException;
+import conjob.core.job.model.CreatedJobRun;
 import conjob.core.job.model.JobRunConfig;
-import net.jqwik.api.ForAll;
-import net.jqwik.api.Property;
+import net.jqwik.api.*;
 import net.jqwik.api.lifecycle.BeforeTry;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -18,10 +22,12 @@ import static org.mockito.Mockito.*;
 
 class JobRunCreationStrategyDeterminerTest {
     private DockerAdapter dockerAdapter;
+    private LocalImageIndex localImageIndex;
 
     @BeforeTry
     void setUp() {
         dockerAdapter = mock(DockerAdapter.class);
+        localImageIndex = mock(LocalImageIndex.class);
     }
 
     @Property
@@ -31,17 +37,55 @@ class JobRunCreationStrategyDeterminerTest {
                                      @ForAll String givenJobRunId)
             throws CreateJobRunException, JobUpdateException {
         JobRunConfig jobRunConfig = new JobRunConfig(jobName, input, secretsVolumeName);
-        when(dockerAdapter.createJobRun(jobRunConfig)).thenReturn(givenJobRunId);
+        when(dockerAdapter.createJobRun(jobRunConfig)).thenReturn(created(givenJobRunId));
 
-        String jobRunId = new JobRunCreationStrategyDeterminer(dockerAdapter)
+        String jobRunId = new JobRunCreationStrategyDeterminer(dockerAdapter, localImageIndex, imagePuller())
                 .determineStrategy(PullStrategy.ALWAYS)
-                .createJobRun(jobRunConfig);
+                .createJobRun(jobRunConfig).getJobId();
 
         assertThat(jobRunId, is(givenJobRunId));
         verify(dockerAdapter, times(1)).pullImage(jobName);
         verify(dockerAdapter, times(1)).createJobRun(jobRunConfig);
     }
 
+    @Property
+    void determineStrategyAlwaysPullFresh(@ForAll String jobName,
+                                          @ForAll String input,
+                                          @ForAll String secretsVolumeName,
+                                          @ForAll String givenJobRunId)
+            throws CreateJobRunException, JobUpdateException {
+        JobRunConfig jobRunConfig = new JobRunConfig(jobName, input, secretsVolumeName);
+        when(dockerAdapter.createJobRun(jobRunConfig)).thenReturn(created(givenJobRunId));
+        JobRunCreationStrategy strategy =
+                new JobRunCreationStrategyDeterminer(dockerAdapter, localImageIndex, freshImagePuller())
+                        .determineStrategy(PullStrategy.ALWAYS);
+
+        strategy.createJobRun(jobRunConfig);
+        String jobRunId = strategy.createJobRun(jobRunConfig).getJobId();
+
+        assertThat(jobRunId, is(givenJobRunId));
+        verify(dockerAdapter, times(1)).pullImage(jobName);
+        verify(dockerAdapter, times(2)).createJobRun(jobRunConfig);
+    }
+
+    @Property
+    void determineStrategyRefreshPull(@ForAll String jobName,
+                                      @ForAll String input,
+                                      @ForAll String secretsVolumeName,
+                                      @ForAll String givenJobRunId)
+            throws CreateJobRunException, JobUpdateException {
+        JobRunConfig jobRunConfig = new JobRunConfig(jobName, input, secretsVolumeName);
+        when(dockerAdapter.createJobRun(jobRunConfig)).thenReturn(created(givenJobRunId));
+        JobRunCreationStrategyDeterminer determiner =
+                new JobRunCreationStrategyDeterminer(dockerAdapter, localImageIndex, freshImagePuller());
+
+        determiner.determineStrategy(PullStrategy.ALWAYS).createJobRun(jobRunConfig);
+        String jobRunId = determiner.determineStrategy(PullStrategy.REFRESH).createJobRun(jobRunConfig).getJobId();
+
+        assertThat(jobRunId, is(givenJobRunId));
+        verify(dockerAdapter, times(2)).pullImage(jobName);
+    }
+
     @Property
     void determineStrategyNeverPull(@ForAll String jobName,
                                     @ForAll String input,
@@ -49,11 +93,11 @@ class JobRunCreationStrategyDeterminerTest {
                                     @ForAll String givenJobRunId)
             throws CreateJobRunException, JobUpdateException {
         JobRunConfig jobRunConfig = new JobRunConfig(jobName, input, secretsVolumeName);
-        when(dockerAdapter.createJobRun(jobRunConfig)).thenReturn(givenJobRunId);
+        when(dockerAdapter.createJobRun(jobRunConfig)).thenReturn(created(givenJobRunId));
 
-        String jobRunId = new JobRunCreationStrategyDeterminer(dockerAdapter)
+        String jobRunId = new JobRunCreationStrategyDeterminer(dockerAdapter, localImageIndex, imagePuller())
                 .determineStrategy(PullStrategy.NEVER)
-                .createJobRun(jobRunConfig);
+                .createJobRun(jobRunConfig).getJobId();
 
         assertThat(jobRunId, is(givenJobRunId));
         verify(dockerAdapter, times(0)).pullImage(jobName);
@@ -67,11 +111,11 @@ class JobRunCreationStrategyDeterminerTest {
                                     @ForAll String givenJobRunId)
             throws CreateJobRunException, JobUpdateException {
         JobRunConfig jobRunConfig = new JobRunConfig(jobName, input, secretsVolumeName);
-        when(dockerAdapter.createJobRun(jobRunConfig)).thenReturn(givenJobRunId);
+        when(dockerAdapter.createJobRun(jobRunConfig)).thenReturn(created(givenJobRunId));
 
-        String jobRunId = new JobRunCreationStrategyDeterminer(dockerAdapter)
+        String jobRunId = new JobRunCreationStrategyDeterminer(dockerAdapter, localImageIndex, imagePuller())
                 .determineStrategy(PullStrategy.ABSENT)
-                .createJobRun(jobRunConfig);
+                .createJobRun(jobRunConfig).getJobId();
 
         assertThat(jobRunId, is(givenJobRunId));
         verify(dockerAdapter, times(0)).pullImage(jobName);
@@ -87,11 +131,11 @@ class JobRunCreationStrategyDeterminerTest {
         JobRunConfig jobRunConfig = new JobRunConfig(jobName, input, secretsVolumeName);
         when(dockerAdapter.createJobRun(jobRunConfig))
                 .thenThrow(CreateJobRunException.class)
-                .thenReturn(givenJobRunId);
+                .thenReturn(created(givenJobRunId));
 
-        String jobRunId = new JobRunCreationStrategyDeterminer(dockerAdapter)
+        String jobRunId = new JobRunCreationStrategyDeterminer(dockerAdapter, localImageIndex, imagePuller())
                 .determineStrategy(PullStrategy.ABSENT)
-                .createJobRun(jobRunConfig);
+                .createJobRun(jobRunConfig).getJobId();
 
         assertThat(jobRunId, is(givenJobRunId));
         verify(dockerAdapter, times(1)).pullImage(jobName);
@@ -109,8 +153,160 @@ class JobRunCreationStrategyDeterminerTest {
                 .thenThrow(CreateJobRunException.class);
 
         assertThrows(CreateJobRunException.class, () ->
-                new JobRunCreationStrategyDeterminer(dockerAdapter)
+                new JobRunCreationStrategyDeterminer(dockerAdapter, localImageIndex, imagePuller())
                         .determineStrategy(pullStrategy)
                         .createJobRun(jobRunConfig));
     }
-}
\ No newline at end of file
+
+    @Property
+    void determineStrategyAbsentPullMissing(@ForAll String jobName,
+                                            @ForAll String input,
+                                            @ForAll String secretsVolumeName,
+                                            @ForAll String givenJobRunId)
+            throws CreateJobRunException, JobUpdateException {
+        JobRunConfig jobRunConfig = new JobRunConfig(jobName, input, secretsVolumeName);
+        when(localImageIndex.isMissing(jobName)).thenReturn(true);
+        when(dockerAdapter.createJobRun(jobRunConfig)).thenReturn(created(givenJobRunId));
+
+        String jobRunId = new JobRunCreationStrategyDeterminer(dockerAdapter, localImageIndex, freshImagePuller())
+                .determineStrategy(PullStrategy.ABSENT)
+                .createJobRun(jobRunConfig).getJobId();
+
+        assertThat(jobRunId, is(givenJobRunId));
+        InOrder inOrder = inOrder(dockerAdapter, localImageIndex);
+        inOrder.verify(dockerAdapter).pullImage(jobName);
+        inOrder.verify(localImageIndex).imagePulled(jobName);
+        inOrder.verify(dockerAdapter).createJobRun(jobRunConfig);
+        verify(dockerAdapter, times(1)).createJobRun(jobRunConfig);
+    }
+
+    @Property
+    void determineStrategyNeverPullMissing(@ForAll String jobName,
+                                           @ForAll String input,
+                                           @ForAll String secretsVolumeName)
+            throws CreateJobRunException, JobUpdateException {
+        JobRunConfig jobRunConfig = new JobRunConfig(jobName, input, secretsVolumeName);
+        when(localImageIndex.isMissing(jobName)).thenReturn(true);
+
+        assertThrows(CreateJobRunException.class, () ->
+                new JobRunCreationStrategyDeterminer(dockerAdapter, localImageIndex, freshImagePuller())
+                        .determineStrategy(PullStrategy.NEVER)
+                        .createJobRun(jobRunConfig));
+        verify(dockerAdapter, never()).pullImage(jobName);
+        verify(dockerAdapter, never()).createJobRun(jobRunConfig);
+    }
+
+    @Property
+    void determineStrategyAlwaysPullWarm(@ForAll String jobName,
+                                         @ForAll String secretsVolumeName,
+                                         @ForAll String givenJobRunId)
+            throws CreateJobRunException, JobUpdateException {
+        WarmJobRunPool warmJobRunPool = mock(WarmJobRunPool.class);
+        JobRunConfig jobRunConfig = new JobRunConfig(jobName, null, secretsVolumeName);
+        when(warmJobRunPool.take(jobRunConfig)).thenReturn(Optional.of(givenJobRunId));
+
+        String jobRunId = new JobRunCreationStrategyDeterminer(
+                dockerAdapter, localImageIndex, imagePuller(warmJobRunPool), warmJobRunPool)
+                .determineStrategy(PullStrategy.ALWAYS)
+                .createJobRun(jobRunConfig).getJobId();
+
+        assertThat(jobRunId, is(givenJobRunId));
+        InOrder inOrder = inOrder(dockerAdapter, warmJobRunPool);
+        inOrder.verify(dockerAdapter).pullImage(jobName);
+        inOrder.verify(warmJobRunPool).imagePulled(jobName);
+        inOrder.verify(warmJobRunPool).take(jobRunConfig);
+        verify(dockerAdapter, never()).createJobRun(jobRunConfig);
+    }
+
+    @Property
+    void determineStrategyAlwaysPullWarmFresh(@ForAll String jobName,
+                                              @ForAll String secretsVolumeName,
+                                              @ForAll String givenJobRunId)
+            throws CreateJobRunException, JobUpdateException {
+        WarmJobRunPool warmJobRunPool = mock(WarmJobRunPool.class);
+        JobRunConfig jobRunConfig = new JobRunConfig(jobName, null, secretsVolumeName);
+        when(warmJobRunPool.take(jobRunConfig)).thenReturn(Optional.of(givenJobRunId));
+        JobRunCreationStrategy strategy = new JobRunCreationStrategyDeterminer(
+                dockerAdapter, localImageIndex, freshImagePuller(warmJobRunPool), warmJobRunPool)
+                .determineStrategy(PullStrategy.ALWAYS);
+
+        strategy.createJobRun(jobRunConfig);
+        String jobRunId = strategy.createJobRun(jobRunConfig).getJobId();
+
+        assertThat(jobRunId, is(givenJobRunId));
+        verify(dockerAdapter, times(1)).pullImage(jobName);
+        verify(warmJobRunPool, times(1)).imagePulled(jobName);
+        verify(warmJobRunPool, times(2)).take(jobRunConfig);
+    }
+
+    @Property
+    void determineStrategyWarmEmpty(@ForAll("warmPullStrategies") PullStrategy pullStrategy,
+                                    @ForAll String jobName,
+                                    @ForAll String input,
+                                    @ForAll String secretsVolumeName,
+                                    @ForAll String givenJobRunId)
+            throws CreateJobRunException, JobUpdateException {
+        WarmJobRunPool warmJobRunPool = mock(WarmJobRunPool.class);
+        JobRunConfig jobRunConfig = new JobRunConfig(jobName, input, secretsVolumeName);
+        when(warmJobRunPool.take(jobRunConfig)).thenReturn(Optional.empty());
+        when(dockerAdapter.createJobRun(jobRunConfig)).thenReturn(created(givenJobRunId));
+
+        String jobRunId = new JobRunCreationStrategyDeterminer(
+                dockerAdapter, localImageIndex, imagePuller(warmJobRunPool), warmJobRunPool)
+                .determineStrategy(pullStrategy)
+                .createJobRun(jobRunConfig).getJobId();
+
+        assertThat(jobRunId, is(givenJobRunId));
+        verify(dockerAdapter, never()).pullImage(jobName);
+        verify(dockerAdapter, times(1)).createJobRun(jobRunConfig);
+    }
+
+    @Property
+    void determineStrategyAbsentPullMissingWarm(@ForAll String jobName,
+                                                @ForAll String input,
+                                                @ForAll String secretsVolumeName,
+                                                @ForAll String givenJobRunId)
+            throws CreateJobRunException, JobUpdateException {
+        WarmJobRunPool warmJobRunPool = mock(WarmJobRunPool.class);
+        JobRunConfig jobRunConfig = new JobRunConfig(jobName, input, secretsVolumeName);
+        when(warmJobRunPool.take(jobRunConfig)).thenReturn(Optional.empty());
+        when(localImageIndex.isMissing(jobName)).thenReturn(true);
+        when(dockerAdapter.createJobRun(jobRunConfig)).thenReturn(created(givenJobRunId));
+
+        String jobRunId = new JobRunCreationStrategyDeterminer(
+                dockerAdapter, localImageIndex, freshImagePuller(warmJobRunPool), warmJobRunPool)
+                .determineStrategy(PullStrategy.ABSENT)
+                .createJobRun(jobRunConfig).getJobId();
+
+        assertThat(jobRunId, is(givenJobRunId));
+        InOrder inOrder = inOrder(dockerAdapter, warmJobRunPool);
+        inOrder.verify(dockerAdapter).pullImage(jobName);
+        inOrder.verify(warmJobRunPool).imagePulled(jobName);
+        inOrder.verify(dockerAdapter).createJobRun(jobRunConfig);
+    }
+
+    private static CreatedJobRun created(String jobRunId) {
+        return new CreatedJobRun(jobRunId, Optional.of(Duration.ofMillis(1)));
+    }
+
+    private ImagePuller imagePuller() {
+        return new ImagePuller(dockerAdapter, localImageIndex, Duration.ZERO);
+    }
+
+    private ImagePuller imagePuller(WarmJobRunPool warmJobRunPool) {
+        return new ImagePuller(dockerAdapter, localImageIndex, Duration.ZERO, warmJobRunPool::imagePulled);
+    }
+
+    private ImagePuller freshImagePuller() {
+        return new ImagePuller(dockerAdapter, localImageIndex, Duration.ofHours(1));
+    }
+
+    private ImagePuller freshImagePuller(WarmJobRunPool warmJobRunPool) {
+        return new ImagePuller(dockerAdapter, localImageIndex, Duration.ofHours(1), warmJobRunPool::imagePulled);
+    }
+
+    @Provide
+    Arbitrary<PullStrategy> warmPullStrategies() {
+        return Arbitraries.of(PullStrategy.NEVER, PullStrategy.ABSENT);
+    }
+}
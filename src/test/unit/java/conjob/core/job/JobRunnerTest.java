@@ -1,208 +1,298 @@
 package conjob.core.job;
 
+import conjob.core.job.exception.CopyJobInputException;
 import conjob.core.job.exception.ReadLogsException;
+import conjob.core.job.exception.RemoveJobRunException;
 import conjob.core.job.exception.RunJobException;
-import conjob.core.job.exception.StopJobRunException;
 import conjob.core.job.model.JobRunOutcome;
+import conjob.core.job.output.JobOutput;
+import conjob.core.job.output.JobOutputSink;
+import conjob.core.job.output.JobOutputSource;
+import conjob.core.job.output.JobOutputStoreCreator;
+import conjob.core.job.output.OutputBufferPool;
+import conjob.core.job.output.OutputMemoryBudget;
 import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
 import net.jqwik.api.constraints.LongRange;
-import org.mockito.AdditionalAnswers;
+import net.jqwik.api.lifecycle.BeforeTry;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 class JobRunnerTest {
+    private DockerAdapter adapterMock;
+    private JobSupervisor supervisorMock;
+    private JobRunner jobRunner;
+
+    @BeforeTry
+    void setUp() {
+        adapterMock = mock(DockerAdapter.class);
+        supervisorMock = mock(JobSupervisor.class);
+        jobRunner = new JobRunner(
+                adapterMock,
+                supervisorMock,
+                new JobOutputStoreCreator(
+                        new OutputBufferPool(16, 4),
+                        new OutputMemoryBudget(Long.MAX_VALUE),
+                        64,
+                        1024,
+                        Path.of(System.getProperty("java.io.tmpdir"))));
+    }
+
     @Property
     @Label("Given a container id, " +
-            "and an infinite timeout, " +
+            "and a timeout, " +
+            "and a kill timeout, " +
             "when running the container, " +
-            "and it returns an exit code, " +
-            "and it returns output, " +
-            "should return an outcome with the same data.")
+            "and it's supervised to an exit code, " +
+            "and it writes output, " +
+            "should return an outcome with the same data, " +
+            "and have supervised starting the container with the given timeouts.")
     void runContainer(
             @ForAll String givenContainerId,
+            @ForAll @LongRange(min = 0) long givenTimeoutSeconds,
+            @ForAll int givenKillTimeout,
             @ForAll @LongRange(max = 255) long givenContainerExitCode,
-            @ForAll String givenContainerOutput) throws RunJobException, ReadLogsException {
-        DockerAdapter adapterMock = mock(DockerAdapter.class);
-        JobRunner jobRunner = new JobRunner(adapterMock);
-        long givenTimeoutSeconds = Long.MAX_VALUE;
-        int givenKillTimeout = Integer.MAX_VALUE;
-        when(adapterMock.startContainerThenWaitForExit(givenContainerId))
-                .thenReturn(givenContainerExitCode);
-        when(adapterMock.readAllLogsUntilExit(givenContainerId))
-                .thenReturn(givenContainerOutput);
+            @ForAll String givenContainerOutput) throws Exception {
+        ArgumentCaptor<Callable<?>> containerRun = ArgumentCaptor.forClass(Callable.class);
+        when(supervisorMock.supervise(
+                eq(givenContainerId), containerRun.capture(), eq(givenTimeoutSeconds), eq(givenKillTimeout)))
+                .thenReturn(CompletableFuture.completedFuture(givenContainerExitCode));
+        byte[] givenOutputBytes = givenContainerOutput.getBytes(StandardCharsets.UTF_8);
+        doAnswer(invocation -> {
+            JobOutputSink sink = invocation.getArgument(1);
+            sink.write(JobOutputSource.STDOUT, ByteBuffer.wrap(givenOutputBytes));
+            return null;
+        }).when(adapterMock).streamLogsUntilExit(eq(givenContainerId), any());
 
         JobRunOutcome jobRunOutcome =
                 jobRunner.runContainer(givenContainerId, givenTimeoutSeconds, givenKillTimeout);
+        containerRun.getValue().call();
+
+        assertThat(jobRunOutcome.getExitStatusCode(), is(givenContainerExitCode));
+        assertThat(readAll(jobRunOutcome.getOutput()), is(givenOutputBytes));
+        verify(adapterMock).startContainer(givenContainerId);
+        jobRunOutcome.getOutput().close();
+    }
+
+    @Property
+    @Label("Given a container id, " +
+            "and an input directory, " +
+            "when running the container with that input, " +
+            "should copy the input into the container before starting it, " +
+            "and return the outcome it's supervised to.")
+    void runContainerWithInput(
+            @ForAll String givenContainerId,
+            @ForAll @LongRange(max = 255) long givenContainerExitCode) throws Exception {
+        Path givenInputDirectory = Path.of("/tmp/input");
+        ArgumentCaptor<Callable<?>> containerRun = ArgumentCaptor.forClass(Callable.class);
+        when(supervisorMock.supervise(eq(givenContainerId), containerRun.capture(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(givenContainerExitCode));
+
+        JobRunOutcome jobRunOutcome = jobRunner.runContainer(givenContainerId, 1, 1, givenInputDirectory);
+        containerRun.getValue().call();
 
         assertThat(jobRunOutcome.getExitStatusCode(), is(givenContainerExitCode));
-        assertThat(jobRunOutcome.getOutput(), is(givenContainerOutput));
+        InOrder inOrder = inOrder(adapterMock);
+        inOrder.verify(adapterMock).copyInputToJobRun(givenContainerId, givenInputDirectory);
+        inOrder.verify(adapterMock).startContainer(givenContainerId);
+        jobRunOutcome.getOutput().close();
+    }
+
+    @Property
+    @Label("Given a container id, " +
+            "when running the container with input, " +
+            "and copying the input in fails, " +
+            "should throw a CopyJobInputException, " +
+            "and not start the container, " +
+            "and remove it.")
+    void runContainerWithInputCopyFails(@ForAll String givenContainerId) {
+        Path givenInputDirectory = Path.of("/tmp/input");
+        doThrow(new CopyJobInputException(new Exception()))
+                .when(adapterMock).copyInputToJobRun(givenContainerId, givenInputDirectory);
+
+        assertThrows(CopyJobInputException.class,
+                () -> jobRunner.runContainer(givenContainerId, 1, 1, givenInputDirectory));
+        verifyNoInteractions(supervisorMock);
+        verify(adapterMock).removeJobRun(givenContainerId);
+    }
+
+    @Property
+    @Label("Given a container id, " +
+            "when running the container with input, " +
+            "and copying the input in fails, " +
+            "and removing the container fails too, " +
+            "should still throw the CopyJobInputException.")
+    void runContainerWithInputCopyAndRemoveFail(@ForAll String givenContainerId) {
+        Path givenInputDirectory = Path.of("/tmp/input");
+        CopyJobInputException copyException = new CopyJobInputException(new Exception());
+        doThrow(copyException).when(adapterMock).copyInputToJobRun(givenContainerId, givenInputDirectory);
+        doThrow(new RemoveJobRunException(new Exception())).when(adapterMock).removeJobRun(givenContainerId);
+
+        CopyJobInputException thrown = assertThrows(CopyJobInputException.class,
+                () -> jobRunner.runContainer(givenContainerId, 1, 1, givenInputDirectory));
+
+        assertThat(thrown == copyException, is(true));
+        verifyNoInteractions(supervisorMock);
     }
 
     @Property
     @Label("Given a container id, " +
-            "and an infinite timeout, " +
+            "and a tail size, " +
             "when running the container, " +
-            "and there is a problem running or waiting for it to finish, " +
-            "and it returns an non-terminated exit code, " +
-            "and it returns output, " +
-            "should return an outcome with the same data.")
-    void runContainerException(
+            "and it's supervised to an exit code, " +
+            "and it writes output, " +
+            "should return an outcome with the exit code, " +
+            "and only the tail of the output.")
+    void runContainerTail(
             @ForAll String givenContainerId,
-            @ForAll("nonTerminatedExitCodes") long givenContainerExitCode,
-            @ForAll String givenContainerOutput) throws RunJobException, ReadLogsException, StopJobRunException {
-        DockerAdapter adapterMock = mock(DockerAdapter.class);
-        JobRunner jobRunner = new JobRunner(adapterMock);
-        long givenTimeoutSeconds = Long.MAX_VALUE;
-        int givenKillTimeout = Integer.MAX_VALUE;
-        when(adapterMock.startContainerThenWaitForExit(givenContainerId))
-                .thenThrow(new RunJobException(new Exception()));
-        when(adapterMock.stopContainer(givenContainerId, givenKillTimeout))
-                .thenReturn(givenContainerExitCode);
-        when(adapterMock.readAllLogsUntilExit(givenContainerId))
-                .thenReturn(givenContainerOutput);
+            @ForAll @LongRange(max = 255) long givenContainerExitCode,
+            @ForAll byte[] givenContainerOutput,
+            @ForAll @IntRange(min = 1, max = 64) int givenTailBytes) throws Exception {
+        when(supervisorMock.supervise(eq(givenContainerId), any(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(givenContainerExitCode));
+        doAnswer(invocation -> {
+            JobOutputSink sink = invocation.getArgument(1);
+            sink.write(JobOutputSource.STDOUT, ByteBuffer.wrap(givenContainerOutput));
+            return null;
+        }).when(adapterMock).streamLogsUntilExit(eq(givenContainerId), any());
 
         JobRunOutcome jobRunOutcome =
-                jobRunner.runContainer(givenContainerId, givenTimeoutSeconds, givenKillTimeout);
+                jobRunner.runContainer(givenContainerId, Long.MAX_VALUE, Integer.MAX_VALUE, givenTailBytes);
 
         assertThat(jobRunOutcome.getExitStatusCode(), is(givenContainerExitCode));
-        assertThat(jobRunOutcome.getOutput(), is(givenContainerOutput));
+        assertThat(jobRunOutcome.getOutput().size(), is((long) Math.min(givenTailBytes, givenContainerOutput.length)));
+        jobRunOutcome.getOutput().close();
     }
 
     @Property
     @Label("Given a container id, " +
-            "and an immediate timeout, " +
             "when running the container, " +
-            "and it's requested to be stopped, " +
-            "and it returns an non-terminated exit code, " +
-            "and it returns output, " +
-            "should return an outcome with the same output, " +
-            "and returns the exit code from stopping the container.")
-    void runContainerTimeout(
+            "and it's supervised to an exit code, " +
+            "and there is a problem reading its output, " +
+            "should return an outcome with the exit code, " +
+            "and no output.")
+    void runContainerReadLogsException(
             @ForAll String givenContainerId,
-            @ForAll("nonTerminatedExitCodes") long givenContainerExitCode,
-            @ForAll String givenContainerOutput) throws ReadLogsException, StopJobRunException {
-        DockerAdapter adapterMock = mock(DockerAdapter.class);
-        JobRunner jobRunner = new JobRunner(adapterMock);
-        long givenTimeoutSeconds = 0;
-        int givenKillTimeout = Integer.MAX_VALUE;
-        when(adapterMock.startContainerThenWaitForExit(givenContainerId))
-                .thenAnswer(AdditionalAnswers.answersWithDelay(1000, (foo) -> null));
-        when(adapterMock.stopContainer(givenContainerId, givenKillTimeout))
-                .thenReturn(givenContainerExitCode);
-        when(adapterMock.readAllLogsUntilExit(givenContainerId))
-                .thenReturn(givenContainerOutput);
+            @ForAll @LongRange(max = 255) long givenContainerExitCode) throws ReadLogsException {
+        when(supervisorMock.supervise(eq(givenContainerId), any(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(givenContainerExitCode));
+        doThrow(new ReadLogsException(new Exception()))
+                .when(adapterMock).streamLogsUntilExit(eq(givenContainerId), any());
 
         JobRunOutcome jobRunOutcome =
-                jobRunner.runContainer(givenContainerId, givenTimeoutSeconds, givenKillTimeout);
+                jobRunner.runContainer(givenContainerId, Long.MAX_VALUE, Integer.MAX_VALUE);
 
         assertThat(jobRunOutcome.getExitStatusCode(), is(givenContainerExitCode));
-        assertThat(jobRunOutcome.getOutput(), is(givenContainerOutput));
+        assertThat(jobRunOutcome.getOutput(), is(JobOutput.empty()));
     }
 
     @Property
     @Label("Given a container id, " +
-            "and an immediate timeout, " +
+            "and an output sink, " +
+            "and a timeout, " +
+            "and a kill timeout, " +
             "when running the container, " +
-            "and it's requested to be stopped, " +
-            "and it returns a terminated exit code, " +
-            "and it returns output, " +
-            "should return an outcome with the same output, " +
-            "and returns an exit code of -1.")
-    void runContainerTimeoutTerminated(
+            "and it's supervised to an exit code, " +
+            "should return an outcome with the exit code and no buffered output, " +
+            "and have supervised starting the container, " +
+            "and then stream its logs to the sink itself.")
+    void streamContainer(
             @ForAll String givenContainerId,
-            @ForAll("terminatedExitCodes") long givenContainerExitCode,
-            @ForAll String givenContainerOutput) throws ReadLogsException, StopJobRunException {
-        DockerAdapter adapterMock = mock(DockerAdapter.class);
-        JobRunner jobRunner = new JobRunner(adapterMock);
-        long givenTimeoutSeconds = 0;
-        int givenKillTimeout = Integer.MAX_VALUE;
-        when(adapterMock.startContainerThenWaitForExit(givenContainerId))
-                .thenAnswer(AdditionalAnswers.answersWithDelay(1000, (foo) -> null));
-        when(adapterMock.stopContainer(givenContainerId, givenKillTimeout))
-                .thenReturn(givenContainerExitCode);
-        when(adapterMock.readAllLogsUntilExit(givenContainerId))
-                .thenReturn(givenContainerOutput);
+            @ForAll @LongRange(min = 0) long givenTimeoutSeconds,
+            @ForAll int givenKillTimeout,
+            @ForAll @LongRange(max = 255) long givenContainerExitCode) throws Exception {
+        JobOutputSink sinkMock = mock(JobOutputSink.class);
+        CompletableFuture<Long> exit = new CompletableFuture<>();
+        when(supervisorMock.supervise(
+                eq(givenContainerId), any(), eq(givenTimeoutSeconds), eq(givenKillTimeout)))
+                .thenAnswer(invocation -> {
+                    Callable<?> containerRun = invocation.getArgument(1);
+                    containerRun.call();
+                    return exit;
+                });
+        doAnswer(invocation -> exit.complete(givenContainerExitCode))
+                .when(adapterMock).streamLogsUntilExit(givenContainerId, sinkMock);
 
         JobRunOutcome jobRunOutcome =
-                jobRunner.runContainer(givenContainerId, givenTimeoutSeconds, givenKillTimeout);
+                jobRunner.runContainer(givenContainerId, givenTimeoutSeconds, givenKillTimeout, sinkMock);
 
-        assertThat(jobRunOutcome.getExitStatusCode(), is(-1L));
-        assertThat(jobRunOutcome.getOutput(), is(givenContainerOutput));
+        assertThat(jobRunOutcome.getExitStatusCode(), is(givenContainerExitCode));
+        assertThat(jobRunOutcome.getOutput(), is(JobOutput.empty()));
+        InOrder inOrder = inOrder(adapterMock);
+        inOrder.verify(adapterMock).startContainer(givenContainerId);
+        inOrder.verify(adapterMock).streamLogsUntilExit(givenContainerId, sinkMock);
     }
 
     @Property
     @Label("Given a container id, " +
-            "and an immediate timeout, " +
+            "and an output sink, " +
             "when running the container, " +
-            "and it's requested to be stopped, " +
-            "and there is a problem stopping, " +
-            "and it returns output, " +
-            "should return an outcome with the same output, " +
-            "and returns an exit code of -1.")
-    void runContainerTimeoutTerminatedException(
-            @ForAll String givenContainerId,
-            @ForAll String givenContainerOutput) throws ReadLogsException, StopJobRunException {
-        DockerAdapter adapterMock = mock(DockerAdapter.class);
-        JobRunner jobRunner = new JobRunner(adapterMock);
-        long givenTimeoutSeconds = 0;
-        int givenKillTimeout = Integer.MAX_VALUE;
-        when(adapterMock.startContainerThenWaitForExit(givenContainerId))
-                .thenAnswer(AdditionalAnswers.answersWithDelay(1000, (foo) -> null));
-        when(adapterMock.stopContainer(givenContainerId, givenKillTimeout))
-                .thenThrow(new StopJobRunException(new Exception()));
-        when(adapterMock.readAllLogsUntilExit(givenContainerId))
-                .thenReturn(givenContainerOutput);
+            "and it's supervised, " +
+            "and there is a problem starting it, " +
+            "should return the supervised outcome, " +
+            "and not stream its logs.")
+    void streamContainerStartException(@ForAll String givenContainerId) throws ReadLogsException {
+        JobOutputSink sinkMock = mock(JobOutputSink.class);
+        when(supervisorMock.supervise(eq(givenContainerId), any(), anyLong(), anyInt()))
+                .thenAnswer(invocation -> {
+                    Callable<?> containerRun = invocation.getArgument(1);
+                    assertThrows(RunJobException.class, containerRun::call);
+                    return CompletableFuture.completedFuture(-1L);
+                });
+        doThrow(new RunJobException(new Exception())).when(adapterMock).startContainer(givenContainerId);
 
         JobRunOutcome jobRunOutcome =
-                jobRunner.runContainer(givenContainerId, givenTimeoutSeconds, givenKillTimeout);
+                jobRunner.runContainer(givenContainerId, Long.MAX_VALUE, Integer.MAX_VALUE, sinkMock);
 
         assertThat(jobRunOutcome.getExitStatusCode(), is(-1L));
-        assertThat(jobRunOutcome.getOutput(), is(givenContainerOutput));
+        verify(adapterMock, never()).streamLogsUntilExit(givenContainerId, sinkMock);
     }
 
     @Property
     @Label("Given a container id, " +
-            "and an infinite timeout, " +
+            "and an output sink, " +
             "when running the container, " +
-            "and it returns an exit code, " +
-            "and it returns output, " +
-            "should return an outcome with the same data.")
-    void runContainerReadLogsException(
+            "and it's started, " +
+            "and there is a problem streaming its logs, " +
+            "should still return the supervised exit code.")
+    void streamContainerReadLogsException(
             @ForAll String givenContainerId,
-            @ForAll @LongRange(max = 255) long givenContainerExitCode)
-            throws RunJobException, ReadLogsException {
-        DockerAdapter adapterMock = mock(DockerAdapter.class);
-        JobRunner jobRunner = new JobRunner(adapterMock);
-        long givenTimeoutSeconds = Long.MAX_VALUE;
-        int givenKillTimeout = Integer.MAX_VALUE;
-        when(adapterMock.startContainerThenWaitForExit(givenContainerId))
-                .thenReturn(givenContainerExitCode);
-        when(adapterMock.readAllLogsUntilExit(givenContainerId))
-                .thenThrow(new ReadLogsException(new Exception()));
+            @ForAll @LongRange(max = 255) long givenContainerExitCode) throws Exception {
+        JobOutputSink sinkMock = mock(JobOutputSink.class);
+        when(supervisorMock.supervise(eq(givenContainerId), any(), anyLong(), anyInt()))
+                .thenAnswer(invocation -> {
+                    Callable<?> containerRun = invocation.getArgument(1);
+                    containerRun.call();
+                    return CompletableFuture.completedFuture(givenContainerExitCode);
+                });
+        doThrow(new ReadLogsException(new Exception()))
+                .when(adapterMock).streamLogsUntilExit(givenContainerId, sinkMock);
 
         JobRunOutcome jobRunOutcome =
-                jobRunner.runContainer(givenContainerId, givenTimeoutSeconds, givenKillTimeout);
+                jobRunner.runContainer(givenContainerId, Long.MAX_VALUE, Integer.MAX_VALUE, sinkMock);
 
         assertThat(jobRunOutcome.getExitStatusCode(), is(givenContainerExitCode));
-        assertThat(jobRunOutcome.getOutput(), is(""));
-    }
-
-    @Provide
-    Arbitrary<Long> nonTerminatedExitCodes() {
-        final long SIGKILL = 137;
-        final long SIGTERM = 143;
-        return Arbitraries.longs()
-                .between(0, 255)
-                .filter(l -> !l.equals(SIGKILL) && !l.equals(SIGTERM));
     }
 
-    @Provide
-    Arbitrary<Long> terminatedExitCodes() {
-        final long SIGKILL = 137;
-        final long SIGTERM = 143;
-        return Arbitraries.of(SIGKILL, SIGTERM);
+    private byte[] readAll(JobOutput output) throws IOException {
+        try (InputStream stored = output.open()) {
+            return stored.readAllBytes();
+        }
     }
 }
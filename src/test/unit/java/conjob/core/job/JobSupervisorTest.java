@@ -0,0 +1,226 @@
+package conjob.core.job;
+
+import conjob.core.job.exception.RunJobException;
+import conjob.core.job.exception.StopJobRunException;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.lifecycle.BeforeTry;
+
+import java.util.concurrent.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+class JobSupervisorTest {
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool();
+    private DockerAdapter adapterMock;
+    private DockerEventMonitor monitorMock;
+    private CompletableFuture<Long> containerExit;
+
+    @BeforeTry
+    void setUp() {
+        adapterMock = mock(DockerAdapter.class);
+        monitorMock = mock(DockerEventMonitor.class);
+        containerExit = new CompletableFuture<>();
+    }
+
+    @Property
+    @Label("Given a container run, " +
+            "and an infinite timeout, " +
+            "when supervising it, " +
+            "and the container exits, " +
+            "should complete with its exit code, " +
+            "and cancel its timeout, " +
+            "and never stop the container, " +
+            "and stop waiting on it.")
+    void supervise(
+            @ForAll String givenContainerId,
+            @ForAll @LongRange(max = 255) long givenExitCode) throws StopJobRunException {
+        ScheduledThreadPoolExecutor timer = createTimer();
+        JobSupervisor jobSupervisor = new JobSupervisor(adapterMock, monitorMock, WORKERS, timer);
+        when(monitorMock.awaitExit(givenContainerId)).thenReturn(containerExit);
+
+        Long exitCode = jobSupervisor.supervise(
+                givenContainerId,
+                () -> containerExit.complete(givenExitCode),
+                Long.MAX_VALUE,
+                Integer.MAX_VALUE).join();
+
+        assertThat(exitCode, is(givenExitCode));
+        assertThat(timer.getQueue().isEmpty(), is(true));
+        verify(adapterMock, never()).stopContainer(anyString(), anyInt());
+        verify(monitorMock).forget(givenContainerId);
+        timer.shutdownNow();
+    }
+
+    @Property
+    @Label("Given a container run, " +
+            "and an infinite timeout, " +
+            "when supervising it, " +
+            "and there is a problem running it, " +
+            "and stopping it returns a non-terminated exit code, " +
+            "should complete with the exit code from stopping it.")
+    void superviseException(
+            @ForAll String givenContainerId,
+            @ForAll("nonTerminatedExitCodes") long givenExitCode,
+            @ForAll int givenKillTimeout) throws StopJobRunException {
+        ScheduledThreadPoolExecutor timer = createTimer();
+        JobSupervisor jobSupervisor = new JobSupervisor(adapterMock, monitorMock, WORKERS, timer);
+        when(monitorMock.awaitExit(givenContainerId)).thenReturn(containerExit);
+        when(adapterMock.stopContainer(givenContainerId, givenKillTimeout))
+                .thenReturn(givenExitCode);
+
+        Long exitCode = jobSupervisor.supervise(
+                givenContainerId,
+                () -> {
+                    throw new RunJobException(new Exception());
+                },
+                Long.MAX_VALUE,
+                givenKillTimeout).join();
+
+        assertThat(exitCode, is(givenExitCode));
+        timer.shutdownNow();
+    }
+
+    @Property
+    @Label("Given a container run, " +
+            "and an infinite timeout, " +
+            "when supervising it, " +
+            "and there is a problem waiting for it to exit, " +
+            "and stopping it returns a non-terminated exit code, " +
+            "should complete with the exit code from stopping it.")
+    void superviseExitException(
+            @ForAll String givenContainerId,
+            @ForAll("nonTerminatedExitCodes") long givenExitCode) throws StopJobRunException {
+        ScheduledThreadPoolExecutor timer = createTimer();
+        JobSupervisor jobSupervisor = new JobSupervisor(adapterMock, monitorMock, WORKERS, timer);
+        when(monitorMock.awaitExit(givenContainerId)).thenReturn(containerExit);
+        when(adapterMock.stopContainer(givenContainerId, Integer.MAX_VALUE))
+                .thenReturn(givenExitCode);
+
+        Long exitCode = jobSupervisor.supervise(
+                givenContainerId,
+                () -> containerExit.completeExceptionally(new Exception()),
+                Long.MAX_VALUE,
+                Integer.MAX_VALUE).join();
+
+        assertThat(exitCode, is(givenExitCode));
+        timer.shutdownNow();
+    }
+
+    @Property(tries = 10)
+    @Label("Given a container run, " +
+            "and an immediate timeout, " +
+            "when supervising it, " +
+            "and it's stopped, " +
+            "and stopping it returns a terminated exit code, " +
+            "should complete with an exit code of -1, " +
+            "and free up the worker the container run was holding.")
+    void superviseTimeoutTerminated(
+            @ForAll String givenContainerId,
+            @ForAll("terminatedExitCodes") long givenExitCode) throws Exception {
+        ScheduledThreadPoolExecutor timer = createTimer();
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        JobSupervisor jobSupervisor = new JobSupervisor(adapterMock, monitorMock, workers, timer);
+        when(monitorMock.awaitExit(givenContainerId)).thenReturn(containerExit);
+        when(adapterMock.stopContainer(givenContainerId, Integer.MAX_VALUE))
+                .thenReturn(givenExitCode);
+
+        Long exitCode = jobSupervisor.supervise(
+                givenContainerId,
+                () -> {
+                    Thread.sleep(Long.MAX_VALUE);
+                    return null;
+                },
+                0,
+                Integer.MAX_VALUE).join();
+
+        assertThat(exitCode, is(-1L));
+        assertThat(workers.submit(() -> true).get(1, TimeUnit.SECONDS), is(true));
+        assertThat(workers.submit(() -> true).get(1, TimeUnit.SECONDS), is(true));
+        verify(monitorMock).forget(givenContainerId);
+        workers.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    @Property(tries = 10)
+    @Label("Given a container run, " +
+            "and an immediate timeout, " +
+            "when supervising it, " +
+            "and there is a problem stopping it, " +
+            "should complete with an exit code of -1.")
+    void superviseTimeoutStopException(@ForAll String givenContainerId) throws StopJobRunException {
+        ScheduledThreadPoolExecutor timer = createTimer();
+        JobSupervisor jobSupervisor = new JobSupervisor(adapterMock, monitorMock, WORKERS, timer);
+        when(monitorMock.awaitExit(givenContainerId)).thenReturn(containerExit);
+        when(adapterMock.stopContainer(givenContainerId, Integer.MAX_VALUE))
+                .thenThrow(new StopJobRunException(new Exception()));
+
+        Long exitCode = jobSupervisor.supervise(
+                givenContainerId,
+                () -> null,
+                0,
+                Integer.MAX_VALUE).join();
+
+        assertThat(exitCode, is(-1L));
+        timer.shutdownNow();
+    }
+
+    @Example
+    @Label("Given a container run, " +
+            "and a one second timeout, " +
+            "and the only worker busy for longer than that, " +
+            "when supervising it, " +
+            "and the container exits once it's started, " +
+            "should complete with its exit code, " +
+            "and never stop the container.")
+    void superviseTimeoutStartsOnPickup() throws Exception {
+        String containerId = "container";
+        long givenExitCode = 0;
+        ScheduledThreadPoolExecutor timer = createTimer();
+        ExecutorService workers = Executors.newSingleThreadExecutor();
+        JobSupervisor jobSupervisor = new JobSupervisor(adapterMock, monitorMock, workers, timer);
+        when(monitorMock.awaitExit(containerId)).thenReturn(containerExit);
+        workers.execute(() -> {
+            try {
+                Thread.sleep(1500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Long exitCode = jobSupervisor.supervise(
+                containerId,
+                () -> containerExit.complete(givenExitCode),
+                1,
+                Integer.MAX_VALUE).join();
+
+        assertThat(exitCode, is(givenExitCode));
+        verify(adapterMock, never()).stopContainer(anyString(), anyInt());
+        workers.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    private ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1);
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    @Provide
+    Arbitrary<Long> nonTerminatedExitCodes() {
+        final long SIGKILL = 137;
+        final long SIGTERM = 143;
+        return Arbitraries.longs()
+                .between(0, 255)
+                .filter(l -> !l.equals(SIGKILL) && !l.equals(SIGTERM));
+    }
+
+    @Provide
+    Arbitrary<Long> terminatedExitCodes() {
+        final long SIGKILL = 137;
+        final long SIGTERM = 143;
+        return Arbitraries.of(SIGKILL, SIGTERM);
+    }
+}
@@ -0,0 +1,192 @@
+package conjob.core.job;
+
+import conjob.core.job.exception.ListImagesException;
+import conjob.core.job.exception.ReadEventsException;
+import conjob.core.job.model.ImageEvent;
+import net.jqwik.api.*;
+import net.jqwik.api.lifecycle.BeforeTry;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LocalImageIndexTest {
+    private DockerAdapter adapterMock;
+    private LocalImageIndex localImageIndex;
+
+    @BeforeTry
+    void setUp() {
+        adapterMock = mock(DockerAdapter.class);
+        localImageIndex = new LocalImageIndex(adapterMock);
+    }
+
+    @Property
+    @Label("Given an index that hasn't been loaded, " +
+            "when checking if an image is missing, " +
+            "should not be missing.")
+    void isMissingNotLoaded(@ForAll("imageNames") String givenImageName) {
+        assertThat(localImageIndex.isMissing(givenImageName), is(false));
+    }
+
+    @Property
+    @Label("Given a loaded index, " +
+            "and a local image, " +
+            "when checking if it's missing by any of the names docker accepts for it, " +
+            "should not be missing.")
+    void isMissingLocal(@ForAll("imageNames") String givenImageName) {
+        when(adapterMock.listImageReferences()).thenReturn(Set.of(givenImageName + ":latest"));
+        givenEvents();
+
+        localImageIndex.followEvents();
+
+        assertThat(localImageIndex.isMissing(givenImageName), is(false));
+        assertThat(localImageIndex.isMissing(givenImageName + ":latest"), is(false));
+        assertThat(localImageIndex.isMissing("library/" + givenImageName), is(false));
+        assertThat(localImageIndex.isMissing("docker.io/library/" + givenImageName + ":latest"), is(false));
+    }
+
+    @Property
+    @Label("Given a loaded index, " +
+            "and an image that isn't local, " +
+            "when checking if it's missing, " +
+            "should be missing.")
+    void isMissingNotLocal(@ForAll("imageNames") String givenImageName) {
+        when(adapterMock.listImageReferences()).thenReturn(Set.of(givenImageName + ":other"));
+        givenEvents();
+
+        localImageIndex.followEvents();
+
+        assertThat(localImageIndex.isMissing(givenImageName), is(true));
+    }
+
+    @Property
+    @Label("Given a loaded index, " +
+            "when checking if an image referenced by a short id is missing, " +
+            "should not be missing.")
+    void isMissingShortImageId(@ForAll("shortImageIds") String givenImageId) {
+        when(adapterMock.listImageReferences()).thenReturn(Set.of());
+        givenEvents();
+
+        localImageIndex.followEvents();
+
+        assertThat(localImageIndex.isMissing(givenImageId), is(false));
+    }
+
+    @Property
+    @Label("Given a loaded index, " +
+            "and an image that isn't local, " +
+            "when it's pulled, " +
+            "should no longer be missing.")
+    void imagePulled(@ForAll("imageNames") String givenImageName) {
+        when(adapterMock.listImageReferences()).thenReturn(Set.of());
+        givenEvents();
+        localImageIndex.followEvents();
+
+        localImageIndex.imagePulled(givenImageName);
+
+        assertThat(localImageIndex.isMissing(givenImageName), is(false));
+    }
+
+    @Property
+    @Label("Given a loaded index, " +
+            "and an image that isn't local, " +
+            "when a pull event for it arrives, " +
+            "should no longer be missing, " +
+            "and not list the local images again.")
+    void pullEvent(@ForAll("imageNames") String givenImageName) {
+        when(adapterMock.listImageReferences()).thenReturn(Set.of());
+        givenEvents(new ImageEvent(givenImageName + ":latest", DockerAdapter.PULL_EVENT));
+
+        localImageIndex.followEvents();
+
+        assertThat(localImageIndex.isMissing(givenImageName), is(false));
+        verify(adapterMock, times(1)).listImageReferences();
+    }
+
+    @Property
+    @Label("Given a loaded index, " +
+            "and a local image, " +
+            "when an event other than a pull arrives, " +
+            "should list the local images again.")
+    void otherEvent(
+            @ForAll("imageNames") String givenImageName,
+            @ForAll("nonPullActions") String givenAction) {
+        when(adapterMock.listImageReferences())
+                .thenReturn(Set.of(givenImageName + ":latest"))
+                .thenReturn(Set.of());
+        givenEvents(new ImageEvent("sha256:abc", givenAction));
+
+        localImageIndex.followEvents();
+
+        assertThat(localImageIndex.isMissing(givenImageName), is(true));
+        verify(adapterMock, times(2)).listImageReferences();
+    }
+
+    @Property
+    @Label("Given an index that hasn't been loaded, " +
+            "when subscribing to events, " +
+            "and there is a problem listing the local images, " +
+            "should stay unloaded.")
+    void loadException(@ForAll("imageNames") String givenImageName) {
+        when(adapterMock.listImageReferences()).thenThrow(new ListImagesException(new Exception()));
+        givenEvents();
+
+        localImageIndex.followEvents();
+
+        assertThat(localImageIndex.isMissing(givenImageName), is(false));
+    }
+
+    @Property(tries = 3)
+    @Label("Given a running index, " +
+            "when its subscription to events drops, " +
+            "should subscribe again until it's stopped.")
+    void resubscribe() {
+        doThrow(new ReadEventsException(new Exception()))
+                .doAnswer(invocation -> {
+                    localImageIndex.stop();
+                    return null;
+                })
+                .when(adapterMock).followImageEvents(any(), any());
+
+        localImageIndex.run();
+
+        verify(adapterMock, times(2)).followImageEvents(any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenEvents(ImageEvent... events) {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(mock(Closeable.class));
+            List.of(events).forEach(invocation.getArgument(1, Consumer.class));
+            return null;
+        }).when(adapterMock).followImageEvents(any(), any());
+    }
+
+    @Provide
+    Arbitrary<String> imageNames() {
+        Arbitrary<String> pathComponent = Arbitraries.strings().withCharRange('a', 'z').ofMinLength(1).ofMaxLength(10);
+        return Combinators.combine(pathComponent, pathComponent)
+                .as((repository, name) -> repository + "/" + name);
+    }
+
+    @Provide
+    Arbitrary<String> shortImageIds() {
+        return Arbitraries.strings().withChars("0123456789abcdef").ofMinLength(1).ofMaxLength(64);
+    }
+
+    @Provide
+    Arbitrary<String> nonPullActions() {
+        return Arbitraries.of(
+                DockerAdapter.TAG_EVENT,
+                DockerAdapter.UNTAG_EVENT,
+                DockerAdapter.DELETE_EVENT,
+                DockerAdapter.LOAD_EVENT,
+                DockerAdapter.IMPORT_EVENT);
+    }
+}
@@ -3,6 +3,7 @@ package conjob.core.job;
 import conjob.core.job.exception.UnknownOutcomeStatusCodeException;
 import conjob.core.job.model.JobRunConclusion;
 import conjob.core.job.model.JobRunOutcome;
+import conjob.core.job.output.JobOutput;
 import net.jqwik.api.ForAll;
 import net.jqwik.api.Label;
 import net.jqwik.api.Property;
@@ -26,7 +27,7 @@ class OutcomeDeterminerTest {
     @Label("Given an exit status code of 0, " +
             "when determining the conclusion, " +
             "then the conclusion should be that it was successful.")
-    void determineOutcomeSuccess(@ForAll String output) {
+    void determineOutcomeSuccess(@ForAll JobOutput output) {
         Long exitStatusCode = 0L;
         JobRunOutcome jobRunOutcome = new JobRunOutcome(exitStatusCode, output);
 
@@ -39,7 +40,7 @@ class OutcomeDeterminerTest {
     @Label("Given an exit status code of -1, " +
             "when determining the conclusion, " +
             "then the conclusion should be that it timed out.")
-    void determineOutcomeTimedOut(@ForAll String output) {
+    void determineOutcomeTimedOut(@ForAll JobOutput output) {
         Long exitStatusCode = -1L;
         JobRunOutcome jobRunOutcome = new JobRunOutcome(exitStatusCode, output);
 
@@ -54,7 +55,7 @@ class OutcomeDeterminerTest {
             "then the conclusion should be that it failed.")
     void determineOutcomeFailure(
             @ForAll @Positive long exitStatusCode,
-            @ForAll String output) {
+            @ForAll JobOutput output) {
         JobRunOutcome jobRunOutcome = new JobRunOutcome(exitStatusCode, output);
 
         JobRunConclusion jobRunConclusion = outcomeDeterminer.determineOutcome(jobRunOutcome);
@@ -68,7 +69,7 @@ class OutcomeDeterminerTest {
             "then the conclusion should be that it is an illegal status code.")
     void determineOutcomeUnknownOutcomeStatusCodeException(
             @ForAll @LongRange(min = Integer.MIN_VALUE, max = -2) long exitStatusCode,
-            @ForAll String output) {
+            @ForAll JobOutput output) {
         JobRunOutcome jobRunOutcome = new JobRunOutcome(exitStatusCode, output);
 
         assertThrows(UnknownOutcomeStatusCodeException.class, () -> outcomeDeterminer.determineOutcome(jobRunOutcome));
@@ -0,0 +1,211 @@
+package conjob.core.job;
+
+import conjob.core.job.exception.CreateJobRunException;
+import conjob.core.job.model.CreatedJobRun;
+import conjob.core.job.model.JobRunConfig;
+import conjob.core.job.model.WarmPoolSize;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.lifecycle.BeforeTry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WarmJobRunPoolTest {
+    private static final String IMAGE_NAME = "library/hello-world:latest";
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    private DockerAdapter adapterMock;
+    private Clock clockMock;
+    private AtomicInteger createdCount;
+
+    @BeforeTry
+    void setUp() {
+        adapterMock = mock(DockerAdapter.class);
+        clockMock = mock(Clock.class);
+        createdCount = new AtomicInteger();
+        when(clockMock.instant()).thenReturn(Instant.EPOCH);
+        when(adapterMock.findImageId(IMAGE_NAME)).thenReturn("imageId");
+        when(adapterMock.createJobRun(any())).thenAnswer(invocation ->
+                new CreatedJobRun("container" + createdCount.incrementAndGet(), Optional.of(Duration.ZERO)));
+    }
+
+    @Property
+    @Label("Given a pooled image, " +
+            "and a job run config with input, " +
+            "when taking a warm container, " +
+            "should return nothing, " +
+            "and not create any containers.")
+    void takeWithInput(@ForAll String givenInput) throws CreateJobRunException {
+        WarmJobRunPool warmJobRunPool = createPool(new WarmPoolSize(1, 4));
+
+        Optional<String> containerId = warmJobRunPool.take(new JobRunConfig(IMAGE_NAME, givenInput, null));
+
+        assertThat(containerId, is(Optional.empty()));
+        verify(adapterMock, never()).createJobRun(any());
+    }
+
+    @Property
+    @Label("Given an image that isn't pooled, " +
+            "when taking a warm container, " +
+            "should return nothing, " +
+            "and not create any containers.")
+    void takeNotPooled(@ForAll String givenImageName) throws CreateJobRunException {
+        WarmJobRunPool warmJobRunPool = createPool(new WarmPoolSize(1, 4));
+
+        Optional<String> containerId = warmJobRunPool.take(new JobRunConfig(givenImageName + "other", null, null));
+
+        assertThat(containerId, is(Optional.empty()));
+        verify(adapterMock, never()).createJobRun(any());
+    }
+
+    @Property
+    @Label("Given a pooled image, " +
+            "when taking a warm container for the first time, " +
+            "should return nothing, " +
+            "and fill the pool in the background, " +
+            "and return one of those containers the next time.")
+    void takeAfterFill(
+            @ForAll @IntRange(max = 3) int givenMinSize,
+            @ForAll String givenSecretsVolumeName) throws CreateJobRunException {
+        WarmJobRunPool warmJobRunPool = createPool(new WarmPoolSize(givenMinSize, 4));
+        JobRunConfig jobRunConfig = new JobRunConfig(IMAGE_NAME, null, givenSecretsVolumeName);
+
+        Optional<String> firstContainerId = warmJobRunPool.take(jobRunConfig);
+        Optional<String> secondContainerId = warmJobRunPool.take(jobRunConfig);
+
+        assertThat(firstContainerId, is(Optional.empty()));
+        assertThat(secondContainerId, is(Optional.of("container1")));
+        verify(adapterMock, times(givenMinSize + 2)).createJobRun(jobRunConfig);
+    }
+
+    @Property
+    @Label("Given a pooled image, " +
+            "when taking warm containers many times, " +
+            "should never keep more than the max size ready.")
+    void takeNeverExceedsMax(
+            @ForAll @IntRange(min = 1, max = 4) int givenMaxSize,
+            @ForAll @IntRange(max = 20) int givenTakes) throws CreateJobRunException {
+        WarmJobRunPool warmJobRunPool = createPool(new WarmPoolSize(0, givenMaxSize));
+        JobRunConfig jobRunConfig = new JobRunConfig(IMAGE_NAME, null, null);
+        int taken = 0;
+
+        for (int i = 0; i < givenTakes; i++) {
+            if (warmJobRunPool.take(jobRunConfig).isPresent()) {
+                taken++;
+            }
+        }
+
+        assertThat(createdCount.get() - taken, is(lessThanOrEqualTo(givenMaxSize)));
+    }
+
+    @Property
+    @Label("Given a filled pool, " +
+            "when an image is pulled, " +
+            "and it's a newer image, " +
+            "should remove the pooled containers, " +
+            "and fill the pool again.")
+    void imagePulledNewer() {
+        WarmJobRunPool warmJobRunPool = createPool(new WarmPoolSize(1, 4));
+        JobRunConfig jobRunConfig = new JobRunConfig(IMAGE_NAME, null, null);
+        warmJobRunPool.take(jobRunConfig);
+        when(adapterMock.findImageId(IMAGE_NAME)).thenReturn("newerImageId");
+
+        warmJobRunPool.imagePulled(IMAGE_NAME);
+
+        verify(adapterMock).removeJobRun("container1");
+        verify(adapterMock).removeJobRun("container2");
+        assertThat(warmJobRunPool.take(jobRunConfig), is(Optional.of("container3")));
+    }
+
+    @Property
+    @Label("Given a filled pool, " +
+            "when an image is pulled, " +
+            "and it's the same image, " +
+            "should keep the pooled containers.")
+    void imagePulledSame() {
+        WarmJobRunPool warmJobRunPool = createPool(new WarmPoolSize(1, 4));
+        JobRunConfig jobRunConfig = new JobRunConfig(IMAGE_NAME, null, null);
+        warmJobRunPool.take(jobRunConfig);
+
+        warmJobRunPool.imagePulled(IMAGE_NAME);
+
+        verify(adapterMock, never()).removeJobRun(any());
+        assertThat(warmJobRunPool.take(jobRunConfig), is(Optional.of("container1")));
+    }
+
+    @Property
+    @Label("Given a filled pool, " +
+            "when evicting idle containers, " +
+            "and they've been idle longer than the idle timeout, " +
+            "should remove them down to the min size.")
+    void evictIdle(@ForAll @IntRange(max = 3) int givenMinSize) {
+        WarmJobRunPool warmJobRunPool = createPool(new WarmPoolSize(givenMinSize, 4));
+        warmJobRunPool.take(new JobRunConfig(IMAGE_NAME, null, null));
+        when(clockMock.instant()).thenReturn(Instant.EPOCH.plus(IDLE_TIMEOUT).plusSeconds(1));
+
+        warmJobRunPool.evictIdle();
+
+        verify(adapterMock, times(1)).removeJobRun(any());
+    }
+
+    @Property
+    @Label("Given a filled pool, " +
+            "when evicting idle containers, " +
+            "and they haven't been idle longer than the idle timeout, " +
+            "should keep them.")
+    void evictIdleNotIdle() {
+        WarmJobRunPool warmJobRunPool = createPool(new WarmPoolSize(0, 4));
+        warmJobRunPool.take(new JobRunConfig(IMAGE_NAME, null, null));
+        when(clockMock.instant()).thenReturn(Instant.EPOCH.plus(IDLE_TIMEOUT));
+
+        warmJobRunPool.evictIdle();
+
+        verify(adapterMock, never()).removeJobRun(any());
+    }
+
+    @Property
+    @Label("Given a filled pool, " +
+            "when draining it, " +
+            "should remove every pooled container, " +
+            "and not fill it again.")
+    void drain(@ForAll @IntRange(max = 3) int givenMinSize) {
+        WarmJobRunPool warmJobRunPool = createPool(new WarmPoolSize(givenMinSize, 4));
+        warmJobRunPool.take(new JobRunConfig(IMAGE_NAME, null, null));
+
+        warmJobRunPool.drain();
+
+        verify(adapterMock, times(givenMinSize + 1)).removeJobRun(any());
+    }
+
+    @Property
+    @Label("Given a pooled image, " +
+            "when taking a warm container, " +
+            "and there is a problem creating containers for the pool, " +
+            "should return nothing.")
+    void takeCreateException() throws CreateJobRunException {
+        WarmJobRunPool warmJobRunPool = createPool(new WarmPoolSize(1, 4));
+        JobRunConfig jobRunConfig = new JobRunConfig(IMAGE_NAME, null, null);
+        when(adapterMock.createJobRun(jobRunConfig)).thenThrow(new CreateJobRunException(new Exception()));
+
+        warmJobRunPool.take(jobRunConfig);
+        Optional<String> containerId = warmJobRunPool.take(jobRunConfig);
+
+        assertThat(containerId, is(Optional.empty()));
+    }
+
+    private WarmJobRunPool createPool(WarmPoolSize poolSize) {
+        return new WarmJobRunPool(adapterMock, Map.of(IMAGE_NAME, poolSize), IDLE_TIMEOUT, Runnable::run, clockMock);
+    }
+}
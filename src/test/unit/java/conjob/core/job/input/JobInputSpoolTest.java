@@ -0,0 +1,83 @@
+package conjob.core.job.input;
+
+import conjob.core.job.exception.InputTooLargeException;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.lifecycle.AfterTry;
+import net.jqwik.api.lifecycle.BeforeTry;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JobInputSpoolTest {
+    private Path spoolDirectory;
+
+    @BeforeTry
+    void setUp() throws IOException {
+        spoolDirectory = Files.createTempDirectory("job-input-spool-test");
+    }
+
+    @AfterTry
+    void tearDown() throws IOException {
+        Files.delete(spoolDirectory);
+    }
+
+    @Property
+    @Label("Given input no larger than the max, " +
+            "when spooling it, " +
+            "should write it to the container's input path under its own directory, " +
+            "and delete it all once it's closed.")
+    void spool(@ForAll byte[] givenInput) throws IOException {
+        JobInputSpool spool = new JobInputSpool(spoolDirectory, givenInput.length);
+
+        JobInputFile inputFile = spool.spool(new ByteArrayInputStream(givenInput));
+
+        assertThat(inputFile.getDirectory().getParent(), is(spoolDirectory));
+        assertThat(Files.readAllBytes(inputFile.getDirectory().resolve(JobInputSpool.CONTAINER_INPUT_PATH)),
+                is(givenInput));
+        inputFile.close();
+        assertThat(isEmpty(spoolDirectory), is(true));
+    }
+
+    @Property
+    @Label("Given a max of zero, " +
+            "when spooling input, " +
+            "should write all of it.")
+    void spoolUnlimited(@ForAll byte[] givenInput) throws IOException {
+        JobInputSpool spool = new JobInputSpool(spoolDirectory, 0);
+
+        try (JobInputFile inputFile = spool.spool(new ByteArrayInputStream(givenInput))) {
+            assertThat(Files.readAllBytes(inputFile.getDirectory().resolve(JobInputSpool.CONTAINER_INPUT_PATH)),
+                    is(givenInput));
+        }
+    }
+
+    @Property
+    @Label("Given input larger than the max, " +
+            "when spooling it, " +
+            "should throw an InputTooLargeException, " +
+            "and leave nothing behind.")
+    void spoolTooLarge(@ForAll @IntRange(min = 1, max = 200000) int givenMaxBytes,
+                       @ForAll @IntRange(min = 1, max = 100000) int givenExcess) {
+        JobInputSpool spool = new JobInputSpool(spoolDirectory, givenMaxBytes);
+
+        assertThrows(InputTooLargeException.class,
+                () -> spool.spool(new ByteArrayInputStream(new byte[givenMaxBytes + givenExcess])));
+        assertThat(isEmpty(spoolDirectory), is(true));
+    }
+
+    private static boolean isEmpty(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findAny().isEmpty();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
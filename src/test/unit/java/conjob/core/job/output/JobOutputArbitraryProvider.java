@@ -0,0 +1,39 @@
+package conjob.core.job.output;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.providers.ArbitraryProvider;
+import net.jqwik.api.providers.TypeUsage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+
+// Lets @UseType and @ForAll generate the job output held by job runs and their responses.
+public class JobOutputArbitraryProvider implements ArbitraryProvider {
+    private static final OutputBufferPool BUFFER_POOL = new OutputBufferPool(64, 16);
+
+    @Override
+    public boolean canProvideFor(TypeUsage targetType) {
+        return targetType.isOfType(JobOutput.class);
+    }
+
+    @Override
+    public Set<Arbitrary<?>> provideFor(TypeUsage targetType, SubtypeProvider subtypeProvider) {
+        return Set.of(Arbitraries.strings().map(JobOutputArbitraryProvider::storeOf));
+    }
+
+    private static JobOutput storeOf(String output) {
+        JobOutputStore store = new JobOutputStore(
+                BUFFER_POOL, Long.MAX_VALUE, Path.of(System.getProperty("java.io.tmpdir")));
+        try {
+            store.write(JobOutputSource.STDOUT, ByteBuffer.wrap(output.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,77 @@
+package conjob.core.job.output;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+class JobOutputStoreCreatorTest {
+    private static final Path SPILL_DIRECTORY = Path.of(System.getProperty("java.io.tmpdir"));
+
+    @Property
+    @Label("Given a tail size, " +
+            "and a budget with room for it, " +
+            "when creating a tail, " +
+            "should reserve a ring of the tail size, " +
+            "but no bigger than the max tail size.")
+    void createTail(
+            @ForAll @LongRange(min = 1, max = 1024) long givenTailBytes,
+            @ForAll @LongRange(min = 1, max = 1024) long givenMaxTailBytes) {
+        OutputMemoryBudget budget = new OutputMemoryBudget(Long.MAX_VALUE);
+        JobOutputStoreCreator creator = new JobOutputStoreCreator(
+                new OutputBufferPool(16, 0, budget), budget, 0, givenMaxTailBytes, SPILL_DIRECTORY);
+
+        JobOutputCapture tail = creator.createTail(givenTailBytes);
+
+        assertThat(tail, instanceOf(TailJobOutput.class));
+        assertThat(budget.getUsedBytes(), is(Math.min(givenTailBytes, givenMaxTailBytes)));
+        tail.close();
+    }
+
+    @Property
+    @Label("Given a tail size, " +
+            "and a budget without room for it, " +
+            "when creating a tail, " +
+            "and writing output to it, " +
+            "should still read back only the tail of the output.")
+    void createTailOverBudget(
+            @ForAll @IntRange(min = 1, max = 64) int givenTailBytes,
+            @ForAll byte[] givenOutput) throws IOException {
+        OutputMemoryBudget budget = new OutputMemoryBudget(0);
+        JobOutputStoreCreator creator = new JobOutputStoreCreator(
+                new OutputBufferPool(16, 0, budget), budget, 1024, 1024, SPILL_DIRECTORY);
+
+        JobOutputCapture tail = creator.createTail(givenTailBytes);
+        tail.write(JobOutputSource.STDOUT, ByteBuffer.wrap(givenOutput));
+
+        byte[] expectedTail = Arrays.copyOfRange(
+                givenOutput, Math.max(0, givenOutput.length - givenTailBytes), givenOutput.length);
+        try (InputStream read = tail.open()) {
+            byte[] readTail = read.readAllBytes();
+            assertThat(Arrays.equals(readTail, expectedTail) || isTrimmedTail(readTail, expectedTail), is(true));
+        }
+        tail.close();
+    }
+
+    // The tail may drop bytes from its start that continue a multi byte UTF-8 character.
+    private static boolean isTrimmedTail(byte[] readTail, byte[] expectedTail) {
+        int trimmed = expectedTail.length - readTail.length;
+        for (int i = 0; i < trimmed; i++) {
+            if ((expectedTail[i] & 0xC0) != 0x80) {
+                return false;
+            }
+        }
+        return Arrays.equals(readTail, Arrays.copyOfRange(expectedTail, trimmed, expectedTail.length));
+    }
+}
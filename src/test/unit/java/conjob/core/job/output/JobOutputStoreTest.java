@@ -0,0 +1,237 @@
+package conjob.core.job.output;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+import net.jqwik.api.lifecycle.AfterTry;
+import net.jqwik.api.lifecycle.BeforeTry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JobOutputStoreTest {
+    private static final int BUFFER_SIZE = 16;
+    private OutputMemoryBudget memoryBudget;
+    private OutputBufferPool bufferPool;
+    private Path spillDirectory;
+
+    @BeforeTry
+    void setUp() throws IOException {
+        memoryBudget = new OutputMemoryBudget(Long.MAX_VALUE);
+        bufferPool = new OutputBufferPool(BUFFER_SIZE, 1024, memoryBudget);
+        spillDirectory = Files.createTempDirectory("job-output-store-test");
+    }
+
+    @AfterTry
+    void tearDown() throws IOException {
+        try (Stream<Path> spillFiles = Files.list(spillDirectory)) {
+            for (Path spillFile : spillFiles.collect(Collectors.toList())) {
+                Files.delete(spillFile);
+            }
+        }
+        Files.delete(spillDirectory);
+    }
+
+    @Property
+    @Label("Given chunks of output that fit under the spill threshold, " +
+            "when writing them, " +
+            "should read back the same output in order, " +
+            "and report its size, " +
+            "and not spill it to a file.")
+    void writeInMemory(@ForAll @Size(max = 10) List<byte[]> givenChunks) throws IOException {
+        byte[] expectedOutput = concat(givenChunks);
+        JobOutputStore store = new JobOutputStore(bufferPool, expectedOutput.length, spillDirectory);
+
+        write(store, givenChunks);
+
+        assertThat(readAll(store), is(expectedOutput));
+        assertThat(store.size(), is((long) expectedOutput.length));
+        assertThat(spillFiles(), is(empty()));
+        store.close();
+    }
+
+    @Property
+    @Label("Given chunks of output that grow past the spill threshold, " +
+            "when writing them, " +
+            "should read back the same output in order, " +
+            "and have spilled it to a file, " +
+            "and not be holding any buffers.")
+    void writeSpilled(
+            @ForAll @Size(min = 1, max = 10) List<@Size(min = 1) byte[]> givenChunks,
+            @ForAll @IntRange(max = 64) int givenThreshold) throws IOException {
+        byte[] expectedOutput = concat(givenChunks);
+        long spillThreshold = Math.min(givenThreshold, expectedOutput.length - 1);
+        JobOutputStore store = new JobOutputStore(bufferPool, spillThreshold, spillDirectory);
+
+        write(store, givenChunks);
+
+        assertThat(readAll(store), is(expectedOutput));
+        assertThat(store.size(), is((long) expectedOutput.length));
+        assertThat(spillFiles(), hasSize(1));
+        assertThat(held(), is(0L));
+        store.close();
+    }
+
+    @Property
+    @Label("Given output spilled to a file, " +
+            "when closing the store, " +
+            "should delete the file.")
+    void closeSpilled(@ForAll @Size(min = 1) byte[] givenOutput) throws IOException {
+        JobOutputStore store = new JobOutputStore(bufferPool, 0, spillDirectory);
+        store.write(JobOutputSource.STDOUT, ByteBuffer.wrap(givenOutput));
+
+        store.close();
+
+        assertThat(spillFiles(), is(empty()));
+    }
+
+    @Property
+    @Label("Given output held in memory, " +
+            "when closing the store, " +
+            "should give back all of its buffers.")
+    void closeInMemory(@ForAll byte[] givenOutput) throws IOException {
+        JobOutputStore store = new JobOutputStore(bufferPool, Long.MAX_VALUE, spillDirectory);
+        store.write(JobOutputSource.STDOUT, ByteBuffer.wrap(givenOutput));
+
+        store.close();
+
+        assertThat(held(), is(0L));
+    }
+
+    @Property
+    @Label("Given output being read, " +
+            "when closing the store, " +
+            "should still read back all of the output, " +
+            "and only give back its buffers once the read is done.")
+    void closeWhileReading(@ForAll @Size(min = 1) byte[] givenOutput) throws IOException {
+        JobOutputStore store = new JobOutputStore(bufferPool, Long.MAX_VALUE, spillDirectory);
+        store.write(JobOutputSource.STDOUT, ByteBuffer.wrap(givenOutput));
+        InputStream reader = store.open();
+
+        store.close();
+        long heldWhileReading = held();
+        byte[] read = reader.readAllBytes();
+        reader.close();
+
+        assertThat(read, is(givenOutput));
+        assertThat(heldWhileReading, is(greaterThan(0L)));
+        assertThat(held(), is(0L));
+    }
+
+    @Property
+    @Label("Given output held in memory, " +
+            "when retaining it, " +
+            "should spill it to a file, " +
+            "and give back all of its buffers, " +
+            "and still read back the same output.")
+    void retainInMemory(@ForAll @Size(min = 1) byte[] givenOutput) throws IOException {
+        JobOutputStore store = new JobOutputStore(bufferPool, Long.MAX_VALUE, spillDirectory);
+        store.write(JobOutputSource.STDOUT, ByteBuffer.wrap(givenOutput));
+
+        store.retain();
+
+        assertThat(held(), is(0L));
+        assertThat(spillFiles(), hasSize(1));
+        assertThat(readAll(store), is(givenOutput));
+        store.close();
+    }
+
+    @Property
+    @Label("Given output being read, " +
+            "when retaining it, " +
+            "should keep its buffers, " +
+            "and still read back all of the output.")
+    void retainWhileReading(@ForAll @Size(min = 1) byte[] givenOutput) throws IOException {
+        JobOutputStore store = new JobOutputStore(bufferPool, Long.MAX_VALUE, spillDirectory);
+        store.write(JobOutputSource.STDOUT, ByteBuffer.wrap(givenOutput));
+        InputStream reader = store.open();
+
+        store.retain();
+        byte[] read = reader.readAllBytes();
+        reader.close();
+
+        assertThat(read, is(givenOutput));
+        assertThat(held(), is(greaterThan(0L)));
+        assertThat(spillFiles(), is(empty()));
+        store.close();
+    }
+
+    @Property
+    @Label("Given a closed store, " +
+            "when writing to it or opening it, " +
+            "should throw an exception.")
+    void useAfterClose(@ForAll byte[] givenOutput) {
+        JobOutputStore store = new JobOutputStore(bufferPool, Long.MAX_VALUE, spillDirectory);
+
+        store.close();
+
+        assertThrows(IOException.class,
+                () -> store.write(JobOutputSource.STDOUT, ByteBuffer.wrap(givenOutput)));
+        assertThrows(IOException.class, store::open);
+    }
+
+    private long held() {
+        return memoryBudget.getUsedBytes() / BUFFER_SIZE;
+    }
+
+    private List<Path> spillFiles() throws IOException {
+        try (Stream<Path> spillFiles = Files.list(spillDirectory)) {
+            return spillFiles.collect(Collectors.toList());
+        }
+    }
+
+    private static void write(JobOutputStore store, List<byte[]> chunks) throws IOException {
+        for (byte[] chunk : chunks) {
+            store.write(JobOutputSource.STDOUT, ByteBuffer.wrap(chunk));
+        }
+    }
+
+    private static byte[] readAll(JobOutput output) throws IOException {
+        try (InputStream stored = output.open()) {
+            return stored.readAllBytes();
+        }
+    }
+
+    private static byte[] concat(List<byte[]> chunks) {
+        ByteArrayOutputStream concatenated = new ByteArrayOutputStream();
+        chunks.forEach(concatenated::writeBytes);
+        return concatenated.toByteArray();
+    }
+
+    @Property
+    @Label("Given a memory budget with room for fewer buffers than the output needs, " +
+            "when writing it under the spill threshold, " +
+            "should spill it to a file, " +
+            "and read back the same output, " +
+            "and give back the budget it used.")
+    void writeOverBudget(
+            @ForAll @Size(min = 1, max = 10) List<@Size(min = 1) byte[]> givenChunks,
+            @ForAll @IntRange(max = 4) int givenBudgetBuffers) throws IOException {
+        byte[] expectedOutput = concat(givenChunks);
+        int budgetBuffers = Math.min(givenBudgetBuffers, (expectedOutput.length - 1) / BUFFER_SIZE);
+        memoryBudget = new OutputMemoryBudget((long) BUFFER_SIZE * budgetBuffers);
+        bufferPool = new OutputBufferPool(BUFFER_SIZE, 1024, memoryBudget);
+        JobOutputStore store = new JobOutputStore(bufferPool, Long.MAX_VALUE, spillDirectory);
+
+        write(store, givenChunks);
+
+        assertThat(readAll(store), is(expectedOutput));
+        assertThat(store.size(), is((long) expectedOutput.length));
+        assertThat(spillFiles(), hasSize(1));
+        assertThat(held(), is(0L));
+        store.close();
+    }
+}
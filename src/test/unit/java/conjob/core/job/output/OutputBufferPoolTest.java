@@ -0,0 +1,96 @@
+package conjob.core.job.output;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class OutputBufferPoolTest {
+    @Property
+    @Label("Given an empty pool, " +
+            "when acquiring a buffer, " +
+            "should return a new buffer of the pool's size.")
+    void acquireNew(@ForAll @IntRange(min = 1, max = 4096) int givenBufferSize) {
+        OutputBufferPool pool = new OutputBufferPool(givenBufferSize, 1);
+
+        assertThat(pool.tryAcquire().orElseThrow().length, is(givenBufferSize));
+    }
+
+    @Property
+    @Label("Given a released buffer, " +
+            "when acquiring a buffer, " +
+            "should reuse the released buffer.")
+    void acquireReleased(@ForAll @IntRange(min = 1, max = 4096) int givenBufferSize) {
+        OutputBufferPool pool = new OutputBufferPool(givenBufferSize, 1);
+        byte[] released = pool.tryAcquire().orElseThrow();
+
+        pool.release(released);
+
+        assertThat(pool.tryAcquire().orElseThrow(), is(sameInstance(released)));
+    }
+
+    @Property
+    @Label("Given more buffers released than the pool keeps, " +
+            "when acquiring them back, " +
+            "should only reuse as many as the pool keeps.")
+    void releaseOverLimit(
+            @ForAll @IntRange(min = 1, max = 10) int givenMaxPooled,
+            @ForAll @IntRange(min = 1, max = 10) int givenExtra) {
+        OutputBufferPool pool = new OutputBufferPool(8, givenMaxPooled);
+        List<byte[]> released = new ArrayList<>();
+        for (int i = 0; i < givenMaxPooled + givenExtra; i++) {
+            released.add(pool.tryAcquire().orElseThrow());
+        }
+        released.forEach(pool::release);
+
+        long reused = 0;
+        for (int i = 0; i < givenMaxPooled + givenExtra; i++) {
+            byte[] acquired = pool.tryAcquire().orElseThrow();
+            reused += released.stream().filter(buffer -> buffer == acquired).count();
+        }
+
+        assertThat(reused, is((long) givenMaxPooled));
+    }
+
+    @Property
+    @Label("Given a buffer of a different size, " +
+            "when releasing it, " +
+            "should not reuse it.")
+    void releaseWrongSize(@ForAll @IntRange(min = 1, max = 4096) int givenBufferSize) {
+        OutputBufferPool pool = new OutputBufferPool(givenBufferSize, 1);
+        byte[] wrongSize = new byte[givenBufferSize + 1];
+
+        pool.release(wrongSize);
+
+        assertThat(pool.tryAcquire().orElseThrow(), is(not(sameInstance(wrongSize))));
+    }
+
+    @Property
+    @Label("Given a memory budget, " +
+            "when acquiring more buffers than fit in it, " +
+            "should only hand out as many as fit, " +
+            "and hand out another once one is released.")
+    void acquireOverBudget(
+            @ForAll @IntRange(min = 1, max = 64) int givenBufferSize,
+            @ForAll @IntRange(min = 0, max = 10) int givenBudgetBuffers) {
+        OutputMemoryBudget budget = new OutputMemoryBudget((long) givenBufferSize * givenBudgetBuffers);
+        OutputBufferPool pool = new OutputBufferPool(givenBufferSize, 0, budget);
+        List<byte[]> acquired = new ArrayList<>();
+        for (int i = 0; i < givenBudgetBuffers; i++) {
+            acquired.add(pool.tryAcquire().orElseThrow());
+        }
+
+        assertThat(pool.tryAcquire().isPresent(), is(false));
+        assertThat(budget.getUsedBytes(), is((long) givenBufferSize * givenBudgetBuffers));
+        if (!acquired.isEmpty()) {
+            pool.release(acquired.get(0));
+            assertThat(pool.tryAcquire().isPresent(), is(true));
+        }
+    }
+}
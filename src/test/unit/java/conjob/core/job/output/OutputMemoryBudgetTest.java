@@ -0,0 +1,54 @@
+package conjob.core.job.output;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.LongRange;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class OutputMemoryBudgetTest {
+    @Property
+    @Label("Given a budget, " +
+            "when reserving no more than it has room for, " +
+            "should reserve it, " +
+            "and count it as used.")
+    void reserve(
+            @ForAll @LongRange(min = 0, max = 1_000_000) long givenMaxBytes,
+            @ForAll @LongRange(min = 0, max = 1_000_000) long givenBytes) {
+        OutputMemoryBudget budget = new OutputMemoryBudget(givenMaxBytes);
+        long bytes = Math.min(givenBytes, givenMaxBytes);
+
+        assertThat(budget.tryReserve(bytes), is(true));
+        assertThat(budget.getUsedBytes(), is(bytes));
+    }
+
+    @Property
+    @Label("Given a budget, " +
+            "when reserving more than it has room for, " +
+            "should not reserve it.")
+    void reserveOverBudget(
+            @ForAll @LongRange(min = 0, max = 1_000_000) long givenMaxBytes,
+            @ForAll @LongRange(min = 1, max = 1_000_000) long givenExtraBytes) {
+        OutputMemoryBudget budget = new OutputMemoryBudget(givenMaxBytes);
+        budget.tryReserve(givenMaxBytes);
+
+        assertThat(budget.tryReserve(givenExtraBytes), is(false));
+        assertThat(budget.getUsedBytes(), is(givenMaxBytes));
+    }
+
+    @Property
+    @Label("Given a full budget, " +
+            "when releasing what was reserved, " +
+            "should have room to reserve it again.")
+    void release(@ForAll @LongRange(min = 1, max = 1_000_000) long givenMaxBytes) {
+        OutputMemoryBudget budget = new OutputMemoryBudget(givenMaxBytes);
+        budget.tryReserve(givenMaxBytes);
+
+        budget.release(givenMaxBytes);
+
+        assertThat(budget.getUsedBytes(), is(0L));
+        assertThat(budget.tryReserve(givenMaxBytes), is(true));
+    }
+}
@@ -0,0 +1,99 @@
+package conjob.core.job.output;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TailJobOutputTest {
+    @Property
+    @Label("Given chunks of single byte characters, " +
+            "when writing them, " +
+            "should read back only the last bytes of them, " +
+            "up to the tail's capacity.")
+    void writeTail(
+            @ForAll @Size(max = 10) List<@From("asciiBytes") byte[]> givenChunks,
+            @ForAll @IntRange(min = 1, max = 64) int givenCapacity) throws IOException {
+        byte[] output = concat(givenChunks);
+        TailJobOutput tail = new TailJobOutput(givenCapacity, new OutputMemoryBudget(Long.MAX_VALUE));
+
+        write(tail, givenChunks);
+
+        byte[] expectedTail = Arrays.copyOfRange(output, Math.max(0, output.length - givenCapacity), output.length);
+        assertThat(readAll(tail), is(expectedTail));
+        assertThat(tail.size(), is((long) expectedTail.length));
+    }
+
+    @Property
+    @Label("Given output of multi byte characters, " +
+            "when writing it, " +
+            "should read back a tail that doesn't start part way through a character.")
+    void writeTailMultiByte(
+            @ForAll("multiByteOutput") String givenOutput,
+            @ForAll @IntRange(min = 4, max = 64) int givenCapacity) throws IOException {
+        TailJobOutput tail = new TailJobOutput(givenCapacity, new OutputMemoryBudget(Long.MAX_VALUE));
+
+        tail.write(JobOutputSource.STDOUT, ByteBuffer.wrap(givenOutput.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(givenOutput, endsWith(new String(readAll(tail), StandardCharsets.UTF_8)));
+    }
+
+    @Property
+    @Label("Given a tail whose capacity was reserved from the budget, " +
+            "when closing it, " +
+            "should give the capacity back to the budget, " +
+            "and not be usable after.")
+    void close(@ForAll @IntRange(min = 1, max = 64) int givenCapacity) {
+        OutputMemoryBudget budget = new OutputMemoryBudget(givenCapacity);
+        budget.tryReserve(givenCapacity);
+        TailJobOutput tail = new TailJobOutput(givenCapacity, budget);
+
+        tail.close();
+        tail.close();
+
+        assertThat(budget.getUsedBytes(), is(0L));
+        assertThrows(IOException.class, tail::open);
+        assertThrows(IOException.class, () -> tail.write(JobOutputSource.STDOUT, ByteBuffer.allocate(1)));
+    }
+
+    @Provide
+    Arbitrary<byte[]> asciiBytes() {
+        return Arbitraries.strings().ascii().map(chunk -> chunk.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Provide
+    Arbitrary<String> multiByteOutput() {
+        return Arbitraries.of("a", "é", "€", "😀")
+                .list().ofMaxSize(60)
+                .map(characters -> String.join("", characters));
+    }
+
+    private static void write(JobOutputSink sink, List<byte[]> chunks) throws IOException {
+        for (byte[] chunk : chunks) {
+            sink.write(JobOutputSource.STDOUT, ByteBuffer.wrap(chunk));
+        }
+    }
+
+    private static byte[] readAll(JobOutput output) throws IOException {
+        try (InputStream stored = output.open()) {
+            return stored.readAllBytes();
+        }
+    }
+
+    private static byte[] concat(List<byte[]> chunks) {
+        ByteArrayOutputStream concatenated = new ByteArrayOutputStream();
+        chunks.forEach(concatenated::writeBytes);
+        return concatenated.toByteArray();
+    }
+}
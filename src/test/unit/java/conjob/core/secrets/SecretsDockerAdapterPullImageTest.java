@@ -10,6 +10,8 @@ import net.jqwik.api.Property;
 import net.jqwik.api.lifecycle.BeforeTry;
 import org.junit.jupiter.api.BeforeEach;
 
+import java.util.concurrent.*;
+
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -65,4 +67,30 @@ public class SecretsDockerAdapterPullImageTest {
 
         assertThrows(RuntimeException.class, () -> secretsAdapter.pullImage(imageName));
     }
-}
\ No newline at end of file
+
+    @Property(tries = 10)
+    @Label("Given an image name, " +
+            "when pulling that image from many callers at once, " +
+            "should only pull it once.")
+    void pullImageConcurrently(@ForAll String imageName) throws Exception {
+        CountDownLatch pulling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            pulling.countDown();
+            release.await();
+            return null;
+        }).when(mockClient).pull(imageName);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        Future<?> first = callers.submit(() -> secretsAdapter.pullImage(imageName));
+        pulling.await();
+        Future<?> second = callers.submit(() -> secretsAdapter.pullImage(imageName));
+        Thread.sleep(50);
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        verify(mockClient, times(1)).pull(imageName);
+        callers.shutdownNow();
+    }
+}
@@ -15,8 +15,7 @@ import java.util.Optional;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class SecretsStoreTest {
     private DockerAdapter mockAdapter;
@@ -109,4 +108,52 @@ class SecretsStoreTest {
                 RuntimeException.class,
                 () -> secretsStore.findSecrets(secretsVolumeName));
     }
-}
\ No newline at end of file
+
+    @Property
+    @Label("Given a secrets volume name, " +
+            "and a loaded volume index that contains it, " +
+            "when finding a secrets volume for the given name, " +
+            "then the secrets volume name should exist, " +
+            "and volumes should not be listed.")
+    void secretsVolumeNameIndexed(@ForAll String secretsVolumeName)
+            throws SecretsStoreException, DockerException, InterruptedException {
+        SecretsVolumeIndex mockIndex = mock(SecretsVolumeIndex.class);
+        when(mockIndex.isLoaded()).thenReturn(true);
+        when(mockIndex.contains(secretsVolumeName)).thenReturn(true);
+
+        Optional<String> secrets = new SecretsStore(mockAdapter, mockIndex).findSecrets(secretsVolumeName);
+
+        assertThat(secrets, is(Optional.of(secretsVolumeName)));
+        verify(mockAdapter, never()).listAllVolumeNames();
+    }
+
+    @Property
+    @Label("Given a secrets volume name, " +
+            "and a loaded volume index that doesn't contain it, " +
+            "when finding a secrets volume for the given name, " +
+            "then the secrets volume name should not exist, " +
+            "and volumes should not be listed.")
+    void secretsVolumeNameNotIndexed(@ForAll String secretsVolumeName)
+            throws SecretsStoreException, DockerException, InterruptedException {
+        SecretsVolumeIndex mockIndex = mock(SecretsVolumeIndex.class);
+        when(mockIndex.isLoaded()).thenReturn(true);
+
+        Optional<String> secrets = new SecretsStore(mockAdapter, mockIndex).findSecrets(secretsVolumeName);
+
+        assertThat(secrets, is(Optional.empty()));
+        verify(mockAdapter, never()).listAllVolumeNames();
+    }
+
+    @Property
+    @Label("Given a secrets volume name, " +
+            "when finding the version of its secrets, " +
+            "then it should be the volume index's version.")
+    void findSecretsVersion(@ForAll String secretsVolumeName, @ForAll long givenVersion) {
+        SecretsVolumeIndex mockIndex = mock(SecretsVolumeIndex.class);
+        when(mockIndex.version(secretsVolumeName)).thenReturn(givenVersion);
+
+        long version = new SecretsStore(mockAdapter, mockIndex).findSecretsVersion(secretsVolumeName);
+
+        assertThat(version, is(givenVersion));
+    }
+}
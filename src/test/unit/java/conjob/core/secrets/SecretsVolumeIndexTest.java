@@ -0,0 +1,155 @@
+package conjob.core.secrets;
+
+import com.spotify.docker.client.exceptions.DockerException;
+import conjob.core.job.DockerAdapter;
+import conjob.core.job.exception.ReadEventsException;
+import conjob.core.job.model.VolumeEvent;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.lifecycle.BeforeTry;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SecretsVolumeIndexTest {
+    private DockerAdapter adapterMock;
+    private SecretsVolumeIndex secretsVolumeIndex;
+
+    @BeforeTry
+    void setUp() {
+        adapterMock = mock(DockerAdapter.class);
+        secretsVolumeIndex = new SecretsVolumeIndex(adapterMock);
+    }
+
+    @Property
+    @Label("Given an index that hasn't been subscribed to volume events, " +
+            "when checking if it's loaded, " +
+            "should not be loaded.")
+    void notLoaded() {
+        assertThat(secretsVolumeIndex.isLoaded(), is(false));
+    }
+
+    @Property
+    @Label("Given existing volumes, " +
+            "when subscribing to volume events, " +
+            "should be loaded, " +
+            "and contain only the existing volumes.")
+    void load(@ForAll List<String> givenVolumeNames, @ForAll String givenOtherVolumeName)
+            throws DockerException, InterruptedException {
+        givenVolumeNames.removeIf(givenOtherVolumeName::equals);
+        when(adapterMock.listAllVolumeNames()).thenReturn(givenVolumeNames);
+        givenEvents();
+
+        secretsVolumeIndex.followEvents();
+
+        assertThat(secretsVolumeIndex.isLoaded(), is(true));
+        givenVolumeNames.forEach(volumeName -> assertThat(secretsVolumeIndex.contains(volumeName), is(true)));
+        assertThat(secretsVolumeIndex.contains(givenOtherVolumeName), is(false));
+    }
+
+    @Property
+    @Label("Given a loaded index, " +
+            "when a volume is created, " +
+            "and then another is destroyed, " +
+            "should contain the created volume, " +
+            "and not contain the destroyed one.")
+    void volumeEvents(@ForAll String givenCreatedVolumeName, @ForAll String givenDestroyedVolumeName)
+            throws DockerException, InterruptedException {
+        String destroyedVolumeName = givenCreatedVolumeName + givenDestroyedVolumeName + "destroyed";
+        when(adapterMock.listAllVolumeNames()).thenReturn(List.of(destroyedVolumeName));
+        givenEvents(
+                new VolumeEvent(givenCreatedVolumeName, DockerAdapter.CREATE_EVENT),
+                new VolumeEvent(destroyedVolumeName, DockerAdapter.DESTROY_EVENT));
+
+        secretsVolumeIndex.followEvents();
+
+        assertThat(secretsVolumeIndex.contains(givenCreatedVolumeName), is(true));
+        assertThat(secretsVolumeIndex.contains(destroyedVolumeName), is(false));
+    }
+
+    @Property
+    @Label("Given an index, " +
+            "when secrets are written to a volume, " +
+            "should contain that volume.")
+    void secretsWritten(@ForAll String givenVolumeName) {
+        secretsVolumeIndex.secretsWritten(givenVolumeName);
+
+        assertThat(secretsVolumeIndex.contains(givenVolumeName), is(true));
+    }
+
+    @Property
+    @Label("Given an index, " +
+            "when secrets are written to a volume, " +
+            "and then the volume is destroyed, " +
+            "should change the volume's version each time, " +
+            "and not change other volumes' versions.")
+    void version(@ForAll String givenVolumeName, @ForAll String givenOtherVolumeName)
+            throws DockerException, InterruptedException {
+        String otherVolumeName = givenVolumeName + givenOtherVolumeName + "other";
+        when(adapterMock.listAllVolumeNames()).thenReturn(List.of());
+        givenEvents(new VolumeEvent(givenVolumeName, DockerAdapter.DESTROY_EVENT));
+
+        long initialVersion = secretsVolumeIndex.version(givenVolumeName);
+        secretsVolumeIndex.secretsWritten(givenVolumeName);
+        long writtenVersion = secretsVolumeIndex.version(givenVolumeName);
+        secretsVolumeIndex.followEvents();
+        long destroyedVersion = secretsVolumeIndex.version(givenVolumeName);
+
+        assertThat(writtenVersion == initialVersion, is(false));
+        assertThat(destroyedVersion == writtenVersion, is(false));
+        assertThat(destroyedVersion == initialVersion, is(false));
+        assertThat(secretsVolumeIndex.version(otherVolumeName), is(initialVersion));
+    }
+
+    @Property
+    @Label("Given an index, " +
+            "when subscribing to volume events, " +
+            "and there is a problem listing volumes, " +
+            "should not be loaded.")
+    void loadException() throws DockerException, InterruptedException {
+        when(adapterMock.listAllVolumeNames()).thenThrow(new DockerException(""));
+        givenEvents();
+
+        secretsVolumeIndex.followEvents();
+
+        assertThat(secretsVolumeIndex.isLoaded(), is(false));
+    }
+
+    @Property(tries = 3)
+    @Label("Given a running index, " +
+            "when its subscription to events drops, " +
+            "should no longer be loaded, " +
+            "and subscribe again until it's stopped.")
+    void resubscribe() throws DockerException, InterruptedException {
+        when(adapterMock.listAllVolumeNames()).thenReturn(List.of());
+        doAnswer(invocation -> {
+            Consumer<Closeable> onSubscribed = invocation.getArgument(0);
+            onSubscribed.accept(mock(Closeable.class));
+            throw new ReadEventsException(new Exception());
+        }).doAnswer(invocation -> {
+            assertThat(secretsVolumeIndex.isLoaded(), is(false));
+            secretsVolumeIndex.stop();
+            return null;
+        }).when(adapterMock).followVolumeEvents(any(), any());
+
+        secretsVolumeIndex.run();
+
+        verify(adapterMock, times(2)).followVolumeEvents(any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenEvents(VolumeEvent... events) {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(mock(Closeable.class));
+            List.of(events).forEach(invocation.getArgument(1, Consumer.class));
+            return null;
+        }).when(adapterMock).followVolumeEvents(any(), any());
+    }
+}
@@ -1,6 +1,7 @@
 package conjob.init;
 
 import conjob.config.*;
+import conjob.core.job.DockerAdapter;
 import net.jqwik.api.*;
 
 import java.util.Map;
@@ -79,7 +80,15 @@ class ConfigStoreTest {
 
     @Provide
     Arbitrary<ConJobConfig> conjobConfig() {
-        Arbitrary<DockerConfig> dockerConfig = Arbitraries.forType(DockerConfig.class);
+        Arbitrary<DockerConfig> dockerConfig = Combinators.combine(
+                Arbitraries.strings(), Arbitraries.strings(), Arbitraries.of(DockerAdapter.Runtime.class))
+                .as((username, password, runtime) -> {
+                    DockerConfig config = new DockerConfig();
+                    config.setUsername(username);
+                    config.setPassword(password);
+                    config.setContainerRuntime(runtime);
+                    return config;
+                });
         Arbitrary<AdminConfig> adminConfig = Arbitraries.forType(AdminConfig.class);
         Arbitrary<AuthConfig> authConfig = Arbitraries.forType(AuthConfig.class);
         Arbitrary<JobConfig> jobConfig = Arbitraries.forType(JobConfig.LimitConfig.class)
@@ -1,23 +1,64 @@
 package conjob.resource;
 
+import conjob.api.JobBatchJobRequest;
+import conjob.api.JobPipelineRequest;
+import conjob.api.JobPipelineStageRequest;
+import conjob.api.JobRunConclusionResponse;
 import conjob.api.JobRunResponse;
+import conjob.api.JobRunSubmissionResponse;
+import conjob.api.JobRunSubmissionStatusResponse;
+import conjob.config.JobConfig;
+import conjob.core.job.exception.InputTooLargeException;
 import conjob.core.job.model.JobRun;
+import conjob.core.job.model.JobRunConclusion;
+import conjob.core.job.model.JobRunSubmission;
+import conjob.core.job.model.JobRunSubmissionStatus;
+import conjob.core.job.output.JobOutput;
+import conjob.core.job.output.JobOutputSink;
 import conjob.core.secrets.SecretsStoreException;
 import conjob.resource.convert.JobResponseConverter;
 import conjob.resource.convert.ResponseCreator;
+import conjob.service.job.BatchJob;
 import conjob.service.job.JobService;
+import conjob.service.job.PipelineStage;
+import conjob.service.job.PriorityClassAccess;
+import conjob.service.job.RunJobRequester;
 import net.jqwik.api.*;
 import net.jqwik.api.constraints.UseType;
 import net.jqwik.api.lifecycle.BeforeTry;
+import org.mockito.ArgumentCaptor;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 class JobResourceTest {
+    private static final String PRIORITY = "interactive";
+    private static final RunJobRequester REQUESTER = new RunJobRequester(PRIORITY);
+    private static final String TRUSTED_USER = "trusted";
+    private static final JobConfig.PriorityClassConfig RESERVED_CLASS =
+            new JobConfig.PriorityClassConfig("reserved", 1L, 1L, List.of(TRUSTED_USER));
     private JobResource jobResource;
     private JobService jobServiceMock;
     private ResponseCreator responseCreatorMock;
@@ -28,7 +69,11 @@ class JobResourceTest {
         jobServiceMock = mock(JobService.class);
         responseCreatorMock = mock(ResponseCreator.class);
         responseConverterMock = mock(JobResponseConverter.class);
-        jobResource = new JobResource(jobServiceMock, responseCreatorMock, responseConverterMock);
+        jobResource = new JobResource(
+                jobServiceMock,
+                responseCreatorMock,
+                responseConverterMock,
+                new PriorityClassAccess(new JobConfig.PriorityConfig(List.of(RESERVED_CLASS))));
     }
 
     @Property
@@ -39,14 +84,114 @@ class JobResourceTest {
             @ForAll @UseType JobRun jobRun,
             @ForAll @UseType JobRunResponse jobRunResponse,
             @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException {
-        when(jobServiceMock.runJob(givenImageName, givenInput, givenPullStrategy))
+        when(jobServiceMock.runJob(givenImageName, givenInput, givenPullStrategy, REQUESTER))
                 .thenReturn(jobRun);
         when(responseConverterMock.from(jobRun))
                 .thenReturn(jobRunResponse);
         when(responseCreatorMock.createResponseFrom(jobRunResponse))
                 .thenReturn(givenMockResponse);
 
-        Response response = jobResource.handleTextPost(givenImageName, givenInput, givenPullStrategy);
+        Response response = jobResource.handleTextPost(
+                givenImageName, givenInput, givenPullStrategy, null, false, PRIORITY, null);
+
+        assertThat(response, is(givenMockResponse));
+    }
+
+    @Property
+    void handleTextPostTail(
+            @ForAll String givenImageName,
+            @ForAll String givenInput,
+            @ForAll String givenPullStrategy,
+            @ForAll long givenTailBytes,
+            @ForAll @UseType JobRun jobRun,
+            @ForAll @UseType JobRunResponse jobRunResponse,
+            @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException {
+        when(jobServiceMock.runJob(givenImageName, givenInput, givenPullStrategy, givenTailBytes, REQUESTER))
+                .thenReturn(jobRun);
+        when(responseConverterMock.from(jobRun))
+                .thenReturn(jobRunResponse);
+        when(responseCreatorMock.createResponseFrom(jobRunResponse))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleTextPost(
+                givenImageName, givenInput, givenPullStrategy, givenTailBytes, false, PRIORITY, null);
+
+        assertThat(response, is(givenMockResponse));
+    }
+
+    @Property
+    void handleTextFilePost(
+            @ForAll String givenImageName,
+            @ForAll String givenPullStrategy,
+            @ForAll @UseType JobRun jobRun,
+            @ForAll @UseType JobRunResponse jobRunResponse,
+            @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException, IOException {
+        InputStream givenInput = new ByteArrayInputStream(new byte[0]);
+        when(jobServiceMock.runFileInputJob(givenImageName, givenInput, givenPullStrategy, REQUESTER))
+                .thenReturn(jobRun);
+        when(responseConverterMock.from(jobRun))
+                .thenReturn(jobRunResponse);
+        when(responseCreatorMock.createResponseFrom(jobRunResponse))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleTextFilePost(
+                givenImageName, givenInput, givenPullStrategy, PRIORITY, null);
+
+        assertThat(response, is(givenMockResponse));
+    }
+
+    @Property
+    void handleJsonFilePostTooLarge(
+            @ForAll String givenImageName,
+            @ForAll String givenPullStrategy) throws SecretsStoreException, IOException {
+        InputStream givenInput = new ByteArrayInputStream(new byte[0]);
+        when(jobServiceMock.runFileInputJob(givenImageName, givenInput, givenPullStrategy, REQUESTER))
+                .thenThrow(new InputTooLargeException(0));
+
+        Response response = jobResource.handleJsonFilePost(
+                givenImageName, givenInput, givenPullStrategy, PRIORITY, null);
+
+        assertThat(response.getStatus(), is(Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode()));
+    }
+
+    @Property
+    void handleJsonGetTail(
+            @ForAll String givenImageName,
+            @ForAll String givenPullStrategy,
+            @ForAll long givenTailBytes,
+            @ForAll @UseType JobRun jobRun,
+            @ForAll @UseType JobRunResponse jobRunResponse,
+            @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException {
+        when(jobServiceMock.runJob(givenImageName, "", givenPullStrategy, givenTailBytes, REQUESTER))
+                .thenReturn(jobRun);
+        when(responseConverterMock.from(jobRun))
+                .thenReturn(jobRunResponse);
+        when(responseCreatorMock.createJsonResponseFrom(jobRunResponse))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleJsonGet(
+                givenImageName, givenPullStrategy, givenTailBytes, false, PRIORITY, null);
+
+        assertThat(response, is(givenMockResponse));
+    }
+
+    @Property
+    void handleTextGetCached(
+            @ForAll String givenImageName,
+            @ForAll String givenPullStrategy,
+            @ForAll("nullableTail") Long givenTailBytes,
+            @ForAll @UseType JobRun jobRun,
+            @ForAll @UseType JobRunResponse jobRunResponse,
+            @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException {
+        when(jobServiceMock.runCachedJob(givenImageName, "", givenPullStrategy, givenTailBytes, REQUESTER))
+                .thenReturn(jobRun);
+        when(responseConverterMock.from(jobRun))
+                .thenReturn(jobRunResponse);
+        when(responseCreatorMock.createResponseFrom(jobRunResponse))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleTextGet(
+                givenImageName, givenPullStrategy, givenTailBytes, true, PRIORITY, null);
 
         assertThat(response, is(givenMockResponse));
     }
@@ -59,14 +204,15 @@ class JobResourceTest {
             @ForAll @UseType JobRun jobRun,
             @ForAll @UseType JobRunResponse jobRunResponse,
             @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException {
-        when(jobServiceMock.runJob(givenImageName, givenInput, givenPullStrategy))
+        when(jobServiceMock.runJob(givenImageName, givenInput, givenPullStrategy, REQUESTER))
                 .thenReturn(jobRun);
         when(responseConverterMock.from(jobRun))
                 .thenReturn(jobRunResponse);
         when(responseCreatorMock.createJsonResponseFrom(jobRunResponse))
                 .thenReturn(givenMockResponse);
 
-        Response response = jobResource.handleJsonPost(givenImageName, givenInput, givenPullStrategy);
+        Response response = jobResource.handleJsonPost(
+                givenImageName, givenInput, givenPullStrategy, null, false, PRIORITY, null);
 
         assertThat(response, is(givenMockResponse));
     }
@@ -79,14 +225,14 @@ class JobResourceTest {
             @ForAll @UseType JobRun jobRun,
             @ForAll @UseType JobRunResponse jobRunResponse,
             @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException {
-        when(jobServiceMock.runJob(givenImageName, givenInput, givenPullStrategy))
+        when(jobServiceMock.runJob(givenImageName, givenInput, givenPullStrategy, REQUESTER))
                 .thenReturn(jobRun);
         when(responseConverterMock.from(jobRun))
                 .thenReturn(jobRunResponse);
         when(responseCreatorMock.createResponseFrom(jobRunResponse))
                 .thenReturn(givenMockResponse);
 
-        Response response = jobResource.handleTextGet(givenImageName, givenPullStrategy);
+        Response response = jobResource.handleTextGet(givenImageName, givenPullStrategy, null, false, PRIORITY, null);
 
         assertThat(response, is(givenMockResponse));
     }
@@ -99,16 +245,357 @@ class JobResourceTest {
             @ForAll @UseType JobRun jobRun,
             @ForAll @UseType JobRunResponse jobRunResponse,
             @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException {
-        when(jobServiceMock.runJob(givenImageName, givenInput, givenPullStrategy))
+        when(jobServiceMock.runJob(givenImageName, givenInput, givenPullStrategy, REQUESTER))
                 .thenReturn(jobRun);
         when(responseConverterMock.from(jobRun))
                 .thenReturn(jobRunResponse);
         when(responseCreatorMock.createJsonResponseFrom(jobRunResponse))
                 .thenReturn(givenMockResponse);
 
-        Response response = jobResource.handleJsonGet(givenImageName, givenPullStrategy);
+        Response response = jobResource.handleJsonGet(givenImageName, givenPullStrategy, null, false, PRIORITY, null);
+
+        assertThat(response, is(givenMockResponse));
+    }
+
+    @Property
+    void handleStreamPost(
+            @ForAll String givenImageName,
+            @ForAll String givenInput,
+            @ForAll String givenPullStrategy,
+            @ForAll @UseType JobRun jobRun,
+            @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException, IOException {
+        JobRunResponse jobRunResponse = new JobRunResponse(null, JobOutput.empty(), 0, "message");
+        when(jobServiceMock.runJob(
+                eq(givenImageName), eq(givenInput), eq(givenPullStrategy), any(JobOutputSink.class), eq(REQUESTER)))
+                .thenReturn(jobRun);
+        when(responseConverterMock.from(jobRun))
+                .thenReturn(jobRunResponse);
+        ArgumentCaptor<StreamingOutput> streamingOutput = ArgumentCaptor.forClass(StreamingOutput.class);
+        when(responseCreatorMock.createStreamingResponseFrom(streamingOutput.capture()))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleStreamPost(givenImageName, givenInput, givenPullStrategy, PRIORITY, null);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        streamingOutput.getValue().write(outputStream);
+
+        assertThat(response, is(givenMockResponse));
+        assertThat(outputStream.toString(StandardCharsets.UTF_8),
+                endsWith("{\"conclusion\":null,\"output\":\"\",\"exitCode\":0,\"message\":\"message\"}\n"));
+    }
+
+    @Property
+    void handleStreamGetSecretsException(
+            @ForAll String givenImageName,
+            @ForAll String givenPullStrategy,
+            @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException, IOException {
+        JobRunResponse jobRunResponse = new JobRunResponse(null, JobOutput.empty(), -1, "message");
+        when(jobServiceMock.runJob(
+                eq(givenImageName), eq(""), eq(givenPullStrategy), any(JobOutputSink.class), eq(REQUESTER)))
+                .thenThrow(new SecretsStoreException(new Exception()));
+        when(responseConverterMock.from(new JobRun(null, JobOutput.empty(), -1)))
+                .thenReturn(jobRunResponse);
+        ArgumentCaptor<StreamingOutput> streamingOutput = ArgumentCaptor.forClass(StreamingOutput.class);
+        when(responseCreatorMock.createStreamingResponseFrom(streamingOutput.capture()))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleStreamGet(givenImageName, givenPullStrategy, PRIORITY, null);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        streamingOutput.getValue().write(outputStream);
+
+        assertThat(response, is(givenMockResponse));
+        assertThat(outputStream.toString(StandardCharsets.UTF_8),
+                endsWith("{\"conclusion\":null,\"output\":\"\",\"exitCode\":-1,\"message\":\"message\"}\n"));
+    }
+
+    @Property
+    void handleBatchPost(
+            @ForAll String givenImageName,
+            @ForAll String givenInput,
+            @ForAll String givenPullStrategy,
+            @ForAll("responseMock") Response givenMockResponse) throws IOException {
+        JobRun firstRun = new JobRun(JobRunConclusion.SUCCESS, JobOutput.empty(), 0);
+        JobRun secondRun = new JobRun(JobRunConclusion.FAILURE, JobOutput.empty(), 1);
+        CompletableFuture<JobRun> first = new CompletableFuture<>();
+        when(jobServiceMock.runBatch(
+                List.of(new BatchJob(givenImageName, givenInput, givenPullStrategy),
+                        new BatchJob(givenImageName, "", "never")),
+                REQUESTER))
+                .thenReturn(List.of(first, CompletableFuture.completedFuture(secondRun)));
+        when(responseConverterMock.from(firstRun))
+                .thenReturn(new JobRunResponse(JobRunConclusionResponse.SUCCESS, JobOutput.empty(), 0, "first"));
+        when(responseConverterMock.from(secondRun))
+                .thenReturn(new JobRunResponse(JobRunConclusionResponse.FAILURE, JobOutput.empty(), 1, "second"));
+        ArgumentCaptor<StreamingOutput> streamingOutput = ArgumentCaptor.forClass(StreamingOutput.class);
+        when(responseCreatorMock.createStreamingResponseFrom(streamingOutput.capture()))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleBatchPost(
+                List.of(new JobBatchJobRequest(givenImageName, givenInput, givenPullStrategy),
+                        new JobBatchJobRequest(givenImageName, "", "never")),
+                PRIORITY,
+                null);
+        first.complete(firstRun);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        streamingOutput.getValue().write(outputStream);
+
+        assertThat(response, is(givenMockResponse));
+        String output = outputStream.toString(StandardCharsets.UTF_8);
+        assertThat(output, startsWith("[{\"index\":0,"));
+        assertThat(output, containsString("\"message\":\"first\"}},{\"index\":1,"));
+        assertThat(output, endsWith("\"message\":\"second\"}}]"));
+    }
+
+    @Property
+    void handlePipelinePost(
+            @ForAll String givenImageName,
+            @ForAll String givenInput,
+            @ForAll("responseMock") Response givenMockResponse) throws IOException {
+        JobRun firstRun = new JobRun(JobRunConclusion.FAILURE, JobOutput.empty(), 1);
+        JobRun secondRun = new JobRun(JobRunConclusion.SKIPPED, JobOutput.empty(), -1);
+        JobRun thirdRun = new JobRun(JobRunConclusion.SUCCESS, JobOutput.empty(), 0);
+        when(jobServiceMock.runPipeline(
+                givenInput,
+                List.of(new PipelineStage("first", givenImageName, "always", List.of()),
+                        new PipelineStage("second", givenImageName, "never", List.of("first")),
+                        new PipelineStage("third", givenImageName, "always", List.of())),
+                REQUESTER))
+                .thenReturn(List.of(
+                        CompletableFuture.completedFuture(firstRun),
+                        CompletableFuture.completedFuture(secondRun),
+                        CompletableFuture.completedFuture(thirdRun)));
+        when(responseConverterMock.from(firstRun))
+                .thenReturn(new JobRunResponse(JobRunConclusionResponse.FAILURE, JobOutput.empty(), 1, "first"));
+        when(responseConverterMock.from(secondRun))
+                .thenReturn(new JobRunResponse(JobRunConclusionResponse.SKIPPED, JobOutput.empty(), -1, "second"));
+        when(responseConverterMock.from(thirdRun))
+                .thenReturn(new JobRunResponse(JobRunConclusionResponse.SUCCESS, JobOutput.empty(), 0, "third"));
+        ArgumentCaptor<StreamingOutput> streamingOutput = ArgumentCaptor.forClass(StreamingOutput.class);
+        when(responseCreatorMock.createStreamingResponseFrom(streamingOutput.capture()))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handlePipelinePost(
+                new JobPipelineRequest(givenInput, List.of(
+                        new JobPipelineStageRequest("first", givenImageName, "always", null),
+                        new JobPipelineStageRequest("second", givenImageName, "never", null),
+                        new JobPipelineStageRequest("third", givenImageName, "always", List.of()))),
+                PRIORITY,
+                null);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        streamingOutput.getValue().write(outputStream);
 
         assertThat(response, is(givenMockResponse));
+        String output = outputStream.toString(StandardCharsets.UTF_8);
+        assertThat(output, startsWith("[{\"name\":\"first\","));
+        assertThat(output, containsString("\"message\":\"first\"}},{\"name\":\"second\","));
+        assertThat(output, containsString("\"message\":\"second\"}},{\"name\":\"third\","));
+        assertThat(output, endsWith("\"message\":\"third\"}}]"));
+    }
+
+    @Property
+    void handleBatchStreamPost(
+            @ForAll String givenImageName,
+            @ForAll("responseMock") Response givenMockResponse) throws Exception {
+        JobRun firstRun = new JobRun(JobRunConclusion.SUCCESS, JobOutput.empty(), 0);
+        JobRun secondRun = new JobRun(JobRunConclusion.FAILURE, JobOutput.empty(), 1);
+        CompletableFuture<JobRun> first = new CompletableFuture<>();
+        CompletableFuture<JobRun> second = new CompletableFuture<>();
+        when(jobServiceMock.runBatch(any(), eq(REQUESTER))).thenReturn(List.of(first, second));
+        when(responseConverterMock.from(firstRun))
+                .thenReturn(new JobRunResponse(JobRunConclusionResponse.SUCCESS, JobOutput.empty(), 0, "first"));
+        when(responseConverterMock.from(secondRun))
+                .thenReturn(new JobRunResponse(JobRunConclusionResponse.FAILURE, JobOutput.empty(), 1, "second"));
+        ArgumentCaptor<StreamingOutput> streamingOutput = ArgumentCaptor.forClass(StreamingOutput.class);
+        when(responseCreatorMock.createStreamingResponseFrom(streamingOutput.capture()))
+                .thenReturn(givenMockResponse);
+
+        jobResource.handleBatchStreamPost(
+                List.of(new JobBatchJobRequest(givenImageName, "", "always"),
+                        new JobBatchJobRequest(givenImageName, "", "always")),
+                PRIORITY,
+                null);
+        second.complete(secondRun);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CompletableFuture<Void> writing = CompletableFuture.runAsync(() -> {
+            try {
+                streamingOutput.getValue().write(outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        // The first run only finishes once the second one has been written
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (outputStream.size() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        first.complete(firstRun);
+        writing.get(10, TimeUnit.SECONDS);
+
+        String[] frames = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(frames.length, is(2));
+        assertThat(frames[0], startsWith("{\"index\":1,"));
+        assertThat(frames[1], startsWith("{\"index\":0,"));
+    }
+
+    @Property
+    void handleTextGetPrincipalPriority(
+            @ForAll String givenImageName,
+            @ForAll String givenPullStrategy,
+            @ForAll String givenUserName,
+            @ForAll @UseType JobRun jobRun,
+            @ForAll @UseType JobRunResponse jobRunResponse,
+            @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException {
+        SecurityContext securityContextMock = mock(SecurityContext.class);
+        Principal principalMock = mock(Principal.class);
+        when(securityContextMock.getUserPrincipal()).thenReturn(principalMock);
+        when(principalMock.getName()).thenReturn(givenUserName);
+        when(jobServiceMock.runJob(givenImageName, "", givenPullStrategy, new RunJobRequester(givenUserName, null, givenUserName)))
+                .thenReturn(jobRun);
+        when(responseConverterMock.from(jobRun))
+                .thenReturn(jobRunResponse);
+        when(responseCreatorMock.createResponseFrom(jobRunResponse))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleTextGet(
+                givenImageName, givenPullStrategy, null, false, null, securityContextMock);
+
+        assertThat(response, is(givenMockResponse));
+    }
+
+    @Property
+    void handleTextGetPriorityAndPrincipal(
+            @ForAll String givenImageName,
+            @ForAll String givenPullStrategy,
+            @ForAll String givenUserName,
+            @ForAll @UseType JobRun jobRun,
+            @ForAll @UseType JobRunResponse jobRunResponse,
+            @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException {
+        SecurityContext securityContextMock = mock(SecurityContext.class);
+        Principal principalMock = mock(Principal.class);
+        when(securityContextMock.getUserPrincipal()).thenReturn(principalMock);
+        when(principalMock.getName()).thenReturn(givenUserName);
+        when(jobServiceMock.runJob(givenImageName, "", givenPullStrategy, new RunJobRequester(PRIORITY, null, givenUserName)))
+                .thenReturn(jobRun);
+        when(responseConverterMock.from(jobRun))
+                .thenReturn(jobRunResponse);
+        when(responseCreatorMock.createResponseFrom(jobRunResponse))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleTextGet(
+                givenImageName, givenPullStrategy, null, false, PRIORITY, securityContextMock);
+
+        assertThat(response, is(givenMockResponse));
+    }
+
+    @Property
+    void handleTextGetForbiddenPriority(
+            @ForAll String givenImageName,
+            @ForAll String givenPullStrategy,
+            @ForAll boolean givenLoggedIn) {
+        SecurityContext securityContextMock = mock(SecurityContext.class);
+        if (givenLoggedIn) {
+            Principal principalMock = mock(Principal.class);
+            when(securityContextMock.getUserPrincipal()).thenReturn(principalMock);
+            when(principalMock.getName()).thenReturn(TRUSTED_USER + "other");
+        }
+
+        assertThrows(PriorityClassForbiddenException.class, () -> jobResource.handleTextGet(
+                givenImageName, givenPullStrategy, null, false, RESERVED_CLASS.getName(), securityContextMock));
+        verifyNoInteractions(jobServiceMock);
+    }
+
+    @Property
+    void handleTextGetAllowedPriority(
+            @ForAll String givenImageName,
+            @ForAll String givenPullStrategy,
+            @ForAll @UseType JobRun jobRun,
+            @ForAll @UseType JobRunResponse jobRunResponse,
+            @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException {
+        SecurityContext securityContextMock = mock(SecurityContext.class);
+        Principal principalMock = mock(Principal.class);
+        when(securityContextMock.getUserPrincipal()).thenReturn(principalMock);
+        when(principalMock.getName()).thenReturn(TRUSTED_USER);
+        RunJobRequester requester = new RunJobRequester(RESERVED_CLASS.getName(), null, TRUSTED_USER);
+        when(jobServiceMock.runJob(givenImageName, "", givenPullStrategy, requester)).thenReturn(jobRun);
+        when(responseConverterMock.from(jobRun)).thenReturn(jobRunResponse);
+        when(responseCreatorMock.createResponseFrom(jobRunResponse)).thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleTextGet(
+                givenImageName, givenPullStrategy, null, false, RESERVED_CLASS.getName(), securityContextMock);
+
+        assertThat(response, is(givenMockResponse));
+    }
+
+    @Property
+    void handleTextGetNoPriority(
+            @ForAll String givenImageName,
+            @ForAll String givenPullStrategy,
+            @ForAll @UseType JobRun jobRun,
+            @ForAll @UseType JobRunResponse jobRunResponse,
+            @ForAll("responseMock") Response givenMockResponse) throws SecretsStoreException {
+        when(jobServiceMock.runJob(givenImageName, "", givenPullStrategy, new RunJobRequester(null)))
+                .thenReturn(jobRun);
+        when(responseConverterMock.from(jobRun))
+                .thenReturn(jobRunResponse);
+        when(responseCreatorMock.createResponseFrom(jobRunResponse))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleTextGet(
+                givenImageName, givenPullStrategy, null, false, null, mock(SecurityContext.class));
+
+        assertThat(response, is(givenMockResponse));
+    }
+
+    @Property
+    void handleSubmitPost(
+            @ForAll String givenImageName,
+            @ForAll String givenInput,
+            @ForAll String givenPullStrategy,
+            @ForAll String givenId,
+            @ForAll("responseMock") Response givenMockResponse) {
+        JobRunSubmission submission =
+                new JobRunSubmission(givenId, JobRunSubmissionStatus.RUNNING, null);
+        JobRunSubmissionResponse submissionResponse =
+                new JobRunSubmissionResponse(givenId, JobRunSubmissionStatusResponse.RUNNING, null);
+        when(jobServiceMock.submitJob(givenImageName, givenInput, givenPullStrategy, REQUESTER))
+                .thenReturn(submission);
+        when(responseConverterMock.from(submission))
+                .thenReturn(submissionResponse);
+        when(responseCreatorMock.createSubmittedResponseFrom(submissionResponse))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleSubmitPost(givenImageName, givenInput, givenPullStrategy, PRIORITY, null);
+
+        assertThat(response, is(givenMockResponse));
+    }
+
+    @Property
+    void handleSubmissionGet(
+            @ForAll String givenId,
+            @ForAll("responseMock") Response givenMockResponse) {
+        JobRunSubmission submission =
+                new JobRunSubmission(givenId, JobRunSubmissionStatus.RUNNING, null);
+        JobRunSubmissionResponse submissionResponse =
+                new JobRunSubmissionResponse(givenId, JobRunSubmissionStatusResponse.RUNNING, null);
+        when(jobServiceMock.findSubmission(givenId))
+                .thenReturn(Optional.of(submission));
+        when(responseConverterMock.from(submission))
+                .thenReturn(submissionResponse);
+        when(responseCreatorMock.createSubmissionStatusResponseFrom(submissionResponse))
+                .thenReturn(givenMockResponse);
+
+        Response response = jobResource.handleSubmissionGet(givenId);
+
+        assertThat(response, is(givenMockResponse));
+    }
+
+    @Property
+    void handleSubmissionGetNotFound(@ForAll String givenId) {
+        when(jobServiceMock.findSubmission(givenId))
+                .thenReturn(Optional.empty());
+
+        Response response = jobResource.handleSubmissionGet(givenId);
+
+        assertThat(response.getStatusInfo().toEnum(), is(Response.Status.NOT_FOUND));
     }
 
     @Provide
@@ -116,6 +603,11 @@ class JobResourceTest {
         return Arbitraries.just(mock(Response.class));
     }
 
+    @Provide
+    Arbitrary<Long> nullableTail() {
+        return Arbitraries.longs().greaterOrEqual(1).injectNull(.5);
+    }
+
     @Provide
     Arbitrary<String> alwaysEmpty() {
         return Arbitraries.just("");
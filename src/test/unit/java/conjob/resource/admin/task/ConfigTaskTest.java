@@ -91,7 +91,20 @@ class ConfigTaskTest {
                 "conjob.job.limit.maxGlobalRequestsPerSecond",
                 "conjob.job.limit.maxConcurrentRuns",
                 "conjob.job.limit.maxTimeoutSeconds",
-                "conjob.job.limit.maxKillTimeoutSeconds");
+                "conjob.job.limit.maxKillTimeoutSeconds",
+                "conjob.job.limit.maxGlobalRequestBurst",
+                "conjob.job.adaptiveLimit.minConcurrentRuns",
+                "conjob.job.adaptiveLimit.targetCreationMillis",
+                "conjob.job.adaptiveLimit.backoffPercent",
+                "conjob.job.keyedLimit.image.maxRequestsPerSecond",
+                "conjob.job.keyedLimit.image.maxConcurrentRuns",
+                "conjob.job.keyedLimit.user.maxRequestsPerSecond",
+                "conjob.job.keyedLimit.user.maxConcurrentRuns",
+                "conjob.job.keyedLimit.idleSeconds",
+                "conjob.job.hostLimit.maxLoadPercent",
+                "conjob.job.hostLimit.minFreeMemoryPercent",
+                "conjob.job.hostLimit.minFreeDiskPercent",
+                "conjob.job.hostLimit.maxRunsPerSample");
     }
 
     @Provide
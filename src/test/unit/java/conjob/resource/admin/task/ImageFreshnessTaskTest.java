@@ -0,0 +1,62 @@
+package conjob.resource.admin.task;
+
+import conjob.core.job.ImagePuller;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.NotEmpty;
+
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+class ImageFreshnessTaskTest {
+    @Property
+    @Label("Given image names, " +
+            "when executing the task, " +
+            "should invalidate only those images.")
+    void executeWithImages(@ForAll @NotEmpty List<String> givenImageNames) {
+        ImagePuller imagePullerMock = mock(ImagePuller.class);
+
+        new ImageFreshnessTask(imagePullerMock)
+                .execute(Map.of("image", givenImageNames), mock(PrintWriter.class));
+
+        givenImageNames.forEach(imageName -> verify(imagePullerMock, atLeastOnce()).invalidate(imageName));
+        verify(imagePullerMock, never()).invalidateAll();
+    }
+
+    @Property
+    @Label("Given no image names, " +
+            "when executing the task, " +
+            "should invalidate every image.")
+    void executeWithoutImages() {
+        ImagePuller imagePullerMock = mock(ImagePuller.class);
+
+        new ImageFreshnessTask(imagePullerMock).execute(Map.of(), mock(PrintWriter.class));
+
+        verify(imagePullerMock).invalidateAll();
+        verify(imagePullerMock, never()).invalidate(anyString());
+    }
+
+    @Property
+    @Label("Given an image puller for each of several daemons, " +
+            "when executing the task, " +
+            "should invalidate the images on every daemon.")
+    void executeOnEveryDaemon(@ForAll List<String> givenImageNames) {
+        ImagePuller firstImagePullerMock = mock(ImagePuller.class);
+        ImagePuller secondImagePullerMock = mock(ImagePuller.class);
+
+        new ImageFreshnessTask(firstImagePullerMock, secondImagePullerMock)
+                .execute(Map.of("image", givenImageNames), mock(PrintWriter.class));
+
+        List.of(firstImagePullerMock, secondImagePullerMock).forEach(imagePullerMock -> {
+            if (givenImageNames.isEmpty()) {
+                verify(imagePullerMock).invalidateAll();
+            } else {
+                givenImageNames.forEach(imageName -> verify(imagePullerMock, atLeastOnce()).invalidate(imageName));
+            }
+        });
+    }
+}
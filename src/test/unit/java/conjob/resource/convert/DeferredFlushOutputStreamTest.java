@@ -0,0 +1,73 @@
+package conjob.resource.convert;
+
+import net.jqwik.api.Assume;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.mockito.Mockito.*;
+
+class DeferredFlushOutputStreamTest {
+    @Property
+    @Label("Given a minimum, " +
+            "and less than it has been written, " +
+            "when flushing, " +
+            "should write through what's been written, " +
+            "and not flush.")
+    void holdsFlushBelowMinimum(
+            @ForAll @IntRange(min = 1, max = 4096) int givenMinimum,
+            @ForAll @IntRange(max = 4095) int givenWritten) throws IOException {
+        Assume.that(givenWritten < givenMinimum);
+        OutputStream mockOutputStream = mock(OutputStream.class);
+        DeferredFlushOutputStream outputStream = new DeferredFlushOutputStream(mockOutputStream, givenMinimum);
+
+        outputStream.write(new byte[givenWritten]);
+        outputStream.flush();
+
+        verify(mockOutputStream).write(any(byte[].class), eq(0), eq(givenWritten));
+        verify(mockOutputStream, never()).flush();
+    }
+
+    @Property
+    @Label("Given a minimum, " +
+            "and at least that much has been written a byte at a time or all at once, " +
+            "when flushing, " +
+            "should flush.")
+    void flushesPastMinimum(
+            @ForAll @IntRange(max = 4096) int givenMinimum,
+            @ForAll @IntRange(max = 4096) int givenExtra,
+            @ForAll boolean givenByteAtATime) throws IOException {
+        OutputStream mockOutputStream = mock(OutputStream.class);
+        DeferredFlushOutputStream outputStream = new DeferredFlushOutputStream(mockOutputStream, givenMinimum);
+
+        if (givenByteAtATime) {
+            for (int i = 0; i < givenMinimum + givenExtra; i++) {
+                outputStream.write('a');
+            }
+        } else {
+            outputStream.write(new byte[givenMinimum + givenExtra]);
+        }
+        outputStream.flush();
+
+        verify(mockOutputStream).flush();
+    }
+
+    @Property
+    @Label("Given a minimum, " +
+            "and less than it has been written, " +
+            "when closing, " +
+            "should close the underlying stream.")
+    void closesBelowMinimum(@ForAll @IntRange(min = 1, max = 4096) int givenMinimum) throws IOException {
+        OutputStream mockOutputStream = mock(OutputStream.class);
+        DeferredFlushOutputStream outputStream = new DeferredFlushOutputStream(mockOutputStream, givenMinimum);
+
+        outputStream.write('a');
+        outputStream.close();
+
+        verify(mockOutputStream).close();
+    }
+}
@@ -0,0 +1,96 @@
+package conjob.resource.convert;
+
+import conjob.api.JobBatchRunResponse;
+import conjob.api.JobPipelineStageRunResponse;
+import conjob.api.JobRunConclusionResponse;
+import conjob.api.JobRunResponse;
+import conjob.core.job.output.JobOutput;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+class JobBatchWriterTest {
+    @Property
+    @Label("Given 0 - 5 batched runs, " +
+            "when writing them as an array, " +
+            "should write one JSON array of them, " +
+            "and close each run's output.")
+    void writeArray(@ForAll @IntRange(max = 5) int givenRunCount) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        JobBatchWriter batchWriter = new JobBatchWriter(outputStream, false);
+        List<JobOutput> outputs = new ArrayList<>();
+        List<String> expectedRuns = new ArrayList<>();
+
+        for (int i = 0; i < givenRunCount; i++) {
+            JobOutput output = mock(JobOutput.class);
+            when(output.open()).thenReturn(new ByteArrayInputStream(new byte[0]));
+            outputs.add(output);
+            batchWriter.write(runOf(i, outputs.get(i)));
+            expectedRuns.add(expectedJsonOf(i));
+        }
+        batchWriter.finish();
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8), is("[" + String.join(",", expectedRuns) + "]"));
+        outputs.forEach(output -> verify(output).close());
+    }
+
+    @Property
+    @Label("Given 0 - 5 batched runs, " +
+            "when streaming them, " +
+            "should write each as its own newline delimited frame.")
+    void writeStreamed(@ForAll @IntRange(max = 5) int givenRunCount) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        JobBatchWriter batchWriter = new JobBatchWriter(outputStream, true);
+        StringBuilder expected = new StringBuilder();
+
+        for (int i = 0; i < givenRunCount; i++) {
+            batchWriter.write(runOf(i, JobOutput.empty()));
+            expected.append(expectedJsonOf(i)).append('\n');
+        }
+        batchWriter.finish();
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8), is(expected.toString()));
+    }
+
+    @Property
+    @Label("Given a pipeline stage's run, " +
+            "when writing it, " +
+            "should write it by the stage's name, " +
+            "and close its output.")
+    void writePipelineStage(@ForAll boolean givenStreamed) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        JobBatchWriter batchWriter = new JobBatchWriter(outputStream, givenStreamed);
+        JobOutput output = mock(JobOutput.class);
+        when(output.open()).thenReturn(new ByteArrayInputStream(new byte[0]));
+
+        batchWriter.write(new JobPipelineStageRunResponse(
+                "stage", "image", new JobRunResponse(JobRunConclusionResponse.SUCCESS, output, 0, "message")));
+        batchWriter.finish();
+
+        String expectedJson = "{\"name\":\"stage\",\"image\":\"image\",\"result\":" +
+                "{\"conclusion\":\"SUCCESS\",\"output\":\"\",\"exitCode\":0,\"message\":\"message\"}}";
+        assertThat(outputStream.toString(StandardCharsets.UTF_8),
+                is(givenStreamed ? expectedJson + "\n" : "[" + expectedJson + "]"));
+        verify(output).close();
+    }
+
+    private static JobBatchRunResponse runOf(int index, JobOutput output) {
+        return new JobBatchRunResponse(
+                index, "image" + index, new JobRunResponse(JobRunConclusionResponse.SUCCESS, output, 0, "message"));
+    }
+
+    private static String expectedJsonOf(int index) {
+        return "{\"index\":" + index + ",\"image\":\"image" + index + "\",\"result\":" +
+                "{\"conclusion\":\"SUCCESS\",\"output\":\"\",\"exitCode\":0,\"message\":\"message\"}}";
+    }
+}
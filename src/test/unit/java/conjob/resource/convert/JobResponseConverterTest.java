@@ -1,15 +1,24 @@
 package conjob.resource.convert;
 
+import conjob.api.JobOutputSourceResponse;
 import conjob.api.JobRunConclusionResponse;
+import conjob.api.JobRunOutputFrame;
 import conjob.api.JobRunResponse;
+import conjob.api.JobRunSubmissionResponse;
+import conjob.api.JobRunSubmissionStatusResponse;
 import conjob.core.job.model.JobRun;
 import conjob.core.job.model.JobRunConclusion;
+import conjob.core.job.model.JobRunSubmission;
+import conjob.core.job.model.JobRunSubmissionStatus;
+import conjob.core.job.output.JobOutput;
+import conjob.core.job.output.JobOutputSource;
 import net.jqwik.api.*;
 import net.jqwik.api.arbitraries.LongArbitrary;
 import net.jqwik.api.lifecycle.BeforeTry;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
 
 class JobResponseConverterTest {
     JobResponseConverter jobResponseConverter;
@@ -30,12 +39,44 @@ class JobResponseConverterTest {
         assertThat(jobRunResponse.getOutput(), is(jobRun.getOutput()));
         assertThat(jobRunResponse.getExitCode(), is(jobRun.getExitCode()));
         assertThat(jobRunResponse.getMessage(), is(not(emptyOrNullString())));
+        assertThat(jobRunResponse.isCached(), is(jobRun.isCached()));
+    }
+
+    @Property
+    @Label("Given a job run submission, " +
+            "when converting it to a job run submission response, " +
+            "should convert correctly.")
+    void fromSubmission(@ForAll("jobRunSubmission") JobRunSubmission submission) {
+        JobRunSubmissionResponse submissionResponse = jobResponseConverter.from(submission);
+
+        assertThat(submissionResponse.getId(), is(submission.getId()));
+        assertThat(submissionResponse.getStatus(), instanceOf(JobRunSubmissionStatusResponse.class));
+        assertThat(submissionResponse.getResult() == null, is(submission.getJobRun() == null));
+    }
+
+    @Property
+    @Label("Given a chunk of job output and its source, " +
+            "when converting it to an output frame, " +
+            "should convert correctly.")
+    void fromOutput(@ForAll JobOutputSource source, @ForAll String output) {
+        JobRunOutputFrame frame = jobResponseConverter.from(source, output);
+
+        assertThat(frame.getSource(), is(JobOutputSourceResponse.valueOf(source.name())));
+        assertThat(frame.getOutput(), is(output));
+    }
+
+    @Provide
+    Arbitrary<JobRunSubmission> jobRunSubmission() {
+        Arbitrary<String> id = Arbitraries.strings().injectNull(.1);
+        Arbitrary<JobRunSubmissionStatus> status = Arbitraries.of(JobRunSubmissionStatus.class).injectNull(.1);
+
+        return Combinators.combine(id, status, jobRun().injectNull(.5)).as(JobRunSubmission::new);
     }
 
     @Provide
     Arbitrary<JobRun> jobRun() {
         Arbitrary<JobRunConclusion> jrc = Arbitraries.of(JobRunConclusion.class).injectNull(.1);
-        Arbitrary<String> of = Arbitraries.strings();
+        Arbitrary<JobOutput> of = Arbitraries.create(() -> mock(JobOutput.class));
         LongArbitrary of1 = Arbitraries.longs();
 
         return Combinators.combine(jrc, of, of1).as(JobRun::new);
@@ -0,0 +1,82 @@
+package conjob.resource.convert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import conjob.api.JobRunConclusionResponse;
+import conjob.api.JobRunResponse;
+import conjob.core.job.output.JobOutput;
+import conjob.core.job.output.JobOutputSource;
+import io.dropwizard.jackson.Jackson;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class JobRunStreamWriterTest {
+    private static final ObjectMapper OBJECT_MAPPER = Jackson.newObjectMapper();
+
+    @Property
+    @Label("Given a chunk of job output, " +
+            "when writing it, " +
+            "should write a single newline delimited frame with its source and output.")
+    void writeOutputFrame(@ForAll JobOutputSource givenSource) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        JobRunStreamWriter streamWriter = new JobRunStreamWriter(outputStream, new JobResponseConverter());
+
+        streamWriter.write(givenSource, ByteBuffer.wrap("foo\"bar\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8),
+                is("{\"source\":\"" + givenSource.name() + "\",\"output\":\"foo\\\"bar\\n\"}\n"));
+    }
+
+    @Property
+    @Label("Given output containing multi-byte characters, " +
+            "and it's split into chunks at arbitrary byte boundaries, " +
+            "when writing each chunk, " +
+            "should reassemble the original output across the frames.")
+    void writeSplitCharacters(
+            @ForAll("multiByteOutput") String givenOutput,
+            @ForAll @IntRange(min = 1, max = 7) int givenChunkSize) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        JobRunStreamWriter streamWriter = new JobRunStreamWriter(outputStream, new JobResponseConverter());
+        byte[] bytes = givenOutput.getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 0; i < bytes.length; i += givenChunkSize) {
+            streamWriter.write(JobOutputSource.STDOUT,
+                    ByteBuffer.wrap(Arrays.copyOfRange(bytes, i, Math.min(bytes.length, i + givenChunkSize))));
+        }
+
+        StringBuilder reassembled = new StringBuilder();
+        for (String frame : outputStream.toString(StandardCharsets.UTF_8).split("\n")) {
+            reassembled.append(OBJECT_MAPPER.readTree(frame).get("output").asText());
+        }
+        assertThat(reassembled.toString(), is(givenOutput));
+    }
+
+    @Property
+    @Label("Given a job run response, " +
+            "when writing the conclusion, " +
+            "should write it as the final newline delimited frame.")
+    void writeConclusion(@ForAll JobRunConclusionResponse givenConclusion) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        JobRunStreamWriter streamWriter = new JobRunStreamWriter(outputStream, new JobResponseConverter());
+
+        streamWriter.writeConclusion(new JobRunResponse(givenConclusion, JobOutput.empty(), 0, "message"));
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8),
+                is("{\"conclusion\":\"" + givenConclusion.name() + "\",\"output\":\"\",\"exitCode\":0,\"message\":\"message\"}\n"));
+    }
+
+    @Provide
+    Arbitrary<String> multiByteOutput() {
+        return Arbitraries.of("a", "\u00e9", "\u20ac", "\ud83d\ude00")
+                .list().ofMinSize(1).ofMaxSize(30)
+                .map(characters -> String.join("", characters));
+    }
+}
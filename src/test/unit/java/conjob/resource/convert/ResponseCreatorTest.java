@@ -2,15 +2,34 @@ package conjob.resource.convert;
 
 import conjob.api.JobRunConclusionResponse;
 import conjob.api.JobRunResponse;
+import conjob.api.JobRunSubmissionResponse;
+import conjob.api.JobRunSubmissionStatusResponse;
+import conjob.core.job.output.JobOutput;
+import conjob.core.job.output.JobOutputSource;
+import conjob.core.job.output.JobOutputStore;
+import conjob.core.job.output.OutputBufferPool;
+import conjob.core.job.output.OutputMemoryBudget;
 import net.jqwik.api.*;
+import net.jqwik.api.constraints.AlphaChars;
+import net.jqwik.api.constraints.Size;
 import net.jqwik.api.lifecycle.BeforeTry;
 import org.junit.jupiter.api.BeforeEach;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class ResponseCreatorTest {
     private ResponseCreator responseCreator;
@@ -25,44 +44,161 @@ class ResponseCreatorTest {
     @Label("Given a job run response, " +
             "when creating a text web response from it, " +
             "should have the expected status, " +
-            "and the body should be the given job run responses' output.")
+            "and the body should be the given job run responses' output, " +
+            "and the output should be closed once it's written.")
     void createTextResponse(
             @ForAll("conclusionExpectedStatus") Map.Entry<JobRunConclusionResponse, Response.Status>
                     givenConclusionExpectedStatus,
-            @ForAll String givenOutput,
+            @ForAll byte[] givenOutput,
             @ForAll Long givenExitCode,
-            @ForAll String givenMessage) {
+            @ForAll String givenMessage) throws IOException {
         JobRunConclusionResponse givenConclusion = givenConclusionExpectedStatus.getKey();
         Response.Status expectedResponseStatus = givenConclusionExpectedStatus.getValue();
+        JobOutput outputMock = mock(JobOutput.class);
+        when(outputMock.open()).thenReturn(new ByteArrayInputStream(givenOutput));
         JobRunResponse jobRunResponse =
-                new JobRunResponse(givenConclusion, givenOutput, givenExitCode, givenMessage);
+                new JobRunResponse(givenConclusion, outputMock, givenExitCode, givenMessage);
 
         Response response = responseCreator.createResponseFrom(jobRunResponse);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(body);
 
         assertThat(response.getStatusInfo().toEnum(), is(expectedResponseStatus));
-        assertThat(response.getEntity(), is(jobRunResponse.getOutput()));
+        assertThat(body.toByteArray(), is(givenOutput));
+        verify(outputMock).close();
     }
 
     @Property
     @Label("Given a job run response, " +
             "when creating a JSON web response from it, " +
             "should have the expected status, " +
-            "and the body should be the given job run response.")
+            "and the body should be the given job run response as JSON, " +
+            "and the output should be closed once it's written.")
     void createJsonResponse(
             @ForAll("conclusionExpectedStatus") Map.Entry<JobRunConclusionResponse, Response.Status>
                     givenConclusionExpectedStatus,
-            @ForAll String givenOutput,
+            @ForAll @AlphaChars String givenOutput,
             @ForAll Long givenExitCode,
-            @ForAll String givenMessage) {
+            @ForAll @AlphaChars String givenMessage) throws IOException {
         JobRunConclusionResponse givenConclusion = givenConclusionExpectedStatus.getKey();
         Response.Status expectedResponseStatus = givenConclusionExpectedStatus.getValue();
+        JobOutput outputMock = mock(JobOutput.class);
+        when(outputMock.open())
+                .thenReturn(new ByteArrayInputStream(givenOutput.getBytes(StandardCharsets.UTF_8)));
         JobRunResponse jobRunResponse =
-                new JobRunResponse(givenConclusion, givenOutput, givenExitCode, givenMessage);
+                new JobRunResponse(givenConclusion, outputMock, givenExitCode, givenMessage);
 
         Response response = responseCreator.createJsonResponseFrom(jobRunResponse);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(body);
 
         assertThat(response.getStatusInfo().toEnum(), is(expectedResponseStatus));
-        assertThat(response.getEntity(), is(jobRunResponse));
+        assertThat(body.toString(StandardCharsets.UTF_8), is("{\"conclusion\":\"" + givenConclusion +
+                "\",\"output\":\"" + givenOutput + "\",\"exitCode\":" + givenExitCode +
+                ",\"message\":\"" + givenMessage + "\"}"));
+        verify(outputMock).close();
+    }
+
+    @Property
+    @Label("Given a job run response whose output is held in pooled buffers, " +
+            "when creating a JSON web response from it, " +
+            "and writing it, " +
+            "should give all of the output's memory back to the budget.")
+    void createJsonResponseReleasesBudget(@ForAll @Size(min = 1, max = 4096) byte[] givenOutput) throws IOException {
+        OutputMemoryBudget memoryBudget = new OutputMemoryBudget(Long.MAX_VALUE);
+        JobOutputStore output = new JobOutputStore(
+                new OutputBufferPool(16, 0, memoryBudget),
+                Long.MAX_VALUE,
+                Path.of(System.getProperty("java.io.tmpdir")));
+        output.write(JobOutputSource.STDOUT, ByteBuffer.wrap(givenOutput));
+        assertThat(memoryBudget.getUsedBytes() > 0, is(true));
+
+        Response response = responseCreator.createJsonResponseFrom(
+                new JobRunResponse(JobRunConclusionResponse.SUCCESS, output, 0, "message"));
+        ((StreamingOutput) response.getEntity()).write(new ByteArrayOutputStream());
+
+        assertThat(memoryBudget.getUsedBytes(), is(0L));
+    }
+
+    @Property
+    @Label("Given a job run response, " +
+            "when creating a text or JSON web response from it, " +
+            "should have a cache hit header only if the response was cached.")
+    void createCachedResponse(
+            @ForAll("conclusionExpectedStatus") Map.Entry<JobRunConclusionResponse, Response.Status>
+                    givenConclusionExpectedStatus,
+            @ForAll Long givenExitCode,
+            @ForAll String givenMessage,
+            @ForAll boolean givenCached) {
+        JobRunResponse jobRunResponse = new JobRunResponse(
+                givenConclusionExpectedStatus.getKey(), JobOutput.empty(), givenExitCode, givenMessage, givenCached);
+
+        Response textResponse = responseCreator.createResponseFrom(jobRunResponse);
+        Response jsonResponse = responseCreator.createJsonResponseFrom(jobRunResponse);
+
+        String expectedHeader = givenCached ? "HIT" : null;
+        assertThat(textResponse.getHeaderString(ResponseCreator.CACHE_HEADER), is(expectedHeader));
+        assertThat(jsonResponse.getHeaderString(ResponseCreator.CACHE_HEADER), is(expectedHeader));
+    }
+
+    @Property
+    @Label("Given a running job run submission response, " +
+            "when creating a submitted web response from it, " +
+            "should have an accepted status, " +
+            "and the location should point to the submission, " +
+            "and the body should be the given submission response.")
+    void createAcceptedSubmittedResponse(@ForAll("submissionIds") String givenId) {
+        JobRunSubmissionResponse submissionResponse =
+                new JobRunSubmissionResponse(givenId, JobRunSubmissionStatusResponse.RUNNING, null);
+
+        Response response = responseCreator.createSubmittedResponseFrom(submissionResponse);
+
+        assertThat(response.getStatusInfo().toEnum(), is(Response.Status.ACCEPTED));
+        assertThat(response.getLocation().getPath(), is("/job/run/" + givenId));
+        assertThat(response.getEntity(), is(submissionResponse));
+    }
+
+    @Property
+    @Label("Given a finished job run submission response, " +
+            "when creating a submitted web response from it, " +
+            "should have the status of its result, " +
+            "and the body should be the given submission response.")
+    void createFinishedSubmittedResponse(
+            @ForAll("conclusionExpectedStatus") Map.Entry<JobRunConclusionResponse, Response.Status>
+                    givenConclusionExpectedStatus,
+            @ForAll Long givenExitCode,
+            @ForAll String givenMessage) {
+        JobRunResponse jobRunResponse =
+                new JobRunResponse(givenConclusionExpectedStatus.getKey(), JobOutput.empty(), givenExitCode, givenMessage);
+        JobRunSubmissionResponse submissionResponse =
+                new JobRunSubmissionResponse(null, JobRunSubmissionStatusResponse.FINISHED, jobRunResponse);
+
+        Response response = responseCreator.createSubmittedResponseFrom(submissionResponse);
+
+        assertThat(response.getStatusInfo().toEnum(), is(givenConclusionExpectedStatus.getValue()));
+        assertThat(response.getEntity(), is(submissionResponse));
+    }
+
+    @Property
+    @Label("Given a job run submission response, " +
+            "when creating a submission status web response from it, " +
+            "should have an ok status, " +
+            "and the body should be the given submission response.")
+    void createSubmissionStatusResponse(
+            @ForAll("submissionIds") String givenId,
+            @ForAll JobRunSubmissionStatusResponse givenStatus) {
+        JobRunSubmissionResponse submissionResponse =
+                new JobRunSubmissionResponse(givenId, givenStatus, null);
+
+        Response response = responseCreator.createSubmissionStatusResponseFrom(submissionResponse);
+
+        assertThat(response.getStatusInfo().toEnum(), is(Response.Status.OK));
+        assertThat(response.getEntity(), is(submissionResponse));
+    }
+
+    @Provide
+    Arbitrary<String> submissionIds() {
+        return Arbitraries.strings().alpha().numeric().withChars('-').ofMinLength(1);
     }
 
     @Provide
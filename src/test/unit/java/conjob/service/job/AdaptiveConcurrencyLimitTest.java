@@ -0,0 +1,168 @@
+package conjob.service.job;
+
+import conjob.config.JobConfig;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class AdaptiveConcurrencyLimitTest {
+    private static final RunJobRequester REQUESTER = new RunJobRequester(RunJobLimiter.DEFAULT_PRIORITY_CLASS);
+    private static final Duration FAST = Duration.ofMillis(10);
+    private static final Duration SLOW = Duration.ofSeconds(5);
+
+    @Property
+    @Label("Given an adaptive limit of 1 - 20, " +
+            "and every run it allows is running, " +
+            "when twice the limit's worth of containers are created fast, " +
+            "then the limit should grow by one or two, " +
+            "and that many more runs should be allowed.")
+    void growsWhenFast(@ForAll @IntRange(min = 1, max = 20) int givenInitialLimit) {
+        AdaptiveConcurrencyLimit limit = adaptiveLimit(1, givenInitialLimit, 100);
+        int acquired = acquireAll(limit);
+
+        for (int i = 0; i < givenInitialLimit * 2; i++) {
+            limit.onJobCreated(REQUESTER, FAST);
+        }
+
+        assertThat(acquired, is(givenInitialLimit));
+        assertThat(limit.getLimit(), is(both(greaterThan((long) givenInitialLimit))
+                .and(lessThanOrEqualTo(givenInitialLimit + 2L))));
+        assertThat(acquireAll(limit), is((int) (limit.getLimit() - givenInitialLimit)));
+    }
+
+    @Property
+    @Label("Given an adaptive limit, " +
+            "and less than half of it in use, " +
+            "when containers are created fast, " +
+            "then the limit shouldn't grow.")
+    void doesntGrowWhenIdle(
+            @ForAll @IntRange(min = 2, max = 20) int givenInitialLimit,
+            @ForAll @IntRange(max = 100) int givenCreations) {
+        AdaptiveConcurrencyLimit limit = adaptiveLimit(1, givenInitialLimit, 100);
+        for (int i = 0; i < (givenInitialLimit - 1) / 2; i++) {
+            limit.tryAcquire(REQUESTER);
+        }
+
+        for (int i = 0; i < givenCreations; i++) {
+            limit.onJobCreated(REQUESTER, FAST);
+        }
+
+        assertThat(limit.getLimit(), is((long) givenInitialLimit));
+    }
+
+    @Test
+    @DisplayName("Given an adaptive limit of 20, " +
+            "when a container is created slowly, " +
+            "then the limit should be cut to the backoff percent, " +
+            "and further slow creations shouldn't cut it again, " +
+            "until a limit's worth of containers have been created since.")
+    void cutsOncePerLimitOfRuns() {
+        AdaptiveConcurrencyLimit limit = adaptiveLimit(1, 20, 100);
+
+        limit.onJobCreated(REQUESTER, SLOW);
+        long afterFirstCut = limit.getLimit();
+        for (int i = 0; i < 17; i++) {
+            limit.onJobCreated(REQUESTER, SLOW);
+        }
+        long withinWindow = limit.getLimit();
+        limit.onJobCreated(REQUESTER, SLOW);
+        long afterWindow = limit.getLimit();
+
+        assertThat(afterFirstCut, is(18L));
+        assertThat(withinWindow, is(18L));
+        assertThat(afterWindow, is(16L));
+    }
+
+    @Test
+    @DisplayName("Given an adaptive limit, " +
+            "when a run is overloaded, " +
+            "then the limit should be cut.")
+    void cutsWhenOverloaded() {
+        AdaptiveConcurrencyLimit limit = adaptiveLimit(1, 10, 100);
+
+        limit.onJobOverloaded(REQUESTER);
+
+        assertThat(limit.getLimit(), is(9L));
+    }
+
+    @Property
+    @Label("Given an adaptive limit between a min and max, " +
+            "when containers are created fast or slowly, " +
+            "or runs are overloaded, " +
+            "then the limit should stay within the min and max, " +
+            "and no more runs than it should be allowed.")
+    void staysWithinBounds(
+            @ForAll @IntRange(min = 1, max = 10) int givenMin,
+            @ForAll @IntRange(min = 1, max = 20) int givenMaxOverMin,
+            @ForAll @IntRange(min = 1, max = 40) int givenInitialLimit,
+            @ForAll @Size(max = 200) List<@From("events") Event> givenEvents) {
+        long max = givenMin + givenMaxOverMin;
+        AdaptiveConcurrencyLimit limit = adaptiveLimit(givenMin, givenInitialLimit, max);
+        acquireAll(limit);
+
+        for (Event event : givenEvents) {
+            event.apply(limit);
+            assertThat(limit.getLimit(), is(both(greaterThanOrEqualTo((long) givenMin))
+                    .and(lessThanOrEqualTo(max))));
+        }
+        for (int i = 0; i < max; i++) {
+            limit.onJobComplete(REQUESTER);
+        }
+
+        assertThat((long) acquireAll(limit), is(limit.getLimit()));
+    }
+
+    @Provide
+    Arbitrary<Event> events() {
+        return Arbitraries.of(Event.class);
+    }
+
+    enum Event {
+        FAST_CREATION, SLOW_CREATION, OVERLOADED, COMPLETION;
+
+        void apply(AdaptiveConcurrencyLimit limit) {
+            switch (this) {
+                case FAST_CREATION:
+                    limit.tryAcquire(REQUESTER);
+                    limit.onJobCreated(REQUESTER, FAST);
+                    break;
+                case SLOW_CREATION:
+                    limit.onJobCreated(REQUESTER, SLOW);
+                    break;
+                case OVERLOADED:
+                    limit.onJobOverloaded(REQUESTER);
+                    break;
+                case COMPLETION:
+                    limit.onJobComplete(REQUESTER);
+                    break;
+            }
+        }
+    }
+
+    private static int acquireAll(AdaptiveConcurrencyLimit limit) {
+        int acquired = 0;
+        while (limit.tryAcquire(REQUESTER)) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    private static AdaptiveConcurrencyLimit adaptiveLimit(long min, long initial, long max) {
+        JobConfig.LimitConfig limitConfig = new JobConfig.LimitConfig();
+        limitConfig.setMaxConcurrentRuns(max);
+        JobConfig.AdaptiveLimitConfig adaptiveLimitConfig = new JobConfig.AdaptiveLimitConfig();
+        adaptiveLimitConfig.setEnabled(true);
+        adaptiveLimitConfig.setMinConcurrentRuns(min);
+        adaptiveLimitConfig.setInitialConcurrentRuns(initial);
+        return new AdaptiveConcurrencyLimit(limitConfig, adaptiveLimitConfig, Map.of());
+    }
+}
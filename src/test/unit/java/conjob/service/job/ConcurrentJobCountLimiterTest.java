@@ -4,17 +4,29 @@ import conjob.config.JobConfig;
 import conjob.service.job.ConcurrentJobCountLimiter;
 import net.jqwik.api.*;
 import net.jqwik.api.arbitraries.LongArbitrary;
+import net.jqwik.api.constraints.IntRange;
 import net.jqwik.api.stateful.Action;
 import net.jqwik.api.stateful.ActionSequence;
 import net.jqwik.api.stateful.ActionSequenceArbitrary;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 class ConcurrentJobCountLimiterTest {
+    private static final RunJobRequester REQUESTER = new RunJobRequester(RunJobLimiter.DEFAULT_PRIORITY_CLASS);
 
     @Property
     @Label("Given job count limiter, " +
@@ -22,7 +34,7 @@ class ConcurrentJobCountLimiterTest {
             "when checking if it's at the limit, " +
             "then it should always be false.")
     void noLimit(@ForAll("noLimit") ConcurrentJobCountLimiter jobCountLimiter) {
-        assertThat(jobCountLimiter.isAtLimit(), is(false));
+        assertThat(jobCountLimiter.tryAcquire(REQUESTER), is(true));
     }
 
     @Test
@@ -35,9 +47,9 @@ class ConcurrentJobCountLimiterTest {
         JobConfig.LimitConfig noRunsAllowedConfig =
                 new JobConfig.LimitConfig(max, 0L, max, max);
 
-        boolean atLimit = new ConcurrentJobCountLimiter(noRunsAllowedConfig).isAtLimit();
+        boolean acquired = new ConcurrentJobCountLimiter(noRunsAllowedConfig).tryAcquire(REQUESTER);
 
-        assertThat(atLimit, is(true));
+        assertThat(acquired, is(false));
     }
 
 
@@ -46,18 +58,127 @@ class ConcurrentJobCountLimiterTest {
             "and a max allowed runs of less than 100, " +
             "when they are all run, " +
             "then they should be successful, " +
-            "and the running job count should never be less than 0.")
+            "and the running job count should never be less than 0, " +
+            "or more than the max allowed runs.")
     void validActions(
             @ForAll("actions") ActionSequence<ConcurrentJobCountLimiter> actions,
             @ForAll("reasonablyLowLimiter") ConcurrentJobCountLimiter limiter) {
         actions
-                .withInvariant((ConcurrentJobCountLimiter l) ->
-                        assertThat(
-                                l.getCurrentlyRunningJobsCount(),
-                                greaterThanOrEqualTo(0)))
+                .withInvariant((ConcurrentJobCountLimiter l) -> {
+                    assertThat(l.getCurrentlyRunningJobsCount(), greaterThanOrEqualTo(0));
+                    assertThat((long) l.getCurrentlyRunningJobsCount(),
+                            lessThanOrEqualTo(l.getLimitConfig().getMaxConcurrentRuns()));
+                })
                 .run(limiter);
     }
 
+    @Property
+    @Label("Given job count limiter, " +
+            "and runs reserved for a class, " +
+            "when other classes run as much as they can, " +
+            "then they should leave the reserved runs, " +
+            "and the class should still be able to use them.")
+    void reservedRuns(
+            @ForAll @IntRange(min = 1, max = 20) int givenMaxConcurrentRuns,
+            @ForAll @IntRange(min = 1, max = 20) int givenReservedRuns) {
+        Assume.that(givenReservedRuns <= givenMaxConcurrentRuns);
+        RunJobRequester reserved = new RunJobRequester("reserved");
+        RunJobRequester other = new RunJobRequester("other");
+        Long max = Long.MAX_VALUE;
+        ConcurrentJobCountLimiter limiter = new ConcurrentJobCountLimiter(
+                new JobConfig.LimitConfig(max, (long) givenMaxConcurrentRuns, max, max),
+                Map.of("reserved", (long) givenReservedRuns));
+
+        int otherRuns = 0;
+        while (limiter.tryAcquire(other)) {
+            otherRuns++;
+        }
+        int reservedRuns = 0;
+        while (limiter.tryAcquire(reserved)) {
+            reservedRuns++;
+        }
+
+        assertThat(otherRuns, is(givenMaxConcurrentRuns - givenReservedRuns));
+        assertThat(reservedRuns, is(givenReservedRuns));
+    }
+
+    @Property
+    @Label("Given job count limiter, " +
+            "and runs reserved for a class, " +
+            "when the class runs past its reservation, " +
+            "then it should only use the runs nobody reserved, " +
+            "and leave the other classes' reservations.")
+    void reservedRunsExceeded(
+            @ForAll @IntRange(min = 0, max = 10) int givenOwnReservedRuns,
+            @ForAll @IntRange(min = 1, max = 10) int givenOtherReservedRuns,
+            @ForAll @IntRange(min = 0, max = 10) int givenUnreservedRuns) {
+        RunJobRequester own = new RunJobRequester("own");
+        RunJobRequester other = new RunJobRequester("other");
+        Long max = Long.MAX_VALUE;
+        long maxConcurrentRuns = givenOwnReservedRuns + givenOtherReservedRuns + givenUnreservedRuns;
+        ConcurrentJobCountLimiter limiter = new ConcurrentJobCountLimiter(
+                new JobConfig.LimitConfig(max, maxConcurrentRuns, max, max),
+                Map.of("own", (long) givenOwnReservedRuns, "other", (long) givenOtherReservedRuns));
+
+        int ownRuns = 0;
+        while (limiter.tryAcquire(own)) {
+            ownRuns++;
+        }
+
+        assertThat(ownRuns, is(givenOwnReservedRuns + givenUnreservedRuns));
+        assertThat(limiter.tryAcquire(other), is(true));
+    }
+
+    @Property(tries = 10)
+    @Label("Given job count limiter, " +
+            "and runs reserved for a class, " +
+            "when many threads try to run at once, " +
+            "then no more runs than allowed should get through, " +
+            "and every class should get at least its reservation.")
+    void concurrentAcquire(
+            @ForAll @IntRange(min = 1, max = 8) int givenMaxConcurrentRuns,
+            @ForAll @IntRange(min = 0, max = 4) int givenReservedRuns) throws Exception {
+        Assume.that(givenReservedRuns <= givenMaxConcurrentRuns);
+        RunJobRequester reserved = new RunJobRequester("reserved");
+        RunJobRequester other = new RunJobRequester("other");
+        Long max = Long.MAX_VALUE;
+        ConcurrentJobCountLimiter limiter = new ConcurrentJobCountLimiter(
+                new JobConfig.LimitConfig(max, (long) givenMaxConcurrentRuns, max, max),
+                Map.of("reserved", (long) givenReservedRuns));
+        int threads = 8;
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> acquired = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                RunJobRequester requester = i % 2 == 0 ? reserved : other;
+                acquired.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int j = 0; j < givenMaxConcurrentRuns; j++) {
+                        if (limiter.tryAcquire(requester)) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }));
+            }
+            int reservedAcquired = 0;
+            int totalAcquired = 0;
+            for (int i = 0; i < threads; i++) {
+                int count = acquired.get(i).get(5, TimeUnit.SECONDS);
+                totalAcquired += count;
+                reservedAcquired += i % 2 == 0 ? count : 0;
+            }
+
+            assertThat(totalAcquired, is(givenMaxConcurrentRuns));
+            assertThat(limiter.getCurrentlyRunningJobsCount(), is(givenMaxConcurrentRuns));
+            assertThat(reservedAcquired, greaterThanOrEqualTo(givenReservedRuns));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Provide
     ActionSequenceArbitrary<ConcurrentJobCountLimiter> actions() {
         return Arbitraries.sequences(Arbitraries.of(
@@ -85,11 +206,17 @@ class ConcurrentJobCountLimiterTest {
     }
 
     static class CountRunAction implements Action<ConcurrentJobCountLimiter> {
+        @Override
+        public boolean precondition(ConcurrentJobCountLimiter limiter) {
+            return limiter.getCurrentlyRunningJobsCount() < limiter.getLimitConfig().getMaxConcurrentRuns();
+        }
+
         @Override
         public ConcurrentJobCountLimiter run(ConcurrentJobCountLimiter limiter) {
             int originalCount = limiter.getCurrentlyRunningJobsCount();
-            limiter.countRun();
+            boolean acquired = limiter.tryAcquire(REQUESTER);
             int currentCount = limiter.getCurrentlyRunningJobsCount();
+            assertThat(acquired, is(true));
             assertThat(currentCount, is(originalCount + 1));
             return limiter;
         }
@@ -98,15 +225,14 @@ class ConcurrentJobCountLimiterTest {
     static class CountRunOverMaxAction implements Action<ConcurrentJobCountLimiter> {
         @Override
         public ConcurrentJobCountLimiter run(ConcurrentJobCountLimiter limiter) {
-            int originalCount = limiter.getCurrentlyRunningJobsCount();
             Long maxConcurrentRuns = limiter.getLimitConfig().getMaxConcurrentRuns();
-            for (int i = 0; i < maxConcurrentRuns; i++) {
-                limiter.countRun();
+            while (limiter.getCurrentlyRunningJobsCount() < maxConcurrentRuns) {
+                assertThat(limiter.tryAcquire(REQUESTER), is(true));
             }
-            boolean atLimit = limiter.isAtLimit();
+            boolean acquired = limiter.tryAcquire(REQUESTER);
             long currentCount = limiter.getCurrentlyRunningJobsCount();
-            assertThat(currentCount, is(originalCount + maxConcurrentRuns));
-            assertThat(atLimit, is(true));
+            assertThat(currentCount, is(maxConcurrentRuns));
+            assertThat(acquired, is(false));
             return limiter;
         }
     }
@@ -120,7 +246,7 @@ class ConcurrentJobCountLimiterTest {
         @Override
         public ConcurrentJobCountLimiter run(ConcurrentJobCountLimiter limiter) {
             int originalCount = limiter.getCurrentlyRunningJobsCount();
-            limiter.onJobComplete();
+            limiter.onJobComplete(REQUESTER);
             int currentCount = limiter.getCurrentlyRunningJobsCount();
             assertThat(currentCount, is(originalCount - 1));
             return limiter;
@@ -136,7 +262,7 @@ class ConcurrentJobCountLimiterTest {
         @Override
         public ConcurrentJobCountLimiter run(ConcurrentJobCountLimiter limiter) {
             int originalCount = limiter.getCurrentlyRunningJobsCount();
-            limiter.onJobComplete();
+            limiter.onJobComplete(REQUESTER);
             int currentCount = limiter.getCurrentlyRunningJobsCount();
             assertThat(currentCount, is(originalCount));
             return limiter;
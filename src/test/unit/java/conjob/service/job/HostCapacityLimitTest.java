@@ -0,0 +1,142 @@
+package conjob.service.job;
+
+import conjob.config.JobConfig;
+import conjob.core.host.HostCapacity;
+import conjob.core.host.HostCapacityReader;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+class HostCapacityLimitTest {
+    private static final RunJobRequester REQUESTER = new RunJobRequester(RunJobLimiter.DEFAULT_PRIORITY_CLASS);
+
+    @Property
+    @Label("Given a max load of 1 - 200 percent, " +
+            "when the last sample's load is at or over it, " +
+            "then runs should be refused, " +
+            "and when it's under, they should be allowed.")
+    void loadWatermark(
+            @ForAll @IntRange(min = 1, max = 200) int givenMaxLoadPercent,
+            @ForAll @IntRange(max = 400) int givenLoadPercent) throws IOException {
+        JobConfig.HostLimitConfig config = new JobConfig.HostLimitConfig();
+        config.setMaxLoadPercent((long) givenMaxLoadPercent);
+        HostCapacityLimit limit = sampled(config, new HostCapacity(givenLoadPercent / 100.0, 1, 1));
+
+        assertThat(limit.tryAcquire(REQUESTER), is(givenLoadPercent < givenMaxLoadPercent));
+    }
+
+    @Property
+    @Label("Given a max load of 1 - 200 percent, " +
+            "when the last sample's load is exactly at it, " +
+            "then runs should be refused.")
+    void loadAtWatermark(@ForAll @IntRange(min = 1, max = 200) int givenMaxLoadPercent) throws IOException {
+        JobConfig.HostLimitConfig config = new JobConfig.HostLimitConfig();
+        config.setMaxLoadPercent((long) givenMaxLoadPercent);
+        HostCapacityLimit limit = sampled(config, new HostCapacity(givenMaxLoadPercent / 100.0, 1, 1));
+
+        assertThat(limit.tryAcquire(REQUESTER), is(false));
+    }
+
+    @Property
+    @Label("Given a min free memory and disk of 1 - 99 percent, " +
+            "when the last sample has less of either free, " +
+            "then runs should be refused.")
+    void freeWatermarks(
+            @ForAll @IntRange(min = 1, max = 99) int givenMinFreePercent,
+            @ForAll @IntRange(max = 100) int givenFreeMemoryPercent,
+            @ForAll @IntRange(max = 100) int givenFreeDiskPercent) throws IOException {
+        JobConfig.HostLimitConfig config = new JobConfig.HostLimitConfig();
+        config.setMinFreeMemoryPercent((long) givenMinFreePercent);
+        config.setMinFreeDiskPercent((long) givenMinFreePercent);
+        HostCapacityLimit limit = sampled(
+                config, new HostCapacity(0, givenFreeMemoryPercent / 100.0, givenFreeDiskPercent / 100.0));
+
+        boolean allowed = limit.tryAcquire(REQUESTER);
+
+        assertThat(allowed,
+                is(givenFreeMemoryPercent >= givenMinFreePercent && givenFreeDiskPercent >= givenMinFreePercent));
+    }
+
+    @Property
+    @Label("Given a max of 1 - 20 runs per sample, " +
+            "when more runs than that try to start on one sample, " +
+            "then the runs over should be refused, " +
+            "until a released run or the next sample makes room.")
+    void runsPerSample(@ForAll @IntRange(min = 1, max = 20) int givenMaxRunsPerSample) throws IOException {
+        JobConfig.HostLimitConfig config = new JobConfig.HostLimitConfig();
+        config.setMaxLoadPercent(100L);
+        config.setMaxRunsPerSample((long) givenMaxRunsPerSample);
+        HostCapacityLimit limit = sampled(config, new HostCapacity(0, 1, 1));
+
+        for (int i = 0; i < givenMaxRunsPerSample; i++) {
+            assertThat(limit.tryAcquire(REQUESTER), is(true));
+        }
+        boolean overSample = limit.tryAcquire(REQUESTER);
+        limit.release(REQUESTER);
+        boolean afterRelease = limit.tryAcquire(REQUESTER);
+        boolean overAgain = limit.tryAcquire(REQUESTER);
+        limit.sample();
+        boolean nextSample = limit.tryAcquire(REQUESTER);
+
+        assertThat(overSample, is(false));
+        assertThat(afterRelease, is(true));
+        assertThat(overAgain, is(false));
+        assertThat(nextSample, is(true));
+    }
+
+    @Test
+    @DisplayName("Given a host that can't be read, " +
+            "when sampling it, " +
+            "then runs should be allowed, " +
+            "and they should be limited again once it can be read.")
+    void unreadableHost() throws IOException {
+        JobConfig.HostLimitConfig config = new JobConfig.HostLimitConfig();
+        config.setMaxLoadPercent(100L);
+        HostCapacityReader reader = mock(HostCapacityReader.class);
+        when(reader.read())
+                .thenThrow(new IOException("no /proc"))
+                .thenReturn(new HostCapacity(2, 1, 1));
+        HostCapacityLimit limit = new HostCapacityLimit(config, reader);
+
+        limit.sample();
+        boolean whileUnreadable = limit.tryAcquire(REQUESTER);
+        limit.sample();
+        boolean whileOverloaded = limit.tryAcquire(REQUESTER);
+
+        assertThat(whileUnreadable, is(true));
+        assertThat(whileOverloaded, is(false));
+    }
+
+    @Test
+    @DisplayName("Given no watermarks, " +
+            "when sampling, " +
+            "then the host shouldn't be read, " +
+            "and runs should be allowed.")
+    void noWatermarks() throws IOException {
+        HostCapacityReader reader = mock(HostCapacityReader.class);
+        HostCapacityLimit limit = new HostCapacityLimit(new JobConfig.HostLimitConfig(), reader);
+
+        limit.sample();
+
+        assertThat(limit.tryAcquire(REQUESTER), is(true));
+        verifyNoInteractions(reader);
+    }
+
+    private static HostCapacityLimit sampled(JobConfig.HostLimitConfig config, HostCapacity capacity)
+            throws IOException {
+        HostCapacityReader reader = mock(HostCapacityReader.class);
+        when(reader.read()).thenReturn(capacity);
+        HostCapacityLimit limit = new HostCapacityLimit(config, reader);
+        limit.sample();
+        return limit;
+    }
+}
@@ -0,0 +1,134 @@
+package conjob.service.job;
+
+import conjob.core.job.model.JobRun;
+import conjob.core.job.model.JobRunConclusion;
+import conjob.core.job.output.JobOutput;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.constraints.Size;
+import net.jqwik.api.constraints.UseType;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JobResultCacheTest {
+    @Property
+    @Label("Given a job run that concluded on its own, " +
+            "when caching it, " +
+            "should find it by the same key, " +
+            "and it should have the same result, " +
+            "and be marked as cached.")
+    void put(
+            @ForAll @UseType JobResultKey givenKey,
+            @ForAll("concludedOnItsOwn") JobRunConclusion givenConclusion,
+            @ForAll byte[] givenOutput,
+            @ForAll long givenExitCode) throws IOException {
+        JobResultCache cache = new JobResultCache(Long.MAX_VALUE, Duration.ofHours(1));
+
+        cache.put(givenKey, new JobRun(givenConclusion, JobOutput.of(givenOutput), givenExitCode));
+        JobRun cached = cache.find(givenKey).orElseThrow();
+
+        assertThat(cached.getConclusion(), is(givenConclusion));
+        assertThat(cached.getOutput().open().readAllBytes(), is(givenOutput));
+        assertThat(cached.getExitCode(), is(givenExitCode));
+        assertThat(cached.isCached(), is(true));
+    }
+
+    @Property
+    @Label("Given a job run that didn't conclude on its own, " +
+            "when caching it, " +
+            "should not be found.")
+    void putNotConcluded(
+            @ForAll @UseType JobResultKey givenKey,
+            @ForAll("notConcludedOnItsOwn") JobRunConclusion givenConclusion) throws IOException {
+        JobResultCache cache = new JobResultCache(Long.MAX_VALUE, Duration.ofHours(1));
+
+        cache.put(givenKey, new JobRun(givenConclusion, JobOutput.empty(), -1));
+
+        assertThat(cache.find(givenKey), is(Optional.empty()));
+    }
+
+    @Property
+    @Label("Given a cached job run, " +
+            "when finding it after its TTL, " +
+            "or after evicting expired results, " +
+            "should not be found.")
+    void expire(
+            @ForAll @UseType JobResultKey givenKey,
+            @ForAll @LongRange(min = 1, max = 100_000) long givenTtlSeconds,
+            @ForAll boolean givenEvict) throws IOException {
+        Clock mockClock = mock(Clock.class);
+        Instant storedAt = Instant.now();
+        when(mockClock.instant()).thenReturn(storedAt);
+        JobResultCache cache = new JobResultCache(Long.MAX_VALUE, Duration.ofSeconds(givenTtlSeconds), mockClock);
+        cache.put(givenKey, new JobRun(JobRunConclusion.SUCCESS, JobOutput.empty(), 0));
+
+        when(mockClock.instant()).thenReturn(storedAt.plusSeconds(givenTtlSeconds - 1));
+        boolean foundBeforeTtl = cache.find(givenKey).isPresent();
+        when(mockClock.instant()).thenReturn(storedAt.plusSeconds(givenTtlSeconds));
+        if (givenEvict) {
+            cache.evictExpired();
+        }
+
+        assertThat(foundBeforeTtl, is(true));
+        assertThat(cache.find(givenKey), is(Optional.empty()));
+    }
+
+    @Property
+    @Label("Given a cache that's full, " +
+            "when caching another result, " +
+            "should evict the least recently used result, " +
+            "and keep the rest.")
+    void evictLeastRecentlyUsed(
+            @ForAll @UseType JobResultKey givenFirstKey,
+            @ForAll @UseType JobResultKey givenSecondKey,
+            @ForAll @UseType JobResultKey givenThirdKey,
+            @ForAll @Size(min = 1, max = 64) byte[] givenOutput) throws IOException {
+        Assume.that(!givenFirstKey.equals(givenSecondKey)
+                && !givenFirstKey.equals(givenThirdKey)
+                && !givenSecondKey.equals(givenThirdKey));
+        JobResultCache cache = new JobResultCache(givenOutput.length * 2L, Duration.ofHours(1));
+        JobRun jobRun = new JobRun(JobRunConclusion.SUCCESS, JobOutput.of(givenOutput), 0);
+        cache.put(givenFirstKey, jobRun);
+        cache.put(givenSecondKey, jobRun);
+
+        cache.find(givenFirstKey);
+        cache.put(givenThirdKey, jobRun);
+
+        assertThat(cache.find(givenFirstKey).isPresent(), is(true));
+        assertThat(cache.find(givenSecondKey), is(Optional.empty()));
+        assertThat(cache.find(givenThirdKey).isPresent(), is(true));
+    }
+
+    @Property
+    @Label("Given a job run with more output than the whole cache holds, " +
+            "when caching it, " +
+            "should not be found.")
+    void putTooBig(
+            @ForAll @UseType JobResultKey givenKey,
+            @ForAll @Size(min = 1, max = 64) byte[] givenOutput) throws IOException {
+        JobResultCache cache = new JobResultCache(givenOutput.length - 1, Duration.ofHours(1));
+
+        cache.put(givenKey, new JobRun(JobRunConclusion.SUCCESS, JobOutput.of(givenOutput), 0));
+
+        assertThat(cache.find(givenKey), is(Optional.empty()));
+    }
+
+    @Provide
+    Arbitrary<JobRunConclusion> concludedOnItsOwn() {
+        return Arbitraries.of(JobRunConclusion.SUCCESS, JobRunConclusion.FAILURE);
+    }
+
+    @Provide
+    Arbitrary<JobRunConclusion> notConcludedOnItsOwn() {
+        return Arbitraries.of(JobRunConclusion.TIMED_OUT, JobRunConclusion.NOT_FOUND, JobRunConclusion.REJECTED);
+    }
+}
@@ -0,0 +1,157 @@
+package conjob.service.job;
+
+import conjob.core.job.model.JobRun;
+import conjob.core.job.model.JobRunConclusion;
+import conjob.core.job.model.JobRunSubmission;
+import conjob.core.job.model.JobRunSubmissionStatus;
+import conjob.core.job.output.JobOutput;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.constraints.UseType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.*;
+
+class JobRunSubmissionStoreTest {
+    @Test
+    @DisplayName("Given a submission store, " +
+            "when creating a submission, " +
+            "should return a running submission, " +
+            "and it should be findable by its id.")
+    void create() {
+        JobRunSubmissionStore store = new JobRunSubmissionStore();
+
+        JobRunSubmission submission = store.create();
+
+        assertThat(submission.getStatus(), is(JobRunSubmissionStatus.RUNNING));
+        assertThat(store.find(submission.getId()), is(Optional.of(submission)));
+    }
+
+    @Test
+    @DisplayName("Given a submission store, " +
+            "when creating two submissions, " +
+            "should give them different ids.")
+    void createUnique() {
+        JobRunSubmissionStore store = new JobRunSubmissionStore();
+
+        assertThat(store.create().getId(), is(not(store.create().getId())));
+    }
+
+    @Property
+    @Label("Given a created submission, " +
+            "when finishing it with a job run, " +
+            "should be found as finished with that job run.")
+    void finish(@ForAll @UseType JobRun givenJobRun) {
+        JobRunSubmissionStore store = new JobRunSubmissionStore();
+        String id = store.create().getId();
+
+        store.finish(id, givenJobRun);
+
+        assertThat(store.find(id),
+                is(Optional.of(new JobRunSubmission(id, JobRunSubmissionStatus.FINISHED, givenJobRun))));
+    }
+
+    @Property
+    @Label("Given a created submission, " +
+            "when finishing it with a job run, " +
+            "should retain the run's output.")
+    void finishRetainsOutput(@ForAll JobRunConclusion givenConclusion, @ForAll long givenExitCode)
+            throws IOException {
+        JobOutput outputMock = mock(JobOutput.class);
+        JobRunSubmissionStore store = new JobRunSubmissionStore();
+        String id = store.create().getId();
+
+        store.finish(id, new JobRun(givenConclusion, outputMock, givenExitCode));
+
+        verify(outputMock).retain();
+        verify(outputMock, never()).close();
+    }
+
+    @Property
+    @Label("Given a created submission, " +
+            "and retaining the run's output throws an exception, " +
+            "when finishing it with the job run, " +
+            "should still be found as finished with that job run.")
+    void finishRetainException(@ForAll JobRunConclusion givenConclusion, @ForAll long givenExitCode)
+            throws IOException {
+        JobOutput outputMock = mock(JobOutput.class);
+        doThrow(new IOException()).when(outputMock).retain();
+        JobRun givenJobRun = new JobRun(givenConclusion, outputMock, givenExitCode);
+        JobRunSubmissionStore store = new JobRunSubmissionStore();
+        String id = store.create().getId();
+
+        store.finish(id, givenJobRun);
+
+        assertThat(store.find(id),
+                is(Optional.of(new JobRunSubmission(id, JobRunSubmissionStatus.FINISHED, givenJobRun))));
+    }
+
+    @Property
+    @Label("Given an unknown id, " +
+            "when finding it, " +
+            "should return empty.")
+    void findUnknown(@ForAll String givenId) {
+        assertThat(new JobRunSubmissionStore().find(givenId), is(Optional.empty()));
+    }
+
+    @Property
+    @Label("Given a finished submission, " +
+            "and a running submission, " +
+            "when evicting after the retention has passed, " +
+            "should evict only the finished submission, " +
+            "and close its output.")
+    void evictFinished(
+            @ForAll JobRunConclusion givenConclusion,
+            @ForAll long givenExitCode,
+            @ForAll @LongRange(min = 1, max = 100_000) long givenRetentionSeconds) {
+        JobOutput outputMock = mock(JobOutput.class);
+        JobRun givenJobRun = new JobRun(givenConclusion, outputMock, givenExitCode);
+        Clock mockClock = mock(Clock.class);
+        Instant finishedAt = Instant.now();
+        when(mockClock.instant()).thenReturn(finishedAt);
+        JobRunSubmissionStore store = new JobRunSubmissionStore(mockClock);
+        String finishedId = store.create().getId();
+        String runningId = store.create().getId();
+        store.finish(finishedId, givenJobRun);
+
+        when(mockClock.instant()).thenReturn(finishedAt.plusSeconds(givenRetentionSeconds + 1));
+        store.evictFinishedOlderThan(Duration.ofSeconds(givenRetentionSeconds));
+
+        assertThat(store.find(finishedId), is(Optional.empty()));
+        assertThat(store.find(runningId).isPresent(), is(true));
+        verify(outputMock).close();
+    }
+
+    @Property
+    @Label("Given a finished submission, " +
+            "when evicting before the retention has passed, " +
+            "should keep the submission, " +
+            "and leave its output open.")
+    void evictRetained(
+            @ForAll JobRunConclusion givenConclusion,
+            @ForAll long givenExitCode,
+            @ForAll @LongRange(min = 1, max = 100_000) long givenRetentionSeconds) {
+        JobOutput outputMock = mock(JobOutput.class);
+        JobRun givenJobRun = new JobRun(givenConclusion, outputMock, givenExitCode);
+        Clock fixedClock = Clock.fixed(Instant.now(), ZoneOffset.UTC);
+        JobRunSubmissionStore store = new JobRunSubmissionStore(fixedClock);
+        String id = store.create().getId();
+        store.finish(id, givenJobRun);
+
+        store.evictFinishedOlderThan(Duration.ofSeconds(givenRetentionSeconds));
+
+        assertThat(store.find(id).isPresent(), is(true));
+        verify(outputMock, never()).close();
+    }
+}
@@ -1,40 +1,73 @@
 package conjob.service.job;
 
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.messages.ContainerCreation;
 import conjob.config.JobConfig;
 import conjob.core.job.*;
 import conjob.core.job.config.ConfigUtil;
 import conjob.core.job.exception.CreateJobRunException;
 import conjob.core.job.exception.JobRunException;
 import conjob.core.job.exception.JobUpdateException;
+import conjob.core.job.model.CreatedJobRun;
 import conjob.core.job.model.JobRun;
 import conjob.core.job.model.JobRunConclusion;
 import conjob.core.job.model.JobRunConfig;
 import conjob.core.job.model.JobRunOutcome;
+import conjob.core.job.model.JobRunSubmission;
+import conjob.core.job.model.JobRunSubmissionStatus;
+import conjob.core.job.exception.InputTooLargeException;
+import conjob.core.job.input.JobInputSpool;
+import conjob.core.job.output.JobOutput;
+import conjob.core.job.output.JobOutputSink;
 import conjob.core.secrets.SecretsStore;
 import conjob.core.secrets.SecretsStoreException;
 import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+import net.jqwik.api.constraints.StringLength;
 import net.jqwik.api.constraints.UseType;
 import net.jqwik.api.lifecycle.BeforeTry;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collector;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class JobServiceTest {
+    private static final RunJobRequester REQUESTER = new RunJobRequester("interactive");
+    private static final long MAX_INPUT_FILE_BYTES = 1024;
     private RunJobLimiter mockRunJobLimiter;
     private SecretsStore mockSecretsStore;
     private JobRunCreationStrategyDeterminer mockCreationStrategyDeterminer;
     private JobRunner mockJobRunner;
+    private ImagePuller mockImagePuller;
+    private DockerAdapter mockDockerAdapter;
     private JobRunConfigCreator mockJobRunConfigCreator;
     private OutcomeDeterminer mockOutcomeDeterminer;
     private ConfigUtil mockConfigUtil;
     private JobConfig.LimitConfig limitConfig;
+    private JobRunSubmissionStore jobRunSubmissionStore;
+    private ImageIdResolver mockImageIdResolver;
+    private DockerDaemonPool dockerDaemonPool;
+    private List<Runnable> handedOverRuns;
     private JobService jobService;
 
     @BeforeTry
@@ -44,18 +77,38 @@ class JobServiceTest {
         mockSecretsStore = mock(SecretsStore.class);
         mockCreationStrategyDeterminer = mock(JobRunCreationStrategyDeterminer.class);
         mockJobRunner = mock(JobRunner.class);
+        mockImagePuller = mock(ImagePuller.class);
+        mockDockerAdapter = mock(DockerAdapter.class);
         mockJobRunConfigCreator = mock(JobRunConfigCreator.class);
         mockOutcomeDeterminer = mock(OutcomeDeterminer.class);
         mockConfigUtil = mock(ConfigUtil.class);
+        jobRunSubmissionStore = new JobRunSubmissionStore();
+        handedOverRuns = new ArrayList<>();
+        mockImageIdResolver = mock(ImageIdResolver.class);
+        dockerDaemonPool = new DockerDaemonPool(List.of(new DockerDaemon(
+                "default",
+                mockDockerAdapter,
+                mock(LocalImageIndex.class),
+                mockImagePuller,
+                mockCreationStrategyDeterminer,
+                mockJobRunner,
+                1)), 3);
         jobService = new JobService(
                 mockRunJobLimiter,
                 limitConfig,
                 mockSecretsStore,
-                mockCreationStrategyDeterminer,
-                mockJobRunner,
+                dockerDaemonPool,
                 mockJobRunConfigCreator,
                 mockOutcomeDeterminer,
-                mockConfigUtil
+                mockConfigUtil,
+                jobRunSubmissionStore,
+                run -> {
+                    handedOverRuns.add(run);
+                    run.run();
+                },
+                new JobResultCache(Long.MAX_VALUE, Duration.ofHours(1)),
+                mockImageIdResolver,
+                new JobInputSpool(Path.of(System.getProperty("java.io.tmpdir")), MAX_INPUT_FILE_BYTES)
         );
     }
 
@@ -64,7 +117,9 @@ class JobServiceTest {
             "and the job concludes, " +
             "when the job is run, " +
             "should return a job run, " +
-            "and it's fields should be from the run's conclusion and outcome.")
+            "and it's fields should be from the run's conclusion and outcome, " +
+            "and the limiter should be told the run was created, " +
+            "and whether it timed out.")
     void jobRunSuccessful(@ForAll String imageName,
                           @ForAll String input,
                           @ForAll("pullStrategyNames") String givenPullStrategyName,
@@ -74,6 +129,7 @@ class JobServiceTest {
                           @ForAll @UseType JobRunOutcome givenJobRunOutcome,
                           @ForAll JobRunConclusion givenJobRunConclusion) throws SecretsStoreException, CreateJobRunException, JobUpdateException {
         boolean isLimiting = false;
+        Duration givenCreationLatency = Duration.ofMillis(5);
         long maxTimeoutSeconds = limitConfig.getMaxTimeoutSeconds();
         int maxKillTimeoutSeconds = Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds());
         PullStrategy pullStrategy = PullStrategy.valueOf(givenPullStrategyName.toUpperCase());
@@ -81,15 +137,229 @@ class JobServiceTest {
                 new JobRun(givenJobRunConclusion, givenJobRunOutcome.getOutput(), givenJobRunOutcome.getExitStatusCode());
         JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
         mockCommonCallChain(imageName, input, givenSecretsVolumeName, givenJobRunConfig, isLimiting, pullStrategy, mockJobRunCreationStrategy);
-        when(mockJobRunCreationStrategy.createJobRun(givenJobRunConfig)).thenReturn(givenJobId);
+        when(mockJobRunCreationStrategy.createJobRun(givenJobRunConfig))
+                .thenReturn(new CreatedJobRun(givenJobId, Optional.of(givenCreationLatency)));
         when(mockJobRunner.runContainer(givenJobId, maxTimeoutSeconds, maxKillTimeoutSeconds))
                 .thenReturn(givenJobRunOutcome);
         when(mockOutcomeDeterminer.determineOutcome(givenJobRunOutcome)).thenReturn(givenJobRunConclusion);
 
-        JobRun jobRun = jobService.runJob(imageName, input, givenPullStrategyName);
+        JobRun jobRun = jobService.runJob(imageName, input, givenPullStrategyName, REQUESTER);
+
+        assertThat(jobRun, is(expectedJobRun));
+        verify(mockRunJobLimiter, times(1)).markJobRunComplete(REQUESTER.withImage(imageName));
+        verify(mockRunJobLimiter, times(1)).markJobRunCreated(REQUESTER.withImage(imageName), givenCreationLatency);
+        verify(mockRunJobLimiter, times(givenJobRunConclusion == JobRunConclusion.TIMED_OUT ? 1 : 0))
+                .markJobRunOverloaded(REQUESTER.withImage(imageName));
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and the job concludes, " +
+            "when the job is run keeping only the tail of its output, " +
+            "should run the container keeping only that tail, " +
+            "and return a job run from the run's conclusion and outcome.")
+    void jobRunTail(@ForAll String imageName,
+                    @ForAll String input,
+                    @ForAll("pullStrategyNames") String givenPullStrategyName,
+                    @ForAll long givenTailBytes,
+                    @ForAll String givenSecretsVolumeName,
+                    @ForAll @UseType JobRunConfig givenJobRunConfig,
+                    @ForAll String givenJobId,
+                    @ForAll @UseType JobRunOutcome givenJobRunOutcome,
+                    @ForAll JobRunConclusion givenJobRunConclusion) throws SecretsStoreException, CreateJobRunException, JobUpdateException {
+        boolean isLimiting = false;
+        long maxTimeoutSeconds = limitConfig.getMaxTimeoutSeconds();
+        int maxKillTimeoutSeconds = Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds());
+        PullStrategy pullStrategy = PullStrategy.valueOf(givenPullStrategyName.toUpperCase());
+        JobRun expectedJobRun =
+                new JobRun(givenJobRunConclusion, givenJobRunOutcome.getOutput(), givenJobRunOutcome.getExitStatusCode());
+        JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
+        mockCommonCallChain(imageName, input, givenSecretsVolumeName, givenJobRunConfig, isLimiting, pullStrategy, mockJobRunCreationStrategy);
+        when(mockJobRunCreationStrategy.createJobRun(givenJobRunConfig)).thenReturn(new CreatedJobRun(givenJobId, Optional.empty()));
+        when(mockJobRunner.runContainer(givenJobId, maxTimeoutSeconds, maxKillTimeoutSeconds, givenTailBytes))
+                .thenReturn(givenJobRunOutcome);
+        when(mockOutcomeDeterminer.determineOutcome(givenJobRunOutcome)).thenReturn(givenJobRunConclusion);
+
+        JobRun jobRun = jobService.runJob(imageName, input, givenPullStrategyName, givenTailBytes, REQUESTER);
 
         assertThat(jobRun, is(expectedJobRun));
-        verify(mockRunJobLimiter, times(1)).markJobRunComplete();
+        verify(mockRunJobLimiter, times(1)).markJobRunComplete(REQUESTER.withImage(imageName));
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and the image's id is known, " +
+            "and the job concludes on its own, " +
+            "when the job is run with the cache twice, " +
+            "should run the container once, " +
+            "and answer the second time from the cache with the same result.")
+    void cachedJobRun(@ForAll String imageName,
+                      @ForAll String input,
+                      @ForAll("pullStrategyNames") String givenPullStrategyName,
+                      @ForAll String givenImageId,
+                      @ForAll String givenSecretsVolumeName,
+                      @ForAll @UseType JobRunConfig givenJobRunConfig,
+                      @ForAll String givenJobId,
+                      @ForAll @UseType JobRunOutcome givenJobRunOutcome,
+                      @ForAll("concludedOnItsOwn") JobRunConclusion givenJobRunConclusion) throws Exception {
+        long maxTimeoutSeconds = limitConfig.getMaxTimeoutSeconds();
+        int maxKillTimeoutSeconds = Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds());
+        PullStrategy pullStrategy = PullStrategy.valueOf(givenPullStrategyName.toUpperCase());
+        JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
+        mockCommonCallChain(imageName, input, givenSecretsVolumeName, givenJobRunConfig, false, pullStrategy, mockJobRunCreationStrategy);
+        when(mockImageIdResolver.findImageId(any(DockerDaemon.class), eq(imageName), eq(pullStrategy))).thenReturn(Optional.of(givenImageId));
+        when(mockJobRunCreationStrategy.createJobRun(givenJobRunConfig)).thenReturn(new CreatedJobRun(givenJobId, Optional.empty()));
+        when(mockJobRunner.runContainer(givenJobId, maxTimeoutSeconds, maxKillTimeoutSeconds))
+                .thenReturn(givenJobRunOutcome);
+        when(mockOutcomeDeterminer.determineOutcome(givenJobRunOutcome)).thenReturn(givenJobRunConclusion);
+
+        JobRun ranJobRun = jobService.runCachedJob(imageName, input, givenPullStrategyName, null, REQUESTER);
+        JobRun cachedJobRun = jobService.runCachedJob(imageName, input, givenPullStrategyName, null, REQUESTER);
+
+        assertThat(ranJobRun.isCached(), is(false));
+        assertThat(cachedJobRun.isCached(), is(true));
+        assertThat(cachedJobRun.getConclusion(), is(givenJobRunConclusion));
+        assertThat(cachedJobRun.getExitCode(), is(givenJobRunOutcome.getExitStatusCode()));
+        assertThat(cachedJobRun.getOutput().open().readAllBytes(),
+                is(givenJobRunOutcome.getOutput().open().readAllBytes()));
+        verify(mockJobRunner, times(1)).runContainer(givenJobId, maxTimeoutSeconds, maxKillTimeoutSeconds);
+        verify(mockRunJobLimiter, times(1)).isLimitingOrIncrement(REQUESTER.withImage(imageName));
+    }
+
+    @Example
+    @Label("Given two daemons with a different image under the same name, " +
+            "when the job is run with the cache, " +
+            "should cache its result under the id of the image on the daemon it ran on, " +
+            "and answer the second time from the cache.")
+    void cachedJobRunPlacedDaemon() throws Exception {
+        String imageName = "image";
+        JobRunConfig jobRunConfig = new JobRunConfig(imageName, null, null);
+        JobRunOutcome outcome = new JobRunOutcome(0L, JobOutput.empty());
+        when(mockRunJobLimiter.isLimitingOrIncrement(REQUESTER.withImage(imageName))).thenReturn(false);
+        when(mockConfigUtil.translateToVolumeName(imageName)).thenReturn(imageName);
+        when(mockSecretsStore.findSecrets(imageName)).thenReturn(Optional.empty());
+        when(mockJobRunConfigCreator.getContainerConfig(imageName, null, null)).thenReturn(jobRunConfig);
+        when(mockOutcomeDeterminer.determineOutcome(outcome)).thenReturn(JobRunConclusion.SUCCESS);
+        DockerDaemon busyDaemon = daemonWithImage("busy", imageName, "busyImageId", jobRunConfig, outcome);
+        DockerDaemon freeDaemon = daemonWithImage("free", imageName, "freeImageId", jobRunConfig, outcome);
+        DockerDaemonPool twoDaemonPool = new DockerDaemonPool(List.of(busyDaemon, freeDaemon), 3);
+        // Takes the busy daemon's only slot so the run is placed on the other one
+        assertThat(twoDaemonPool.place(imageName, false), is(Optional.of(busyDaemon)));
+        JobResultCache jobResultCache = new JobResultCache(Long.MAX_VALUE, Duration.ofHours(1));
+        JobService twoDaemonJobService = new JobService(
+                mockRunJobLimiter,
+                limitConfig,
+                mockSecretsStore,
+                twoDaemonPool,
+                mockJobRunConfigCreator,
+                mockOutcomeDeterminer,
+                mockConfigUtil,
+                jobRunSubmissionStore,
+                Runnable::run,
+                jobResultCache,
+                new ImageIdResolver(),
+                new JobInputSpool(Path.of(System.getProperty("java.io.tmpdir")), MAX_INPUT_FILE_BYTES)
+        );
+
+        JobRun ranJobRun = twoDaemonJobService.runCachedJob(imageName, null, PullStrategy.NEVER.name(), null, REQUESTER);
+        JobRun cachedJobRun =
+                twoDaemonJobService.runCachedJob(imageName, null, PullStrategy.NEVER.name(), null, REQUESTER);
+
+        assertThat(ranJobRun.isCached(), is(false));
+        assertThat(cachedJobRun.isCached(), is(true));
+        assertThat(jobResultCache.find(new JobResultKey("freeImageId", null, null, 0, null)).isPresent(), is(true));
+        assertThat(jobResultCache.find(new JobResultKey("busyImageId", null, null, 0, null)).isPresent(), is(false));
+        verify(freeDaemon.getJobRunner(), times(1)).runContainer(
+                "job", limitConfig.getMaxTimeoutSeconds(), Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds()));
+        verifyNoInteractions(busyDaemon.getJobRunner());
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and the image's id can't be known without pulling it, " +
+            "when the job is run with the cache twice, " +
+            "should run the container both times.")
+    void cachedJobRunUnknownImage(@ForAll String imageName,
+                                  @ForAll String input,
+                                  @ForAll("pullStrategyNames") String givenPullStrategyName,
+                                  @ForAll String givenSecretsVolumeName,
+                                  @ForAll @UseType JobRunConfig givenJobRunConfig,
+                                  @ForAll String givenJobId,
+                                  @ForAll @UseType JobRunOutcome givenJobRunOutcome) throws Exception {
+        long maxTimeoutSeconds = limitConfig.getMaxTimeoutSeconds();
+        int maxKillTimeoutSeconds = Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds());
+        PullStrategy pullStrategy = PullStrategy.valueOf(givenPullStrategyName.toUpperCase());
+        JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
+        mockCommonCallChain(imageName, input, givenSecretsVolumeName, givenJobRunConfig, false, pullStrategy, mockJobRunCreationStrategy);
+        when(mockImageIdResolver.findImageId(any(DockerDaemon.class), eq(imageName), eq(pullStrategy))).thenReturn(Optional.empty());
+        when(mockJobRunCreationStrategy.createJobRun(givenJobRunConfig)).thenReturn(new CreatedJobRun(givenJobId, Optional.empty()));
+        when(mockJobRunner.runContainer(givenJobId, maxTimeoutSeconds, maxKillTimeoutSeconds))
+                .thenReturn(givenJobRunOutcome);
+        when(mockOutcomeDeterminer.determineOutcome(givenJobRunOutcome)).thenReturn(JobRunConclusion.SUCCESS);
+
+        jobService.runCachedJob(imageName, input, givenPullStrategyName, null, REQUESTER);
+        JobRun jobRun = jobService.runCachedJob(imageName, input, givenPullStrategyName, null, REQUESTER);
+
+        assertThat(jobRun.isCached(), is(false));
+        verify(mockJobRunner, times(2)).runContainer(givenJobId, maxTimeoutSeconds, maxKillTimeoutSeconds);
+    }
+
+    @Example
+    @Label("Given an adaptive limit, " +
+            "and pulling the image takes longer than the target creation time, " +
+            "and creating the container doesn't, " +
+            "when the job is run, " +
+            "should leave the limit as it was.")
+    void slowPullDoesntCutLimit() throws Exception {
+        String imageName = "image";
+        JobConfig.AdaptiveLimitConfig adaptiveLimitConfig = new JobConfig.AdaptiveLimitConfig();
+        adaptiveLimitConfig.setEnabled(true);
+        adaptiveLimitConfig.setTargetCreationMillis(50L);
+        AdaptiveConcurrencyLimit adaptiveLimit =
+                new AdaptiveConcurrencyLimit(limitConfig, adaptiveLimitConfig, Collections.emptyMap());
+        long initialLimit = adaptiveLimit.getLimit();
+        DockerClient mockClient = mock(DockerClient.class);
+        ContainerCreation mockContainerCreation = mock(ContainerCreation.class);
+        when(mockClient.createContainer(any())).thenReturn(mockContainerCreation);
+        when(mockContainerCreation.id()).thenReturn("job");
+        DockerAdapter dockerAdapter = new DockerAdapter(mockClient);
+        doAnswer(invocation -> {
+            Thread.sleep(200);
+            return null;
+        }).when(mockImagePuller).pull(imageName, false);
+        mockCommonCallChain(imageName, null, imageName, new JobRunConfig(imageName, null, null), false,
+                PullStrategy.ALWAYS, new AlwaysPullStrategy(dockerAdapter, mockImagePuller, false));
+        JobRunOutcome outcome = new JobRunOutcome(0L, JobOutput.empty());
+        when(mockJobRunner.runContainer(
+                "job", limitConfig.getMaxTimeoutSeconds(), Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds())))
+                .thenReturn(outcome);
+        when(mockOutcomeDeterminer.determineOutcome(outcome)).thenReturn(JobRunConclusion.SUCCESS);
+        JobService adaptiveJobService = new JobService(
+                new RunJobLimiter(adaptiveLimit),
+                limitConfig,
+                mockSecretsStore,
+                new DockerDaemonPool(List.of(new DockerDaemon(
+                        "default",
+                        dockerAdapter,
+                        mock(LocalImageIndex.class),
+                        mockImagePuller,
+                        mockCreationStrategyDeterminer,
+                        mockJobRunner,
+                        1)), 3),
+                mockJobRunConfigCreator,
+                mockOutcomeDeterminer,
+                mockConfigUtil,
+                jobRunSubmissionStore,
+                Runnable::run,
+                new JobResultCache(Long.MAX_VALUE, Duration.ofHours(1)),
+                mockImageIdResolver,
+                new JobInputSpool(Path.of(System.getProperty("java.io.tmpdir")), MAX_INPUT_FILE_BYTES)
+        );
+
+        JobRun jobRun = adaptiveJobService.runJob(imageName, null, PullStrategy.ALWAYS.name(), REQUESTER);
+
+        assertThat(jobRun.getConclusion(), is(JobRunConclusion.SUCCESS));
+        assertThat(adaptiveLimit.getLimit(), is(initialLimit));
     }
 
     @Property
@@ -111,10 +381,34 @@ class JobServiceTest {
         mockCommonCallChain(imageName, input, givenSecretsVolumeName, givenJobRunConfig, isLimiting, pullStrategy, mockJobRunCreationStrategy);
         when(mockJobRunCreationStrategy.createJobRun(givenJobRunConfig)).thenThrow(givenJobRunException);
 
-        JobRun jobRun = jobService.runJob(imageName, input, givenPullStrategyName);
+        JobRun jobRun = jobService.runJob(imageName, input, givenPullStrategyName, REQUESTER);
+
+        assertThat(jobRun, is(new JobRun(JobRunConclusion.NOT_FOUND, JobOutput.empty(), -1)));
+        verify(mockRunJobLimiter, times(1)).markJobRunComplete(REQUESTER.withImage(imageName));
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and no docker daemon with a free slot, " +
+            "when the job is run, " +
+            "should reject the job, " +
+            "and mark the job run as completed in the limiter.")
+    void noDaemonAvailable(
+            @ForAll String imageName,
+            @ForAll String input,
+            @ForAll("pullStrategyNames") String givenPullStrategyName,
+            @ForAll String givenSecretsVolumeName,
+            @ForAll @UseType JobRunConfig givenJobRunConfig) throws SecretsStoreException {
+        PullStrategy pullStrategy = PullStrategy.valueOf(givenPullStrategyName.toUpperCase());
+        JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
+        mockCommonCallChain(imageName, input, givenSecretsVolumeName, givenJobRunConfig, false, pullStrategy, mockJobRunCreationStrategy);
+        dockerDaemonPool.place(imageName, false);
+
+        JobRun jobRun = jobService.runJob(imageName, input, givenPullStrategyName, REQUESTER);
 
-        assertThat(jobRun, is(new JobRun(JobRunConclusion.NOT_FOUND, "", -1)));
-        verify(mockRunJobLimiter, times(1)).markJobRunComplete();
+        assertThat(jobRun, is(new JobRun(JobRunConclusion.REJECTED, JobOutput.empty(), -1)));
+        verify(mockRunJobLimiter, times(1)).markJobRunComplete(REQUESTER.withImage(imageName));
+        verifyNoInteractions(mockJobRunCreationStrategy);
     }
 
     @Property
@@ -125,15 +419,426 @@ class JobServiceTest {
             @ForAll String imageName,
             @ForAll String input,
             @ForAll("pullStrategyNames") String pullStrategyNames) throws SecretsStoreException {
-        when(mockRunJobLimiter.isLimitingOrIncrement()).thenReturn(true);
+        when(mockRunJobLimiter.isLimitingOrIncrement(REQUESTER.withImage(imageName))).thenReturn(true);
+
+        JobRun jobRun = jobService.runJob(imageName, input, pullStrategyNames, REQUESTER);
+
+        assertThat(jobRun, is(new JobRun(JobRunConclusion.REJECTED, JobOutput.empty(), -1)));
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and an output sink, " +
+            "and the job concludes, " +
+            "when the job is run, " +
+            "should run the container with the sink, " +
+            "and return a job run with the run's conclusion and outcome.")
+    void jobRunStreamed(@ForAll String imageName,
+                        @ForAll String input,
+                        @ForAll("pullStrategyNames") String givenPullStrategyName,
+                        @ForAll String givenSecretsVolumeName,
+                        @ForAll @UseType JobRunConfig givenJobRunConfig,
+                        @ForAll String givenJobId,
+                        @ForAll @UseType JobRunOutcome givenJobRunOutcome,
+                        @ForAll JobRunConclusion givenJobRunConclusion) throws SecretsStoreException, CreateJobRunException, JobUpdateException {
+        boolean isLimiting = false;
+        long maxTimeoutSeconds = limitConfig.getMaxTimeoutSeconds();
+        int maxKillTimeoutSeconds = Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds());
+        PullStrategy pullStrategy = PullStrategy.valueOf(givenPullStrategyName.toUpperCase());
+        JobOutputSink mockOutputSink = mock(JobOutputSink.class);
+        JobRun expectedJobRun =
+                new JobRun(givenJobRunConclusion, givenJobRunOutcome.getOutput(), givenJobRunOutcome.getExitStatusCode());
+        JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
+        mockCommonCallChain(imageName, input, givenSecretsVolumeName, givenJobRunConfig, isLimiting, pullStrategy, mockJobRunCreationStrategy);
+        when(mockJobRunCreationStrategy.createJobRun(givenJobRunConfig)).thenReturn(new CreatedJobRun(givenJobId, Optional.empty()));
+        when(mockJobRunner.runContainer(givenJobId, maxTimeoutSeconds, maxKillTimeoutSeconds, mockOutputSink))
+                .thenReturn(givenJobRunOutcome);
+        when(mockOutcomeDeterminer.determineOutcome(givenJobRunOutcome)).thenReturn(givenJobRunConclusion);
+
+        JobRun jobRun = jobService.runJob(imageName, input, givenPullStrategyName, mockOutputSink, REQUESTER);
+
+        assertThat(jobRun, is(expectedJobRun));
+        verify(mockJobRunner, never()).runContainer(givenJobId, maxTimeoutSeconds, maxKillTimeoutSeconds);
+        verify(mockRunJobLimiter, times(1)).markJobRunComplete(REQUESTER.withImage(imageName));
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and the job concludes, " +
+            "when the job is submitted, " +
+            "should return a running submission without waiting for a turn in the limiter's queue, " +
+            "and the stored submission should be finished with the run's conclusion and outcome.")
+    void jobSubmissionSuccessful(@ForAll String imageName,
+                                 @ForAll String input,
+                                 @ForAll("pullStrategyNames") String givenPullStrategyName,
+                                 @ForAll String givenSecretsVolumeName,
+                                 @ForAll @UseType JobRunConfig givenJobRunConfig,
+                                 @ForAll String givenJobId,
+                                 @ForAll @UseType JobRunOutcome givenJobRunOutcome,
+                                 @ForAll JobRunConclusion givenJobRunConclusion) throws SecretsStoreException, CreateJobRunException, JobUpdateException {
+        boolean isLimiting = false;
+        long maxTimeoutSeconds = limitConfig.getMaxTimeoutSeconds();
+        int maxKillTimeoutSeconds = Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds());
+        PullStrategy pullStrategy = PullStrategy.valueOf(givenPullStrategyName.toUpperCase());
+        JobRun expectedJobRun =
+                new JobRun(givenJobRunConclusion, givenJobRunOutcome.getOutput(), givenJobRunOutcome.getExitStatusCode());
+        JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
+        mockCommonCallChain(imageName, input, givenSecretsVolumeName, givenJobRunConfig, isLimiting, pullStrategy, mockJobRunCreationStrategy);
+        when(mockJobRunCreationStrategy.createJobRun(givenJobRunConfig)).thenReturn(new CreatedJobRun(givenJobId, Optional.empty()));
+        when(mockJobRunner.runContainer(givenJobId, maxTimeoutSeconds, maxKillTimeoutSeconds))
+                .thenReturn(givenJobRunOutcome);
+        when(mockOutcomeDeterminer.determineOutcome(givenJobRunOutcome)).thenReturn(givenJobRunConclusion);
+
+        JobRunSubmission submission = jobService.submitJob(imageName, input, givenPullStrategyName, REQUESTER);
+
+        assertThat(submission.getStatus(), is(JobRunSubmissionStatus.RUNNING));
+        assertThat(jobService.findSubmission(submission.getId()),
+                is(Optional.of(new JobRunSubmission(submission.getId(), JobRunSubmissionStatus.FINISHED, expectedJobRun))));
+        verify(mockRunJobLimiter, never()).isLimitingOrIncrement(REQUESTER.withImage(imageName));
+        verify(mockRunJobLimiter, times(1)).markJobRunComplete(REQUESTER.withImage(imageName));
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and a batch of 1 - 5 jobs for the same image that always pull it, " +
+            "when the batch is run, " +
+            "should return each job's run, " +
+            "and pull the image once up front if more than one job would pull it, " +
+            "and then only pull it if it's absent.")
+    void batchPrePull(@ForAll String imageName,
+                      @ForAll String input,
+                      @ForAll @IntRange(min = 1, max = 5) int givenJobCount,
+                      @ForAll String givenSecretsVolumeName,
+                      @ForAll @UseType JobRunConfig givenJobRunConfig,
+                      @ForAll String givenJobId,
+                      @ForAll @UseType JobRunOutcome givenJobRunOutcome,
+                      @ForAll JobRunConclusion givenJobRunConclusion) throws SecretsStoreException, CreateJobRunException, JobUpdateException {
+        boolean prePulled = givenJobCount > 1;
+        PullStrategy pullStrategy = prePulled ? PullStrategy.ABSENT : PullStrategy.ALWAYS;
+        JobRun expectedJobRun =
+                new JobRun(givenJobRunConclusion, givenJobRunOutcome.getOutput(), givenJobRunOutcome.getExitStatusCode());
+        JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
+        mockCommonCallChain(imageName, input, givenSecretsVolumeName, givenJobRunConfig, false, pullStrategy, mockJobRunCreationStrategy);
+        when(mockJobRunCreationStrategy.createJobRun(givenJobRunConfig)).thenReturn(new CreatedJobRun(givenJobId, Optional.empty()));
+        when(mockJobRunner.runContainer(
+                givenJobId, limitConfig.getMaxTimeoutSeconds(), Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds())))
+                .thenReturn(givenJobRunOutcome);
+        when(mockOutcomeDeterminer.determineOutcome(givenJobRunOutcome)).thenReturn(givenJobRunConclusion);
+        List<BatchJob> jobs = Collections.nCopies(givenJobCount, new BatchJob(imageName, input, "always"));
+
+        List<JobRun> jobRuns = jobService.runBatch(jobs, REQUESTER).stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+        assertThat(jobRuns, is(Collections.nCopies(givenJobCount, expectedJobRun)));
+        verify(mockImagePuller, times(prePulled ? 1 : 0)).pull(imageName, false);
+        verify(mockCreationStrategyDeterminer, times(givenJobCount)).determineStrategy(pullStrategy);
+        verify(mockRunJobLimiter, times(givenJobCount)).markJobRunComplete(REQUESTER.withImage(imageName));
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and two daemons, " +
+            "and pulling the image fails on the first one, " +
+            "when a batch of jobs for the same image that always pull it is run, " +
+            "should still pull it up front on the second one, " +
+            "and leave each job to pull it itself.")
+    void batchPrePullFailsOnOneDaemon(@ForAll String imageName,
+                                      @ForAll String input,
+                                      @ForAll String givenSecretsVolumeName,
+                                      @ForAll @UseType JobRunConfig givenJobRunConfig,
+                                      @ForAll String givenJobId,
+                                      @ForAll @UseType JobRunOutcome givenJobRunOutcome) throws SecretsStoreException, CreateJobRunException, JobUpdateException {
+        ImagePuller failingImagePuller = mock(ImagePuller.class);
+        doThrow(new JobUpdateException(new Exception())).when(failingImagePuller).pull(imageName, false);
+        JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
+        mockCommonCallChain(imageName, input, givenSecretsVolumeName, givenJobRunConfig, false, PullStrategy.ALWAYS, mockJobRunCreationStrategy);
+        when(mockJobRunCreationStrategy.createJobRun(givenJobRunConfig)).thenReturn(new CreatedJobRun(givenJobId, Optional.empty()));
+        when(mockJobRunner.runContainer(
+                givenJobId, limitConfig.getMaxTimeoutSeconds(), Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds())))
+                .thenReturn(givenJobRunOutcome);
+        when(mockOutcomeDeterminer.determineOutcome(givenJobRunOutcome)).thenReturn(JobRunConclusion.SUCCESS);
+        JobService twoDaemonJobService = new JobService(
+                mockRunJobLimiter,
+                limitConfig,
+                mockSecretsStore,
+                new DockerDaemonPool(List.of(
+                        new DockerDaemon(
+                                "first",
+                                mock(DockerAdapter.class),
+                                mock(LocalImageIndex.class),
+                                failingImagePuller,
+                                mockCreationStrategyDeterminer,
+                                mockJobRunner,
+                                0),
+                        new DockerDaemon(
+                                "second",
+                                mock(DockerAdapter.class),
+                                mock(LocalImageIndex.class),
+                                mockImagePuller,
+                                mockCreationStrategyDeterminer,
+                                mockJobRunner,
+                                0)), 3),
+                mockJobRunConfigCreator,
+                mockOutcomeDeterminer,
+                mockConfigUtil,
+                jobRunSubmissionStore,
+                Runnable::run,
+                new JobResultCache(Long.MAX_VALUE, Duration.ofHours(1)),
+                mockImageIdResolver,
+                new JobInputSpool(Path.of(System.getProperty("java.io.tmpdir")), MAX_INPUT_FILE_BYTES)
+        );
+        List<BatchJob> jobs = Collections.nCopies(2, new BatchJob(imageName, input, "always"));
+
+        twoDaemonJobService.runBatch(jobs, REQUESTER).forEach(CompletableFuture::join);
+
+        verify(failingImagePuller, times(1)).pull(imageName, false);
+        verify(mockImagePuller, times(1)).pull(imageName, false);
+        verify(mockCreationStrategyDeterminer, times(2)).determineStrategy(PullStrategy.ALWAYS);
+        verify(mockCreationStrategyDeterminer, never()).determineStrategy(PullStrategy.ABSENT);
+    }
+
+    @Property
+    @Label("Given a limiter with a queue, " +
+            "and a batch job that has to wait in it, " +
+            "when the batch is run, " +
+            "should not hand the job over to be run while it waits, " +
+            "and run it once it's admitted.")
+    void batchWaitsWithoutRunning(@ForAll String imageName,
+                                  @ForAll String input,
+                                  @ForAll String givenSecretsVolumeName,
+                                  @ForAll @UseType JobRunConfig givenJobRunConfig,
+                                  @ForAll String givenJobId,
+                                  @ForAll @UseType JobRunOutcome givenJobRunOutcome,
+                                  @ForAll JobRunConclusion givenJobRunConclusion) throws SecretsStoreException, CreateJobRunException, JobUpdateException {
+        JobRun expectedJobRun =
+                new JobRun(givenJobRunConclusion, givenJobRunOutcome.getOutput(), givenJobRunOutcome.getExitStatusCode());
+        JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
+        mockCommonCallChain(imageName, input, givenSecretsVolumeName, givenJobRunConfig, false, PullStrategy.NEVER, mockJobRunCreationStrategy);
+        CompletableFuture<Boolean> admission = new CompletableFuture<>();
+        when(mockRunJobLimiter.isLimitingOrIncrementAsync(REQUESTER.withImage(imageName))).thenReturn(admission);
+        when(mockJobRunCreationStrategy.createJobRun(givenJobRunConfig)).thenReturn(new CreatedJobRun(givenJobId, Optional.empty()));
+        when(mockJobRunner.runContainer(
+                givenJobId, limitConfig.getMaxTimeoutSeconds(), Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds())))
+                .thenReturn(givenJobRunOutcome);
+        when(mockOutcomeDeterminer.determineOutcome(givenJobRunOutcome)).thenReturn(givenJobRunConclusion);
+
+        CompletableFuture<JobRun> jobRun =
+                jobService.runBatch(List.of(new BatchJob(imageName, input, "never")), REQUESTER).get(0);
+
+        assertThat(jobRun.isDone(), is(false));
+        assertThat(handedOverRuns.size(), is(0));
 
-        JobRun jobRun = jobService.runJob(imageName, input, pullStrategyNames);
+        admission.complete(false);
 
-        assertThat(jobRun, is(new JobRun(JobRunConclusion.REJECTED, "", -1)));
+        assertThat(jobRun.join(), is(expectedJobRun));
+        assertThat(handedOverRuns.size(), is(1));
+        verify(mockRunJobLimiter, never()).isLimitingOrIncrement(REQUESTER.withImage(imageName));
+        verify(mockRunJobLimiter, times(1)).markJobRunComplete(REQUESTER.withImage(imageName));
+    }
+
+    @Property
+    @Label("Given a limiter at the limit, " +
+            "when a batch is run, " +
+            "should reject its job without handing it over to be run.")
+    void batchRejected(@ForAll String imageName, @ForAll String input) {
+        when(mockRunJobLimiter.isLimitingOrIncrementAsync(REQUESTER.withImage(imageName)))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        JobRun jobRun = jobService.runBatch(List.of(new BatchJob(imageName, input, "never")), REQUESTER).get(0).join();
+
+        assertThat(jobRun, is(new JobRun(JobRunConclusion.REJECTED, JobOutput.empty(), -1)));
+        assertThat(handedOverRuns.size(), is(0));
+        verify(mockRunJobLimiter, never()).markJobRunComplete(REQUESTER.withImage(imageName));
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and input no larger than the max, " +
+            "when the job is run with its input in a file, " +
+            "should create the job without an argument, " +
+            "and run the container with the input spooled to a file, " +
+            "and delete that file once the run is over.")
+    void fileInputJobRun(@ForAll String imageName,
+                         @ForAll @Size(max = 1024) byte[] givenInput,
+                         @ForAll @UseType JobRunConfig givenJobRunConfig,
+                         @ForAll String givenJobId,
+                         @ForAll @UseType JobRunOutcome givenJobRunOutcome,
+                         @ForAll JobRunConclusion givenJobRunConclusion) throws Exception {
+        JobRun expectedJobRun =
+                new JobRun(givenJobRunConclusion, givenJobRunOutcome.getOutput(), givenJobRunOutcome.getExitStatusCode());
+        JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
+        mockCommonCallChain(imageName, null, "volume", givenJobRunConfig, false, PullStrategy.ALWAYS, mockJobRunCreationStrategy);
+        when(mockJobRunCreationStrategy.createJobRun(givenJobRunConfig)).thenReturn(new CreatedJobRun(givenJobId, Optional.empty()));
+        List<Path> inputDirectories = new ArrayList<>();
+        when(mockJobRunner.runContainer(
+                eq(givenJobId),
+                eq(limitConfig.getMaxTimeoutSeconds()),
+                eq(Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds())),
+                any(Path.class)))
+                .thenAnswer(invocation -> {
+                    Path inputDirectory = invocation.getArgument(3);
+                    inputDirectories.add(inputDirectory);
+                    assertThat(Files.readAllBytes(inputDirectory.resolve(JobInputSpool.CONTAINER_INPUT_PATH)),
+                            is(givenInput));
+                    return givenJobRunOutcome;
+                });
+        when(mockOutcomeDeterminer.determineOutcome(givenJobRunOutcome)).thenReturn(givenJobRunConclusion);
+
+        JobRun jobRun = jobService.runFileInputJob(
+                imageName, new ByteArrayInputStream(givenInput), "always", REQUESTER);
+
+        assertThat(jobRun, is(expectedJobRun));
+        assertThat(inputDirectories.size(), is(1));
+        assertThat(Files.exists(inputDirectories.get(0)), is(false));
+        verify(mockRunJobLimiter, times(1)).markJobRunComplete(REQUESTER.withImage(imageName));
+    }
+
+    @Property
+    @Label("Given input larger than the max, " +
+            "when the job is run with its input in a file, " +
+            "should throw an InputTooLargeException, " +
+            "and not count the run towards the limit.")
+    void fileInputJobTooLarge(@ForAll String imageName) {
+        byte[] givenInput = new byte[Math.toIntExact(MAX_INPUT_FILE_BYTES) + 1];
+
+        assertThrows(InputTooLargeException.class, () -> jobService.runFileInputJob(
+                imageName, new ByteArrayInputStream(givenInput), "always", REQUESTER));
+        verifyNoInteractions(mockRunJobLimiter);
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and a pipeline where a stage comes after the first, " +
+            "and a last stage comes after both of them, " +
+            "and every stage succeeds, " +
+            "when the pipeline is run, " +
+            "should run the first stage with the pipeline's input as its argument, " +
+            "and each later stage with the output of the stages it comes after in a file, " +
+            "joined in the order they're named, " +
+            "and return each stage's run.")
+    void pipelineFeedsOutput(@ForAll String input,
+                             @ForAll @StringLength(max = 128) String givenFirstOutput,
+                             @ForAll @StringLength(max = 128) String givenSecondOutput) throws SecretsStoreException, CreateJobRunException, JobUpdateException {
+        JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
+        Map<String, String> fedInputs = new HashMap<>();
+        JobRun firstRun = mockPipelineStage(
+                "first", input, givenFirstOutput, JobRunConclusion.SUCCESS, mockJobRunCreationStrategy, fedInputs);
+        JobRun secondRun = mockPipelineStage(
+                "second", null, givenSecondOutput, JobRunConclusion.SUCCESS, mockJobRunCreationStrategy, fedInputs);
+        JobRun lastRun = mockPipelineStage(
+                "last", null, "", JobRunConclusion.SUCCESS, mockJobRunCreationStrategy, fedInputs);
+        List<PipelineStage> stages = List.of(
+                new PipelineStage("first", "first", "always", List.of()),
+                new PipelineStage("second", "second", "always", List.of("first")),
+                new PipelineStage("last", "last", "always", List.of("second", "first")));
+
+        List<JobRun> jobRuns = jobService.runPipeline(input, stages, REQUESTER).stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+        assertThat(jobRuns, is(List.of(firstRun, secondRun, lastRun)));
+        assertThat(fedInputs, is(Map.of("second", givenFirstOutput, "last", givenSecondOutput + givenFirstOutput)));
+        verify(mockJobRunConfigCreator, times(1)).getContainerConfig("first", input, null);
+        verify(mockJobRunConfigCreator, times(1)).getContainerConfig("second", null, null);
+        verify(mockJobRunConfigCreator, times(1)).getContainerConfig("last", null, null);
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and a pipeline whose first stage succeeds with more output than a file input can take, " +
+            "when the pipeline is run, " +
+            "should return the first stage's run, " +
+            "and skip the stage after it without running it.")
+    void pipelineOutputTooLarge(@ForAll String input) throws SecretsStoreException, CreateJobRunException, JobUpdateException {
+        JobRun skippedRun = new JobRun(JobRunConclusion.SKIPPED, JobOutput.empty(), -1);
+        String givenOutput = "a".repeat(Math.toIntExact(MAX_INPUT_FILE_BYTES) + 1);
+        JobRun firstRun = mockPipelineStage(
+                "first", input, givenOutput, JobRunConclusion.SUCCESS, mock(JobRunCreationStrategy.class), Map.of());
+        List<PipelineStage> stages = List.of(
+                new PipelineStage("first", "first", "always", List.of()),
+                new PipelineStage("second", "second", "always", List.of("first")));
+
+        List<JobRun> jobRuns = jobService.runPipeline(input, stages, REQUESTER).stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+        assertThat(jobRuns, is(List.of(firstRun, skippedRun)));
+        verify(mockRunJobLimiter, never()).isLimitingOrIncrementAsync(REQUESTER.withImage("second"));
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and a pipeline whose first stage doesn't succeed, " +
+            "when the pipeline is run, " +
+            "should skip the stage after it, " +
+            "and skip a stage that doesn't come after any other since the pipeline has stopped, " +
+            "and not run either of them.")
+    void pipelineStopsOnFailure(@ForAll String input,
+                                @ForAll("unsuccessful") JobRunConclusion givenConclusion) throws SecretsStoreException, CreateJobRunException, JobUpdateException {
+        JobRun skippedRun = new JobRun(JobRunConclusion.SKIPPED, JobOutput.empty(), -1);
+        JobRun firstRun = mockPipelineStage(
+                "first", input, "", givenConclusion, mock(JobRunCreationStrategy.class), Map.of());
+        List<PipelineStage> stages = List.of(
+                new PipelineStage("first", "first", "always", List.of()),
+                new PipelineStage("second", "second", "always", List.of("first")),
+                new PipelineStage("other", "other", "always", List.of()));
+
+        List<JobRun> jobRuns = jobService.runPipeline(input, stages, REQUESTER).stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+        assertThat(jobRuns, is(List.of(firstRun, skippedRun, skippedRun)));
+        verify(mockRunJobLimiter, never()).isLimitingOrIncrementAsync(REQUESTER.withImage("second"));
+        verify(mockRunJobLimiter, never()).isLimitingOrIncrementAsync(REQUESTER.withImage("other"));
+    }
+
+    @Property
+    @Label("Given a limiter that's not at the limit, " +
+            "and finding the job's secrets throws an exception, " +
+            "when the job is submitted, " +
+            "should finish the submission with an unknown conclusion, " +
+            "and mark the job run as completed in the limiter.")
+    void jobSubmissionSecretsException(
+            @ForAll String imageName,
+            @ForAll String input,
+            @ForAll("pullStrategyNames") String givenPullStrategyName,
+            @ForAll String givenSecretsVolumeName) throws SecretsStoreException {
+        when(mockRunJobLimiter.isLimitingOrIncrementNow(REQUESTER.withImage(imageName))).thenReturn(false);
+        when(mockConfigUtil.translateToVolumeName(imageName)).thenReturn(givenSecretsVolumeName);
+        when(mockSecretsStore.findSecrets(givenSecretsVolumeName))
+                .thenThrow(new SecretsStoreException(new Exception()));
+
+        JobRunSubmission submission = jobService.submitJob(imageName, input, givenPullStrategyName, REQUESTER);
+
+        assertThat(jobService.findSubmission(submission.getId()),
+                is(Optional.of(new JobRunSubmission(
+                        submission.getId(), JobRunSubmissionStatus.FINISHED, new JobRun(null, JobOutput.empty(), -1)))));
+        verify(mockRunJobLimiter, times(1)).markJobRunComplete(REQUESTER.withImage(imageName));
+    }
+
+    @Property
+    @Label("Given a limiter at the limit, " +
+            "when the job is submitted, " +
+            "should return a finished, rejected submission, " +
+            "and not store it.")
+    void rejectedJobSubmission(
+            @ForAll String imageName,
+            @ForAll String input,
+            @ForAll("pullStrategyNames") String pullStrategyNames) {
+        when(mockRunJobLimiter.isLimitingOrIncrementNow(REQUESTER.withImage(imageName))).thenReturn(true);
+
+        JobRunSubmission submission = jobService.submitJob(imageName, input, pullStrategyNames, REQUESTER);
+
+        assertThat(submission, is(new JobRunSubmission(
+                null, JobRunSubmissionStatus.FINISHED, new JobRun(JobRunConclusion.REJECTED, JobOutput.empty(), -1))));
+        verify(mockRunJobLimiter, never()).markJobRunComplete(REQUESTER.withImage(imageName));
     }
 
     private void mockCommonCallChain(@ForAll String imageName, @ForAll String input, @ForAll String givenSecretsVolumeName, @UseType @ForAll JobRunConfig givenJobRunConfig, boolean isLimiting, PullStrategy pullStrategy, JobRunCreationStrategy mockJobRunCreationStrategy) throws SecretsStoreException {
-        when(mockRunJobLimiter.isLimitingOrIncrement()).thenReturn(isLimiting);
+        when(mockRunJobLimiter.isLimitingOrIncrement(REQUESTER.withImage(imageName))).thenReturn(isLimiting);
+        when(mockRunJobLimiter.isLimitingOrIncrementAsync(REQUESTER.withImage(imageName)))
+                .thenReturn(CompletableFuture.completedFuture(isLimiting));
         when(mockConfigUtil.translateToVolumeName(imageName)).thenReturn(givenSecretsVolumeName);
         when(mockSecretsStore.findSecrets(givenSecretsVolumeName)).thenReturn(Optional.empty());
         when(mockCreationStrategyDeterminer.determineStrategy(pullStrategy))
@@ -142,6 +847,70 @@ class JobServiceTest {
                 .thenReturn(givenJobRunConfig);
     }
 
+    private DockerDaemon daemonWithImage(
+            String name,
+            String imageName,
+            String imageId,
+            JobRunConfig jobRunConfig,
+            JobRunOutcome outcome) throws Exception {
+        DockerAdapter mockAdapter = mock(DockerAdapter.class);
+        when(mockAdapter.findImageId(imageName)).thenReturn(imageId);
+        JobRunCreationStrategy mockJobRunCreationStrategy = mock(JobRunCreationStrategy.class);
+        when(mockJobRunCreationStrategy.createJobRun(jobRunConfig)).thenReturn(new CreatedJobRun("job", Optional.empty()));
+        JobRunCreationStrategyDeterminer mockDeterminer = mock(JobRunCreationStrategyDeterminer.class);
+        when(mockDeterminer.determineStrategy(PullStrategy.NEVER)).thenReturn(mockJobRunCreationStrategy);
+        JobRunner mockRunner = mock(JobRunner.class);
+        when(mockRunner.runContainer(
+                "job", limitConfig.getMaxTimeoutSeconds(), Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds())))
+                .thenReturn(outcome);
+        return new DockerDaemon(
+                name, mockAdapter, mock(LocalImageIndex.class), mock(ImagePuller.class), mockDeterminer, mockRunner, 1);
+    }
+
+    // A null input means the stage is fed by others, and the input it's given in a file is put in fedInputs.
+    private JobRun mockPipelineStage(
+            String imageName,
+            String input,
+            String output,
+            JobRunConclusion conclusion,
+            JobRunCreationStrategy mockJobRunCreationStrategy,
+            Map<String, String> fedInputs)
+            throws SecretsStoreException, CreateJobRunException, JobUpdateException {
+        JobRunConfig jobRunConfig = new JobRunConfig(imageName, input, null);
+        JobRunOutcome outcome = new JobRunOutcome(0L, JobOutput.of(output.getBytes(StandardCharsets.UTF_8)));
+        mockCommonCallChain(imageName, input, imageName, jobRunConfig, false, PullStrategy.ALWAYS, mockJobRunCreationStrategy);
+        when(mockJobRunCreationStrategy.createJobRun(jobRunConfig)).thenReturn(new CreatedJobRun(imageName, Optional.empty()));
+        if (input == null) {
+            when(mockJobRunner.runContainer(
+                    eq(imageName),
+                    eq(limitConfig.getMaxTimeoutSeconds()),
+                    eq(Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds())),
+                    any(Path.class)))
+                    .thenAnswer(invocation -> {
+                        Path inputDirectory = invocation.getArgument(3);
+                        fedInputs.put(imageName, Files.readString(
+                                inputDirectory.resolve(JobInputSpool.CONTAINER_INPUT_PATH), StandardCharsets.UTF_8));
+                        return outcome;
+                    });
+        } else {
+            when(mockJobRunner.runContainer(
+                    imageName, limitConfig.getMaxTimeoutSeconds(), Math.toIntExact(limitConfig.getMaxKillTimeoutSeconds())))
+                    .thenReturn(outcome);
+        }
+        when(mockOutcomeDeterminer.determineOutcome(outcome)).thenReturn(conclusion);
+        return new JobRun(conclusion, outcome.getOutput(), 0);
+    }
+
+    @Provide
+    Arbitrary<JobRunConclusion> unsuccessful() {
+        return Arbitraries.of(JobRunConclusion.class).filter(conclusion -> conclusion != JobRunConclusion.SUCCESS);
+    }
+
+    @Provide
+    Arbitrary<JobRunConclusion> concludedOnItsOwn() {
+        return Arbitraries.of(JobRunConclusion.SUCCESS, JobRunConclusion.FAILURE);
+    }
+
     @Provide
     Arbitrary<JobRunException> createOrUpdateJobRunException() {
         return Arbitraries.of(
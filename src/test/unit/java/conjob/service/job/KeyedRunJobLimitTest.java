@@ -0,0 +1,169 @@
+package conjob.service.job;
+
+import conjob.config.JobConfig;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.AlphaChars;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.StringLength;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class KeyedRunJobLimitTest {
+    @Property
+    @Label("Given a per user concurrency limit of 1 - 20, " +
+            "when a user starts more runs than that, " +
+            "then the runs over the limit should be refused, " +
+            "and other users should still be allowed to run.")
+    void concurrencyPerKey(
+            @ForAll @IntRange(min = 1, max = 20) int givenMaxConcurrentRuns,
+            @ForAll @AlphaChars @StringLength(min = 1, max = 10) String givenUser) {
+        KeyedRunJobLimit limit = perUser(new JobConfig.KeyLimitConfig(0L, (long) givenMaxConcurrentRuns));
+        RunJobRequester requester = new RunJobRequester(null, null, givenUser);
+
+        for (int i = 0; i < givenMaxConcurrentRuns; i++) {
+            assertThat(limit.tryAcquire(requester), is(true));
+        }
+        boolean overLimit = limit.tryAcquire(requester);
+        boolean otherUser = limit.tryAcquire(requester.withUser(givenUser + "-other"));
+
+        assertThat(overLimit, is(false));
+        assertThat(otherUser, is(true));
+    }
+
+    @Property
+    @Label("Given a per user concurrency limit, " +
+            "and a user at the limit, " +
+            "when one of their runs completes or is released, " +
+            "then they should be allowed another run.")
+    void completionFreesRun(
+            @ForAll @IntRange(min = 1, max = 20) int givenMaxConcurrentRuns,
+            @ForAll boolean released) {
+        KeyedRunJobLimit limit = perUser(new JobConfig.KeyLimitConfig(0L, (long) givenMaxConcurrentRuns));
+        RunJobRequester requester = new RunJobRequester(null, null, "user");
+        for (int i = 0; i < givenMaxConcurrentRuns; i++) {
+            limit.tryAcquire(requester);
+        }
+
+        if (released) {
+            limit.release(requester);
+        } else {
+            limit.onJobComplete(requester);
+        }
+
+        assertThat(limit.tryAcquire(requester), is(true));
+    }
+
+    @Property
+    @Label("Given a per image rate limit of 1 - 100 runs per second, " +
+            "when an image uses up its rate, " +
+            "then it should be refused until a second passes, " +
+            "and other images should still be allowed to run.")
+    void ratePerKey(@ForAll @IntRange(min = 1, max = 100) int givenMaxRequestsPerSecond) {
+        ControllableClock clock = new ControllableClock(0);
+        JobConfig.KeyedLimitConfig keyedLimitConfig = new JobConfig.KeyedLimitConfig();
+        keyedLimitConfig.setImage(new JobConfig.KeyLimitConfig((long) givenMaxRequestsPerSecond, 0L));
+        KeyedRunJobLimit limit = KeyedRunJobLimit.perImage(keyedLimitConfig, clock);
+        RunJobRequester requester = new RunJobRequester(null, "image", null);
+
+        for (int i = 0; i < givenMaxRequestsPerSecond; i++) {
+            assertThat(limit.tryAcquire(requester), is(true));
+            limit.onJobComplete(requester);
+        }
+        boolean overRate = limit.tryAcquire(requester);
+        boolean otherImage = limit.tryAcquire(requester.withImage("other-image"));
+        clock.increment(TimeUnit.SECONDS.toNanos(1));
+        boolean secondLater = limit.tryAcquire(requester);
+
+        assertThat(overRate, is(false));
+        assertThat(otherImage, is(true));
+        assertThat(secondLater, is(true));
+    }
+
+    @Property
+    @Label("Given no per key limits, " +
+            "or a run without a key, " +
+            "when trying to run, " +
+            "then it should always be allowed, " +
+            "and no counts should be kept for it.")
+    void notLimited(@ForAll @IntRange(min = 1, max = 100) int givenRuns, @ForAll boolean givenLimited) {
+        long limitValue = givenLimited ? 1L : 0L;
+        KeyedRunJobLimit limit = perUser(new JobConfig.KeyLimitConfig(limitValue, limitValue));
+        RunJobRequester requester = new RunJobRequester(null, null, givenLimited ? null : "user");
+
+        for (int i = 0; i < givenRuns; i++) {
+            assertThat(limit.tryAcquire(requester), is(true));
+        }
+        assertThat(limit.getKeyCount(), is(0));
+    }
+
+    @Test
+    @DisplayName("Given keys that have been idle longer than the idle time, " +
+            "and a key that's still running, " +
+            "when evicting, " +
+            "then only the idle keys should be dropped, " +
+            "and the running key's count should be kept.")
+    void evictIdle() {
+        ControllableClock clock = new ControllableClock(0);
+        KeyedRunJobLimit limit = new KeyedRunJobLimit(
+                new JobConfig.KeyLimitConfig(10L, 1L), RunJobRequester::getUser, clock);
+        RunJobRequester idle = new RunJobRequester(null, null, "idle");
+        RunJobRequester running = new RunJobRequester(null, null, "running");
+        limit.tryAcquire(idle);
+        limit.onJobComplete(idle);
+        limit.tryAcquire(running);
+
+        clock.increment(TimeUnit.SECONDS.toNanos(10));
+        limit.evictIdleLongerThan(Duration.ofSeconds(5));
+
+        assertThat(limit.getKeyCount(), is(1));
+        assertThat(limit.tryAcquire(running), is(false));
+        assertThat(limit.tryAcquire(idle), is(true));
+    }
+
+    @Test
+    @DisplayName("Given a key that finished recently, " +
+            "when evicting keys idle longer than that, " +
+            "then it should be kept.")
+    void recentlyUsedNotEvicted() {
+        ControllableClock clock = new ControllableClock(0);
+        KeyedRunJobLimit limit = new KeyedRunJobLimit(
+                new JobConfig.KeyLimitConfig(10L, 1L), RunJobRequester::getUser, clock);
+        RunJobRequester requester = new RunJobRequester(null, null, "user");
+        limit.tryAcquire(requester);
+        clock.increment(TimeUnit.SECONDS.toNanos(10));
+        limit.onJobComplete(requester);
+
+        limit.evictIdleLongerThan(Duration.ofSeconds(5));
+
+        assertThat(limit.getKeyCount(), is(1));
+    }
+
+    @Test
+    @DisplayName("Given image prefixes, " +
+            "when finding an image's key, " +
+            "then it should be the longest prefix it starts with, " +
+            "or else the image without its tag or digest.")
+    void imageKey() {
+        List<String> prefixes = List.of("acme/", "acme/batch-");
+
+        assertThat(KeyedRunJobLimit.imageKeyOf("acme/web:1.0", prefixes), is("acme/"));
+        assertThat(KeyedRunJobLimit.imageKeyOf("acme/batch-report", prefixes), is("acme/batch-"));
+        assertThat(KeyedRunJobLimit.imageKeyOf("library/alpine:3.12", prefixes), is("library/alpine"));
+        assertThat(KeyedRunJobLimit.imageKeyOf("registry:5000/tool", prefixes), is("registry:5000/tool"));
+        assertThat(KeyedRunJobLimit.imageKeyOf("registry:5000/tool:latest", prefixes), is("registry:5000/tool"));
+        assertThat(KeyedRunJobLimit.imageKeyOf("alpine@sha256:abc", prefixes), is("alpine"));
+    }
+
+    private static KeyedRunJobLimit perUser(JobConfig.KeyLimitConfig keyLimitConfig) {
+        JobConfig.KeyedLimitConfig keyedLimitConfig = new JobConfig.KeyedLimitConfig();
+        keyedLimitConfig.setUser(keyLimitConfig);
+        return KeyedRunJobLimit.perUser(keyedLimitConfig, new ControllableClock(0));
+    }
+}
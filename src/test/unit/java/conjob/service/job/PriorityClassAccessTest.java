@@ -0,0 +1,57 @@
+package conjob.service.job;
+
+import conjob.config.JobConfig;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class PriorityClassAccessTest {
+    private static final String RESERVED_CLASS = "reserved";
+    private static final String LISTED_USER = "listed";
+    private static final PriorityClassAccess ACCESS = new PriorityClassAccess(new JobConfig.PriorityConfig(List.of(
+            new JobConfig.PriorityClassConfig(RESERVED_CLASS, 4L, 2L, List.of(LISTED_USER)),
+            new JobConfig.PriorityClassConfig(RunJobLimiter.DEFAULT_PRIORITY_CLASS, 1L, 1L, List.of()))));
+
+    @Property
+    @Label("Given a configured class, " +
+            "when a user it doesn't list, or nobody, names it, " +
+            "should not allow it.")
+    void configuredClassOtherUser(@ForAll String givenUser, @ForAll boolean givenLoggedIn) {
+        String user = givenLoggedIn ? LISTED_USER + givenUser + "x" : null;
+
+        assertThat(ACCESS.allows(user, RESERVED_CLASS), is(false));
+    }
+
+    @Example
+    @Label("Given a configured class, " +
+            "when a user it lists names it, " +
+            "should allow it.")
+    void configuredClassListedUser() {
+        assertThat(ACCESS.allows(LISTED_USER, RESERVED_CLASS), is(true));
+    }
+
+    @Example
+    @Label("Given a configured class, " +
+            "when the user it's named after names it, " +
+            "should allow it.")
+    void configuredClassOwnUser() {
+        assertThat(ACCESS.allows(RESERVED_CLASS, RESERVED_CLASS), is(true));
+    }
+
+    @Property
+    @Label("Given a class that isn't configured, or the default one, " +
+            "when anyone names it, " +
+            "should allow it.")
+    void unconfiguredOrDefaultClass(@ForAll String givenUser, @ForAll String givenClass, @ForAll boolean givenDefault) {
+        String priorityClass = givenDefault ? RunJobLimiter.DEFAULT_PRIORITY_CLASS : RESERVED_CLASS + givenClass + "x";
+
+        assertThat(ACCESS.allows(givenUser, priorityClass), is(true));
+        assertThat(ACCESS.allows(null, priorityClass), is(true));
+    }
+}
@@ -2,28 +2,42 @@ package conjob.service.job;
 
 import conjob.service.job.RunJobLimitMeter;
 import conjob.service.job.RunJobLimiter;
+import conjob.config.JobConfig;
 import net.jqwik.api.*;
 import net.jqwik.api.arbitraries.ArrayArbitrary;
+import net.jqwik.api.constraints.IntRange;
 import net.jqwik.api.constraints.NotEmpty;
+import org.mockito.Mockito;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class RunJobLimiterTest {
+    private static final RunJobRequester REQUESTER = new RunJobRequester(RunJobLimiter.DEFAULT_PRIORITY_CLASS);
 
     @Property
     @Label("Given a list of meters that are all at the limit, " +
             "and it's not empty, " +
             "when we check if we are limiting, " +
             "then it should return true, " +
-            "and none of the runs should be counted.")
+            "and no meter should have anything to give back.")
     void allMetersAtLimit(@ForAll("allAtLimitMeters") @NotEmpty RunJobLimitMeter[] mockRunJobLimitMeters) {
-        assertThat(new RunJobLimiter(mockRunJobLimitMeters).isLimitingOrIncrement(), is(true));
+        assertThat(new RunJobLimiter(mockRunJobLimitMeters).isLimitingOrIncrement(REQUESTER), is(true));
         Arrays.stream(mockRunJobLimitMeters).forEach(runJobLimitMeter ->
-                verify(runJobLimitMeter, times(0)).countRun());
+                verify(runJobLimitMeter, never()).release(any()));
     }
 
     @Property
@@ -31,11 +45,14 @@ class RunJobLimiterTest {
             "and none are at the limit, " +
             "when we check if we are limiting, " +
             "then it should return false, " +
-            "and all of the runs should be counted.")
+            "and all of the meters should have counted the run once, " +
+            "and kept it.")
     void noMetersAtLimit(@ForAll("noneAtLimitMeters") RunJobLimitMeter[] mockRunJobLimitMeters) {
-        assertThat(new RunJobLimiter(mockRunJobLimitMeters).isLimitingOrIncrement(), is(false));
-        Arrays.stream(mockRunJobLimitMeters).forEach(runJobLimitMeter ->
-                verify(runJobLimitMeter, times(1)).countRun());
+        assertThat(new RunJobLimiter(mockRunJobLimitMeters).isLimitingOrIncrement(REQUESTER), is(false));
+        Arrays.stream(mockRunJobLimitMeters).forEach(runJobLimitMeter -> {
+            verify(runJobLimitMeter, times(1)).tryAcquire(any());
+            verify(runJobLimitMeter, never()).release(any());
+        });
     }
 
     @Property
@@ -43,11 +60,25 @@ class RunJobLimiterTest {
             "and 1 or more is at the limit, " +
             "when we check if we are limiting, " +
             "then it should return true, " +
-            "and at most 1 run should be counted.")
+            "and the meters before the first one at the limit should give the run back, " +
+            "and the meters after it should never be asked.")
     void oneOrMoreMetersAtLimit(@ForAll("oneOrMoreAtLimitMeters") @NotEmpty RunJobLimitMeter[] mockRunJobLimitMeters) {
-        assertThat(new RunJobLimiter(mockRunJobLimitMeters).isLimitingOrIncrement(), is(true));
-        Arrays.stream(mockRunJobLimitMeters).forEach(runJobLimitMeter ->
-                verify(runJobLimitMeter, atMost(1)).countRun());
+        int firstAtLimit = 0;
+        while (mockRunJobLimitMeters[firstAtLimit].tryAcquire(REQUESTER)) {
+            firstAtLimit++;
+        }
+        Arrays.stream(mockRunJobLimitMeters).forEach(Mockito::clearInvocations);
+
+        assertThat(new RunJobLimiter(mockRunJobLimitMeters).isLimitingOrIncrement(REQUESTER), is(true));
+        for (int i = 0; i < mockRunJobLimitMeters.length; i++) {
+            if (i < firstAtLimit) {
+                verify(mockRunJobLimitMeters[i], atLeastOnce()).release(any());
+            } else if (i == firstAtLimit) {
+                verify(mockRunJobLimitMeters[i], never()).release(any());
+            } else {
+                verify(mockRunJobLimitMeters[i], never()).tryAcquire(any());
+            }
+        }
     }
 
     @Property
@@ -55,17 +86,277 @@ class RunJobLimiterTest {
             "when the job run is marked as complete, " +
             "then it should run job completion logic for all meters.")
     void markAllJobRunsComplete(@ForAll("limitMeters") @NotEmpty RunJobLimitMeter[] mockRunJobLimitMeters) {
-        new RunJobLimiter(mockRunJobLimitMeters).markJobRunComplete();
+        new RunJobLimiter(mockRunJobLimitMeters).markJobRunComplete(REQUESTER);
 
         Arrays.stream(mockRunJobLimitMeters).forEach(runJobLimitMeter ->
-                verify(runJobLimitMeter, times(1)).onJobComplete());
+                verify(runJobLimitMeter, times(1)).onJobComplete(any()));
+    }
+
+    @Property(tries = 3)
+    @Label("Given a limiter with a queue, " +
+            "and a run that's limited, " +
+            "when a running job completes while it waits, " +
+            "then it should be allowed to run, " +
+            "and no longer be queued.")
+    void queuedRunAdmitted() throws Exception {
+        RunJobLimiter runJobLimiter = new RunJobLimiter(1, Duration.ofSeconds(10), singleRunMeter());
+        runJobLimiter.isLimitingOrIncrement(REQUESTER);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Future<Boolean> queuedRun = executor.submit(() -> runJobLimiter.isLimitingOrIncrement(REQUESTER));
+            awaitQueueDepth(runJobLimiter, 1);
+
+            runJobLimiter.markJobRunComplete(REQUESTER);
+
+            assertThat(queuedRun.get(5, TimeUnit.SECONDS), is(false));
+            assertThat(runJobLimiter.getQueueDepth(), is(0));
+            assertThat(runJobLimiter.getQueueWait().getCount(), is(1L));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Property(tries = 3)
+    @Label("Given a limiter with a queue, " +
+            "and a run that's limited, " +
+            "when checking without waiting, " +
+            "then it should return true at once, " +
+            "and nothing should be queued.")
+    void limitedNowDoesntWait() {
+        RunJobLimiter runJobLimiter = new RunJobLimiter(1, Duration.ofSeconds(10), singleRunMeter());
+        runJobLimiter.isLimitingOrIncrement(REQUESTER);
+        long start = System.nanoTime();
+
+        boolean limited = runJobLimiter.isLimitingOrIncrementNow(REQUESTER);
+
+        assertThat(limited, is(true));
+        assertThat(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), is(true));
+        assertThat(runJobLimiter.getQueueDepth(), is(0));
+    }
+
+    @Property(tries = 3)
+    @Label("Given a limiter with a queue, " +
+            "and a run that's waiting in it, " +
+            "when a running job completes, " +
+            "and another run is checked without waiting, " +
+            "then the waiting run should be allowed to run, " +
+            "and the one checked without waiting should be limited.")
+    void limitedNowWhileQueued() throws Exception {
+        RunJobLimiter runJobLimiter = new RunJobLimiter(1, Duration.ofSeconds(10), singleRunMeter());
+        runJobLimiter.isLimitingOrIncrement(REQUESTER);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Future<Boolean> queuedRun = executor.submit(() -> runJobLimiter.isLimitingOrIncrement(REQUESTER));
+            awaitQueueDepth(runJobLimiter, 1);
+
+            runJobLimiter.markJobRunComplete(REQUESTER);
+            boolean limited = runJobLimiter.isLimitingOrIncrementNow(REQUESTER);
+
+            assertThat(queuedRun.get(5, TimeUnit.SECONDS), is(false));
+            assertThat(limited, is(true));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Property(tries = 3)
+    @Label("Given a limiter with a queue, " +
+            "and runs that are waiting in it, " +
+            "when running jobs complete one at a time, " +
+            "then the waiting runs should be allowed to run in the order they arrived.")
+    void queuedRunsInOrder(@ForAll @IntRange(min = 2, max = 4) int givenQueuedRuns) throws Exception {
+        RunJobLimiter runJobLimiter =
+                new RunJobLimiter(givenQueuedRuns, Duration.ofSeconds(10), singleRunMeter());
+        runJobLimiter.isLimitingOrIncrement(REQUESTER);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            List<Future<Boolean>> queuedRuns = new ArrayList<>();
+            for (int i = 0; i < givenQueuedRuns; i++) {
+                queuedRuns.add(executor.submit(() -> runJobLimiter.isLimitingOrIncrement(REQUESTER)));
+                awaitQueueDepth(runJobLimiter, i + 1);
+            }
+
+            for (int i = 0; i < givenQueuedRuns; i++) {
+                runJobLimiter.markJobRunComplete(REQUESTER);
+
+                assertThat(queuedRuns.get(i).get(5, TimeUnit.SECONDS), is(false));
+                for (int j = i + 1; j < givenQueuedRuns; j++) {
+                    assertThat(queuedRuns.get(j).isDone(), is(false));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Property(tries = 3)
+    @Label("Given a limiter with a queue, " +
+            "and the queue is full, " +
+            "when another run is limited, " +
+            "then it should be limited without waiting.")
+    void queueFull(@ForAll @IntRange(min = 1, max = 3) int givenMaxQueued) throws Exception {
+        RunJobLimiter runJobLimiter =
+                new RunJobLimiter(givenMaxQueued, Duration.ofSeconds(10), singleRunMeter());
+        runJobLimiter.isLimitingOrIncrement(REQUESTER);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            for (int i = 0; i < givenMaxQueued; i++) {
+                executor.submit(() -> runJobLimiter.isLimitingOrIncrement(REQUESTER));
+                awaitQueueDepth(runJobLimiter, i + 1);
+            }
+
+            assertThat(runJobLimiter.isLimitingOrIncrement(REQUESTER), is(true));
+            assertThat(runJobLimiter.getQueueDepth(), is(givenMaxQueued));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Property(tries = 3)
+    @Label("Given a limiter with a queue, " +
+            "and a run that's limited, " +
+            "when its wait runs out, " +
+            "then it should be limited, " +
+            "and no longer be queued, " +
+            "and its wait should be recorded.")
+    void queueWaitExpires() {
+        RunJobLimiter runJobLimiter = new RunJobLimiter(1, Duration.ofMillis(20), singleRunMeter());
+        runJobLimiter.isLimitingOrIncrement(REQUESTER);
+
+        assertThat(runJobLimiter.isLimitingOrIncrement(REQUESTER), is(true));
+        assertThat(runJobLimiter.getQueueDepth(), is(0));
+        assertThat(runJobLimiter.getQueueWait().getCount(), is(1L));
+    }
+
+    @Property(tries = 3)
+    @Label("Given a limiter with a queue, " +
+            "and a run that's limited, " +
+            "when it's checked without holding a thread, " +
+            "then it should be queued until a running job completes, " +
+            "and then be allowed to run, " +
+            "and its wait should be recorded.")
+    void queuedRunAdmittedAsync() throws Exception {
+        RunJobLimiter runJobLimiter = new RunJobLimiter(1, Duration.ofSeconds(10), singleRunMeter());
+        runJobLimiter.isLimitingOrIncrement(REQUESTER);
+
+        CompletableFuture<Boolean> queuedRun = runJobLimiter.isLimitingOrIncrementAsync(REQUESTER);
+
+        assertThat(queuedRun.isDone(), is(false));
+        assertThat(runJobLimiter.getQueueDepth(), is(1));
+
+        runJobLimiter.markJobRunComplete(REQUESTER);
+
+        assertThat(queuedRun.get(5, TimeUnit.SECONDS), is(false));
+        assertThat(runJobLimiter.getQueueDepth(), is(0));
+        assertThat(runJobLimiter.getQueueWait().getCount(), is(1L));
+    }
+
+    @Property(tries = 3)
+    @Label("Given a limiter with a queue, " +
+            "and a run that's limited, " +
+            "when it's checked without holding a thread, " +
+            "and its wait runs out, " +
+            "then it should be limited, " +
+            "and no longer be queued, " +
+            "and its wait should be recorded.")
+    void queueWaitExpiresAsync() throws Exception {
+        RunJobLimiter runJobLimiter = new RunJobLimiter(1, Duration.ofMillis(20), singleRunMeter());
+        runJobLimiter.isLimitingOrIncrement(REQUESTER);
+
+        CompletableFuture<Boolean> queuedRun = runJobLimiter.isLimitingOrIncrementAsync(REQUESTER);
+
+        assertThat(queuedRun.get(5, TimeUnit.SECONDS), is(true));
+        assertThat(runJobLimiter.getQueueDepth(), is(0));
+        assertThat(runJobLimiter.getQueueWait().getCount(), is(1L));
+    }
+
+    @Property(tries = 3)
+    @Label("Given a limiter without a queue, " +
+            "and a run that's limited, " +
+            "when it's checked without holding a thread, " +
+            "then it should be limited at once.")
+    void limitedAsyncWithoutQueue() {
+        RunJobLimiter runJobLimiter = new RunJobLimiter(singleRunMeter());
+        runJobLimiter.isLimitingOrIncrement(REQUESTER);
+
+        CompletableFuture<Boolean> run = runJobLimiter.isLimitingOrIncrementAsync(REQUESTER);
+
+        assertThat(run.getNow(false), is(true));
+        assertThat(runJobLimiter.getQueueDepth(), is(0));
+    }
+
+    @Property(tries = 3)
+    @Label("Given a limiter with priority classes, " +
+            "and runs from two classes waiting in it, " +
+            "when running jobs complete one at a time, " +
+            "then each class should get turns in proportion to its weight.")
+    void queuedRunsWeighted() throws Exception {
+        RunJobRequester heavy = new RunJobRequester("heavy");
+        RunJobRequester light = new RunJobRequester("light");
+        RunJobLimiter runJobLimiter = new RunJobLimiter(
+                4, Duration.ofSeconds(10), Map.of("heavy", 3L, "light", 1L), singleRunMeter());
+        runJobLimiter.isLimitingOrIncrement(REQUESTER);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            List<Future<Boolean>> lightRuns = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                lightRuns.add(executor.submit(() -> runJobLimiter.isLimitingOrIncrement(light)));
+                awaitQueueDepth(runJobLimiter, i + 1);
+            }
+            List<Future<Boolean>> heavyRuns = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                heavyRuns.add(executor.submit(() -> runJobLimiter.isLimitingOrIncrement(heavy)));
+                awaitQueueDepth(runJobLimiter, i + 5);
+            }
+
+            RunJobRequester running = REQUESTER;
+            for (int i = 0; i < 4; i++) {
+                int heavyQueueDepth = runJobLimiter.getQueueDepth("heavy");
+                runJobLimiter.markJobRunComplete(running);
+                awaitQueueDepth(runJobLimiter, 7 - i, 7 - i);
+                running = runJobLimiter.getQueueDepth("heavy") < heavyQueueDepth ? heavy : light;
+            }
+
+            assertThat(runJobLimiter.getQueueDepth("heavy"), is(1));
+            assertThat(runJobLimiter.getQueueDepth("light"), is(3));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Property(tries = 3)
+    @Label("Given a limiter with priority classes, " +
+            "and runs from one class waiting for room only that class is out of, " +
+            "when a run from a class that has room comes in, " +
+            "then it should run without waiting behind them.")
+    void queuedRunsDontBlockOtherClasses() throws Exception {
+        RunJobRequester bulk = new RunJobRequester("bulk");
+        RunJobRequester interactive = new RunJobRequester("interactive");
+        JobConfig.LimitConfig limitConfig = new JobConfig.LimitConfig();
+        limitConfig.setMaxConcurrentRuns(2L);
+        RunJobLimiter runJobLimiter = new RunJobLimiter(
+                1,
+                Duration.ofSeconds(10),
+                Map.of("bulk", 1L, "interactive", 1L),
+                new ConcurrentJobCountLimiter(limitConfig, Map.of("interactive", 1L)));
+        runJobLimiter.isLimitingOrIncrement(bulk);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Future<Boolean> queuedBulkRun = executor.submit(() -> runJobLimiter.isLimitingOrIncrement(bulk));
+            awaitQueueDepth(runJobLimiter, 1);
+
+            assertThat(runJobLimiter.isLimitingOrIncrement(interactive), is(false));
+            assertThat(queuedBulkRun.isDone(), is(false));
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     @Provide
     ArrayArbitrary<RunJobLimitMeter, RunJobLimitMeter[]> allAtLimitMeters() {
         return Arbitraries.ofSuppliers(() -> {
             RunJobLimitMeter mockRunJobLimitMeter = mock(RunJobLimitMeter.class);
-            when(mockRunJobLimitMeter.isAtLimit()).thenReturn(true);
+            when(mockRunJobLimitMeter.tryAcquire(any())).thenReturn(false);
             return mockRunJobLimitMeter;
         })
                 .array(RunJobLimitMeter[].class);
@@ -75,7 +366,7 @@ class RunJobLimiterTest {
     ArrayArbitrary<RunJobLimitMeter, RunJobLimitMeter[]> noneAtLimitMeters() {
         return Arbitraries.ofSuppliers(() -> {
             RunJobLimitMeter mockRunJobLimitMeter = mock(RunJobLimitMeter.class);
-            when(mockRunJobLimitMeter.isAtLimit()).thenReturn(false);
+            when(mockRunJobLimitMeter.tryAcquire(any())).thenReturn(true);
             return mockRunJobLimitMeter;
         })
                 .array(RunJobLimitMeter[].class);
@@ -84,17 +375,38 @@ class RunJobLimiterTest {
     @Provide
     Arbitrary<RunJobLimitMeter[]> oneOrMoreAtLimitMeters() {
         Arbitrary<Boolean> bool = Arbitraries.defaultFor(Boolean.class);
-        return bool.map(b -> {
-            RunJobLimitMeter mockRunJobLimitMeter = mock(RunJobLimitMeter.class);
-            when(mockRunJobLimitMeter.isAtLimit()).thenReturn(b);
-            return mockRunJobLimitMeter;
-        })
-                .collect(mocks -> mocks.stream().anyMatch(RunJobLimitMeter::isAtLimit))
-                .map(meters -> meters.toArray(new RunJobLimitMeter[0]));
+        return bool.list()
+                .filter(atLimits -> atLimits.contains(true))
+                .map(atLimits -> atLimits.stream()
+                        .map(atLimit -> {
+                            RunJobLimitMeter mockRunJobLimitMeter = mock(RunJobLimitMeter.class);
+                            when(mockRunJobLimitMeter.tryAcquire(any())).thenReturn(!atLimit);
+                            return mockRunJobLimitMeter;
+                        })
+                        .toArray(RunJobLimitMeter[]::new));
     }
 
     @Provide
     ArrayArbitrary<RunJobLimitMeter, RunJobLimitMeter[]> limitMeters() {
         return Arbitraries.ofSuppliers(() -> mock(RunJobLimitMeter.class)).array(RunJobLimitMeter[].class);
     }
-}
\ No newline at end of file
+
+    private RunJobLimitMeter singleRunMeter() {
+        JobConfig.LimitConfig limitConfig = new JobConfig.LimitConfig();
+        limitConfig.setMaxConcurrentRuns(1L);
+        return new ConcurrentJobCountLimiter(limitConfig);
+    }
+
+    private void awaitQueueDepth(RunJobLimiter runJobLimiter, int queueDepth) throws InterruptedException {
+        awaitQueueDepth(runJobLimiter, queueDepth, Integer.MAX_VALUE);
+    }
+
+    private void awaitQueueDepth(RunJobLimiter runJobLimiter, int minQueueDepth, int maxQueueDepth)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((runJobLimiter.getQueueDepth() < minQueueDepth || runJobLimiter.getQueueDepth() > maxQueueDepth)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
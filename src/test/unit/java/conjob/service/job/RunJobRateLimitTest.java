@@ -4,6 +4,7 @@ import conjob.config.JobConfig;
 import lombok.Value;
 import net.jqwik.api.*;
 import net.jqwik.api.arbitraries.LongArbitrary;
+import net.jqwik.api.constraints.LongRange;
 import net.jqwik.api.stateful.Action;
 import net.jqwik.api.stateful.ActionSequence;
 import net.jqwik.api.stateful.ActionSequenceArbitrary;
@@ -16,6 +17,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 
 class RunJobRateLimitTest {
+    private static final RunJobRequester REQUESTER = new RunJobRequester(RunJobLimiter.DEFAULT_PRIORITY_CLASS);
 
     @Property
     @Label("Given job count limiter, " +
@@ -23,7 +25,7 @@ class RunJobRateLimitTest {
             "when checking if it's at the limit, " +
             "then it should always be false.")
     void noLimit(@ForAll("noLimit") RunJobRateLimit jobCountLimiter) {
-        assertThat(jobCountLimiter.isAtLimit(), is(false));
+        assertThat(jobCountLimiter.tryAcquire(REQUESTER), is(true));
     }
 
     @Test
@@ -36,9 +38,52 @@ class RunJobRateLimitTest {
         JobConfig.LimitConfig noRunsAllowedConfig =
                 new JobConfig.LimitConfig(0L, max, max, max);
 
-        boolean atLimit = new RunJobRateLimit(noRunsAllowedConfig).isAtLimit();
+        boolean acquired = new RunJobRateLimit(noRunsAllowedConfig).tryAcquire(REQUESTER);
 
-        assertThat(atLimit, is(true));
+        assertThat(acquired, is(false));
+    }
+
+    @Property
+    @Label("Given a rate limit of 1 - 100 runs per second, " +
+            "and a burst of 1 - 100 runs, " +
+            "when runs start all at once, " +
+            "then only the burst should be allowed, " +
+            "and one more should be allowed once a run's interval passes.")
+    void burst(
+            @ForAll @LongRange(min = 1, max = 100) long givenMaxRequestsPerSecond,
+            @ForAll @LongRange(min = 1, max = 100) long givenBurst) {
+        Long max = Long.MAX_VALUE;
+        ControllableClock clock = new ControllableClock(0);
+        RunJobRateLimit limiter = new RunJobRateLimit(
+                new JobConfig.LimitConfig(givenMaxRequestsPerSecond, max, max, max, givenBurst), clock);
+
+        for (int i = 0; i < givenBurst; i++) {
+            assertThat(limiter.tryAcquire(REQUESTER), is(true));
+        }
+        boolean overBurst = limiter.tryAcquire(REQUESTER);
+        clock.increment(TimeUnit.SECONDS.toNanos(1) / givenMaxRequestsPerSecond);
+        boolean afterInterval = limiter.tryAcquire(REQUESTER);
+        boolean afterIntervalAgain = limiter.tryAcquire(REQUESTER);
+
+        assertThat(overBurst, is(false));
+        assertThat(afterInterval, is(true));
+        assertThat(afterIntervalAgain, is(false));
+    }
+
+    @Property
+    @Label("Given a rate limit of 1 - 100 runs per second, " +
+            "and it has been used up, " +
+            "when a run is released, " +
+            "then another run should be allowed right away.")
+    void releaseRefunds(@ForAll("reasonablyLowLimiterWithClock") LimiterWithClock lwc) {
+        RunJobRateLimit limiter = lwc.getLimiter();
+        for (int i = 0; i < limiter.getLimitConfig().getMaxGlobalRequestsPerSecond(); i++) {
+            limiter.tryAcquire(REQUESTER);
+        }
+
+        limiter.release(REQUESTER);
+
+        assertThat(limiter.tryAcquire(REQUESTER), is(true));
     }
 
     @Property
@@ -46,15 +91,11 @@ class RunJobRateLimitTest {
             "and a max runs per second of 1 - 100, " +
             "when they are all run, " +
             "and a second passes between each action, " +
-            "then they should be successful, " +
-            "and it should never be at the limit when a second passes since the last run.")
+            "then they should be successful.")
     void validActions(
             @ForAll("actions") ActionSequence<LimiterWithClock> actions,
             @ForAll("reasonablyLowLimiterWithClock") LimiterWithClock limiter) {
-        actions
-                .withInvariant(l ->
-                        assertThat(l.getLimiter().isAtLimit(), is(false)))
-                .run(limiter);
+        actions.run(limiter);
     }
 
     @Provide
@@ -91,11 +132,11 @@ class RunJobRateLimitTest {
             ControllableClock clock = lwc.getClock();
             Long maxRequestsPerSecond = limiter.getLimitConfig().getMaxGlobalRequestsPerSecond();
             for (int i = 0; i < maxRequestsPerSecond - 1; i++) {
-                limiter.countRun();
+                limiter.tryAcquire(REQUESTER);
             }
-            boolean atLimit = limiter.isAtLimit();
-            assertThat(atLimit, is(false));
-            limiter.onJobComplete();
+            boolean acquired = limiter.tryAcquire(REQUESTER);
+            assertThat(acquired, is(true));
+            limiter.onJobComplete(REQUESTER);
             clock.increment(TimeUnit.SECONDS.toNanos(1) + 1);
             return lwc;
         }
@@ -108,11 +149,11 @@ class RunJobRateLimitTest {
             ControllableClock clock = lwc.getClock();
             Long maxRequestsPerSecond = limiter.getLimitConfig().getMaxGlobalRequestsPerSecond();
             for (int i = 0; i < maxRequestsPerSecond; i++) {
-                limiter.countRun();
+                assertThat(limiter.tryAcquire(REQUESTER), is(true));
             }
-            boolean atLimit = limiter.isAtLimit();
-            assertThat(atLimit, is(true));
-            limiter.onJobComplete();
+            boolean acquired = limiter.tryAcquire(REQUESTER);
+            assertThat(acquired, is(false));
+            limiter.onJobComplete(REQUESTER);
             clock.increment(TimeUnit.SECONDS.toNanos(1) + 1);
             return lwc;
         }
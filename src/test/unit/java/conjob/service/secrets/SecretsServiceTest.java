@@ -3,6 +3,7 @@ package conjob.service.secrets;
 import conjob.core.job.config.ConfigUtil;
 import conjob.core.secrets.SecretsContainerCreator;
 import conjob.core.secrets.SecretsDockerAdapter;
+import conjob.core.secrets.SecretsVolumeIndex;
 import conjob.core.secrets.TempSecretsFileUtil;
 import conjob.core.secrets.model.SecretsConfig;
 import net.jqwik.api.*;
@@ -25,6 +26,7 @@ class SecretsServiceTest {
     private TempSecretsFileUtil mockSecretsFileUtil;
     private UniqueContainerNameGenerator mockNameGenerator;
     private ConfigUtil mockConfigUtil;
+    private SecretsVolumeIndex mockSecretsVolumeIndex;
 
     @BeforeTry
     void beforeEach() {
@@ -33,19 +35,22 @@ class SecretsServiceTest {
         mockSecretsFileUtil = mock(TempSecretsFileUtil.class, RETURNS_DEEP_STUBS);
         mockNameGenerator = mock(UniqueContainerNameGenerator.class);
         mockConfigUtil = mock(ConfigUtil.class);
+        mockSecretsVolumeIndex = mock(SecretsVolumeIndex.class);
         secretsService = new SecretsService(
                 mockSecretsAdapter,
                 mockSecretsContainerCreator,
                 mockSecretsFileUtil,
                 mockNameGenerator,
-                mockConfigUtil);
+                mockConfigUtil,
+                mockSecretsVolumeIndex);
     }
 
     @Property
     @Label("Given an image name, " +
             "and secrets, " +
             "when the secrets are associated with the image, " +
-            "should be successful.")
+            "should be successful, " +
+            "and record the secrets volume as existing.")
     void jobNotFound(
             @ForAll String imageName,
             @ForAll String secrets,
@@ -73,6 +78,7 @@ class SecretsServiceTest {
                 .copySecretsToVolume(givenSecretsDir, givenContainerId, CONTAINER_DESTINATION_PATH);
         verify(mockSecretsFileUtil, times(1)).delete(givenSecretsDir);
         verify(mockSecretsAdapter, times(1)).removeContainer(givenContainerId);
+        verify(mockSecretsVolumeIndex, times(1)).secretsWritten(givenSecretsVolumeName);
     }
 
     @Provide